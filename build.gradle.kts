@@ -49,16 +49,39 @@ tasks.withType<Test> {
     jvmArgs("-Xmx2g")
 }
 
+tasks.test {
+    useJUnitPlatform {
+        excludeTags("benchmark")
+    }
+}
+
+tasks.register<Test>("benchmark") {
+    description = "Runs the benchmarks tagged with @Tag(\"benchmark\")."
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    useJUnitPlatform {
+        includeTags("benchmark")
+    }
+    testLogging.showStandardStreams = true
+}
+
 dependencies {
     // Spring Boot Core
     implementation("org.springframework.boot:spring-boot-starter-web")
     implementation("org.springframework.boot:spring-boot-starter-data-mongodb")
+    implementation("org.springframework.boot:spring-boot-starter-data-mongodb-reactive")
     implementation("org.springframework.boot:spring-boot-starter-hateoas")
     implementation("org.springframework.boot:spring-boot-starter-validation")
     implementation("org.springframework.boot:spring-boot-starter-actuator")
 
+    // Caching
+    implementation("com.github.ben-manes.caffeine:caffeine")
+
     // Spring Cloud OpenFeign
     implementation("org.springframework.cloud:spring-cloud-starter-openfeign")
+    implementation("io.github.openfeign:feign-hc5")
+    implementation("io.github.openfeign:feign-java11")
 
     // Kafka
     implementation("org.springframework.kafka:spring-kafka")
@@ -84,9 +107,8 @@ dependencies {
     testImplementation("org.springframework.boot:spring-boot-starter-test")
     testImplementation("org.testcontainers:testcontainers")
     testImplementation("org.testcontainers:mongodb")
+    testImplementation("org.springframework.kafka:spring-kafka-test")
 
-    // Resilience4j - DISABLED due to compatibility issues
-    // Will be re-enabled with proper version alignment
-    // implementation("io.github.resilience4j:resilience4j-spring-boot2:1.7.1")
-    // implementation("io.github.resilience4j:resilience4j-feign:1.7.1")
+    // Resilience4j
+    implementation("io.github.resilience4j:resilience4j-spring-boot2:1.7.1")
 }
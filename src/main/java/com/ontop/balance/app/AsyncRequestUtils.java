@@ -0,0 +1,34 @@
+package com.ontop.balance.app;
+
+import java.util.function.Function;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Helpers for controllers that complete their response on a thread other than the servlet
+ * thread.
+ *
+ * <p>Link builders ({@code linkTo(methodOn(...))}) and {@code ServletUriComponentsBuilder} read
+ * the current request from {@link RequestContextHolder}, which is only bound on the servlet
+ * thread. Wrapping the response mapping captures the request attributes while still on that
+ * thread and rebinds them when the continuation runs.</p>
+ */
+public class AsyncRequestUtils {
+
+    public static <T, R> Function<T, R> withCurrentRequest(Function<T, R> function) {
+        RequestAttributes attributes = RequestContextHolder.currentRequestAttributes();
+        return value -> {
+            RequestAttributes previous = RequestContextHolder.getRequestAttributes();
+            RequestContextHolder.setRequestAttributes(attributes);
+            try {
+                return function.apply(value);
+            } finally {
+                if (previous == null) {
+                    RequestContextHolder.resetRequestAttributes();
+                } else {
+                    RequestContextHolder.setRequestAttributes(previous);
+                }
+            }
+        };
+    }
+}
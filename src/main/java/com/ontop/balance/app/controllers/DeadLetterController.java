@@ -0,0 +1,34 @@
+package com.ontop.balance.app.controllers;
+
+import com.ontop.balance.core.model.commands.ReplayDeadLettersCommand;
+import com.ontop.balance.core.model.exceptions.UnauthorizedException;
+import com.ontop.balance.core.ports.inbound.ReplayDeadLetters;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+@Validated
+public class DeadLetterController implements DeadLetterControllerDoc {
+
+    private final ReplayDeadLetters replayDeadLetters;
+
+    @Value("${core.dead-letter.replay.secret:}")
+    private String replaySecret;
+
+    @Override
+    public ResponseEntity<Void> replay(String adminToken, String stage, int limit) {
+        if (this.replaySecret.isBlank() || !MessageDigest.isEqual(
+                this.replaySecret.getBytes(StandardCharsets.UTF_8),
+                adminToken.getBytes(StandardCharsets.UTF_8))) {
+            throw new UnauthorizedException("Invalid admin token");
+        }
+        this.replayDeadLetters.handle(new ReplayDeadLettersCommand(stage, limit));
+        return ResponseEntity.accepted().build();
+    }
+}
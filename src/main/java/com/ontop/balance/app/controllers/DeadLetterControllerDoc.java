@@ -0,0 +1,29 @@
+package com.ontop.balance.app.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+@RequestMapping("/dead-letters")
+@Tag(name = "Dead Letters", description = "Saga messages that could not be processed")
+public interface DeadLetterControllerDoc {
+
+    @PostMapping("/{stage:wallet|payment|chargeback}/replay")
+    @Operation(summary = "Replay dead-lettered messages", description = """
+            Puts up to `limit` messages of the `wallet`, `payment` or `chargeback` dead-letter\040
+            topic back on the stage's topic, oldest first and at the configured replay rate.\040
+            The request must carry the operator secret in the `X-Admin-Token` header. The\040
+            replay runs in the background and the response status code will be\040
+            `202 Accepted`.""")
+    ResponseEntity<Void> replay(
+            @RequestHeader("X-Admin-Token") String adminToken,
+            @PathVariable("stage") String stage,
+            @RequestParam(value = "limit", defaultValue = "100") @Min(1) @Max(10_000) int limit);
+}
@@ -3,6 +3,7 @@ package com.ontop.balance.app.controllers;
 import com.ontop.balance.app.models.ErrorResponse;
 import com.ontop.balance.app.models.ErrorResponse.SubErrorResponse;
 import com.ontop.balance.core.model.exceptions.InsufficientBalanceException;
+import com.ontop.balance.core.model.exceptions.InvalidCursorException;
 import com.ontop.balance.core.model.exceptions.InvalidTokenException;
 import com.ontop.balance.core.model.exceptions.RecipientNotFoundException;
 import com.ontop.balance.core.model.exceptions.TransactionNotFoundException;
@@ -80,6 +81,15 @@ public class GenericControllerAdvice {
                         "The specified Recipient Id could not be found")));
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleInvalidCursorException(InvalidCursorException exception) {
+        log.warn("Invalid cursor: {}", exception.getMessage());
+        return new ErrorResponse("Invalid cursor", Collections.singletonList(
+                new ErrorResponse.SubErrorResponse("after",
+                        "The specified cursor was not issued by a previous search")));
+    }
+
     @ExceptionHandler(MissingRequestHeaderException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleMissingRequestHeaderException(
@@ -0,0 +1,37 @@
+package com.ontop.balance.app.controllers;
+
+import static com.ontop.balance.app.mappers.ApplicationMapper.toConfirmPaymentCommand;
+
+import com.ontop.balance.app.models.PaymentConfirmationRequest;
+import com.ontop.balance.core.model.exceptions.UnauthorizedException;
+import com.ontop.balance.core.ports.inbound.ConfirmPayment;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+@Validated
+public class PaymentConfirmationController implements PaymentConfirmationControllerDoc {
+
+    private final ConfirmPayment confirmPayment;
+
+    @Value("${core.payment.callback.secret:}")
+    private String callbackSecret;
+
+    @Override
+    public ResponseEntity<Void> confirmPayment(String callbackToken,
+            PaymentConfirmationRequest request) {
+        if (this.callbackSecret.isBlank() || !MessageDigest.isEqual(
+                this.callbackSecret.getBytes(StandardCharsets.UTF_8),
+                callbackToken.getBytes(StandardCharsets.UTF_8))) {
+            throw new UnauthorizedException("Invalid payment callback token");
+        }
+        this.confirmPayment.handle(toConfirmPaymentCommand(request));
+        return ResponseEntity.accepted().build();
+    }
+}
@@ -0,0 +1,27 @@
+package com.ontop.balance.app.controllers;
+
+import com.ontop.balance.app.models.PaymentConfirmationRequest;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import javax.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+@RequestMapping("/payments")
+@Tag(name = "Payment Confirmations", description = "Callbacks from the payment provider")
+public interface PaymentConfirmationControllerDoc {
+
+    @PostMapping("/confirmations")
+    @Operation(summary = "Confirm the outcome of a payment", description = """
+            Records the status the payment provider reports for a payment it accepted, keyed by\040
+            `paymentInfo.id`. The first completed or failed status settles the transfer, and a\040
+            failed payment is charged back; repeated callbacks are ignored. The callback must\040
+            carry the shared secret in the `X-Callback-Token` header. If it is accepted, the\040
+            response status code will be `202 Accepted`.""")
+    ResponseEntity<Void> confirmPayment(
+            @RequestHeader("X-Callback-Token") String callbackToken,
+            @RequestBody @Valid PaymentConfirmationRequest request);
+}
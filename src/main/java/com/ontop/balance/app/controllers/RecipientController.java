@@ -1,26 +1,37 @@
 package com.ontop.balance.app.controllers;
 
+import static com.ontop.balance.app.mappers.ApplicationMapper.toCreateRecipientCommand;
 import static com.ontop.balance.app.mappers.ApplicationMapper.toRecipientResponse;
+import static com.ontop.balance.app.mappers.ApplicationMapper.toRecipientSearchResponse;
 
+import com.ontop.balance.app.AsyncRequestUtils;
 import com.ontop.balance.app.LocationUtils;
+import com.ontop.balance.app.importers.RecipientImporter;
 import com.ontop.balance.app.models.CreateRecipientAccountRequest;
 import com.ontop.balance.app.models.RecipientItemWrapper;
 import com.ontop.balance.app.models.RecipientResponse;
 import com.ontop.balance.app.models.RecipientResponse.RecipientResponseItem;
 import com.ontop.balance.app.models.RecipientResponseWrapper;
+import com.ontop.balance.app.models.RecipientSearchResponseWrapper;
+import com.ontop.balance.core.model.CursorWrapper;
 import com.ontop.balance.core.model.RecipientData;
-import com.ontop.balance.core.model.commands.CreateRecipientCommand;
 import com.ontop.balance.core.model.queries.ObtainRecipientByClientQuery;
 import com.ontop.balance.core.model.queries.ObtainRecipientByIdQuery;
+import com.ontop.balance.core.model.queries.SearchRecipientsQuery;
 import com.ontop.balance.core.ports.inbound.CreateRecipient;
 import com.ontop.balance.core.ports.inbound.ObtainRecipientByClient;
 import com.ontop.balance.core.ports.inbound.ObtainRecipientById;
+import com.ontop.balance.core.ports.inbound.SearchRecipients;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
 @RestController
 @RequiredArgsConstructor
@@ -30,35 +41,55 @@ public class RecipientController implements RecipientControllerDoc {
     private final CreateRecipient createRecipient;
     private final ObtainRecipientByClient obtainRecipientByClient;
     private final ObtainRecipientById obtainRecipientById;
+    private final SearchRecipients searchRecipients;
+    private final RecipientImporter recipientImporter;
 
     @Override
     public ResponseEntity<Void> createRecipient(Long clientId,
             CreateRecipientAccountRequest request) {
-        String key = this.createRecipient.handler(
-                new CreateRecipientCommand(clientId, request.name() + " " + request.surname(),
-                        request.routingNumber(), request.identificationNumber(),
-                        request.accountNumber()));
+        String key = this.createRecipient.handler(toCreateRecipientCommand(clientId, request));
         HttpHeaders headers = LocationUtils.getHttpHeadersWithLocation(key);
         return new ResponseEntity<>(headers, HttpStatus.CREATED);
     }
 
     @Override
-    public ResponseEntity<RecipientResponseWrapper> obtainRecipients(Long clientId, int page,
-            int size) {
-        RecipientResponse recipientResponse = toRecipientResponse(obtainRecipientByClient.handler(
-                new ObtainRecipientByClientQuery(clientId, page, size)));
-        RecipientResponseWrapper recipientResponseWrapper = new RecipientResponseWrapper(
-                recipientResponse);
-        return ResponseEntity.ok(recipientResponseWrapper);
+    public ResponseEntity<ResponseBodyEmitter> importRecipients(Long clientId,
+            String contentType, InputStream body) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON)
+                .body(this.recipientImporter.start(clientId, contentType, body));
     }
 
     @Override
-    public ResponseEntity<RecipientItemWrapper> obtainRecipientById(Long clientId, String id) {
-        RecipientData handler = this.obtainRecipientById.handler(
-                new ObtainRecipientByIdQuery(id, clientId));
-        RecipientItemWrapper recipientItemWrapper = new RecipientItemWrapper(
-                new RecipientResponseItem(handler.id(), handler.name(), handler.routingNumber(),
-                        handler.accountNumber()));
-        return ResponseEntity.ok(recipientItemWrapper);
+    public CompletableFuture<ResponseEntity<RecipientResponseWrapper>> obtainRecipients(
+            Long clientId, int page, int size) {
+        return obtainRecipientByClient.handlerAsync(
+                        new ObtainRecipientByClientQuery(clientId, page, size))
+                .thenApply(AsyncRequestUtils.withCurrentRequest(recipients -> {
+                    RecipientResponse recipientResponse = toRecipientResponse(recipients);
+                    RecipientResponseWrapper recipientResponseWrapper = new RecipientResponseWrapper(
+                            recipientResponse);
+                    return ResponseEntity.ok(recipientResponseWrapper);
+                }));
+    }
+
+    @Override
+    public ResponseEntity<RecipientSearchResponseWrapper> searchRecipients(Long clientId,
+            String q, String after, int size) {
+        CursorWrapper<RecipientData> recipients = this.searchRecipients.handler(
+                new SearchRecipientsQuery(clientId, q, after, size));
+        return ResponseEntity.ok(new RecipientSearchResponseWrapper(
+                toRecipientSearchResponse(recipients), q, after, size));
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<RecipientItemWrapper>> obtainRecipientById(
+            Long clientId, String id) {
+        return this.obtainRecipientById.handlerAsync(new ObtainRecipientByIdQuery(id, clientId))
+                .thenApply(AsyncRequestUtils.withCurrentRequest(handler -> {
+                    RecipientItemWrapper recipientItemWrapper = new RecipientItemWrapper(
+                            new RecipientResponseItem(handler.id(), handler.name(),
+                                    handler.routingNumber(), handler.accountNumber()));
+                    return ResponseEntity.ok(recipientItemWrapper);
+                }));
     }
 }
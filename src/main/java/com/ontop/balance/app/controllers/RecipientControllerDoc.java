@@ -3,15 +3,19 @@ package com.ontop.balance.app.controllers;
 import com.ontop.balance.app.models.CreateRecipientAccountRequest;
 import com.ontop.balance.app.models.RecipientItemWrapper;
 import com.ontop.balance.app.models.RecipientResponseWrapper;
+import com.ontop.balance.app.models.RecipientSearchResponseWrapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.SecuritySchemeType;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.security.SecurityScheme;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
 import javax.validation.Valid;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.Size;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -21,6 +25,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
 @RequestMapping("/recipients")
 @SecurityScheme(name = HttpHeaders.AUTHORIZATION, type = SecuritySchemeType.HTTP, scheme = "bearer", bearerFormat = "JWT")
@@ -34,12 +39,30 @@ public interface RecipientControllerDoc {
             The request body should include a JSON object with the recipient account\040
             information, including the account name, account type, and initial balance. The\040
             server will generate a unique account ID for the new account, which will be\040
-            returned in the response headers under the `Location` key. If the operation is\040
-            successful, the response status code will be `201 Created`.""")
+            returned in the response headers under the `Location` key. If the client already\040
+            has a recipient with the same routing and account number, the `Location` points to\040
+            that recipient instead of creating a new one. If the operation is successful, the\040
+            response status code will be `201 Created`.""")
     ResponseEntity<Void> createRecipient(
             @Parameter(hidden = true) @RequestHeader("X-Client-Id") Long clientId,
             @RequestBody @Valid CreateRecipientAccountRequest request);
 
+    @PostMapping(value = "/import", consumes = {"text/csv",
+            "application/x-ndjson"}, produces = "application/x-ndjson")
+    @SecurityRequirement(name = HttpHeaders.AUTHORIZATION)
+    @Operation(summary = "Import recipient accounts in bulk", description = """
+            Creates recipient accounts from a CSV file (with a header row naming the columns\040
+            `name`, `surname`, `routingNumber`, `identificationNumber`, `accountNumber` and\040
+            `bankName`) or from newline-delimited JSON objects shaped like the create request.\040
+            The upload is processed as it arrives, in batches, and the response streams one\040
+            JSON line per input line with its `status` (`CREATED`, `DUPLICATE` or `FAILED`),\040
+            the ID of the stored or already existing recipient and the reasons a line was\040
+            rejected. A failing line does not stop the rest of the import.""")
+    ResponseEntity<ResponseBodyEmitter> importRecipients(
+            @Parameter(hidden = true) @RequestHeader("X-Client-Id") Long clientId,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @Parameter(hidden = true) InputStream body);
+
     @GetMapping
     @SecurityRequirement(name = HttpHeaders.AUTHORIZATION)
     @Operation(summary = "Obtain a paginated list of recipient accounts", description = """
@@ -50,11 +73,26 @@ public interface RecipientControllerDoc {
             `size=20` will be used. The response body will include a list of recipient\040
             accounts, along with links to the previous and next pages (if available),\040
             as well as metadata about the total number of items and pages.""")
-    ResponseEntity<RecipientResponseWrapper> obtainRecipients(
+    CompletableFuture<ResponseEntity<RecipientResponseWrapper>> obtainRecipients(
             @Parameter(hidden = true) @RequestHeader("X-Client-Id") Long clientId,
             @RequestParam(defaultValue = "0") @Min(0) int page,
             @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size);
 
+    @GetMapping(params = "q")
+    @SecurityRequirement(name = HttpHeaders.AUTHORIZATION)
+    @Operation(summary = "Search recipient accounts by name prefix", description = """
+            Returns the recipient accounts whose name starts with the `q` parameter, ordered\040
+            by name. Case, accents and repeated spaces are ignored. The `size` parameter\040
+            specifies the number of items per page (20 by default). When more results are\040
+            available, the response includes a `next` cursor and link; pass the cursor as the\040
+            `after` parameter to obtain the following page. An unknown cursor results in a\040
+            `400 Bad Request`.""")
+    ResponseEntity<RecipientSearchResponseWrapper> searchRecipients(
+            @Parameter(hidden = true) @RequestHeader("X-Client-Id") Long clientId,
+            @RequestParam("q") @Size(max = 100) String q,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size);
+
     @GetMapping("/{id}")
     @SecurityRequirement(name = HttpHeaders.AUTHORIZATION)
     @Operation(summary = "Get a recipient account by ID", description = """
@@ -64,7 +102,7 @@ public interface RecipientControllerDoc {
             recipient account information, including the account ID, account name, account\040
             type, and account balance. If the account is not found, the response status\040
             code will be `404 Not Found`.""")
-    ResponseEntity<RecipientItemWrapper> obtainRecipientById(
+    CompletableFuture<ResponseEntity<RecipientItemWrapper>> obtainRecipientById(
             @Parameter(hidden = true) @RequestHeader("X-Client-Id") Long clientId,
             @PathVariable("id") String id);
 }
@@ -1,5 +1,6 @@
 package com.ontop.balance.app.controllers;
 
+import com.ontop.balance.app.AsyncRequestUtils;
 import com.ontop.balance.app.LocationUtils;
 import com.ontop.balance.app.models.MetadataResponse;
 import com.ontop.balance.app.models.PaginationResponse;
@@ -23,6 +24,7 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
@@ -43,30 +45,35 @@ public class TransferMoneyController implements TransferMoneyControllerDoc {
     private final ObtainTransactionByClient obtainTransactionByClient;
 
     @Override
-    public ResponseEntity<Void> createTransfer(Long clientId, TransferMoneyRequest request) {
-        String transaction = this.transferMoney.handler(
-                new TransferMoneyCommand(request.recipientId(), clientId, request.amount()));
-
-        HttpHeaders headers = LocationUtils.getHttpHeadersWithLocation(transaction);
-        return new ResponseEntity<>(headers, HttpStatus.CREATED);
+    public CompletableFuture<ResponseEntity<Void>> createTransfer(Long clientId,
+            TransferMoneyRequest request) {
+        return this.transferMoney.handlerAsync(
+                        new TransferMoneyCommand(request.recipientId(), clientId, request.amount()))
+                .thenApply(AsyncRequestUtils.withCurrentRequest(transaction -> {
+                    HttpHeaders headers = LocationUtils.getHttpHeadersWithLocation(transaction);
+                    return new ResponseEntity<>(headers, HttpStatus.CREATED);
+                }));
     }
 
     @Override
-    public ResponseEntity<TransactionItemResponse> obtainTransactionsById(Long clientId,
-            String transaction) {
-        TransactionData handler = this.obtainTransactionsById.handler(
-                new ObtainTransactionByIdQuery(transaction, clientId));
-        return ResponseEntity.ok(toTransactionItemResponse(handler, true));
+    public CompletableFuture<ResponseEntity<TransactionItemResponse>> obtainTransactionsById(
+            Long clientId, String transaction) {
+        return this.obtainTransactionsById.handlerAsync(
+                        new ObtainTransactionByIdQuery(transaction, clientId))
+                .thenApply(handler -> ResponseEntity.ok(toTransactionItemResponse(handler, true)));
     }
 
     @Override
-    public ResponseEntity<TransactionResponseWrapper> obtainTransactionsByClient(Long clientId,
-            LocalDate dateToFilter, int page, int size) {
-        PaginatedWrapper<TransactionData> handler = this.obtainTransactionByClient.handler(
-                new ObtainTransactionClientQuery(clientId, dateToFilter, page, size));
-        TransactionResponse wrapper = toTransactionResponseWrapper(handler,
-                new MetadataResponse(Map.of("FilterDate", String.valueOf(dateToFilter))), true);
-        return ResponseEntity.ok(new TransactionResponseWrapper(wrapper));
+    public CompletableFuture<ResponseEntity<TransactionResponseWrapper>> obtainTransactionsByClient(
+            Long clientId, LocalDate dateToFilter, int page, int size) {
+        return this.obtainTransactionByClient.handlerAsync(
+                        new ObtainTransactionClientQuery(clientId, dateToFilter, page, size))
+                .thenApply(AsyncRequestUtils.withCurrentRequest(handler -> {
+                    TransactionResponse wrapper = toTransactionResponseWrapper(handler,
+                            new MetadataResponse(
+                                    Map.of("FilterDate", String.valueOf(dateToFilter))), true);
+                    return ResponseEntity.ok(new TransactionResponseWrapper(wrapper));
+                }));
     }
 
     private TransactionResponse toTransactionResponseWrapper(
@@ -10,6 +10,7 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.security.SecurityScheme;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
 import javax.validation.Valid;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
@@ -38,7 +39,7 @@ public interface TransferMoneyControllerDoc {
             server will generate a unique account ID for the new account, which will be\040
             returned in the response headers under the `Location` key. If the operation is\040
             successful, the response status code will be `200 OK`.""")
-    ResponseEntity<Void> createTransfer(
+    CompletableFuture<ResponseEntity<Void>> createTransfer(
             @Parameter(hidden = true) @RequestHeader("X-Client-Id") Long clientId,
             @RequestBody @Valid TransferMoneyRequest request);
 
@@ -48,7 +49,7 @@ public interface TransferMoneyControllerDoc {
             Retrieves a transaction by the specified ID. If the transaction exists,\040
             the response status code will be `200 OK`. If the transaction does not exist,\040
             the response status code will be `404 Not Found`.""")
-    ResponseEntity<TransactionItemResponse> obtainTransactionsById(
+    CompletableFuture<ResponseEntity<TransactionItemResponse>> obtainTransactionsById(
             @Parameter(hidden = true) @RequestHeader("X-Client-Id") Long clientId,
             @PathVariable("id") String transaction);
 
@@ -58,7 +59,7 @@ public interface TransferMoneyControllerDoc {
             Retrieves a list of transactions associated with the authenticated client. Optionally,\040
             you can filter by date using the `dateToFilter` parameter. The response includes\040
             pagination information as well as metadata about the request.""")
-    ResponseEntity<TransactionResponseWrapper> obtainTransactionsByClient(
+    CompletableFuture<ResponseEntity<TransactionResponseWrapper>> obtainTransactionsByClient(
             @Parameter(hidden = true) @RequestHeader("X-Client-Id") Long clientId,
             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate dateToFilter,
             @RequestParam(defaultValue = "0") @Min(0) int page,
@@ -0,0 +1,213 @@
+package com.ontop.balance.app.importers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ontop.balance.app.models.CreateRecipientAccountRequest;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.http.MediaType;
+
+/**
+ * Reads an uploaded recipient file one line at a time.
+ *
+ * <p>Only the current line is held in memory, and lines longer than {@link #MAX_LINE_LENGTH}
+ * are rejected without being buffered, so the memory used does not depend on the upload
+ * size.</p>
+ *
+ * <p>A quoted CSV field may hold line breaks: its row then runs on until the quote closes and is
+ * reported at the line it starts on. The row is held to the same length limit, and once past it
+ * ends at the next line break whatever its quotes, so a quote left open costs at most that much
+ * of the rows after it. A quote still open at the end of the upload fails its row.</p>
+ */
+public class RecipientImportReader {
+
+    static final int MAX_LINE_LENGTH = 4096;
+
+    private static final List<String> CSV_COLUMNS = List.of("name", "surname", "routingNumber",
+            "identificationNumber", "accountNumber", "bankName");
+
+    private final Format format;
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private Map<String, Integer> csvHeader;
+    private long lineNumber;
+
+    public RecipientImportReader(Format format, InputStream body, ObjectMapper objectMapper) {
+        this.format = format;
+        this.reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @return the next non-blank row, or {@code null} once the upload is exhausted
+     */
+    public ImportRow next() throws IOException {
+        Line line;
+        while ((line = readLine()) != null) {
+            if (line.truncated()) {
+                return ImportRow.failed(line.number(),
+                        "Line exceeds " + MAX_LINE_LENGTH + " characters");
+            }
+            if (line.unclosed()) {
+                return ImportRow.failed(line.number(), "Quoted field is not closed");
+            }
+            if (line.text().isBlank()) {
+                continue;
+            }
+            if (format == Format.NDJSON) {
+                return parseJson(line.number(), line.text());
+            }
+            if (csvHeader == null) {
+                String error = parseCsvHeader(line.text());
+                if (error != null) {
+                    return ImportRow.rejected(line.number(), error);
+                }
+                continue;
+            }
+            return parseCsv(line.number(), line.text());
+        }
+        return null;
+    }
+
+    private ImportRow parseJson(long number, String text) {
+        try {
+            return ImportRow.parsed(number,
+                    objectMapper.readValue(text, CreateRecipientAccountRequest.class));
+        } catch (JsonProcessingException e) {
+            return ImportRow.failed(number, "Line is not a valid JSON recipient");
+        }
+    }
+
+    private String parseCsvHeader(String text) {
+        List<String> columns = splitCsv(text);
+        Map<String, Integer> header = new HashMap<>();
+        for (int index = 0; index < columns.size(); index++) {
+            header.put(columns.get(index).trim(), index);
+        }
+        List<String> missing = CSV_COLUMNS.stream().filter(column -> !header.containsKey(column))
+                .toList();
+        if (!missing.isEmpty()) {
+            return "CSV header is missing columns: " + String.join(", ", missing);
+        }
+        csvHeader = header;
+        return null;
+    }
+
+    private ImportRow parseCsv(long number, String text) {
+        List<String> values = splitCsv(text);
+        if (values.size() < csvHeader.size()) {
+            return ImportRow.failed(number,
+                    "Expected " + csvHeader.size() + " columns but found " + values.size());
+        }
+        return ImportRow.parsed(number, new CreateRecipientAccountRequest(
+                column(values, "name"), column(values, "surname"),
+                column(values, "routingNumber"), column(values, "identificationNumber"),
+                column(values, "accountNumber"), column(values, "bankName")));
+    }
+
+    private String column(List<String> values, String name) {
+        return values.get(csvHeader.get(name)).trim();
+    }
+
+    private static List<String> splitCsv(String text) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int index = 0; index < text.length(); index++) {
+            char character = text.charAt(index);
+            if (quoted) {
+                if (character == '"' && index + 1 < text.length()
+                        && text.charAt(index + 1) == '"') {
+                    current.append('"');
+                    index++;
+                } else if (character == '"') {
+                    quoted = false;
+                } else {
+                    current.append(character);
+                }
+            } else if (character == '"') {
+                quoted = true;
+            } else if (character == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(character);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private Line readLine() throws IOException {
+        StringBuilder text = new StringBuilder();
+        boolean truncated = false;
+        int character = reader.read();
+        if (character == -1) {
+            return null;
+        }
+        long number = ++lineNumber;
+        boolean quoted = false;
+        while (character != -1 && (character != '\n' || (quoted && !truncated))) {
+            if (character == '\n') {
+                lineNumber++;
+            } else if (character == '"' && format == Format.CSV) {
+                quoted = !quoted;
+            }
+            if (text.length() < MAX_LINE_LENGTH) {
+                text.append((char) character);
+            } else {
+                truncated = true;
+            }
+            character = reader.read();
+        }
+        int length = text.length();
+        if (length > 0 && text.charAt(length - 1) == '\r') {
+            text.setLength(length - 1);
+        }
+        return new Line(number, text.toString(), truncated, quoted && !truncated);
+    }
+
+    public enum Format {
+        CSV, NDJSON;
+
+        public static Format fromContentType(String contentType) {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            return MediaType.APPLICATION_NDJSON.isCompatibleWith(mediaType) ? NDJSON : CSV;
+        }
+    }
+
+    /**
+     * A row of the upload. {@code request} is {@code null} when the line could not be parsed, in
+     * which case {@code error} explains why. A {@code fatal} row stops the import.
+     */
+    public record ImportRow(long line, CreateRecipientAccountRequest request, String error,
+                            boolean fatal) {
+
+        static ImportRow parsed(long line, CreateRecipientAccountRequest request) {
+            return new ImportRow(line, request, null, false);
+        }
+
+        static ImportRow failed(long line, String error) {
+            return new ImportRow(line, null, error, false);
+        }
+
+        static ImportRow rejected(long line, String error) {
+            return new ImportRow(line, null, error, true);
+        }
+    }
+
+    /**
+     * A row of the upload, starting at line {@code number}. {@code unclosed} when the upload
+     * ended inside a quoted field.
+     */
+    private record Line(long number, String text, boolean truncated, boolean unclosed) {
+
+    }
+}
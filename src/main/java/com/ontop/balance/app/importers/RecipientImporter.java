@@ -0,0 +1,204 @@
+package com.ontop.balance.app.importers;
+
+import static com.ontop.balance.app.mappers.ApplicationMapper.toCreateRecipientCommand;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ontop.balance.app.importers.RecipientImportReader.Format;
+import com.ontop.balance.app.importers.RecipientImportReader.ImportRow;
+import com.ontop.balance.app.models.ErrorResponse.SubErrorResponse;
+import com.ontop.balance.app.models.RecipientImportRowResponse;
+import com.ontop.balance.core.model.RecipientImportResult;
+import com.ontop.balance.core.model.commands.CreateRecipientCommand;
+import com.ontop.balance.core.ports.inbound.ImportRecipients;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+/**
+ * Streams an uploaded recipient file into the {@link ImportRecipients} port in fixed-size
+ * batches, writing one NDJSON result per line as soon as its batch has been stored.
+ *
+ * <p>A batch the port fails to store is reported as {@code FAILED} line by line and the import
+ * goes on with the next one, so the response is never cut off in the middle of the stream. An
+ * import runs on a virtual thread of its own and may take up to {@code timeout}; the limit
+ * applies to this endpoint only.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RecipientImporter implements DisposableBean {
+
+    private static final String FAILED = "FAILED";
+    private static final String STORE_FAILED = "Recipient could not be stored";
+
+    private final ImportRecipients importRecipients;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService imports = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("recipient-import-", 0).factory());
+
+    @Value("${core.recipients.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${core.recipients.import.timeout:PT5M}")
+    private Duration timeout;
+
+    /**
+     * Starts the import and returns the emitter its results are streamed to.
+     */
+    public ResponseBodyEmitter start(Long clientId, String contentType, InputStream body) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(this.timeout.toMillis());
+        this.imports.execute(() -> {
+            try {
+                importRecipients(clientId, contentType, body, new EmitterOutputStream(emitter));
+                emitter.complete();
+            } catch (IOException | RuntimeException e) {
+                log.error("Recipient import >>> {}: {}", clientId, e.getMessage(), e);
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
+
+    public void importRecipients(Long clientId, String contentType, InputStream body,
+            OutputStream output) throws IOException {
+        RecipientImportReader reader = new RecipientImportReader(
+                Format.fromContentType(contentType), body, objectMapper);
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+        long rows = 0;
+        ImportRow row;
+        while ((row = reader.next()) != null) {
+            if (row.fatal()) {
+                writeBatch(clientId, batch, output);
+                write(output, failure(row.line(), "file", row.error()));
+                output.flush();
+                return;
+            }
+            batch.add(row);
+            rows++;
+            if (batch.size() == batchSize) {
+                writeBatch(clientId, batch, output);
+            }
+        }
+        writeBatch(clientId, batch, output);
+        log.info("Recipient import >>> {}: {} rows", clientId, rows);
+    }
+
+    private void writeBatch(Long clientId, List<ImportRow> batch, OutputStream output)
+            throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<RecipientImportRowResponse> responses = new ArrayList<>(batch.size());
+        List<CreateRecipientCommand> commands = new ArrayList<>(batch.size());
+        for (ImportRow row : batch) {
+            RecipientImportRowResponse rejection = validate(row);
+            responses.add(rejection);
+            if (rejection == null) {
+                commands.add(toCreateRecipientCommand(clientId, row.request()));
+            }
+        }
+        Iterator<RecipientImportResult> results = store(clientId, commands).iterator();
+        for (int index = 0; index < batch.size(); index++) {
+            RecipientImportRowResponse response = responses.get(index);
+            write(output, response != null ? response
+                    : toResponse(batch.get(index).line(), results.next()));
+        }
+        output.flush();
+        batch.clear();
+    }
+
+    private List<RecipientImportResult> store(Long clientId,
+            List<CreateRecipientCommand> commands) {
+        if (commands.isEmpty()) {
+            return List.of();
+        }
+        try {
+            return importRecipients.handler(commands);
+        } catch (RuntimeException e) {
+            log.error("Recipient import >>> {}: batch of {} failed: {}", clientId,
+                    commands.size(), e.getMessage(), e);
+            return commands.stream().map(command -> RecipientImportResult.failed(STORE_FAILED))
+                    .toList();
+        }
+    }
+
+    private RecipientImportRowResponse validate(ImportRow row) {
+        if (row.request() == null) {
+            return failure(row.line(), "line", row.error());
+        }
+        List<SubErrorResponse> errors = validator.validate(row.request()).stream()
+                .map(violation -> new SubErrorResponse(violation.getPropertyPath().toString(),
+                        violation.getMessage())).toList();
+        return errors.isEmpty() ? null
+                : new RecipientImportRowResponse(row.line(), null, FAILED, errors);
+    }
+
+    private static RecipientImportRowResponse toResponse(long line, RecipientImportResult result) {
+        List<SubErrorResponse> errors = result.reason() == null ? List.of()
+                : List.of(new SubErrorResponse("recipient", result.reason()));
+        return new RecipientImportRowResponse(line, result.id(), result.status().name(), errors);
+    }
+
+    private static RecipientImportRowResponse failure(long line, String key, String message) {
+        return new RecipientImportRowResponse(line, null, FAILED,
+                List.of(new SubErrorResponse(key, message)));
+    }
+
+    private void write(OutputStream output, RecipientImportRowResponse response)
+            throws IOException {
+        output.write(objectMapper.writeValueAsBytes(response));
+        output.write('\n');
+    }
+
+    @Override
+    public void destroy() {
+        this.imports.shutdownNow();
+    }
+
+    /**
+     * Collects what the importer writes and sends it to the emitter on every flush.
+     */
+    private static final class EmitterOutputStream extends OutputStream {
+
+        private final ResponseBodyEmitter emitter;
+        private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+
+        private EmitterOutputStream(ResponseBodyEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void write(int b) {
+            this.pending.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            this.pending.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (this.pending.size() > 0) {
+                this.emitter.send(this.pending.toByteArray(), MediaType.APPLICATION_NDJSON);
+                this.pending.reset();
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.ontop.balance.app.listeners;
+
+import com.ontop.balance.core.ports.inbound.ExecuteChargebackTransaction;
+import com.ontop.balance.core.ports.inbound.ExecutePaymentTransaction;
+import com.ontop.balance.core.ports.inbound.ExecuteWalletTransaction;
+import com.ontop.kernels.ChargebackMessage;
+import com.ontop.kernels.PaymentMessage;
+import com.ontop.kernels.WalletMessage;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Consumes whole poll batches when {@code core.listener.batch.enabled} is set. A batch is
+ * acknowledged once all of its messages are handled; records that could not be deserialized are
+ * dead-lettered and skipped.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "core.listener.batch.enabled", havingValue = "true")
+public class BatchTransactionListener {
+
+    private final ExecuteWalletTransaction walletTransaction;
+    private final ExecutePaymentTransaction paymentTransaction;
+    private final ExecuteChargebackTransaction chargebackTransaction;
+    private final ConsumerRecordRecoverer deadLetterRecoverer;
+
+    @KafkaListener(id = "${core.listener.wallet.id:wallets}", topics = "${core.topics.wallet.name}",
+            groupId = "core.group.wallet", containerFactory = "walletListenerContainerFactory")
+    public void listenToWallets(List<ConsumerRecord<String, WalletMessage>> records,
+            Acknowledgment acknowledgment) {
+        List<WalletMessage> messages = values(records);
+        log.info("Wallet transactions: {}", messages.size());
+        this.walletTransaction.handleBatch(messages);
+        acknowledgment.acknowledge();
+    }
+
+    @KafkaListener(id = "${core.listener.payment.id:payments}",
+            topics = "${core.topics.payment.name}", groupId = "core.group.payment",
+            containerFactory = "paymentListenerContainerFactory")
+    public void listenToPayments(List<ConsumerRecord<String, PaymentMessage>> records,
+            Acknowledgment acknowledgment) {
+        List<PaymentMessage> messages = values(records);
+        log.info("Payment transactions: {}", messages.size());
+        this.paymentTransaction.handleBatch(messages);
+        acknowledgment.acknowledge();
+    }
+
+    @KafkaListener(id = "${core.listener.chargeback.id:chargebacks}",
+            topics = "${core.topics.chargeback.name}", groupId = "core.group.chargeback",
+            containerFactory = "chargebackListenerContainerFactory")
+    public void listenToChargebacks(List<ConsumerRecord<String, ChargebackMessage>> records,
+            Acknowledgment acknowledgment) {
+        List<ChargebackMessage> messages = values(records);
+        log.warn("Chargeback transactions: {}", messages.size());
+        this.chargebackTransaction.handleBatch(messages);
+        acknowledgment.acknowledge();
+    }
+
+    private <T> List<T> values(List<ConsumerRecord<String, T>> records) {
+        records.stream().filter(record -> record.value() == null).forEach(record -> {
+            log.error("Record {}-{}@{} >>> could not be deserialized", record.topic(),
+                    record.partition(), record.offset());
+            try {
+                this.deadLetterRecoverer.accept(record,
+                        new SerializationException("Record could not be deserialized"));
+            } catch (RuntimeException e) {
+                log.error("Record {}-{}@{} >>> could not be dead-lettered: {}", record.topic(),
+                        record.partition(), record.offset(), e.getMessage(), e);
+            }
+        });
+        return records.stream().map(ConsumerRecord::value).filter(value -> value != null)
+                .toList();
+    }
+}
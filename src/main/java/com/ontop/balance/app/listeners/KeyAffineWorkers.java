@@ -0,0 +1,381 @@
+package com.ontop.balance.app.listeners;
+
+import com.ontop.balance.infrastructure.configs.RecoveredOffsets;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs consumed records on a pool of single-threaded lanes, choosing the lane from the record
+ * key. Records of different transactions run in parallel while the records of one transaction
+ * keep their order.
+ *
+ * <p>Records may complete out of order, so a record is acknowledged only once every earlier
+ * record of its partition has completed; the committed offset never passes a record still
+ * running. At most {@code max-in-flight} records run or wait at once, beyond which the consumer
+ * thread blocks until one completes.</p>
+ *
+ * <p>A record whose handler throws is retried up to {@code dead-letter.attempts} times,
+ * {@code dead-letter.backoff} apart, and then handed to the dead-letter recoverer with the number
+ * of attempts in its {@link KafkaHeaders#DELIVERY_ATTEMPT} header. Either way it then counts as
+ * completed. The backoff is scheduled rather than slept on the lane, and only the later records
+ * of the same key are held back until the retried one completes, so a bad record holds up its
+ * own transaction and no other.</p>
+ *
+ * <p>A record the container's error handler dead-letters, one that could not be deserialized,
+ * never reaches the workers. Its offset is committed by the error handler once the records of
+ * its partition still running have completed, waiting up to {@code revoke-timeout} for them;
+ * past that, it is committed with the next acknowledgment of its partition.</p>
+ *
+ * <p>The workers are the containers' rebalance listener. When a partition is revoked, the
+ * consumer waits up to {@code revoke-timeout} for the records of that partition still running, so
+ * their offsets are committed before another consumer takes the partition over. Records that do
+ * not finish in time, or whose partition was lost, still run to completion, but their
+ * acknowledgments are dropped: the partition is no longer this consumer's to commit, and the new
+ * owner redelivers them from the last committed offset.</p>
+ *
+ * <p>Lanes run on virtual threads, so a handler blocked on a downstream call or a wallet poll
+ * parks instead of holding a platform thread, and {@code workers} can be sized to the number of
+ * transactions expected in flight rather than to the CPUs.</p>
+ */
+@Slf4j
+@Component
+public class KeyAffineWorkers implements ConsumerAwareRebalanceListener, RecoveredOffsets,
+        DisposableBean {
+
+    private final List<Lane> lanes;
+    private final ScheduledExecutorService retries;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final ConsumerRecordRecoverer deadLetterRecoverer;
+    private final int attempts;
+    private final Duration backoff;
+    private final Duration revokeTimeout;
+    private final Map<TopicPartition, PartitionOffsets> partitions = new ConcurrentHashMap<>();
+
+    public KeyAffineWorkers(MeterRegistry meterRegistry,
+            ConsumerRecordRecoverer deadLetterRecoverer,
+            @Value("${core.listener.workers:64}") int workers,
+            @Value("${core.listener.max-in-flight:256}") int maxInFlight,
+            @Value("${core.listener.dead-letter.attempts:3}") int attempts,
+            @Value("${core.listener.dead-letter.backoff:PT0.2S}") Duration backoff,
+            @Value("${core.listener.revoke-timeout:PT10S}") Duration revokeTimeout) {
+        this.lanes = new ArrayList<>(workers);
+        for (int lane = 0; lane < workers; lane++) {
+            this.lanes.add(new Lane(Executors.newSingleThreadExecutor(
+                    Thread.ofVirtual().name("listener-lane-" + lane).factory())));
+        }
+        this.retries = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofVirtual().name("listener-retries").factory());
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.deadLetterRecoverer = deadLetterRecoverer;
+        this.attempts = attempts;
+        this.backoff = backoff;
+        this.revokeTimeout = revokeTimeout;
+        Gauge.builder("kafka.listener.in-flight", this,
+                        pool -> pool.maxInFlight - pool.inFlight.availablePermits())
+                .description("Consumed records running or waiting for their lane or a retry")
+                .register(meterRegistry);
+    }
+
+    public <T> void submit(ConsumerRecord<String, T> record, Acknowledgment acknowledgment,
+            Consumer<T> handler) {
+        try {
+            this.inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        PartitionOffsets offsets = this.partitions.computeIfAbsent(
+                new TopicPartition(record.topic(), record.partition()),
+                partition -> new PartitionOffsets());
+        offsets.started(record.offset(), acknowledgment);
+        Lane lane = lane(record.key());
+        lane.execute(record.key(), () -> run(lane, record, handler, offsets, 1));
+    }
+
+    private <T> void run(Lane lane, ConsumerRecord<String, T> record, Consumer<T> handler,
+            PartitionOffsets offsets, int attempt) {
+        boolean retrying = false;
+        try {
+            RuntimeException failure = attempt(record, handler, attempt);
+            if (failure != null) {
+                retrying = retry(lane, () -> run(lane, record, handler, offsets, attempt + 1));
+                if (!retrying) {
+                    deadLetter(record, failure, attempt);
+                }
+            }
+        } finally {
+            if (!retrying) {
+                this.inFlight.release();
+                offsets.completed(record.offset());
+                lane.done(record.key());
+            }
+        }
+    }
+
+    /**
+     * Runs one attempt of {@code record}, returning the failure when it is to be tried again.
+     */
+    private <T> RuntimeException attempt(ConsumerRecord<String, T> record, Consumer<T> handler,
+            int attempt) {
+        if (record.value() == null) {
+            deadLetter(record, new IllegalArgumentException("Record has no value"), 1);
+            return null;
+        }
+        try {
+            handler.accept(record.value());
+            return null;
+        } catch (RuntimeException e) {
+            log.error("Record {}-{}@{} >>> attempt {}: {}", record.topic(), record.partition(),
+                    record.offset(), attempt, e.getMessage(), e);
+            if (attempt >= this.attempts) {
+                deadLetter(record, e, attempt);
+                return null;
+            }
+            return e;
+        }
+    }
+
+    private boolean retry(Lane lane, Runnable retry) {
+        try {
+            this.retries.schedule(() -> lane.executor.execute(retry), this.backoff.toNanos(),
+                    TimeUnit.NANOSECONDS);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private void deadLetter(ConsumerRecord<?, ?> record, Exception e, int attempts) {
+        record.headers().remove(KafkaHeaders.DELIVERY_ATTEMPT);
+        record.headers().add(KafkaHeaders.DELIVERY_ATTEMPT,
+                ByteBuffer.allocate(Integer.BYTES).putInt(attempts).array());
+        try {
+            this.deadLetterRecoverer.accept(record, e);
+        } catch (RuntimeException failure) {
+            log.error("Record {}-{}@{} >>> could not be dead-lettered: {}", record.topic(),
+                    record.partition(), record.offset(), failure.getMessage(), failure);
+        }
+    }
+
+    /**
+     * Waits for the running records of each revoked partition, then forgets the partition. Runs
+     * on the consumer thread before the container commits, so the acknowledgments of the records
+     * that finished are part of that commit.
+     */
+    @Override
+    public void onPartitionsRevokedBeforeCommit(
+            org.apache.kafka.clients.consumer.Consumer<?, ?> consumer,
+            Collection<TopicPartition> partitions) {
+        long deadline = System.nanoTime() + this.revokeTimeout.toNanos();
+        for (TopicPartition partition : partitions) {
+            PartitionOffsets offsets = this.partitions.remove(partition);
+            if (offsets == null) {
+                continue;
+            }
+            int dropped = offsets.revoke(deadline);
+            if (dropped > 0) {
+                log.warn("Partition {} >>> revoked with {} records running", partition, dropped);
+            }
+        }
+    }
+
+    @Override
+    public void onPartitionsLost(org.apache.kafka.clients.consumer.Consumer<?, ?> consumer,
+            Collection<TopicPartition> partitions) {
+        for (TopicPartition partition : partitions) {
+            PartitionOffsets offsets = this.partitions.remove(partition);
+            if (offsets != null) {
+                offsets.revoke(System.nanoTime());
+            }
+        }
+    }
+
+    /**
+     * Waits up to {@code revoke-timeout} for the records of the dead-lettered record's partition
+     * still running. If they do not complete in time, the record counts as completed, so the next
+     * acknowledgment of its partition covers it.
+     */
+    @Override
+    public boolean recovered(ConsumerRecord<?, ?> record) {
+        PartitionOffsets offsets = this.partitions.get(
+                new TopicPartition(record.topic(), record.partition()));
+        return offsets == null || offsets.recovered(record.offset(),
+                System.nanoTime() + this.revokeTimeout.toNanos());
+    }
+
+    private Lane lane(String key) {
+        int hash = key == null ? 0 : key.hashCode();
+        return this.lanes.get(Math.floorMod(hash, this.lanes.size()));
+    }
+
+    @Override
+    public void destroy() {
+        this.retries.shutdownNow();
+        this.lanes.forEach(lane -> lane.executor.shutdownNow());
+    }
+
+    /**
+     * A single-threaded executor that runs one record of a key at a time: a record submitted while
+     * an earlier one of its key is running or waiting for a retry is queued behind it.
+     */
+    private static final class Lane {
+
+        private final ExecutorService executor;
+        private final Map<String, Deque<Runnable>> busy = new HashMap<>();
+
+        private Lane(ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        private synchronized void execute(String key, Runnable record) {
+            Deque<Runnable> queued = this.busy.get(key);
+            if (queued != null) {
+                queued.add(record);
+                return;
+            }
+            this.busy.put(key, new ArrayDeque<>());
+            this.executor.execute(record);
+        }
+
+        /**
+         * Runs the next record queued behind the completed one of {@code key}, if any.
+         */
+        private synchronized void done(String key) {
+            Deque<Runnable> queued = this.busy.get(key);
+            if (queued == null) {
+                return;
+            }
+            Runnable next = queued.poll();
+            if (next == null) {
+                this.busy.remove(key);
+            } else {
+                this.executor.execute(next);
+            }
+        }
+    }
+
+    /**
+     * The records of one partition that have started and not yet been acknowledged, by offset.
+     */
+    private static final class PartitionOffsets {
+
+        private final TreeMap<Long, Pending> pending = new TreeMap<>();
+        private boolean revoked;
+
+        private synchronized void started(long offset, Acknowledgment acknowledgment) {
+            this.pending.put(offset, new Pending(acknowledgment));
+        }
+
+        /**
+         * Waits until {@code deadline} for the running records to complete, then stops
+         * acknowledging, returning how many records had not completed.
+         */
+        private synchronized int revoke(long deadline) {
+            awaitIdle(deadline);
+            this.revoked = true;
+            int running = this.pending.size();
+            this.pending.clear();
+            return running;
+        }
+
+        /**
+         * Returns whether the records before the dead-lettered {@code offset} have all completed
+         * by {@code deadline}; if not, counts it as completed for the next acknowledgment.
+         */
+        private synchronized boolean recovered(long offset, long deadline) {
+            boolean idle = awaitIdle(deadline);
+            if (this.revoked) {
+                return false;
+            }
+            if (idle) {
+                return true;
+            }
+            Pending record = new Pending(null);
+            record.done = true;
+            this.pending.put(offset, record);
+            return false;
+        }
+
+        private boolean awaitIdle(long deadline) {
+            long remaining;
+            while (!this.pending.isEmpty() && (remaining = deadline - System.nanoTime()) > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            return this.pending.isEmpty();
+        }
+
+        /**
+         * Acknowledges the last record of the completed run at the head of the partition. This
+         * happens under the lock so the acknowledgments of a partition reach the container in
+         * offset order.
+         */
+        private synchronized void completed(long offset) {
+            if (this.revoked) {
+                return;
+            }
+            Pending record = this.pending.get(offset);
+            if (record != null) {
+                record.done = true;
+            }
+            Acknowledgment last = null;
+            while (!this.pending.isEmpty() && this.pending.firstEntry().getValue().done) {
+                Acknowledgment acknowledgment = this.pending.pollFirstEntry().getValue()
+                        .acknowledgment;
+                if (acknowledgment != null) {
+                    last = acknowledgment;
+                }
+            }
+            if (last != null) {
+                last.acknowledge();
+            }
+            if (this.pending.isEmpty()) {
+                notifyAll();
+            }
+        }
+    }
+
+    private static final class Pending {
+
+        private final Acknowledgment acknowledgment;
+        private boolean done;
+
+        private Pending(Acknowledgment acknowledgment) {
+            this.acknowledgment = acknowledgment;
+        }
+    }
+}
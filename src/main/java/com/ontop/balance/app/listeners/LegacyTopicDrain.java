@@ -0,0 +1,60 @@
+package com.ontop.balance.app.listeners;
+
+import com.ontop.kernels.ChargebackMessage;
+import com.ontop.kernels.ParentMessage;
+import com.ontop.kernels.PaymentMessage;
+import com.ontop.kernels.WalletMessage;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drains the topic every saga message type shared before each got a topic of its own,
+ * {@code core.topics.legacy.name}, under its old consumer group, so the records still on it when
+ * the service is upgraded are not lost. Each record is forwarded with its key to the topic of
+ * its type and acknowledged once the broker has taken it; the per-type listeners then run it.
+ *
+ * <p>Once the {@code core.group} consumer group has no lag left on the old topic, set
+ * {@code core.listener.legacy.enabled} to false and delete the topic.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "core.listener.legacy.enabled", havingValue = "true",
+        matchIfMissing = true)
+public class LegacyTopicDrain {
+
+    private final KafkaTemplate<String, ParentMessage> sagaProducer;
+    private final Map<Class<? extends ParentMessage>, String> topics;
+
+    public LegacyTopicDrain(KafkaTemplate<String, ParentMessage> sagaProducer,
+            @Value("${core.topics.wallet.name}") String walletTopic,
+            @Value("${core.topics.payment.name}") String paymentTopic,
+            @Value("${core.topics.chargeback.name}") String chargebackTopic) {
+        this.sagaProducer = sagaProducer;
+        this.topics = Map.of(WalletMessage.class, walletTopic, PaymentMessage.class, paymentTopic,
+                ChargebackMessage.class, chargebackTopic);
+    }
+
+    @KafkaListener(id = "${core.listener.legacy.id:transactions}",
+            topics = "${core.topics.legacy.name:money-transfer-transactions}",
+            groupId = "core.group", containerFactory = "legacyListenerContainerFactory")
+    public void drain(ConsumerRecord<String, ParentMessage> record,
+            Acknowledgment acknowledgment) {
+        ParentMessage message = record.value();
+        String topic = message == null ? null : this.topics.get(message.getClass());
+        if (topic == null) {
+            throw new IllegalArgumentException("Record " + record.topic() + "-"
+                    + record.partition() + "@" + record.offset() + " has no saga message");
+        }
+        String key = record.key() != null ? record.key() : message.getTransactionId();
+        log.info("Legacy transaction {} >>> {}", topic, key);
+        this.sagaProducer.send(topic, key, message).completable().join();
+        acknowledgment.acknowledge();
+    }
+}
@@ -4,37 +4,51 @@ import com.ontop.balance.core.ports.inbound.ExecuteChargebackTransaction;
 import com.ontop.balance.core.ports.inbound.ExecutePaymentTransaction;
 import com.ontop.balance.core.ports.inbound.ExecuteWalletTransaction;
 import com.ontop.kernels.ChargebackMessage;
-import com.ontop.kernels.ParentMessage;
 import com.ontop.kernels.PaymentMessage;
 import com.ontop.kernels.WalletMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "core.listener.batch.enabled", havingValue = "false",
+        matchIfMissing = true)
 public class TransactionListener {
 
     private final ExecuteWalletTransaction walletTransaction;
     private final ExecutePaymentTransaction paymentTransaction;
     private final ExecuteChargebackTransaction chargebackTransaction;
+    private final KeyAffineWorkers workers;
 
-    @KafkaListener(topics = "${core.topic}", groupId = "core.group", containerFactory = "listenerContainerFactory")
-    public void listenToTransactions(ParentMessage parentMessage) {
-        if (parentMessage instanceof WalletMessage value) {
-            log.info("Wallet transaction: {}", value.getTransactionId());
-            this.walletTransaction.handle(value);
-        } else if (parentMessage instanceof PaymentMessage value) {
-            log.info("Payment transaction: {}", value.getTransactionId());
-            this.paymentTransaction.handle(value);
-        } else if (parentMessage instanceof ChargebackMessage value) {
-            log.warn("Chargeback transaction: {}", value.getTransactionId());
-            this.chargebackTransaction.handle(value);
-        } else {
-            // Publish it to Death Flow
-            log.error("ERR");
-        }
+    @KafkaListener(id = "${core.listener.wallet.id:wallets}", topics = "${core.topics.wallet.name}",
+            groupId = "core.group.wallet", containerFactory = "walletListenerContainerFactory")
+    public void listenToWallets(ConsumerRecord<String, WalletMessage> record,
+            Acknowledgment acknowledgment) {
+        log.info("Wallet transaction: {}", record.key());
+        this.workers.submit(record, acknowledgment, this.walletTransaction::handle);
+    }
+
+    @KafkaListener(id = "${core.listener.payment.id:payments}",
+            topics = "${core.topics.payment.name}", groupId = "core.group.payment",
+            containerFactory = "paymentListenerContainerFactory")
+    public void listenToPayments(ConsumerRecord<String, PaymentMessage> record,
+            Acknowledgment acknowledgment) {
+        log.info("Payment transaction: {}", record.key());
+        this.workers.submit(record, acknowledgment, this.paymentTransaction::handle);
+    }
+
+    @KafkaListener(id = "${core.listener.chargeback.id:chargebacks}",
+            topics = "${core.topics.chargeback.name}", groupId = "core.group.chargeback",
+            containerFactory = "chargebackListenerContainerFactory")
+    public void listenToChargebacks(ConsumerRecord<String, ChargebackMessage> record,
+            Acknowledgment acknowledgment) {
+        log.warn("Chargeback transaction: {}", record.key());
+        this.workers.submit(record, acknowledgment, this.chargebackTransaction::handle);
     }
 }
@@ -1,11 +1,17 @@
 package com.ontop.balance.app.mappers;
 
+import com.ontop.balance.app.models.CreateRecipientAccountRequest;
 import com.ontop.balance.app.models.PaginationResponse;
+import com.ontop.balance.app.models.PaymentConfirmationRequest;
 import com.ontop.balance.app.models.RecipientResponse;
 import com.ontop.balance.app.models.RecipientResponse.RecipientResponseItem;
+import com.ontop.balance.app.models.RecipientSearchResponse;
+import com.ontop.balance.core.model.CursorWrapper;
 import com.ontop.balance.core.model.PaginatedWrapper;
 import com.ontop.balance.core.model.PaginatedWrapper.PaginatedData;
 import com.ontop.balance.core.model.RecipientData;
+import com.ontop.balance.core.model.commands.ConfirmPaymentCommand;
+import com.ontop.balance.core.model.commands.CreateRecipientCommand;
 import java.util.List;
 
 public class ApplicationMapper {
@@ -20,6 +26,24 @@ public class ApplicationMapper {
                         pagination.totalPages()));
     }
 
+    public static RecipientSearchResponse toRecipientSearchResponse(
+            CursorWrapper<RecipientData> wrapper) {
+        return new RecipientSearchResponse(wrapper.data().stream()
+                .map(ApplicationMapper::toRecipientItem).toList(), wrapper.next());
+    }
+
+    public static CreateRecipientCommand toCreateRecipientCommand(Long clientId,
+            CreateRecipientAccountRequest request) {
+        return new CreateRecipientCommand(clientId, request.name() + " " + request.surname(),
+                request.routingNumber(), request.identificationNumber(), request.accountNumber());
+    }
+
+    public static ConfirmPaymentCommand toConfirmPaymentCommand(
+            PaymentConfirmationRequest request) {
+        return new ConfirmPaymentCommand(request.paymentInfo().id(),
+                request.requestInfo().status());
+    }
+
     private static RecipientResponseItem toRecipientItem(RecipientData recipientData) {
         return new RecipientResponseItem(recipientData.id(), recipientData.name(),
                 recipientData.routingNumber(), recipientData.accountNumber());
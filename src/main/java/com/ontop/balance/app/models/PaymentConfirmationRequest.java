@@ -0,0 +1,26 @@
+package com.ontop.balance.app.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.math.BigDecimal;
+import javax.validation.Valid;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import org.springframework.validation.annotation.Validated;
+
+@Validated
+@Schema(description = "Outcome of a payment, as reported by the payment provider")
+public record PaymentConfirmationRequest(
+        @NotNull @Valid @Schema(description = "The status of the payment") RequestInfo requestInfo,
+        @NotNull @Valid @Schema(description = "The payment the status refers to") PaymentInfo paymentInfo) {
+
+    public record RequestInfo(
+            @NotBlank @Schema(description = "The provider's status of the payment", example = "Completed") String status) {
+
+    }
+
+    public record PaymentInfo(
+            @NotBlank @Schema(description = "The provider's identifier of the payment", example = "70cfe468-91b9-4e04-8910-5e8257dfadfa") String id,
+            @Schema(description = "The amount paid", example = "900.00") BigDecimal amount) {
+
+    }
+}
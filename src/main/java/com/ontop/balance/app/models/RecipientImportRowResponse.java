@@ -0,0 +1,14 @@
+package com.ontop.balance.app.models;
+
+import com.ontop.balance.app.models.ErrorResponse.SubErrorResponse;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "Outcome of a single line of a recipient import")
+public record RecipientImportRowResponse(
+        @Schema(description = "The line of the upload this result refers to", example = "2") long line,
+        @Schema(description = "The ID of the recipient stored for this line") String id,
+        @Schema(description = "The outcome of the line", example = "CREATED") String status,
+        @Schema(description = "The reasons the line was not stored") List<SubErrorResponse> errors) {
+
+}
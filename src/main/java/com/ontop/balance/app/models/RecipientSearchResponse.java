@@ -0,0 +1,12 @@
+package com.ontop.balance.app.models;
+
+import com.ontop.balance.app.models.RecipientResponse.RecipientResponseItem;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "Response object containing a page of recipients matching a name search")
+public record RecipientSearchResponse(
+        @Schema(description = "The list of recipients") List<RecipientResponseItem> data,
+        @Schema(description = "The cursor to request the next page with, absent on the last page") String next) {
+
+}
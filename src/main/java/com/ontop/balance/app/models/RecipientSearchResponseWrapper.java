@@ -0,0 +1,29 @@
+package com.ontop.balance.app.models;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.ontop.balance.app.controllers.RecipientController;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import org.springframework.hateoas.RepresentationModel;
+
+@Getter
+@Schema(description = "Wrapper object for a recipient search response")
+public class RecipientSearchResponseWrapper extends
+        RepresentationModel<RecipientSearchResponseWrapper> {
+
+    private final @JsonUnwrapped RecipientSearchResponse response;
+
+    public RecipientSearchResponseWrapper(RecipientSearchResponse response, String q,
+            String after, int size) {
+        this.response = response;
+        add(linkTo(methodOn(RecipientController.class).searchRecipients(null, q, after,
+                size)).withSelfRel());
+        if (response.next() != null) {
+            add(linkTo(methodOn(RecipientController.class).searchRecipients(null, q,
+                    response.next(), size)).withRel("next"));
+        }
+    }
+}
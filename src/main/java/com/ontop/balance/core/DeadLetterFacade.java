@@ -0,0 +1,17 @@
+package com.ontop.balance.core;
+
+import com.ontop.balance.core.model.commands.ReplayDeadLettersCommand;
+import com.ontop.balance.core.ports.inbound.ReplayDeadLetters;
+import com.ontop.balance.core.ports.outbound.DeadLetters;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class DeadLetterFacade implements ReplayDeadLetters {
+
+    private final DeadLetters deadLetters;
+
+    @Override
+    public void handle(ReplayDeadLettersCommand command) {
+        this.deadLetters.replay(command.stage(), command.limit());
+    }
+}
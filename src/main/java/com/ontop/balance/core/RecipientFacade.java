@@ -1,29 +1,44 @@
 package com.ontop.balance.core;
 
+import com.ontop.balance.core.model.CursorWrapper;
 import com.ontop.balance.core.model.PaginatedWrapper;
 import com.ontop.balance.core.model.RecipientData;
+import com.ontop.balance.core.model.RecipientImportResult;
 import com.ontop.balance.core.model.commands.CreateRecipientCommand;
 import com.ontop.balance.core.model.exceptions.RecipientNotFoundException;
 import com.ontop.balance.core.model.queries.ObtainRecipientByClientQuery;
 import com.ontop.balance.core.model.queries.ObtainRecipientByIdQuery;
+import com.ontop.balance.core.model.queries.SearchRecipientsQuery;
 import com.ontop.balance.core.ports.inbound.CreateRecipient;
+import com.ontop.balance.core.ports.inbound.ImportRecipients;
 import com.ontop.balance.core.ports.inbound.ObtainRecipientByClient;
 import com.ontop.balance.core.ports.inbound.ObtainRecipientById;
+import com.ontop.balance.core.ports.inbound.SearchRecipients;
 import com.ontop.balance.core.ports.outbound.Recipient;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import lombok.RequiredArgsConstructor;
 
 @RequiredArgsConstructor
-public class RecipientFacade implements CreateRecipient, ObtainRecipientByClient,
-        ObtainRecipientById {
+public class RecipientFacade implements CreateRecipient, ImportRecipients,
+        ObtainRecipientByClient, ObtainRecipientById, SearchRecipients {
 
     private final Recipient recipient;
 
     @Override
     public String handler(CreateRecipientCommand command) {
         String uuid = UUID.randomUUID().toString();
-        this.recipient.save(command, uuid);
-        return uuid;
+        return this.recipient.save(command, uuid);
+    }
+
+    @Override
+    public List<RecipientImportResult> handler(List<CreateRecipientCommand> commands) {
+        Map<String, CreateRecipientCommand> commandsById = new LinkedHashMap<>();
+        commands.forEach(command -> commandsById.put(UUID.randomUUID().toString(), command));
+        return this.recipient.saveAll(commandsById);
     }
 
     @Override
@@ -31,6 +46,17 @@ public class RecipientFacade implements CreateRecipient, ObtainRecipientByClient
         return this.recipient.findRecipients(query);
     }
 
+    @Override
+    public CompletableFuture<PaginatedWrapper<RecipientData>> handlerAsync(
+            ObtainRecipientByClientQuery query) {
+        return this.recipient.findRecipientsAsync(query);
+    }
+
+    @Override
+    public CursorWrapper<RecipientData> handler(SearchRecipientsQuery query) {
+        return this.recipient.searchRecipients(query);
+    }
+
     @Override
     public RecipientData handler(ObtainRecipientByIdQuery query) {
         RecipientData recipientData = this.recipient.findRecipientById(query)
@@ -38,4 +64,13 @@ public class RecipientFacade implements CreateRecipient, ObtainRecipientByClient
         recipientData.validateOwnership(query.clientId());
         return recipientData;
     }
+
+    @Override
+    public CompletableFuture<RecipientData> handlerAsync(ObtainRecipientByIdQuery query) {
+        return this.recipient.findRecipientByIdAsync(query).thenApply(result -> {
+            RecipientData recipientData = result.orElseThrow(RecipientNotFoundException::new);
+            recipientData.validateOwnership(query.clientId());
+            return recipientData;
+        });
+    }
 }
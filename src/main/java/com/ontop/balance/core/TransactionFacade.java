@@ -1,15 +1,23 @@
 package com.ontop.balance.core;
 
 import com.ontop.balance.core.model.PaginatedWrapper;
+import com.ontop.balance.core.model.PaymentConfirmation;
+import com.ontop.balance.core.model.StartedSteps;
 import com.ontop.balance.core.model.TransactionData;
 import com.ontop.balance.core.model.TransactionData.TransactionStatus;
+import com.ontop.balance.core.model.TransactionStep;
+import com.ontop.balance.core.model.commands.ConfirmPaymentCommand;
+import com.ontop.balance.core.model.commands.FailTransactionStepCommand;
 import com.ontop.balance.core.model.exceptions.ChargebackFailedException;
+import com.ontop.balance.core.model.exceptions.StageInProgressException;
 import com.ontop.balance.core.model.exceptions.TransactionNotFoundException;
 import com.ontop.balance.core.model.queries.ObtainTransactionByIdQuery;
 import com.ontop.balance.core.model.queries.ObtainTransactionClientQuery;
+import com.ontop.balance.core.ports.inbound.ConfirmPayment;
 import com.ontop.balance.core.ports.inbound.ExecuteChargebackTransaction;
 import com.ontop.balance.core.ports.inbound.ExecutePaymentTransaction;
 import com.ontop.balance.core.ports.inbound.ExecuteWalletTransaction;
+import com.ontop.balance.core.ports.inbound.FailTransactionStep;
 import com.ontop.balance.core.ports.inbound.ObtainTransactionByClient;
 import com.ontop.balance.core.ports.inbound.ObtainTransactionsById;
 import com.ontop.balance.core.ports.outbound.Chargeback;
@@ -22,13 +30,22 @@ import com.ontop.balance.infrastructure.WalletAdapter;
 import com.ontop.kernels.ChargebackMessage;
 import com.ontop.kernels.PaymentMessage;
 import com.ontop.kernels.WalletMessage;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 @RequiredArgsConstructor
 public class TransactionFacade implements ObtainTransactionsById, ObtainTransactionByClient,
-        ExecuteWalletTransaction, ExecutePaymentTransaction, ExecuteChargebackTransaction {
+        ExecuteWalletTransaction, ExecutePaymentTransaction, ExecuteChargebackTransaction,
+        ConfirmPayment, FailTransactionStep {
 
     private final Transaction transaction;
     private final Payment payment;
@@ -43,49 +60,253 @@ public class TransactionFacade implements ObtainTransactionsById, ObtainTransact
         return transactionsById;
     }
 
+    @Override
+    public CompletableFuture<TransactionData> handlerAsync(ObtainTransactionByIdQuery query) {
+        return transaction.getTransactionsByIdAsync(query.id()).thenApply(result -> {
+            TransactionData transactionsById = result.orElseThrow(
+                    TransactionNotFoundException::new);
+            transactionsById.validateOwnership(query.clientId());
+            return transactionsById;
+        });
+    }
+
+    /**
+     * A redelivered message whose stage was already processed is dropped before the wallet is
+     * called, so a withdrawal is never made twice.
+     */
     @Override
     public void handle(WalletMessage message) {
-        this.transaction.addStepToTransaction(message.getTransactionId(),
-                WalletAdapter.class.getSimpleName(), TransactionStatus.IN_PROGRESS);
-        TransactionStatus status = this.wallet.withdraw(message);
-        this.transaction.addStepToTransaction(message.getTransactionId(),
-                WalletAdapter.class.getSimpleName(), status);
+        String walletStep = WalletAdapter.class.getSimpleName();
+        if (!started(message.getTransactionId(), walletStep)) {
+            return;
+        }
+        TransactionStatus status = attempted(message.getTransactionId(), walletStep,
+                () -> this.wallet.withdraw(message));
+        this.transaction.completeStep(message.getTransactionId(), walletStep, status);
+    }
+
+    @Override
+    public void handleBatch(List<WalletMessage> messages) {
+        String walletStep = WalletAdapter.class.getSimpleName();
+        StartedSteps claims = startSteps(messages, WalletMessage::getTransactionId, walletStep);
+        List<CompletableFuture<TransactionStep>> outcomes = startedOnce(messages,
+                WalletMessage::getTransactionId, walletStep, claims).stream()
+                .map(message -> isolated(message.getTransactionId(), walletStep,
+                        () -> this.wallet.withdrawAsync(message))).toList();
+        this.transaction.completeSteps(joinAll(outcomes));
+        requireNoneInProgress(claims, walletStep);
     }
 
     @Override
     public void handle(PaymentMessage message) {
-        this.transaction.addStepToTransaction(message.getTransactionId(),
-                PaymentAdapter.class.getSimpleName(), TransactionStatus.IN_PROGRESS);
-        TransactionStatus status = this.payment.transfer(message);
-        this.transaction.addStepToTransaction(message.getTransactionId(),
-                PaymentAdapter.class.getSimpleName(), status);
+        String paymentStep = PaymentAdapter.class.getSimpleName();
+        if (!started(message.getTransactionId(), paymentStep)) {
+            return;
+        }
+        TransactionStatus status = attempted(message.getTransactionId(), paymentStep,
+                () -> this.payment.transfer(message));
+        this.transaction.completeStep(message.getTransactionId(), paymentStep, status);
+        chargebackIfFailed(message.getTransactionId(), status);
+    }
+
+    @Override
+    public void handleBatch(List<PaymentMessage> messages) {
+        String paymentStep = PaymentAdapter.class.getSimpleName();
+        String chargebackStep = ChargebackAdapter.class.getSimpleName();
+        StartedSteps claims = startSteps(messages, PaymentMessage::getTransactionId, paymentStep);
+        List<TransactionStep> outcomes = joinAll(startedOnce(messages,
+                PaymentMessage::getTransactionId, paymentStep, claims).stream()
+                .map(message -> isolated(message.getTransactionId(), paymentStep,
+                        () -> this.payment.transferAsync(message))).toList());
+        this.transaction.completeSteps(outcomes);
+        List<CompletableFuture<TransactionStep>> chargebacks = outcomes.stream()
+                .filter(step -> TransactionStatus.FAILED.equals(step.status()))
+                .map(step -> isolated(step.transactionId(), chargebackStep,
+                        () -> this.chargeback.prepareChargebackAsync(step.transactionId())))
+                .toList();
+        if (!chargebacks.isEmpty()) {
+            this.transaction.addStepsToTransactions(joinAll(chargebacks));
+        }
+        requireNoneInProgress(claims, paymentStep);
+    }
+
+    @Override
+    public void handle(ConfirmPaymentCommand command) {
+        Optional<PaymentConfirmation> confirmation = this.payment.confirm(command.paymentId(),
+                command.status());
+        confirmation.ifPresent(confirmed -> settlePayment(confirmed.transactionId(),
+                confirmed.status()));
+    }
+
+    /**
+     * Fails a step whose message never reached its topic. A payment that fails this way is charged
+     * back like one the provider rejected.
+     */
+    @Override
+    public void handle(FailTransactionStepCommand command) {
+        if (PaymentAdapter.class.getSimpleName().equals(command.targetSystem())) {
+            settlePayment(command.transactionId(), TransactionStatus.FAILED);
+            return;
+        }
+        this.transaction.addStepToTransaction(command.transactionId(), command.targetSystem(),
+                TransactionStatus.FAILED);
+        if (ChargebackAdapter.class.getSimpleName().equals(command.targetSystem())) {
+            log.error("Critical failure: Chargeback could not be published for transaction ID {}",
+                    command.transactionId());
+        }
+    }
+
+    private void settlePayment(String transactionId, TransactionStatus status) {
+        this.transaction.addStepToTransaction(transactionId, PaymentAdapter.class.getSimpleName(),
+                status);
+        chargebackIfFailed(transactionId, status);
+    }
+
+    /**
+     * Once the chargeback is published the payment stage is settled, so a failure to record its
+     * step is logged rather than thrown back to a retry that would find the stage completed.
+     */
+    private void chargebackIfFailed(String transactionId, TransactionStatus status) {
         if (TransactionStatus.FAILED.equals(status)) {
-            TransactionStatus chargeBackStatus = this.chargeback.prepareChargeback(
-                    message.getTransactionId());
-            this.transaction.addStepToTransaction(message.getTransactionId(),
-                    ChargebackAdapter.class.getSimpleName(), chargeBackStatus);
+            TransactionStatus chargeBackStatus = this.chargeback.prepareChargeback(transactionId);
+            try {
+                this.transaction.addStepToTransaction(transactionId,
+                        ChargebackAdapter.class.getSimpleName(), chargeBackStatus);
+            } catch (RuntimeException e) {
+                log.error("Critical failure: Chargeback step of transaction ID {}: {}",
+                        transactionId, e.getMessage(), e);
+            }
         }
     }
 
     @Override
     public void handle(ChargebackMessage message) {
+        String chargebackStep = ChargebackAdapter.class.getSimpleName();
         try {
-            this.transaction.addStepToTransaction(message.getTransactionId(),
-                    ChargebackAdapter.class.getSimpleName(), TransactionStatus.IN_PROGRESS);
-            TransactionStatus status = this.chargeback.chargeback(message);
-            this.transaction.addStepToTransaction(message.getTransactionId(),
-                    ChargebackAdapter.class.getSimpleName(), status);
+            if (!started(message.getTransactionId(), chargebackStep)) {
+                return;
+            }
+            TransactionStatus status = attempted(message.getTransactionId(), chargebackStep,
+                    () -> this.chargeback.chargeback(message));
+            this.transaction.completeStep(message.getTransactionId(), chargebackStep, status);
             if (!TransactionStatus.COMPLETED.equals(status)) {
                 throw new ChargebackFailedException(
                         "Chargeback failed for transaction ID " + message.getTransactionId());
             }
+        } catch (StageInProgressException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Critical failure: {}", e.getMessage(), e);
         }
     }
 
+    @Override
+    public void handleBatch(List<ChargebackMessage> messages) {
+        String chargebackStep = ChargebackAdapter.class.getSimpleName();
+        StartedSteps claims = startSteps(messages, ChargebackMessage::getTransactionId,
+                chargebackStep);
+        List<TransactionStep> outcomes = joinAll(startedOnce(messages,
+                ChargebackMessage::getTransactionId, chargebackStep, claims).stream()
+                .map(message -> isolated(message.getTransactionId(), chargebackStep,
+                        () -> this.chargeback.chargebackAsync(message))).toList());
+        this.transaction.completeSteps(outcomes);
+        outcomes.stream().filter(step -> !TransactionStatus.COMPLETED.equals(step.status()))
+                .forEach(step -> log.error(
+                        "Critical failure: Chargeback failed for transaction ID {}",
+                        step.transactionId()));
+        requireNoneInProgress(claims, chargebackStep);
+    }
+
+    private boolean started(String transactionId, String targetSystem) {
+        if (this.transaction.startStep(transactionId, targetSystem)) {
+            return true;
+        }
+        log.info("Transaction {} >>> {}: already processed", targetSystem, transactionId);
+        return false;
+    }
+
+    /**
+     * Runs a started stage and releases its claim when the call fails, so a retry or a replay of
+     * the message starts it again. An interrupted wait leaves the claim to its lease, as the call
+     * may still be under way.
+     */
+    private TransactionStatus attempted(String transactionId, String targetSystem,
+            Supplier<TransactionStatus> step) {
+        try {
+            return step.get();
+        } catch (RuntimeException e) {
+            if (!(e instanceof CancellationException)) {
+                this.transaction.releaseStep(transactionId, targetSystem);
+            }
+            throw e;
+        }
+    }
+
+    private <T> StartedSteps startSteps(List<T> messages, Function<T, String> transactionId,
+            String targetSystem) {
+        return this.transaction.startSteps(messages.stream().map(transactionId).distinct()
+                .toList(), targetSystem);
+    }
+
+    /**
+     * Keeps the messages of a batch whose stage was started for it, each transaction once, so
+     * neither a redelivered message nor one repeated in the batch runs twice.
+     */
+    private <T> List<T> startedOnce(List<T> messages, Function<T, String> transactionId,
+            String targetSystem, StartedSteps claims) {
+        Set<String> started = new HashSet<>(claims.started());
+        return messages.stream().filter(message -> {
+            if (started.remove(transactionId.apply(message))) {
+                return true;
+            }
+            log.info("Transaction {} >>> {}: already processed", targetSystem,
+                    transactionId.apply(message));
+            return false;
+        }).toList();
+    }
+
+    /**
+     * Fails the batch once the rest of it is recorded when another delivery still holds the stage
+     * of some of its transactions, so the batch is retried for them and dead-lettered if the claim
+     * outlives the retries; the transactions recorded meanwhile are skipped on the retry.
+     */
+    private static void requireNoneInProgress(StartedSteps claims, String targetSystem) {
+        if (!claims.inProgress().isEmpty()) {
+            throw new StageInProgressException("Stage " + targetSystem + " of transactions "
+                    + claims.inProgress() + " is claimed");
+        }
+    }
+
+    /**
+     * Runs one message of a batch so that whatever it throws becomes a {@code FAILED} step of its
+     * own transaction instead of failing the batch.
+     */
+    private static CompletableFuture<TransactionStep> isolated(String transactionId,
+            String targetSystem, Supplier<CompletableFuture<TransactionStatus>> step) {
+        CompletableFuture<TransactionStatus> status;
+        try {
+            status = step.get();
+        } catch (RuntimeException e) {
+            status = CompletableFuture.failedFuture(e);
+        }
+        return status.exceptionally(e -> {
+            log.error("Transaction {} >>> {}: {}", targetSystem, transactionId, e.getMessage());
+            return TransactionStatus.FAILED;
+        }).thenApply(outcome -> new TransactionStep(transactionId, targetSystem, outcome));
+    }
+
+    private static List<TransactionStep> joinAll(List<CompletableFuture<TransactionStep>> steps) {
+        return steps.stream().map(CompletableFuture::join).toList();
+    }
+
     @Override
     public PaginatedWrapper<TransactionData> handler(ObtainTransactionClientQuery query) {
         return this.transaction.findByClient(query);
     }
+
+    @Override
+    public CompletableFuture<PaginatedWrapper<TransactionData>> handlerAsync(
+            ObtainTransactionClientQuery query) {
+        return this.transaction.findByClientAsync(query);
+    }
 }
@@ -16,8 +16,10 @@ import com.ontop.balance.core.ports.outbound.Transaction;
 import com.ontop.balance.core.ports.outbound.Wallet;
 import com.ontop.balance.infrastructure.PaymentAdapter;
 import com.ontop.balance.infrastructure.WalletAdapter;
+import com.ontop.balance.infrastructure.clients.AsyncHttpClient;
 import java.math.BigDecimal;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -31,39 +33,40 @@ public class TransferMoneyFacade implements TransferMoney {
     private final Transaction transaction;
     private final Chargeback chargeback;
 
+    /**
+     * Waits for {@link #handlerAsync} on behalf of callers that need the transaction id
+     * synchronously.
+     */
     @Override
     public String handler(TransferMoneyCommand command) {
-        String transactionId = UUID.randomUUID().toString();
-
-        RecipientData recipientData = getRecipientData(command);
-
-        checkRecipientOwnership(command.clientId(), recipientData);
-
-        BigDecimal withdrawAmount = command.amount();
-        BigDecimal transferAmount = recipientData.applyFee(withdrawAmount);
-
-        checkSufficientBalance(recipientData.clientId(), withdrawAmount);
-
-        startTransaction(transactionId, command, recipientData);
-
-        prepareWithdraw(withdrawAmount, recipientData, transactionId);
-
-        TransactionStatus transactionPaymentStatus = prepareTransfer(transferAmount, recipientData,
-                transactionId);
-
-        if (transactionPaymentStatus.equals(TransactionStatus.FAILED)) {
-            prepareChargeback(transactionId);
-        }
-
-        return transactionId;
+        return AsyncHttpClient.await(handlerAsync(command));
     }
 
-    private RecipientData getRecipientData(TransferMoneyCommand command) {
+    @Override
+    public CompletableFuture<String> handlerAsync(TransferMoneyCommand command) {
+        String transactionId = UUID.randomUUID().toString();
         ObtainRecipientByIdQuery obtainRecipientByIdQuery = new ObtainRecipientByIdQuery(
                 command.recipientId(), command.clientId());
 
-        return recipient.findRecipientById(obtainRecipientByIdQuery)
-                .orElseThrow(RecipientNotFoundException::new);
+        return recipient.findRecipientByIdAsync(obtainRecipientByIdQuery).thenCompose(result -> {
+            RecipientData recipientData = result.orElseThrow(RecipientNotFoundException::new);
+
+            checkRecipientOwnership(command.clientId(), recipientData);
+
+            BigDecimal withdrawAmount = command.amount();
+            BigDecimal transferAmount = recipientData.applyFee(withdrawAmount);
+
+            return checkSufficientBalanceAsync(recipientData.clientId(), withdrawAmount)
+                    .thenRun(() -> startTransaction(transactionId, command, recipientData))
+                    .thenCompose(ignored -> prepareWithdrawAsync(withdrawAmount, recipientData,
+                            transactionId))
+                    .thenCompose(ignored -> prepareTransferAsync(transferAmount, recipientData,
+                            transactionId))
+                    .thenCompose(transactionPaymentStatus ->
+                            transactionPaymentStatus.equals(TransactionStatus.FAILED)
+                                    ? prepareChargebackAsync(transactionId)
+                                    : CompletableFuture.<Void>completedFuture(null));
+        }).thenApply(ignored -> transactionId);
     }
 
     private void checkRecipientOwnership(Long clientId, RecipientData recipientData) {
@@ -72,9 +75,10 @@ public class TransferMoneyFacade implements TransferMoney {
         }
     }
 
-    private void checkSufficientBalance(Long clientId, BigDecimal withdrawAmount) {
-        wallet.getBalance(clientId).orElseThrow(WalletNotFoundException::new)
-                .checkSufficientBalance(withdrawAmount);
+    private CompletableFuture<Void> checkSufficientBalanceAsync(Long clientId,
+            BigDecimal withdrawAmount) {
+        return wallet.getBalanceAsync(clientId).thenAccept(balance -> balance.orElseThrow(
+                WalletNotFoundException::new).checkSufficientBalance(withdrawAmount));
     }
 
     private void startTransaction(String transactionId, TransferMoneyCommand command,
@@ -82,29 +86,32 @@ public class TransferMoneyFacade implements TransferMoney {
         this.transaction.starNewTransaction(transactionId, command, recipientData);
     }
 
-    private void prepareWithdraw(BigDecimal withdrawAmount, RecipientData recipientData,
-            String transactionId) {
-        TransactionStatus transactionWalletStatus = wallet.prepareWithdraw(withdrawAmount,
-                recipientData, transactionId);
-        transaction.addStepToTransaction(transactionId, WalletAdapter.class.getSimpleName(),
-                transactionWalletStatus);
-        if (transactionWalletStatus.equals(TransactionStatus.FAILED)) {
-            throw new TransactionFailedException("Transaction failed at wallet step");
-        }
+    private CompletableFuture<Void> prepareWithdrawAsync(BigDecimal withdrawAmount,
+            RecipientData recipientData, String transactionId) {
+        return wallet.prepareWithdrawAsync(withdrawAmount, recipientData, transactionId)
+                .thenAccept(transactionWalletStatus -> {
+                    transaction.addStepToTransaction(transactionId,
+                            WalletAdapter.class.getSimpleName(), transactionWalletStatus);
+                    if (transactionWalletStatus.equals(TransactionStatus.FAILED)) {
+                        throw new TransactionFailedException("Transaction failed at wallet step");
+                    }
+                });
     }
 
-    private TransactionStatus prepareTransfer(BigDecimal transferAmount,
+    private CompletableFuture<TransactionStatus> prepareTransferAsync(BigDecimal transferAmount,
             RecipientData recipientData, String transactionId) {
-        TransactionStatus transactionPaymentStatus = payment.prepareTransfer(transferAmount,
-                recipientData, transactionId);
-        transaction.addStepToTransaction(transactionId, PaymentAdapter.class.getSimpleName(),
-                transactionPaymentStatus);
-        return transactionPaymentStatus;
+        return payment.prepareTransferAsync(transferAmount, recipientData, transactionId)
+                .thenApply(transactionPaymentStatus -> {
+                    transaction.addStepToTransaction(transactionId,
+                            PaymentAdapter.class.getSimpleName(), transactionPaymentStatus);
+                    return transactionPaymentStatus;
+                });
     }
 
-    private void prepareChargeback(String transactionId) {
-        this.chargeback.prepareChargeback(transactionId);
-        throw new TransactionFailedException(
-                "Transaction failed at payment step, chargeback initiated");
+    private CompletableFuture<Void> prepareChargebackAsync(String transactionId) {
+        return this.chargeback.prepareChargebackAsync(transactionId).thenAccept(status -> {
+            throw new TransactionFailedException(
+                    "Transaction failed at payment step, chargeback initiated");
+        });
     }
 }
\ No newline at end of file
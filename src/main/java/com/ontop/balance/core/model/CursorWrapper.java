@@ -0,0 +1,10 @@
+package com.ontop.balance.core.model;
+
+import java.util.List;
+
+/**
+ * @param next the cursor to request the following page with, or {@code null} on the last page
+ */
+public record CursorWrapper<T>(List<T> data, String next) {
+
+}
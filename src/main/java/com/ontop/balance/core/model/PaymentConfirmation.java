@@ -0,0 +1,7 @@
+package com.ontop.balance.core.model;
+
+import com.ontop.balance.core.model.TransactionData.TransactionStatus;
+
+public record PaymentConfirmation(String transactionId, TransactionStatus status) {
+
+}
@@ -0,0 +1,20 @@
+package com.ontop.balance.core.model;
+
+public record RecipientImportResult(String id, ImportStatus status, String reason) {
+
+    public static RecipientImportResult created(String id) {
+        return new RecipientImportResult(id, ImportStatus.CREATED, null);
+    }
+
+    public static RecipientImportResult duplicate(String id) {
+        return new RecipientImportResult(id, ImportStatus.DUPLICATE, null);
+    }
+
+    public static RecipientImportResult failed(String reason) {
+        return new RecipientImportResult(null, ImportStatus.FAILED, reason);
+    }
+
+    public enum ImportStatus {
+        CREATED, DUPLICATE, FAILED
+    }
+}
@@ -0,0 +1,11 @@
+package com.ontop.balance.core.model;
+
+import java.util.Set;
+
+/**
+ * The outcome of starting a stage for a batch of transactions: those it was started for, and
+ * those whose stage another delivery has claimed and not yet completed.
+ */
+public record StartedSteps(Set<String> started, Set<String> inProgress) {
+
+}
@@ -0,0 +1,8 @@
+package com.ontop.balance.core.model;
+
+import com.ontop.balance.core.model.TransactionData.TransactionStatus;
+
+public record TransactionStep(String transactionId, String targetSystem,
+                              TransactionStatus status) {
+
+}
@@ -0,0 +1,5 @@
+package com.ontop.balance.core.model.commands;
+
+public record ConfirmPaymentCommand(String paymentId, String status) {
+
+}
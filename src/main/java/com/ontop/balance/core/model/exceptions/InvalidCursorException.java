@@ -0,0 +1,5 @@
+package com.ontop.balance.core.model.exceptions;
+
+public class InvalidCursorException extends RuntimeException {
+
+}
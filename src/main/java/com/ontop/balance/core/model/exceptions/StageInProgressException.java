@@ -0,0 +1,12 @@
+package com.ontop.balance.core.model.exceptions;
+
+/**
+ * A saga stage is claimed by a delivery that has not completed it yet. The message is to be
+ * tried again, and dead-lettered if the claim outlives its retries.
+ */
+public class StageInProgressException extends RuntimeException {
+
+    public StageInProgressException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.ontop.balance.core.model.queries;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+
+/**
+ * Query parameters for searching a client's recipients by name prefix.
+ * <p>
+ * {@code after} is the opaque cursor returned with the previous page, or {@code null} for the
+ * first page.
+ * </p>
+ */
+public record SearchRecipientsQuery(
+        Long clientId,
+        String prefix,
+        String after,
+        @Min(value = 1, message = "Size must be at least 1") @Max(value = 100, message = "Size cannot exceed 100") int size) {
+
+}
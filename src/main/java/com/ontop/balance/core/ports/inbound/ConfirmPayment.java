@@ -0,0 +1,8 @@
+package com.ontop.balance.core.ports.inbound;
+
+import com.ontop.balance.core.model.commands.ConfirmPaymentCommand;
+
+public interface ConfirmPayment {
+
+    void handle(ConfirmPaymentCommand command);
+}
@@ -1,8 +1,11 @@
 package com.ontop.balance.core.ports.inbound;
 
 import com.ontop.kernels.ChargebackMessage;
+import java.util.List;
 
 public interface ExecuteChargebackTransaction {
 
     void handle(ChargebackMessage message);
+
+    void handleBatch(List<ChargebackMessage> messages);
 }
@@ -1,8 +1,11 @@
 package com.ontop.balance.core.ports.inbound;
 
 import com.ontop.kernels.PaymentMessage;
+import java.util.List;
 
 public interface ExecutePaymentTransaction {
 
     void handle(PaymentMessage message);
+
+    void handleBatch(List<PaymentMessage> messages);
 }
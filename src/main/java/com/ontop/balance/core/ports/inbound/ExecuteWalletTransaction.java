@@ -1,8 +1,11 @@
 package com.ontop.balance.core.ports.inbound;
 
 import com.ontop.kernels.WalletMessage;
+import java.util.List;
 
 public interface ExecuteWalletTransaction {
 
     void handle(WalletMessage message);
+
+    void handleBatch(List<WalletMessage> messages);
 }
@@ -0,0 +1,8 @@
+package com.ontop.balance.core.ports.inbound;
+
+import com.ontop.balance.core.model.commands.FailTransactionStepCommand;
+
+public interface FailTransactionStep {
+
+    void handle(FailTransactionStepCommand command);
+}
@@ -0,0 +1,13 @@
+package com.ontop.balance.core.ports.inbound;
+
+import com.ontop.balance.core.model.RecipientImportResult;
+import com.ontop.balance.core.model.commands.CreateRecipientCommand;
+import java.util.List;
+
+public interface ImportRecipients {
+
+    /**
+     * @return one result per command, in the same order as {@code commands}
+     */
+    List<RecipientImportResult> handler(List<CreateRecipientCommand> commands);
+}
@@ -3,8 +3,12 @@ package com.ontop.balance.core.ports.inbound;
 import com.ontop.balance.core.model.PaginatedWrapper;
 import com.ontop.balance.core.model.RecipientData;
 import com.ontop.balance.core.model.queries.ObtainRecipientByClientQuery;
+import java.util.concurrent.CompletableFuture;
 
 public interface ObtainRecipientByClient {
 
     PaginatedWrapper<RecipientData> handler(ObtainRecipientByClientQuery query);
+
+    CompletableFuture<PaginatedWrapper<RecipientData>> handlerAsync(
+            ObtainRecipientByClientQuery query);
 }
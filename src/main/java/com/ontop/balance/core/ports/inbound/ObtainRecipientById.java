@@ -2,8 +2,11 @@ package com.ontop.balance.core.ports.inbound;
 
 import com.ontop.balance.core.model.RecipientData;
 import com.ontop.balance.core.model.queries.ObtainRecipientByIdQuery;
+import java.util.concurrent.CompletableFuture;
 
 public interface ObtainRecipientById {
 
     RecipientData handler(ObtainRecipientByIdQuery query);
+
+    CompletableFuture<RecipientData> handlerAsync(ObtainRecipientByIdQuery query);
 }
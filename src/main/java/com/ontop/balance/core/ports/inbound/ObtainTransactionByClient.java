@@ -3,8 +3,12 @@ package com.ontop.balance.core.ports.inbound;
 import com.ontop.balance.core.model.PaginatedWrapper;
 import com.ontop.balance.core.model.TransactionData;
 import com.ontop.balance.core.model.queries.ObtainTransactionClientQuery;
+import java.util.concurrent.CompletableFuture;
 
 public interface ObtainTransactionByClient {
 
     PaginatedWrapper<TransactionData> handler(ObtainTransactionClientQuery query);
+
+    CompletableFuture<PaginatedWrapper<TransactionData>> handlerAsync(
+            ObtainTransactionClientQuery query);
 }
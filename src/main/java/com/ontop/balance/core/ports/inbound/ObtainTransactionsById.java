@@ -2,9 +2,11 @@ package com.ontop.balance.core.ports.inbound;
 
 import com.ontop.balance.core.model.TransactionData;
 import com.ontop.balance.core.model.queries.ObtainTransactionByIdQuery;
+import java.util.concurrent.CompletableFuture;
 
 public interface ObtainTransactionsById {
 
     TransactionData handler(ObtainTransactionByIdQuery query);
 
+    CompletableFuture<TransactionData> handlerAsync(ObtainTransactionByIdQuery query);
 }
@@ -0,0 +1,8 @@
+package com.ontop.balance.core.ports.inbound;
+
+import com.ontop.balance.core.model.commands.ReplayDeadLettersCommand;
+
+public interface ReplayDeadLetters {
+
+    void handle(ReplayDeadLettersCommand command);
+}
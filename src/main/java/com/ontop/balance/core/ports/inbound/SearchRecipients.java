@@ -0,0 +1,10 @@
+package com.ontop.balance.core.ports.inbound;
+
+import com.ontop.balance.core.model.CursorWrapper;
+import com.ontop.balance.core.model.RecipientData;
+import com.ontop.balance.core.model.queries.SearchRecipientsQuery;
+
+public interface SearchRecipients {
+
+    CursorWrapper<RecipientData> handler(SearchRecipientsQuery query);
+}
@@ -1,8 +1,11 @@
 package com.ontop.balance.core.ports.inbound;
 
 import com.ontop.balance.core.model.commands.TransferMoneyCommand;
+import java.util.concurrent.CompletableFuture;
 
 public interface TransferMoney {
 
     String handler(TransferMoneyCommand command);
+
+    CompletableFuture<String> handlerAsync(TransferMoneyCommand command);
 }
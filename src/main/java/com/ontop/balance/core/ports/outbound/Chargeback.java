@@ -2,10 +2,19 @@ package com.ontop.balance.core.ports.outbound;
 
 import com.ontop.balance.core.model.TransactionData.TransactionStatus;
 import com.ontop.kernels.ChargebackMessage;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * The {@code *Async} variants do not hold a thread while the wallet service answers. Their
+ * futures never complete exceptionally: failures are reported as {@code FAILED}.
+ */
 public interface Chargeback {
 
     TransactionStatus prepareChargeback(String transactionId);
 
     TransactionStatus chargeback(ChargebackMessage message);
+
+    CompletableFuture<TransactionStatus> prepareChargebackAsync(String transactionId);
+
+    CompletableFuture<TransactionStatus> chargebackAsync(ChargebackMessage message);
 }
@@ -0,0 +1,10 @@
+package com.ontop.balance.core.ports.outbound;
+
+public interface DeadLetters {
+
+    /**
+     * Puts up to {@code limit} dead-lettered messages of a saga stage back on the stage's topic,
+     * oldest first. The replay runs in the background.
+     */
+    void replay(String stage, int limit);
+}
@@ -1,14 +1,36 @@
 package com.ontop.balance.core.ports.outbound;
 
+import com.ontop.balance.core.model.PaymentConfirmation;
 import com.ontop.balance.core.model.RecipientData;
 import com.ontop.balance.core.model.TransactionData.TransactionStatus;
 import com.ontop.kernels.PaymentMessage;
 import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * A transfer is {@code PENDING} once the payment provider has accepted it; its outcome arrives
+ * later through {@link #confirm(String, String)}. The {@code *Async} variants do not hold a
+ * thread while the payment service answers. Their futures never complete exceptionally: failures
+ * are reported as {@code FAILED} or {@code CANCELED}.
+ */
 public interface Payment {
 
     TransactionStatus prepareTransfer(BigDecimal amount, RecipientData recipientData,
             String transactionId);
 
     TransactionStatus transfer(PaymentMessage message);
+
+    CompletableFuture<TransactionStatus> prepareTransferAsync(BigDecimal amount,
+            RecipientData recipientData, String transactionId);
+
+    CompletableFuture<TransactionStatus> transferAsync(PaymentMessage message);
+
+    /**
+     * Records the status the provider reported for a payment. Returns the transaction to settle
+     * when this is the first outcome of a payment it has accepted. Progress updates and repeated
+     * callbacks return empty, as do outcomes that arrive before the acceptance is recorded: those
+     * are returned by the transfer instead.
+     */
+    Optional<PaymentConfirmation> confirm(String paymentId, String providerStatus);
 }
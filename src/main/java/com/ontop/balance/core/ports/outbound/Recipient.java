@@ -1,17 +1,45 @@
 package com.ontop.balance.core.ports.outbound;
 
+import com.ontop.balance.core.model.CursorWrapper;
 import com.ontop.balance.core.model.PaginatedWrapper;
 import com.ontop.balance.core.model.RecipientData;
+import com.ontop.balance.core.model.RecipientImportResult;
 import com.ontop.balance.core.model.commands.CreateRecipientCommand;
 import com.ontop.balance.core.model.queries.ObtainRecipientByClientQuery;
 import com.ontop.balance.core.model.queries.ObtainRecipientByIdQuery;
+import com.ontop.balance.core.model.queries.SearchRecipientsQuery;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public interface Recipient {
 
-    void save(CreateRecipientCommand createRecipientCommand, String uuid);
+    /**
+     * @return {@code uuid}, or the id of the recipient already stored for the same account
+     */
+    String save(CreateRecipientCommand createRecipientCommand, String uuid);
+
+    /**
+     * @param commands the commands to store, keyed by the id each recipient should receive
+     * @return one result per command, in the iteration order of {@code commands}
+     */
+    List<RecipientImportResult> saveAll(Map<String, CreateRecipientCommand> commands);
 
     PaginatedWrapper<RecipientData> findRecipients(ObtainRecipientByClientQuery query);
 
+    CompletableFuture<PaginatedWrapper<RecipientData>> findRecipientsAsync(
+            ObtainRecipientByClientQuery query);
+
+    /**
+     * Pages through the client's recipients whose normalized name starts with the normalized
+     * {@code query.prefix()}, ordered by that name. Throws {@code InvalidCursorException} when
+     * {@code query.after()} was not issued by a previous search.
+     */
+    CursorWrapper<RecipientData> searchRecipients(SearchRecipientsQuery query);
+
     Optional<RecipientData> findRecipientById(ObtainRecipientByIdQuery query);
+
+    CompletableFuture<Optional<RecipientData>> findRecipientByIdAsync(
+            ObtainRecipientByIdQuery query);
 }
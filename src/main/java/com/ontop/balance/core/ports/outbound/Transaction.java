@@ -2,20 +2,70 @@ package com.ontop.balance.core.ports.outbound;
 
 import com.ontop.balance.core.model.PaginatedWrapper;
 import com.ontop.balance.core.model.RecipientData;
+import com.ontop.balance.core.model.StartedSteps;
 import com.ontop.balance.core.model.TransactionData;
 import com.ontop.balance.core.model.TransactionData.TransactionStatus;
+import com.ontop.balance.core.model.TransactionStep;
 import com.ontop.balance.core.model.commands.TransferMoneyCommand;
+import com.ontop.balance.core.model.exceptions.StageInProgressException;
 import com.ontop.balance.core.model.queries.ObtainTransactionClientQuery;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public interface Transaction {
 
     Optional<TransactionData> getTransactionsById(String id);
 
+    CompletableFuture<Optional<TransactionData>> getTransactionsByIdAsync(String id);
+
     void starNewTransaction(String transactionId, TransferMoneyCommand command,
             RecipientData recipientData);
 
     void addStepToTransaction(String transactionId, String targetSystem, TransactionStatus status);
 
+    /**
+     * Appends each step to its transaction in one round trip. Steps of unknown transactions are
+     * skipped.
+     */
+    void addStepsToTransactions(List<TransactionStep> steps);
+
+    /**
+     * Claims the stage and appends an {@code IN_PROGRESS} step for it, unless the stage has
+     * already been processed for the transaction or another delivery holds a claim on it. The
+     * check and the claim are atomic, so of concurrent deliveries of the same message only one
+     * starts the stage. A claim that has not been completed within its lease is stale and is
+     * taken over by the next delivery.
+     *
+     * @return whether the stage was started, {@code false} for a redelivered message
+     * @throws StageInProgressException when another delivery holds a live claim on the stage
+     */
+    boolean startStep(String transactionId, String targetSystem);
+
+    /**
+     * Drops the claim on a stage that was started but not completed, so the next delivery of
+     * its message starts it again.
+     */
+    void releaseStep(String transactionId, String targetSystem);
+
+    /**
+     * Appends the outcome of the stage and marks the stage processed in the same write.
+     */
+    void completeStep(String transactionId, String targetSystem, TransactionStatus status);
+
+    /**
+     * Batch form of {@link #startStep(String, String)}. Transactions whose stage another delivery
+     * holds a live claim on are reported instead of failing the batch.
+     */
+    StartedSteps startSteps(List<String> transactionIds, String targetSystem);
+
+    /**
+     * Batch form of {@link #completeStep(String, String, TransactionStatus)}.
+     */
+    void completeSteps(List<TransactionStep> steps);
+
     PaginatedWrapper<TransactionData> findByClient(ObtainTransactionClientQuery query);
+
+    CompletableFuture<PaginatedWrapper<TransactionData>> findByClientAsync(
+            ObtainTransactionClientQuery query);
 }
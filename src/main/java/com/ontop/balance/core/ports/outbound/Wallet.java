@@ -6,7 +6,12 @@ import com.ontop.balance.core.model.TransactionData.TransactionStatus;
 import com.ontop.kernels.WalletMessage;
 import java.math.BigDecimal;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * The {@code *Async} variants do not hold a thread while the wallet service answers. Their status
+ * futures never complete exceptionally: failures are reported as {@code FAILED}.
+ */
 public interface Wallet {
 
     TransactionStatus prepareWithdraw(BigDecimal amount, RecipientData recipientData,
@@ -15,4 +20,11 @@ public interface Wallet {
     TransactionStatus withdraw(WalletMessage message);
 
     Optional<BalanceData> getBalance(Long clientId);
+
+    CompletableFuture<TransactionStatus> prepareWithdrawAsync(BigDecimal amount,
+            RecipientData recipientData, String transactionId);
+
+    CompletableFuture<TransactionStatus> withdrawAsync(WalletMessage message);
+
+    CompletableFuture<Optional<BalanceData>> getBalanceAsync(Long clientId);
 }
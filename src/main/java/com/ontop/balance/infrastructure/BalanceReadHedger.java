@@ -0,0 +1,241 @@
+package com.ontop.balance.infrastructure;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hedges wallet balance reads: when a read has not answered within the configured percentile of
+ * recent read latencies, an identical read is sent and whichever answers first is used, the
+ * other one being interrupted.
+ *
+ * <p>Neither Feign nor its Apache HttpClient 5 transport can abort a request in flight; the
+ * interrupt is what stops the losing read. Reads run on virtual threads, and a virtual thread
+ * interrupted while blocked on a socket closes that socket, so the losing read fails at once and
+ * its connection is discarded instead of going back to the pool, where it would still carry the
+ * unread response. A read that has already been answered finishes normally. The interrupted read
+ * is not counted against the wallet service: the breaker ignores it, it is not retried and its
+ * instance is not blamed.</p>
+ *
+ * <p>Each read gets a virtual thread of its own; at most {@code threads} of them run at once, a
+ * read beyond that running on the caller's thread and a hedge beyond that being skipped.</p>
+ *
+ * <p>Hedges are paid for from a budget that grows by {@code budget-ratio} tokens per read, up to
+ * {@code budget-burst}, so they never add more than that share of extra load. Reads are not
+ * hedged until {@code min-samples} latencies have been recorded.</p>
+ *
+ * <p>Only idempotent calls may be passed in, since both copies can reach the wallet service.</p>
+ */
+@Component
+public class BalanceReadHedger implements DisposableBean {
+
+    private final boolean enabled;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+    private final long minSamples;
+    private final double budgetRatio;
+    private final double budgetBurst;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final Timer latency;
+    private final Counter hedged;
+    private final Counter won;
+    private final Counter skipped;
+    private final Timer saved;
+    private double budget;
+
+    public BalanceReadHedger(MeterRegistry meterRegistry,
+            @Value("${core.wallet.hedge.enabled:false}") boolean enabled,
+            @Value("${core.wallet.hedge.percentile:0.95}") double percentile,
+            @Value("${core.wallet.hedge.min-delay:PT0.02S}") Duration minDelay,
+            @Value("${core.wallet.hedge.max-delay:PT1S}") Duration maxDelay,
+            @Value("${core.wallet.hedge.min-samples:100}") long minSamples,
+            @Value("${core.wallet.hedge.budget-ratio:0.05}") double budgetRatio,
+            @Value("${core.wallet.hedge.budget-burst:10}") double budgetBurst,
+            @Value("${core.wallet.hedge.threads:32}") int threads) {
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.minDelayNanos = minDelay.toNanos();
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.minSamples = minSamples;
+        this.budgetRatio = budgetRatio;
+        this.budgetBurst = budgetBurst;
+        this.executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("balance-hedge-", 0).factory());
+        this.permits = new Semaphore(threads);
+        this.latency = Timer.builder("wallet.balance.latency")
+                .description("Latency of individual wallet balance reads")
+                .publishPercentiles(percentile).distributionStatisticExpiry(Duration.ofMinutes(1))
+                .register(meterRegistry);
+        this.hedged = outcome(meterRegistry, "hedged");
+        this.won = outcome(meterRegistry, "won");
+        this.skipped = outcome(meterRegistry, "skipped");
+        this.saved = Timer.builder("wallet.balance.hedge.saved")
+                .description("How much sooner a winning hedge answered than the read it hedged")
+                .register(meterRegistry);
+    }
+
+    public <T> T call(Supplier<T> read) {
+        if (!enabled) {
+            return this.latency.record(read);
+        }
+        Race race = new Race();
+        ExecutorCompletionService<T> completions = new ExecutorCompletionService<>(this::execute);
+        Future<T> primary;
+        try {
+            primary = completions.submit(() -> race.primary(this.latency.record(read)));
+        } catch (RejectedExecutionException e) {
+            return this.latency.record(read);
+        }
+        Future<T> hedge = null;
+        try {
+            Future<T> first = completions.poll(hedgeDelayNanos(), TimeUnit.NANOSECONDS);
+            if (first == null) {
+                hedge = submitHedge(completions, read);
+                first = completions.take();
+            }
+            try {
+                T result = first.get();
+                if (first == hedge) {
+                    this.won.increment();
+                    race.hedgeWon();
+                }
+                return result;
+            } catch (ExecutionException e) {
+                if (hedge == null) {
+                    throw unwrap(e);
+                }
+                return completions.take().get();
+            }
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading the wallet balance", e);
+        } finally {
+            // Interrupts the losing read, closing the socket it is blocked on
+            primary.cancel(true);
+            if (hedge != null) {
+                hedge.cancel(true);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Starts {@code read} on a virtual thread of its own if a permit is free.
+     *
+     * @throws RejectedExecutionException when {@code threads} reads are already running
+     */
+    private void execute(Runnable read) {
+        if (!this.permits.tryAcquire()) {
+            throw new RejectedExecutionException("No balance read permit left");
+        }
+        try {
+            this.executor.execute(() -> {
+                try {
+                    read.run();
+                } finally {
+                    this.permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.permits.release();
+            throw e;
+        }
+    }
+
+    private <T> Future<T> submitHedge(ExecutorCompletionService<T> completions, Supplier<T> read) {
+        if (!tryAcquireBudget()) {
+            this.skipped.increment();
+            return null;
+        }
+        try {
+            Future<T> hedge = completions.submit(() -> this.latency.record(read));
+            this.hedged.increment();
+            return hedge;
+        } catch (RejectedExecutionException e) {
+            this.skipped.increment();
+            return null;
+        }
+    }
+
+    private long hedgeDelayNanos() {
+        depositBudget();
+        if (this.latency.count() < this.minSamples) {
+            return Long.MAX_VALUE;
+        }
+        for (ValueAtPercentile value : this.latency.takeSnapshot().percentileValues()) {
+            if (value.percentile() == this.percentile) {
+                long delay = (long) value.value(TimeUnit.NANOSECONDS);
+                return Math.min(this.maxDelayNanos, Math.max(this.minDelayNanos, delay));
+            }
+        }
+        return this.maxDelayNanos;
+    }
+
+    private synchronized void depositBudget() {
+        this.budget = Math.min(this.budgetBurst, this.budget + this.budgetRatio);
+    }
+
+    private synchronized boolean tryAcquireBudget() {
+        if (this.budget < 1) {
+            return false;
+        }
+        this.budget -= 1;
+        return true;
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException cause) {
+            return cause;
+        }
+        return new IllegalStateException(e.getCause());
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("wallet.balance.hedge").description("Hedged wallet balance reads")
+                .tag("outcome", outcome).register(meterRegistry);
+    }
+
+    /**
+     * Tracks when a hedge won so the time saved can be measured if the hedged read still
+     * finishes after being cancelled.
+     */
+    private final class Race {
+
+        private final AtomicLong hedgeWonAt = new AtomicLong();
+
+        void hedgeWon() {
+            this.hedgeWonAt.set(System.nanoTime());
+        }
+
+        <T> T primary(T result) {
+            long wonAt = this.hedgeWonAt.get();
+            if (wonAt != 0) {
+                saved.record(System.nanoTime() - wonAt, TimeUnit.NANOSECONDS);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.ontop.balance.infrastructure;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ontop.balance.core.model.CursorWrapper;
+import com.ontop.balance.core.model.PaginatedWrapper;
+import com.ontop.balance.core.model.RecipientData;
+import com.ontop.balance.core.model.RecipientImportResult;
+import com.ontop.balance.core.model.commands.CreateRecipientCommand;
+import com.ontop.balance.core.model.queries.ObtainRecipientByClientQuery;
+import com.ontop.balance.core.model.queries.ObtainRecipientByIdQuery;
+import com.ontop.balance.core.model.queries.SearchRecipientsQuery;
+import com.ontop.balance.core.ports.outbound.Recipient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+/**
+ * Read-through cache in front of {@link RecipientAdapter}.
+ *
+ * <p>Recipients are immutable once created, so a cached {@link RecipientData} can only go stale
+ * through a new {@code save}, which invalidates the entry for that id. The positive cache is
+ * bounded by an estimated size in bytes and expires entries after a TTL.</p>
+ *
+ * <p>Lookups for ids that do not exist are remembered per client for a short TTL, so a client
+ * probing unknown ids does not reach Mongo on every call and cannot poison lookups made by
+ * other clients.</p>
+ */
+@Primary
+@Component
+public class CachedRecipientAdapter implements Recipient {
+
+    private static final int ENTRY_OVERHEAD_BYTES = 160;
+
+    private final RecipientAdapter recipientAdapter;
+    private final HotRecipientSearchIndex searchIndex;
+    private final Cache<String, RecipientData> recipients;
+    private final Cache<UnknownRecipientKey, Boolean> unknownRecipients;
+
+    public CachedRecipientAdapter(RecipientAdapter recipientAdapter,
+            HotRecipientSearchIndex searchIndex, MeterRegistry meterRegistry,
+            @Value("${core.cache.recipients.max-weight-bytes:16777216}") long maxWeightBytes,
+            @Value("${core.cache.recipients.ttl:PT10M}") Duration ttl,
+            @Value("${core.cache.recipients.negative-max-size:10000}") long negativeMaxSize,
+            @Value("${core.cache.recipients.negative-ttl:PT30S}") Duration negativeTtl) {
+        this.recipientAdapter = recipientAdapter;
+        this.searchIndex = searchIndex;
+        this.recipients = Caffeine.newBuilder().maximumWeight(maxWeightBytes)
+                .weigher(CachedRecipientAdapter::weigh).expireAfterWrite(ttl).recordStats()
+                .build();
+        this.unknownRecipients = Caffeine.newBuilder().maximumSize(negativeMaxSize)
+                .expireAfterWrite(negativeTtl).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.recipients, "recipients");
+        CaffeineCacheMetrics.monitor(meterRegistry, this.unknownRecipients, "recipients.unknown");
+    }
+
+    @Override
+    public String save(CreateRecipientCommand command, String uuid) {
+        String id = this.recipientAdapter.save(command, uuid);
+        this.recipients.invalidate(id);
+        this.unknownRecipients.invalidate(new UnknownRecipientKey(command.clientId(), id));
+        this.searchIndex.invalidate(command.clientId());
+        return id;
+    }
+
+    @Override
+    public List<RecipientImportResult> saveAll(Map<String, CreateRecipientCommand> commands) {
+        List<RecipientImportResult> results = this.recipientAdapter.saveAll(commands);
+        commands.forEach((uuid, command) -> {
+            this.recipients.invalidate(uuid);
+            this.unknownRecipients.invalidate(new UnknownRecipientKey(command.clientId(), uuid));
+            this.searchIndex.invalidate(command.clientId());
+        });
+        return results;
+    }
+
+    @Override
+    public PaginatedWrapper<RecipientData> findRecipients(ObtainRecipientByClientQuery query) {
+        return this.recipientAdapter.findRecipients(query);
+    }
+
+    @Override
+    public CompletableFuture<PaginatedWrapper<RecipientData>> findRecipientsAsync(
+            ObtainRecipientByClientQuery query) {
+        return this.recipientAdapter.findRecipientsAsync(query);
+    }
+
+    @Override
+    public CursorWrapper<RecipientData> searchRecipients(SearchRecipientsQuery query) {
+        return this.searchIndex.search(query, this.recipientAdapter::findAllRecipients)
+                .orElseGet(() -> this.recipientAdapter.searchRecipients(query));
+    }
+
+    @Override
+    public Optional<RecipientData> findRecipientById(ObtainRecipientByIdQuery query) {
+        RecipientData cached = this.recipients.getIfPresent(query.id());
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        if (isKnownToBeMissing(query)) {
+            return Optional.empty();
+        }
+        return remember(query, this.recipientAdapter.findRecipientById(query));
+    }
+
+    @Override
+    public CompletableFuture<Optional<RecipientData>> findRecipientByIdAsync(
+            ObtainRecipientByIdQuery query) {
+        RecipientData cached = this.recipients.getIfPresent(query.id());
+        if (cached != null) {
+            return CompletableFuture.completedFuture(Optional.of(cached));
+        }
+        if (isKnownToBeMissing(query)) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return this.recipientAdapter.findRecipientByIdAsync(query)
+                .thenApply(result -> remember(query, result));
+    }
+
+    private boolean isKnownToBeMissing(ObtainRecipientByIdQuery query) {
+        return this.unknownRecipients.getIfPresent(
+                new UnknownRecipientKey(query.clientId(), query.id())) != null;
+    }
+
+    private Optional<RecipientData> remember(ObtainRecipientByIdQuery query,
+            Optional<RecipientData> result) {
+        result.ifPresentOrElse(
+                recipientData -> this.recipients.put(recipientData.id(), recipientData),
+                () -> this.unknownRecipients.put(
+                        new UnknownRecipientKey(query.clientId(), query.id()), Boolean.TRUE));
+        return result;
+    }
+
+    private static int weigh(String id, RecipientData recipientData) {
+        return ENTRY_OVERHEAD_BYTES + 2 * (length(id) + length(recipientData.name())
+                + length(recipientData.routingNumber())
+                + length(recipientData.nationalIdentification())
+                + length(recipientData.accountNumber()));
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private record UnknownRecipientKey(Long clientId, String id) {
+
+    }
+}
@@ -2,63 +2,82 @@ package com.ontop.balance.infrastructure;
 
 import com.ontop.balance.core.model.TransactionData.TransactionStatus;
 import com.ontop.balance.core.ports.outbound.Chargeback;
+import com.ontop.balance.infrastructure.clients.AsyncHttpClient;
 import com.ontop.balance.infrastructure.clients.WalletClient;
 import com.ontop.balance.infrastructure.clients.WalletClient.TransactionClientRequest;
-import com.ontop.balance.infrastructure.entities.TransactionEntity;
-import com.ontop.balance.infrastructure.repositories.TransactionRepository;
+import com.ontop.balance.infrastructure.repositories.ReactiveTransactionRepository;
 import com.ontop.kernels.ChargebackMessage;
-import feign.FeignException;
+import com.ontop.kernels.ParentMessage;
 import java.nio.charset.StandardCharsets;
-import java.util.concurrent.ExecutionException;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class ChargebackAdapter implements Chargeback {
 
-    @Value("${core.topic}")
+    @Value("${core.topics.chargeback.name}")
     private String topic;
 
-    private final TransactionRepository transactionRepository;
+    private final ReactiveTransactionRepository reactiveTransactionRepository;
 
     private final WalletClient walletClient;
-    private final KafkaTemplate<String, ChargebackMessage> chargebackProducer;
+    private final AsyncHttpClient asyncHttpClient;
+    private final WalletBalanceCache walletBalanceCache;
+    private final KafkaTemplate<String, ParentMessage> sagaProducer;
+    private final MessagePublisher messagePublisher;
 
     @Override
     public TransactionStatus prepareChargeback(String transactionId) {
-
-        ProducerRecord<String, ChargebackMessage> changebackRecord = new ProducerRecord<>(
-                this.topic, transactionId, new ChargebackMessage(transactionId));
-        changebackRecord.headers()
-                .add("x-transaction-id", transactionId.getBytes(StandardCharsets.UTF_8));
-        try {
-            this.chargebackProducer.send(changebackRecord).get();
-            return TransactionStatus.PENDING;
-        } catch (InterruptedException | ExecutionException e) {
-            log.error("Transaction PrepareChargeback >>> {}: {}", transactionId, e.getMessage());
-            return TransactionStatus.FAILED;
-        }
+        return AsyncHttpClient.await(prepareChargebackAsync(transactionId));
     }
 
     @Override
     public TransactionStatus chargeback(ChargebackMessage message) {
-        TransactionEntity transactionEntity = this.transactionRepository.findById(
-                message.getTransactionId()).orElseThrow();//TODO> handle exceptions
-        try {
-            this.walletClient.executeTransaction(
-                    new TransactionClientRequest(transactionEntity.getAmount().negate(),
-                            transactionEntity.getClientId()));
-            return TransactionStatus.COMPLETED;
-        } catch (FeignException e) {
-            log.error("Transaction Changeback >>> {}: {}", message.getTransactionId(),
-                    e.getMessage());
-            return TransactionStatus.FAILED;
-        }
+        return AsyncHttpClient.await(chargebackAsync(message));
+    }
+
+    @Override
+    public CompletableFuture<TransactionStatus> prepareChargebackAsync(String transactionId) {
+        return CompletableFuture.completedFuture(this.messagePublisher.publish(this.sagaProducer,
+                chargebackRecord(transactionId), ChargebackAdapter.class.getSimpleName()));
+    }
+
+    @Override
+    public CompletableFuture<TransactionStatus> chargebackAsync(ChargebackMessage message) {
+        return this.reactiveTransactionRepository.findById(message.getTransactionId())
+                .switchIfEmpty(Mono.error(() -> new NoSuchElementException(
+                        "Transaction not found")))
+                .toFuture().thenCompose(transactionEntity -> this.asyncHttpClient.call(
+                                () -> this.walletClient.executeTransaction(
+                                        new TransactionClientRequest(
+                                                transactionEntity.getAmount().negate(),
+                                                transactionEntity.getClientId())))
+                        .whenComplete((response, e) -> this.walletBalanceCache.invalidate(
+                                transactionEntity.getClientId())))
+                .handle((response, e) -> {
+                    if (e != null) {
+                        log.error("Transaction Changeback >>> {}: {}", message.getTransactionId(),
+                                e.getMessage());
+                        return TransactionStatus.FAILED;
+                    }
+                    return TransactionStatus.COMPLETED;
+                });
+    }
+
+    private ProducerRecord<String, ParentMessage> chargebackRecord(String transactionId) {
+        ProducerRecord<String, ParentMessage> changebackRecord = new ProducerRecord<>(
+                this.topic, transactionId, new ChargebackMessage(transactionId));
+        changebackRecord.headers()
+                .add("x-transaction-id", transactionId.getBytes(StandardCharsets.UTF_8));
+        return changebackRecord;
     }
 }
@@ -0,0 +1,84 @@
+package com.ontop.balance.infrastructure;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pauses and resumes Kafka listener containers on behalf of the components that need the
+ * consumers to stop fetching, e.g. when downstream work is piling up.
+ *
+ * <p>Each pause is taken for a reason and a container is only resumed once every reason it was
+ * paused for has been lifted, so independent sources of backpressure do not resume each other's
+ * pauses. Paused consumers keep their partitions and finish the records already fetched.</p>
+ *
+ * <p>Every transition is counted in {@code kafka.listener.flow.transitions} by listener, state and
+ * reason, and {@code kafka.listener.paused} is 1 while a listener is paused.</p>
+ */
+@Slf4j
+@Component
+public class ConsumerFlowControl {
+
+    private final ObjectProvider<KafkaListenerEndpointRegistry> registry;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Set<String>> pauses = new HashMap<>();
+
+    public ConsumerFlowControl(ObjectProvider<KafkaListenerEndpointRegistry> registry,
+            MeterRegistry meterRegistry) {
+        this.registry = registry;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public synchronized void pause(String listenerId, String reason) {
+        Set<String> reasons = this.pauses.computeIfAbsent(listenerId, this::register);
+        if (reasons.add(reason) && reasons.size() == 1) {
+            log.warn("Listener {} >>> paused: {}", listenerId, reason);
+            transition(listenerId, "paused", reason);
+            MessageListenerContainer container = container(listenerId);
+            if (container != null) {
+                container.pause();
+            }
+        }
+    }
+
+    public synchronized void resume(String listenerId, String reason) {
+        Set<String> reasons = this.pauses.get(listenerId);
+        if (reasons != null && reasons.remove(reason) && reasons.isEmpty()) {
+            log.info("Listener {} >>> resumed: {}", listenerId, reason);
+            transition(listenerId, "resumed", reason);
+            MessageListenerContainer container = container(listenerId);
+            if (container != null) {
+                container.resume();
+            }
+        }
+    }
+
+    public synchronized boolean isPaused(String listenerId) {
+        return !this.pauses.getOrDefault(listenerId, Set.of()).isEmpty();
+    }
+
+    private Set<String> register(String listenerId) {
+        Gauge.builder("kafka.listener.paused", this, flow -> flow.isPaused(listenerId) ? 1 : 0)
+                .description("Whether the listener is paused")
+                .tag("listener", listenerId).register(this.meterRegistry);
+        return new HashSet<>();
+    }
+
+    private void transition(String listenerId, String state, String reason) {
+        this.meterRegistry.counter("kafka.listener.flow.transitions", "listener", listenerId,
+                "state", state, "reason", reason).increment();
+    }
+
+    private MessageListenerContainer container(String listenerId) {
+        KafkaListenerEndpointRegistry endpointRegistry = this.registry.getIfAvailable();
+        return endpointRegistry == null ? null : endpointRegistry.getListenerContainer(listenerId);
+    }
+}
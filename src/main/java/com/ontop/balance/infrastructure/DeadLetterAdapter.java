@@ -0,0 +1,145 @@
+package com.ontop.balance.infrastructure;
+
+import com.ontop.balance.core.ports.outbound.DeadLetters;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.stereotype.Component;
+
+/**
+ * Replays dead-lettered saga messages onto the topic of their stage.
+ *
+ * <p>Records are read from the stage's dead-letter topic with a consumer group of their own and
+ * re-sent as they were written, keyed by their transaction, at no more than
+ * {@code core.dead-letter.replay.rate} per second. Offsets are committed once the records before
+ * them have been re-sent, so a replay that stops early resumes where it left off. The dead-letter
+ * headers of the previous failure are dropped; a record that fails again is dead-lettered with
+ * new ones. Replays run one at a time.</p>
+ */
+@Slf4j
+@Component
+public class DeadLetterAdapter implements DeadLetters, DisposableBean {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(5);
+    private static final String DEAD_LETTER_HEADER_PREFIX = "kafka_dlt-";
+
+    private final KafkaTemplate<String, Object> deadLetterProducer;
+    private final ConsumerFactory<String, byte[]> consumerFactory;
+    private final Map<String, String> topics;
+    private final String suffix;
+    private final long intervalNanos;
+    private final ExecutorService replays = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("dead-letter-replay").factory());
+
+    public DeadLetterAdapter(KafkaTemplate<String, Object> deadLetterProducer,
+            @Value("${spring.kafka.bootstrap-servers}") String bootstrapAddress,
+            @Value("${core.topics.wallet.name}") String walletTopic,
+            @Value("${core.topics.payment.name}") String paymentTopic,
+            @Value("${core.topics.chargeback.name}") String chargebackTopic,
+            @Value("${core.topics.dead-letter.suffix:.DLT}") String suffix,
+            @Value("${core.dead-letter.replay.group:core.group.dead-letter-replay}") String group,
+            @Value("${core.dead-letter.replay.rate:20}") double rate) {
+        this.deadLetterProducer = deadLetterProducer;
+        this.topics = Map.of("wallet", walletTopic, "payment", paymentTopic, "chargeback",
+                chargebackTopic);
+        this.suffix = suffix;
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapAddress);
+        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, group);
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        this.consumerFactory = new DefaultKafkaConsumerFactory<>(configProps,
+                new StringDeserializer(), new ByteArrayDeserializer());
+    }
+
+    @Override
+    public void replay(String stage, int limit) {
+        String topic = this.topics.get(stage);
+        if (topic == null) {
+            throw new IllegalArgumentException("Unknown saga stage " + stage);
+        }
+        this.replays.execute(() -> {
+            try {
+                int replayed = drain(topic, limit);
+                log.info("Dead letters {} >>> replayed {}", topic, replayed);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException | ExecutionException e) {
+                log.error("Dead letters {} >>> replay stopped: {}", topic, e.getMessage(), e);
+            }
+        });
+    }
+
+    private int drain(String topic, int limit)
+            throws InterruptedException, ExecutionException {
+        int replayed = 0;
+        try (Consumer<String, byte[]> consumer = this.consumerFactory.createConsumer()) {
+            consumer.subscribe(List.of(topic + this.suffix));
+            while (replayed < limit) {
+                ConsumerRecords<String, byte[]> records = consumer.poll(POLL_TIMEOUT);
+                if (records.isEmpty()) {
+                    break;
+                }
+                Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+                try {
+                    for (ConsumerRecord<String, byte[]> record : records) {
+                        if (replayed == limit) {
+                            break;
+                        }
+                        TimeUnit.NANOSECONDS.sleep(this.intervalNanos);
+                        this.deadLetterProducer.send(replayRecord(topic, record)).get();
+                        offsets.put(new TopicPartition(record.topic(), record.partition()),
+                                new OffsetAndMetadata(record.offset() + 1));
+                        replayed++;
+                    }
+                } finally {
+                    if (!offsets.isEmpty()) {
+                        consumer.commitSync(offsets);
+                    }
+                }
+            }
+        }
+        return replayed;
+    }
+
+    private static ProducerRecord<String, Object> replayRecord(String topic,
+            ConsumerRecord<String, byte[]> record) {
+        RecordHeaders headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            if (!header.key().startsWith(DEAD_LETTER_HEADER_PREFIX)
+                    && !header.key().equals(KafkaHeaders.DELIVERY_ATTEMPT)) {
+                headers.add(header);
+            }
+        }
+        return new ProducerRecord<>(topic, null, record.key(), record.value(), headers);
+    }
+
+    @Override
+    public void destroy() {
+        this.replays.shutdownNow();
+    }
+}
@@ -0,0 +1,170 @@
+package com.ontop.balance.infrastructure;
+
+import com.ontop.balance.infrastructure.clients.EndpointRouter;
+import com.ontop.balance.infrastructure.clients.EndpointRouter.Route;
+import com.ontop.balance.infrastructure.clients.PaymentProviderRegistry;
+import com.ontop.balance.infrastructure.clients.WalletInstanceBalancer;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker.State;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pauses the listeners whose records need a downstream service while that service is failing,
+ * so the records wait in Kafka instead of being turned into failed steps and chargebacks.
+ *
+ * <p>The wallet and chargeback listeners depend on the wallet backend, the payment listener on
+ * the payment backend. A listener is paused as soon as the circuit breaker of its backend opens,
+ * and while the backend's bulkhead has no free call left. The breaker's half-open trial calls are
+ * made by probing the backend with a {@code GET} of {@code probe-path} every
+ * {@code check-interval}, any response below 500 counting as a success; the listeners are resumed
+ * once the trials have closed the breaker. Each probe goes to the instance the backend's
+ * {@link EndpointRouter} picks and is reported back to it like any other call, so a dead
+ * instance is soon left out of the trials instead of keeping the breaker open while the others
+ * answer. A bulkhead pause is lifted once fewer than {@code bulkhead-resume-below} of its calls
+ * are in use. Pauses go through {@link ConsumerFlowControl}, which exports the transitions.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "core.flow-control.enabled", havingValue = "true",
+        matchIfMissing = true)
+public class DownstreamFlowControl implements DisposableBean {
+
+    private final ConsumerFlowControl consumerFlowControl;
+    private final List<Downstream> downstreams;
+    private final double bulkheadResumeBelow;
+    private final String probePath;
+    private final HttpClient httpClient;
+    private final ScheduledExecutorService scheduler;
+
+    public DownstreamFlowControl(ConsumerFlowControl consumerFlowControl,
+            CircuitBreakerRegistry circuitBreakerRegistry, BulkheadRegistry bulkheadRegistry,
+            WalletInstanceBalancer walletInstanceBalancer,
+            PaymentProviderRegistry paymentProviderRegistry,
+            @Value("${core.listener.wallet.id:wallets}") String walletListener,
+            @Value("${core.listener.payment.id:payments}") String paymentListener,
+            @Value("${core.listener.chargeback.id:chargebacks}") String chargebackListener,
+            @Value("${core.flow-control.probe-path:/}") String probePath,
+            @Value("${core.flow-control.probe-timeout:PT2S}") Duration probeTimeout,
+            @Value("${core.flow-control.bulkhead-resume-below:0.5}") double bulkheadResumeBelow,
+            @Value("${core.flow-control.check-interval:PT1S}") Duration checkInterval) {
+        this.consumerFlowControl = consumerFlowControl;
+        this.bulkheadResumeBelow = bulkheadResumeBelow;
+        this.probePath = probePath;
+        this.downstreams = List.of(
+                new Downstream(circuitBreakerRegistry.circuitBreaker("walletClientBackend"),
+                        bulkheadRegistry.bulkhead("walletClientBackend"),
+                        walletInstanceBalancer,
+                        List.of(walletListener, chargebackListener)),
+                new Downstream(circuitBreakerRegistry.circuitBreaker("paymentClientBackend"),
+                        bulkheadRegistry.bulkhead("paymentClientBackend"),
+                        paymentProviderRegistry,
+                        List.of(paymentListener)));
+        this.httpClient = HttpClient.newBuilder().connectTimeout(probeTimeout).build();
+        this.downstreams.forEach(downstream -> downstream.circuitBreaker().getEventPublisher()
+                .onStateTransition(event -> onState(downstream,
+                        event.getStateTransition().getToState())));
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofVirtual().name("downstream-flow-control").factory());
+        this.scheduler.scheduleWithFixedDelay(this::check, checkInterval.toNanos(),
+                checkInterval.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private void onState(Downstream downstream, State state) {
+        String reason = downstream.circuitBreaker().getName() + " circuit open";
+        switch (state) {
+            case OPEN, FORCED_OPEN -> downstream.listeners()
+                    .forEach(listener -> this.consumerFlowControl.pause(listener, reason));
+            case CLOSED, DISABLED, METRICS_ONLY -> downstream.listeners()
+                    .forEach(listener -> this.consumerFlowControl.resume(listener, reason));
+            default -> {
+                // Half-open: stay paused until the probes have closed or reopened the breaker
+            }
+        }
+    }
+
+    void check() {
+        for (Downstream downstream : this.downstreams) {
+            try {
+                if (downstream.circuitBreaker().getState() == State.HALF_OPEN) {
+                    probe(downstream);
+                }
+                checkBulkhead(downstream);
+            } catch (RuntimeException e) {
+                log.error("Flow control {} >>> {}", downstream.circuitBreaker().getName(),
+                        e.getMessage(), e);
+            }
+        }
+    }
+
+    private void probe(Downstream downstream) {
+        if (!downstream.circuitBreaker().tryAcquirePermission()) {
+            return;
+        }
+        CircuitBreaker circuitBreaker = downstream.circuitBreaker();
+        Route route = downstream.router().route();
+        long start = System.nanoTime();
+        try {
+            int status = this.httpClient.send(HttpRequest.newBuilder(
+                                    URI.create(route.baseUrl() + this.probePath))
+                            .timeout(this.httpClient.connectTimeout().orElseThrow()).GET().build(),
+                    BodyHandlers.discarding()).statusCode();
+            long latency = System.nanoTime() - start;
+            route.complete(latency, status < 500);
+            if (status < 500) {
+                circuitBreaker.onSuccess(latency, TimeUnit.NANOSECONDS);
+            } else {
+                circuitBreaker.onError(latency, TimeUnit.NANOSECONDS,
+                        new IOException("Server responded " + status));
+            }
+        } catch (IOException e) {
+            long latency = System.nanoTime() - start;
+            route.complete(latency, false);
+            circuitBreaker.onError(latency, TimeUnit.NANOSECONDS, e);
+        } catch (InterruptedException e) {
+            route.cancel();
+            circuitBreaker.releasePermission();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkBulkhead(Downstream downstream) {
+        Bulkhead bulkhead = downstream.bulkhead();
+        int max = bulkhead.getBulkheadConfig().getMaxConcurrentCalls();
+        int inUse = max - bulkhead.getMetrics().getAvailableConcurrentCalls();
+        String reason = bulkhead.getName() + " bulkhead saturated";
+        if (inUse >= max) {
+            downstream.listeners()
+                    .forEach(listener -> this.consumerFlowControl.pause(listener, reason));
+        } else if (inUse < max * this.bulkheadResumeBelow) {
+            downstream.listeners()
+                    .forEach(listener -> this.consumerFlowControl.resume(listener, reason));
+        }
+    }
+
+    @Override
+    public void destroy() {
+        this.scheduler.shutdownNow();
+    }
+
+    private record Downstream(CircuitBreaker circuitBreaker, Bulkhead bulkhead,
+                              EndpointRouter router, List<String> listeners) {
+
+    }
+}
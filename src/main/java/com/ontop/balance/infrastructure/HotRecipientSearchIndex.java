@@ -0,0 +1,117 @@
+package com.ontop.balance.infrastructure;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ontop.balance.core.model.CursorWrapper;
+import com.ontop.balance.core.model.RecipientData;
+import com.ontop.balance.core.model.queries.SearchRecipientsQuery;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory name index for the clients that search their recipients most often.
+ *
+ * <p>A client is indexed once it has searched {@code min-searches} times within {@code window}.
+ * Its recipients are then kept in a map sorted by {@link RecipientSearchKey}, where a prefix
+ * search is a range scan, so pages are answered without reaching Mongo. The index holds at most
+ * {@code max-entries} recipients across all clients and is dropped for a client whenever one of
+ * its recipients is saved on this instance. Saves made through other instances are picked up
+ * once the index expires after {@code ttl}.</p>
+ */
+@Component
+public class HotRecipientSearchIndex {
+
+    private final boolean enabled;
+    private final int minSearches;
+    private final Cache<Long, AtomicInteger> searchCounts;
+    private final Cache<Long, NavigableMap<RecipientSearchKey, RecipientData>> clients;
+
+    public HotRecipientSearchIndex(MeterRegistry meterRegistry,
+            @Value("${core.recipients.search.hot-index.enabled:false}") boolean enabled,
+            @Value("${core.recipients.search.hot-index.min-searches:20}") int minSearches,
+            @Value("${core.recipients.search.hot-index.window:PT1M}") Duration window,
+            @Value("${core.recipients.search.hot-index.max-entries:200000}") long maxEntries,
+            @Value("${core.recipients.search.hot-index.ttl:PT5M}") Duration ttl) {
+        this.enabled = enabled;
+        this.minSearches = minSearches;
+        this.searchCounts = Caffeine.newBuilder().maximumSize(10_000).expireAfterWrite(window)
+                .build();
+        this.clients = Caffeine.newBuilder().maximumWeight(maxEntries)
+                .<Long, NavigableMap<RecipientSearchKey, RecipientData>>weigher(
+                        (clientId, index) -> Math.max(1, index.size()))
+                .expireAfterWrite(ttl).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.clients, "recipients.search");
+    }
+
+    /**
+     * @param loader returns every recipient of a client, used when the client becomes hot
+     * @return the page, or empty when the client is not hot and Mongo should be searched
+     */
+    public Optional<CursorWrapper<RecipientData>> search(SearchRecipientsQuery query,
+            Function<Long, List<RecipientData>> loader) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        NavigableMap<RecipientSearchKey, RecipientData> index = this.clients.getIfPresent(
+                query.clientId());
+        if (index == null) {
+            if (this.searchCounts.get(query.clientId(), clientId -> new AtomicInteger())
+                    .incrementAndGet() < minSearches) {
+                return Optional.empty();
+            }
+            index = this.clients.get(query.clientId(), clientId -> build(loader.apply(clientId)));
+        }
+        return Optional.of(page(index, query));
+    }
+
+    public void invalidate(Long clientId) {
+        this.clients.invalidate(clientId);
+    }
+
+    private static NavigableMap<RecipientSearchKey, RecipientData> build(
+            List<RecipientData> recipients) {
+        NavigableMap<RecipientSearchKey, RecipientData> index = new TreeMap<>();
+        recipients.forEach(recipientData -> index.put(new RecipientSearchKey(
+                RecipientSearchKey.normalize(recipientData.name()), recipientData.id()),
+                recipientData));
+        return Collections.unmodifiableNavigableMap(index);
+    }
+
+    private static CursorWrapper<RecipientData> page(
+            NavigableMap<RecipientSearchKey, RecipientData> index, SearchRecipientsQuery query) {
+        String prefix = RecipientSearchKey.normalize(query.prefix());
+        RecipientSearchKey start = new RecipientSearchKey(prefix, "");
+        NavigableMap<RecipientSearchKey, RecipientData> tail = index.tailMap(start, true);
+        if (query.after() != null) {
+            RecipientSearchKey after = RecipientSearchKey.decode(query.after());
+            if (after.compareTo(start) >= 0) {
+                tail = index.tailMap(after, false);
+            }
+        }
+        List<RecipientData> data = new ArrayList<>(query.size());
+        RecipientSearchKey last = null;
+        for (Map.Entry<RecipientSearchKey, RecipientData> entry : tail.entrySet()) {
+            if (!entry.getKey().normalizedName().startsWith(prefix)) {
+                return new CursorWrapper<>(data, null);
+            }
+            if (data.size() == query.size()) {
+                return new CursorWrapper<>(data, last.encode());
+            }
+            data.add(entry.getValue());
+            last = entry.getKey();
+        }
+        return new CursorWrapper<>(data, null);
+    }
+}
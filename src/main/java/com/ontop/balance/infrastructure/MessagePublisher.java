@@ -0,0 +1,111 @@
+package com.ontop.balance.infrastructure;
+
+import com.ontop.balance.core.model.TransactionData.TransactionStatus;
+import com.ontop.balance.core.model.commands.FailTransactionStepCommand;
+import com.ontop.balance.core.ports.inbound.FailTransactionStep;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the saga messages without waiting for the broker.
+ *
+ * <p>A message is {@code PENDING} as soon as the producer has taken it, so callers no longer hold
+ * a thread for the broker round trip and concurrent sends share producer batches. The publish is
+ * tracked until the broker acknowledges it; if it fails, the step it belongs to is failed through
+ * {@link FailTransactionStep} off the producer's I/O thread. A send that fails before the producer
+ * takes it is reported as {@code FAILED} right away.</p>
+ *
+ * <p>Publish latency and record size are exported as {@code kafka.publish.latency} and
+ * {@code kafka.publish.size}, and publishes awaiting the broker as
+ * {@code kafka.publish.in-flight}.</p>
+ */
+@Slf4j
+@Component
+public class MessagePublisher implements DisposableBean {
+
+    private final ObjectProvider<FailTransactionStep> failTransactionStep;
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary size;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ExecutorService failures = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("publish-failures").factory());
+
+    public MessagePublisher(ObjectProvider<FailTransactionStep> failTransactionStep,
+            MeterRegistry meterRegistry) {
+        this.failTransactionStep = failTransactionStep;
+        this.meterRegistry = meterRegistry;
+        this.size = DistributionSummary.builder("kafka.publish.size")
+                .description("Serialized size of published saga messages").baseUnit("bytes")
+                .publishPercentileHistogram().register(meterRegistry);
+        Gauge.builder("kafka.publish.in-flight", this.inFlight, AtomicInteger::get)
+                .description("Saga messages sent and not yet acknowledged by the broker")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sends {@code record}, keyed by its transaction id, for the step of {@code targetSystem}.
+     */
+    public <T> TransactionStatus publish(KafkaTemplate<String, T> producer,
+            ProducerRecord<String, T> record, String targetSystem) {
+        String transactionId = record.key();
+        long start = System.nanoTime();
+        CompletableFuture<SendResult<String, T>> sent;
+        try {
+            sent = producer.send(record).completable();
+        } catch (RuntimeException e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        if (sent.isCompletedExceptionally()) {
+            latency(record.topic(), "failure").record(System.nanoTime() - start,
+                    TimeUnit.NANOSECONDS);
+            sent.exceptionally(e -> {
+                log.error("Transaction Publish {} >>> {}: {}", targetSystem, transactionId,
+                        e.getMessage());
+                return null;
+            });
+            return TransactionStatus.FAILED;
+        }
+        this.inFlight.incrementAndGet();
+        sent.whenComplete((result, e) -> {
+            this.inFlight.decrementAndGet();
+            latency(record.topic(), e == null ? "success" : "failure")
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (e == null) {
+                this.size.record(result.getRecordMetadata().serializedValueSize());
+                return;
+            }
+            log.error("Transaction Publish {} >>> {}: {}", targetSystem, transactionId,
+                    e.getMessage());
+            this.failures.execute(() -> this.failTransactionStep.getObject()
+                    .handle(new FailTransactionStepCommand(transactionId, targetSystem)));
+        });
+        return TransactionStatus.PENDING;
+    }
+
+    private Timer latency(String topic, String outcome) {
+        return Timer.builder("kafka.publish.latency")
+                .description("Time from send until the broker acknowledges a saga message")
+                .tags("topic", topic, "outcome", outcome).publishPercentileHistogram()
+                .register(this.meterRegistry);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        this.failures.shutdown();
+        this.failures.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -1,8 +1,12 @@
 package com.ontop.balance.infrastructure;
 
+import com.ontop.balance.core.model.PaymentConfirmation;
 import com.ontop.balance.core.model.RecipientData;
 import com.ontop.balance.core.model.TransactionData.TransactionStatus;
 import com.ontop.balance.core.ports.outbound.Payment;
+import com.ontop.balance.infrastructure.PaymentDispatcher.Priority;
+import com.ontop.balance.infrastructure.clients.AdaptiveTimeouts;
+import com.ontop.balance.infrastructure.clients.AsyncHttpClient;
 import com.ontop.balance.infrastructure.clients.PaymentClient;
 import com.ontop.balance.infrastructure.clients.PaymentClient.PaymentClientRequest;
 import com.ontop.balance.infrastructure.clients.PaymentClient.PaymentClientRequest.AccountData;
@@ -10,33 +14,43 @@ import com.ontop.balance.infrastructure.clients.PaymentClient.PaymentClientReque
 import com.ontop.balance.infrastructure.clients.PaymentClient.PaymentClientRequest.SourceData;
 import com.ontop.balance.infrastructure.clients.PaymentClient.PaymentClientRequest.SourceData.SourceType;
 import com.ontop.balance.infrastructure.clients.PaymentClient.PaymentClientRequest.SourceInformation;
-import com.ontop.balance.infrastructure.entities.TransactionEntity;
+import com.ontop.balance.infrastructure.clients.PaymentClient.PaymentClientResponse;
+import com.ontop.balance.infrastructure.clients.PaymentClient.PaymentClientResponse.PaymentRequestInfoData;
 import com.ontop.balance.infrastructure.entities.TransactionEntity.TransactionItem;
-import com.ontop.balance.infrastructure.repositories.TransactionRepository;
+import com.ontop.balance.infrastructure.repositories.ReactiveTransactionRepository;
+import com.ontop.kernels.ParentMessage;
 import com.ontop.kernels.PaymentMessage;
-import feign.FeignException;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
-import java.util.Collections;
+import java.time.Duration;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class PaymentAdapter implements Payment {
 
-    @Value("${core.topic}")
+    private static final Duration WALLET_POLL_INTERVAL = Duration.ofMillis(500);
+    private static final String WALLET_TRANSACTION_ENDPOINT = AdaptiveTimeouts.endpoint("POST",
+            "/wallets/transactions");
+
+    @Value("${core.topics.payment.name}")
     private String topic;
 
+    @Value("${core.http.timeouts.wallet-step-slack:PT2S}")
+    private Duration walletStepSlack;
+
     @Value("${core.ontop.source.name}")
     private String sourceName;
     @Value("${core.ontop.source.account}")
@@ -46,90 +60,168 @@ public class PaymentAdapter implements Payment {
     @Value("${core.ontop.source.routing}")
     private String routingNumber;
 
-    private final KafkaTemplate<String, PaymentMessage> paymentProducer;
+    private final KafkaTemplate<String, ParentMessage> sagaProducer;
+    private final MessagePublisher messagePublisher;
     private final PaymentClient paymentClient;
-    private final TransactionRepository transactionRepository;
+    private final PaymentDispatcher paymentDispatcher;
+    private final AsyncHttpClient asyncHttpClient;
+    private final AdaptiveTimeouts adaptiveTimeouts;
+    private final PaymentConfirmations paymentConfirmations;
+    private final ReactiveTransactionRepository reactiveTransactionRepository;
     private final WalletAdapter walletAdapter;
 
     @Override
     public TransactionStatus prepareTransfer(BigDecimal amount, RecipientData recipientData,
             String transactionId) {
-        ProducerRecord<String, PaymentMessage> paymentRecord = new ProducerRecord<>(this.topic,
+        return AsyncHttpClient.await(prepareTransferAsync(amount, recipientData, transactionId));
+    }
+
+    /**
+     * Dispatched ahead of {@link #transferAsync} transfers, since the caller holds its listener
+     * lane until the transfer has an outcome.
+     */
+    @Override
+    public TransactionStatus transfer(PaymentMessage message) {
+        return AsyncHttpClient.await(transfer(message, Priority.HIGH));
+    }
+
+    @Override
+    public CompletableFuture<TransactionStatus> prepareTransferAsync(BigDecimal amount,
+            RecipientData recipientData, String transactionId) {
+        return CompletableFuture.completedFuture(this.messagePublisher.publish(this.sagaProducer,
+                paymentRecord(amount, recipientData, transactionId),
+                PaymentAdapter.class.getSimpleName()));
+    }
+
+    @Override
+    public CompletableFuture<TransactionStatus> transferAsync(PaymentMessage message) {
+        return transfer(message, Priority.NORMAL);
+    }
+
+    /**
+     * Waits for the wallet step without holding a thread: the transaction is re-read on the
+     * Reactor timer until the withdrawal has an outcome, and the payment is sent only once it
+     * has completed. A payment that times out may still have been made, so it is left
+     * {@code PENDING} instead of failed and is not charged back.
+     */
+    private CompletableFuture<TransactionStatus> transfer(PaymentMessage message,
+            Priority priority) {
+        return walletOutcome(message.getTransactionId()).toFuture().thenCompose(walletStatus -> {
+            if (!TransactionStatus.COMPLETED.equals(walletStatus)) {
+                log.warn("Transaction Transfer >>> {}: wallet step {}",
+                        message.getTransactionId(), walletStatus);
+                return CompletableFuture.completedFuture(TransactionStatus.CANCELED);
+            }
+            return this.paymentDispatcher.submit(priority,
+                            () -> this.asyncHttpClient.call(() -> this.paymentClient
+                                    .executePayment(toPaymentClientRequest(message))))
+                    .handle((response, e) -> {
+                        if (e != null) {
+                            log.error("Transaction Transfer >>> {}: {}",
+                                    message.getTransactionId(), e.getMessage());
+                            return CompletableFuture.completedFuture(
+                                    AsyncHttpClient.timedOut(e) ? TransactionStatus.PENDING
+                                            : TransactionStatus.FAILED);
+                        }
+                        return acceptedAsync(message.getTransactionId(), response);
+                    }).thenCompose(status -> status);
+        });
+    }
+
+    @Override
+    public Optional<PaymentConfirmation> confirm(String paymentId, String providerStatus) {
+        Optional<TransactionStatus> outcome = outcomeOf(providerStatus);
+        if (outcome.isEmpty()) {
+            log.info("Payment Confirmation >>> {}: {}", paymentId, providerStatus);
+            return Optional.empty();
+        }
+        return this.paymentConfirmations.confirmed(paymentId, outcome.get());
+    }
+
+    /**
+     * Records the payment the provider accepted so its confirmation can find the transaction.
+     * The transfer stays {@code PENDING} until the confirmation arrives, unless the response or
+     * an earlier confirmation already carries the outcome.
+     */
+    private CompletableFuture<TransactionStatus> acceptedAsync(String transactionId,
+            PaymentClientResponse response) {
+        Optional<TransactionStatus> outcome = outcomeOf(response);
+        String paymentId = paymentIdOf(response);
+        if (paymentId == null) {
+            return CompletableFuture.completedFuture(outcome.orElse(TransactionStatus.COMPLETED));
+        }
+        return this.paymentConfirmations.acceptedAsync(paymentId, transactionId, outcome)
+                .thenApply(status -> status.orElse(TransactionStatus.PENDING))
+                .exceptionally(e -> {
+                    log.error("Transaction Transfer >>> {}: {}", transactionId, e.getMessage());
+                    return TransactionStatus.PENDING;
+                });
+    }
+
+    private static String paymentIdOf(PaymentClientResponse response) {
+        if (response == null || response.paymentInfo() == null) {
+            return null;
+        }
+        return response.paymentInfo().id();
+    }
+
+    private static Optional<TransactionStatus> outcomeOf(PaymentClientResponse response) {
+        return Optional.ofNullable(response).map(PaymentClientResponse::requestInfo)
+                .map(PaymentRequestInfoData::status).flatMap(PaymentAdapter::outcomeOf);
+    }
+
+    /**
+     * Maps a provider status to the outcome it settles, empty while the payment is still being
+     * processed.
+     */
+    private static Optional<TransactionStatus> outcomeOf(String providerStatus) {
+        if (providerStatus == null) {
+            return Optional.empty();
+        }
+        return switch (providerStatus.trim().toUpperCase(Locale.ROOT)) {
+            case "COMPLETED", "SUCCEEDED", "SUCCESS", "PAID" ->
+                    Optional.of(TransactionStatus.COMPLETED);
+            case "FAILED", "REJECTED", "DECLINED" -> Optional.of(TransactionStatus.FAILED);
+            default -> Optional.empty();
+        };
+    }
+
+    private ProducerRecord<String, ParentMessage> paymentRecord(BigDecimal amount,
+            RecipientData recipientData, String transactionId) {
+        ProducerRecord<String, ParentMessage> paymentRecord = new ProducerRecord<>(this.topic,
                 transactionId, new PaymentMessage(recipientData.clientId(), recipientData.id(),
                 recipientData.name(), recipientData.routingNumber(),
                 recipientData.nationalIdentification(), recipientData.accountNumber(), amount,
                 transactionId));
         paymentRecord.headers()
                 .add("x-transaction-id", transactionId.getBytes(StandardCharsets.UTF_8));
-        try {
-            this.paymentProducer.send(paymentRecord).get();
-            return TransactionStatus.PENDING;
-        } catch (InterruptedException | ExecutionException e) {
-            log.error("Transaction PrepareTransfer >>> {}: {}", transactionId, e.getMessage());
-            return TransactionStatus.FAILED;
-        }
+        return paymentRecord;
     }
 
-    @Override
-    public TransactionStatus transfer(PaymentMessage message) {
-        CompletableFuture<TransactionStatus> future = new CompletableFuture<>();
-        new Thread(walletIsCompleted(message.getTransactionId(), future)).start();
-        try {
-            TransactionStatus transactionStatus = future.get();
-            if (TransactionStatus.COMPLETED.equals(transactionStatus)) {
-                this.paymentClient.executePayment(toPaymentClientRequest(message));
-                return TransactionStatus.COMPLETED;
-            } else {
-                throw new InterruptedException();
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            log.warn("Transaction Transfer >>> {}: {}", message.getTransactionId(), e.getMessage());
-            return TransactionStatus.CANCELED;
-        } catch (FeignException e) {
-            log.error("Transaction Transfer >>> {}: {}", message.getTransactionId(),
-                    e.getMessage());
-            return TransactionStatus.FAILED;
-        }
+    private Mono<TransactionStatus> walletOutcome(String transactionId) {
+        return Flux.interval(Duration.ZERO, WALLET_POLL_INTERVAL)
+                .concatMap(tick -> this.reactiveTransactionRepository.findById(transactionId)
+                        .flatMap(entity -> Mono.justOrEmpty(walletStatus(entity.getSteps()))))
+                .next().timeout(walletStepTimeout()).onErrorReturn(TransactionStatus.CANCELED);
     }
 
-    // TODO: Transfer it to a Object Value
-    private Runnable walletIsCompleted(String transactionId,
-            CompletableFuture<TransactionStatus> future) {
-        long timeout = 5000;
-        long start = System.currentTimeMillis();
-        return () -> {
-            final StringBuilder buffer = new StringBuilder();
-            while (System.currentTimeMillis() - start < timeout && buffer.isEmpty()) {
-                List<TransactionItem> transactionItems = transactionRepository.findById(
-                                transactionId).map(TransactionEntity::getSteps)
-                        .orElse(Collections.emptyList());
-
-                Optional<TransactionItem> walletItem = transactionItems.stream().filter(item ->
+    /**
+     * How long to wait for the wallet step: the timeout of the wallet transaction call, which is
+     * never adapted below {@code max}, plus {@code wallet-step-slack} for the wallet message to be
+     * consumed.
+     */
+    private Duration walletStepTimeout() {
+        return this.adaptiveTimeouts.readTimeout(WALLET_TRANSACTION_ENDPOINT)
+                .plus(this.walletStepSlack);
+    }
+
+    private static Optional<TransactionStatus> walletStatus(List<TransactionItem> steps) {
+        return steps.stream().filter(item ->
                         WalletAdapter.class.getSimpleName().equals(item.getTargetSystem()) && (
                                 TransactionStatus.COMPLETED.toString().equals(item.getStatus())
                                         || TransactionStatus.FAILED.toString()
-                                        .equals(item.getStatus()))).findFirst();
-
-                if (walletItem.isPresent()) {
-                    String status = walletItem.get().getStatus();
-                    buffer.append(status);
-                }
-
-                try {
-                    Thread.sleep(500);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    future.completeExceptionally(e);
-                    return;
-                }
-            }
-            if (buffer.isEmpty()) {
-                future.completeExceptionally(
-                        new InterruptedException("Timeout waiting for transaction completion"));
-            } else {
-                future.complete(TransactionStatus.valueOf(buffer.toString()));
-            }
-        };
+                                        .equals(item.getStatus())))
+                .map(item -> TransactionStatus.valueOf(item.getStatus())).findFirst();
     }
 
     private PaymentClientRequest toPaymentClientRequest(PaymentMessage paymentMessage) {
@@ -0,0 +1,104 @@
+package com.ontop.balance.infrastructure;
+
+import com.ontop.balance.core.model.PaymentConfirmation;
+import com.ontop.balance.core.model.TransactionData.TransactionStatus;
+import com.ontop.balance.infrastructure.entities.PaymentConfirmationEntity;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.util.retry.Retry;
+
+/**
+ * Pairs the payments the provider accepted with the outcomes it confirms later.
+ *
+ * <p>Both sides write to the same document with a single atomic operation, so whichever arrives
+ * second sees the other: a confirmation that beats the acceptance is handed back to the transfer,
+ * and one that follows it settles the transaction. Only the first outcome of a payment is kept,
+ * whether it came with the provider's response or with its callback.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class PaymentConfirmations {
+
+    private final MongoTemplate mongoTemplate;
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    /**
+     * Records that the provider accepted {@code paymentId} for {@code transactionId}, with the
+     * {@code outcome} its response already carried if any. Returns the outcome stored for the
+     * payment: one a confirmation recorded before the acceptance wins over the response's.
+     */
+    public CompletableFuture<Optional<TransactionStatus>> acceptedAsync(String paymentId,
+            String transactionId, Optional<TransactionStatus> outcome) {
+        return this.reactiveMongoTemplate.findAndModify(byId(paymentId),
+                        acceptance(transactionId, outcome),
+                        FindAndModifyOptions.options().upsert(true).returnNew(true),
+                        PaymentConfirmationEntity.class)
+                // A confirmation inserted the document between the upsert's lookup and its
+                // insert: run it again, now as an update
+                .retryWhen(Retry.max(1).filter(DuplicateKeyException.class::isInstance))
+                .map(PaymentConfirmations::statusOf).defaultIfEmpty(Optional.empty())
+                .toFuture();
+    }
+
+    /**
+     * Records the outcome the provider confirmed for {@code paymentId}. Returns the transaction
+     * to settle if the payment was already accepted and had no outcome yet.
+     */
+    public Optional<PaymentConfirmation> confirmed(String paymentId, TransactionStatus status) {
+        Optional<PaymentConfirmation> settled = settle(paymentId, status);
+        if (settled.isPresent()) {
+            return settled;
+        }
+        try {
+            this.mongoTemplate.insert(new PaymentConfirmationEntity(paymentId, status.toString()));
+            return Optional.empty();
+        } catch (DuplicateKeyException e) {
+            // The acceptance was recorded in between, or the outcome is a repeated callback
+            return settle(paymentId, status);
+        }
+    }
+
+    private Optional<PaymentConfirmation> settle(String paymentId, TransactionStatus status) {
+        Query unconfirmed = byId(paymentId).addCriteria(Criteria.where("status").is(null));
+        Update confirm = Update.update("status", status.toString())
+                .set("confirmedAt", LocalDateTime.now());
+        return Optional.ofNullable(this.mongoTemplate.findAndModify(unconfirmed, confirm,
+                        PaymentConfirmationEntity.class))
+                .map(previous -> new PaymentConfirmation(previous.getTransactionId(), status));
+    }
+
+    private static Query byId(String paymentId) {
+        return Query.query(Criteria.where("_id").is(paymentId));
+    }
+
+    /**
+     * Sets the transaction of the payment, and its outcome only if none was confirmed yet.
+     */
+    private static AggregationUpdate acceptance(String transactionId,
+            Optional<TransactionStatus> outcome) {
+        AggregationUpdate update = AggregationUpdate.update().set("transactionId")
+                .toValue(transactionId);
+        outcome.ifPresent(status -> update.set("status")
+                .toValue(ConditionalOperators.ifNull("status").then(status.toString()))
+                .set("confirmedAt")
+                .toValue(ConditionalOperators.ifNull("confirmedAt").then(LocalDateTime.now())));
+        return update;
+    }
+
+    private static Optional<TransactionStatus> statusOf(PaymentConfirmationEntity entity) {
+        return Optional.ofNullable(entity).map(PaymentConfirmationEntity::getStatus)
+                .map(TransactionStatus::valueOf);
+    }
+}
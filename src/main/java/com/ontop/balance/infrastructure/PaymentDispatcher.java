@@ -0,0 +1,180 @@
+package com.ontop.balance.infrastructure;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Releases calls to the payment provider at no more than {@code rate} per second, with bursts of
+ * up to {@code burst}, so the provider's quota is not exceeded and bursts from the consumers are
+ * smoothed instead of answered with 429s.
+ *
+ * <p>Calls wait in a queue of at most {@code capacity} entries, {@link Priority#HIGH} first and
+ * then in arrival order. Once the queue is full, further calls wait for a place and the
+ * payment listener is paused until the queue drains below {@code resume-below}. The queue
+ * depth, the calls waiting for a place and the time spent queued are exported as
+ * {@code payment.dispatch.*}.</p>
+ */
+@Component
+public class PaymentDispatcher implements DisposableBean {
+
+    private static final String PAUSE_REASON = "payment dispatch queue full";
+
+    public enum Priority {
+        /**
+         * The caller holds a listener thread while it waits.
+         */
+        HIGH,
+        NORMAL
+    }
+
+    private final ConsumerFlowControl consumerFlowControl;
+    private final String listenerId;
+    private final double ratePerNano;
+    private final double burst;
+    private final int capacity;
+    private final int resumeBelow;
+    private final PriorityBlockingQueue<Ticket> queue = new PriorityBlockingQueue<>(64,
+            Comparator.comparing(Ticket::priority).thenComparingLong(Ticket::sequence));
+    private final Deque<CompletableFuture<Void>> waitingForPlace = new ArrayDeque<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Timer queued;
+    private final Thread dispatcher;
+    private int places;
+    private double tokens;
+    private long refilledAt = System.nanoTime();
+
+    public PaymentDispatcher(MeterRegistry meterRegistry, ConsumerFlowControl consumerFlowControl,
+            @Value("${core.listener.payment.id:payments}") String listenerId,
+            @Value("${core.payment.dispatch.rate:50}") double rate,
+            @Value("${core.payment.dispatch.burst:50}") double burst,
+            @Value("${core.payment.dispatch.capacity:500}") int capacity,
+            @Value("${core.payment.dispatch.resume-below:250}") int resumeBelow) {
+        this.consumerFlowControl = consumerFlowControl;
+        this.listenerId = listenerId;
+        this.ratePerNano = rate / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.tokens = burst;
+        this.capacity = capacity;
+        this.resumeBelow = resumeBelow;
+        this.queued = Timer.builder("payment.dispatch.wait")
+                .description("Time payment calls wait before being released")
+                .publishPercentiles(0.5, 0.99).register(meterRegistry);
+        Gauge.builder("payment.dispatch.queue.depth", this.queue, PriorityBlockingQueue::size)
+                .description("Payment calls queued for release").register(meterRegistry);
+        Gauge.builder("payment.dispatch.queue.waiting", this, PaymentDispatcher::waiting)
+                .description("Payment calls waiting for a place in the full queue")
+                .register(meterRegistry);
+        this.dispatcher = new Thread(this::dispatch, "payment-dispatcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    /**
+     * Runs {@code call} on the calling thread once it is released.
+     */
+    public <T> T execute(Priority priority, Supplier<T> call) {
+        release(priority).join();
+        return call.get();
+    }
+
+    /**
+     * Starts {@code call} once it is released, without holding the calling thread.
+     */
+    public <T> CompletableFuture<T> submit(Priority priority,
+            Supplier<CompletableFuture<T>> call) {
+        return release(priority).thenCompose(released -> call.get());
+    }
+
+    private CompletableFuture<Void> release(Priority priority) {
+        CompletableFuture<Void> released = new CompletableFuture<>();
+        Ticket ticket = new Ticket(priority, this.sequence.getAndIncrement(), released,
+                System.nanoTime());
+        place().thenRun(() -> this.queue.add(ticket));
+        return released;
+    }
+
+    private synchronized CompletableFuture<Void> place() {
+        if (this.places < this.capacity) {
+            this.places++;
+            return CompletableFuture.completedFuture(null);
+        }
+        this.consumerFlowControl.pause(this.listenerId, PAUSE_REASON);
+        CompletableFuture<Void> place = new CompletableFuture<>();
+        this.waitingForPlace.add(place);
+        return place;
+    }
+
+    private void freePlace() {
+        CompletableFuture<Void> next;
+        synchronized (this) {
+            next = this.waitingForPlace.poll();
+            if (next == null) {
+                this.places--;
+                if (this.places < this.resumeBelow) {
+                    this.consumerFlowControl.resume(this.listenerId, PAUSE_REASON);
+                }
+            }
+        }
+        if (next != null) {
+            next.complete(null);
+        }
+    }
+
+    private synchronized int waiting() {
+        return this.waitingForPlace.size();
+    }
+
+    private void dispatch() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Ticket ticket = this.queue.take();
+                long wait = reserveToken();
+                if (wait > 0) {
+                    this.queue.add(ticket);
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                    ticket = this.queue.take();
+                }
+                this.queued.record(System.nanoTime() - ticket.createdAt(), TimeUnit.NANOSECONDS);
+                freePlace();
+                ticket.released().complete(null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Takes a token, going into debt if there is none, and returns how long to wait until the
+     * debt is repaid.
+     */
+    private long reserveToken() {
+        long now = System.nanoTime();
+        this.tokens = Math.min(this.burst,
+                this.tokens + (now - this.refilledAt) * this.ratePerNano);
+        this.refilledAt = now;
+        this.tokens -= 1;
+        return this.tokens >= 0 ? 0 : (long) (-this.tokens / this.ratePerNano);
+    }
+
+    @Override
+    public void destroy() {
+        this.dispatcher.interrupt();
+    }
+
+    private record Ticket(Priority priority, long sequence, CompletableFuture<Void> released,
+                          long createdAt) {
+
+    }
+}
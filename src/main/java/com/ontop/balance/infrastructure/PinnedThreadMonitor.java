@@ -0,0 +1,72 @@
+package com.ontop.balance.infrastructure;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier thread.
+ *
+ * <p>A virtual thread that blocks inside a {@code synchronized} block or a native frame cannot
+ * unmount, so it holds one of the few carrier threads for as long as it blocks. The JFR
+ * {@code jdk.VirtualThreadPinned} event is streamed in process for pins longer than
+ * {@code threshold}; each is counted in {@code threads.virtual.pinned} and logged with the
+ * frame that was blocking, which points at the lock to replace with a
+ * {@link java.util.concurrent.locks.ReentrantLock} or to move out of the I/O path.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "core.threads.pinning-monitor.enabled", havingValue = "true",
+        matchIfMissing = true)
+public class PinnedThreadMonitor implements DisposableBean {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final Counter pinned;
+    private final RecordingStream recording;
+
+    public PinnedThreadMonitor(MeterRegistry meterRegistry,
+            @Value("${core.threads.pinning-monitor.threshold:PT0.02S}") Duration threshold) {
+        this.pinned = Counter.builder("threads.virtual.pinned")
+                .description("Virtual threads that blocked while pinned to their carrier")
+                .register(meterRegistry);
+        this.recording = new RecordingStream();
+        this.recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        this.recording.onEvent(PINNED_EVENT, this::onPinned);
+        this.recording.startAsync();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        this.pinned.increment();
+        log.warn("Virtual thread pinned >>> {} ms at {}", event.getDuration().toMillis(),
+                blockingFrame(event.getStackTrace()));
+    }
+
+    private static String blockingFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "unknown";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith("com.ontop.")) {
+                return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        return stackTrace.getFrames().isEmpty() ? "unknown"
+                : stackTrace.getFrames().get(0).getMethod().getType().getName();
+    }
+
+    @Override
+    public void destroy() {
+        this.recording.close();
+    }
+}
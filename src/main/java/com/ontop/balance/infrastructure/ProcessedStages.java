@@ -0,0 +1,52 @@
+package com.ontop.balance.infrastructure;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The saga stages this instance has recently seen processed, kept for {@code core.dedup.window}
+ * in front of the marker stored with each transaction, so a redelivered record is recognised
+ * without a round trip to Mongo.
+ *
+ * <p>Every start of a stage is counted as {@code transaction.stage.deliveries}, tagged with the
+ * stage and whether it was {@code new} or a duplicate caught in {@code memory} or by the
+ * {@code store}; the duplicate-hit rate is the share of the last two. A start turned away while
+ * another delivery holds the stage is counted {@code in-progress}.</p>
+ */
+@Component
+public class ProcessedStages {
+
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, Boolean> recent;
+
+    public ProcessedStages(MeterRegistry meterRegistry,
+            @Value("${core.dedup.window:PT10M}") Duration window,
+            @Value("${core.dedup.max-size:100000}") long maxSize) {
+        this.meterRegistry = meterRegistry;
+        this.recent = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(window).build();
+    }
+
+    public boolean isRecent(String transactionId, String stage) {
+        return this.recent.getIfPresent(key(transactionId, stage)) != null;
+    }
+
+    public void remember(String transactionId, String stage) {
+        this.recent.put(key(transactionId, stage), Boolean.TRUE);
+    }
+
+    public void count(String stage, String outcome) {
+        Counter.builder("transaction.stage.deliveries")
+                .description("Saga stage deliveries by whether the stage was already processed")
+                .tags("stage", stage, "outcome", outcome).register(this.meterRegistry)
+                .increment();
+    }
+
+    private static String key(String transactionId, String stage) {
+        return transactionId + '/' + stage;
+    }
+}
@@ -1,25 +1,46 @@
 package com.ontop.balance.infrastructure;
 
+import com.mongodb.ErrorCategory;
+import com.ontop.balance.core.model.CursorWrapper;
 import com.ontop.balance.core.model.PaginatedWrapper;
 import com.ontop.balance.core.model.PaginatedWrapper.PaginatedData;
 import com.ontop.balance.core.model.RecipientData;
+import com.ontop.balance.core.model.RecipientImportResult;
 import com.ontop.balance.core.model.commands.CreateRecipientCommand;
 import com.ontop.balance.core.model.queries.ObtainRecipientByClientQuery;
 import com.ontop.balance.core.model.queries.ObtainRecipientByIdQuery;
+import com.ontop.balance.core.model.queries.SearchRecipientsQuery;
 import com.ontop.balance.core.ports.outbound.Recipient;
 import com.ontop.balance.infrastructure.entities.RecipientEntity;
+import com.ontop.balance.infrastructure.repositories.ReactiveRecipientRepository;
 import com.ontop.balance.infrastructure.repositories.RecipientRepository;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class RecipientAdapter implements Recipient {
@@ -28,14 +49,67 @@ public class RecipientAdapter implements Recipient {
     private BigDecimal fee;
 
     private final RecipientRepository recipientRepository;
+    private final ReactiveRecipientRepository reactiveRecipientRepository;
+    private final MongoTemplate mongoTemplate;
 
     @Override
-    @Transactional
-    public void save(CreateRecipientCommand command, String uuid) {
-        RecipientEntity recipientEntity = new RecipientEntity(uuid, command.clientId(),
-                command.name(), command.routingNumber(), command.nationalIdentification(),
-                command.accountNumber());
-        this.recipientRepository.save(recipientEntity);
+    public String save(CreateRecipientCommand command, String uuid) {
+        RecipientEntity recipientEntity = toRecipientEntity(uuid, command);
+        try {
+            return this.recipientRepository.insert(recipientEntity).getId();
+        } catch (DuplicateKeyException e) {
+            log.info("Recipient >>> {}: already stored for client {}", uuid, command.clientId());
+            return this.recipientRepository.findByFingerprint(recipientEntity.getFingerprint())
+                    .map(RecipientEntity::getId).orElseThrow(() -> e);
+        }
+    }
+
+    @Override
+    public List<RecipientImportResult> saveAll(Map<String, CreateRecipientCommand> commands) {
+        if (commands.isEmpty()) {
+            return List.of();
+        }
+        List<String> ids = new ArrayList<>(commands.keySet());
+        List<RecipientEntity> recipientEntities = commands.entrySet().stream()
+                .map(entry -> toRecipientEntity(entry.getKey(), entry.getValue())).toList();
+        Set<Integer> failedIndexes = new HashSet<>();
+        Set<Integer> duplicateIndexes = new HashSet<>();
+        try {
+            this.mongoTemplate.bulkOps(BulkMode.UNORDERED, RecipientEntity.class)
+                    .insert(recipientEntities).execute();
+        } catch (BulkOperationException e) {
+            e.getErrors().forEach(error -> {
+                if (ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY) {
+                    duplicateIndexes.add(error.getIndex());
+                } else {
+                    log.warn("Recipient bulk insert >>> {}: {}", ids.get(error.getIndex()),
+                            error.getMessage());
+                    failedIndexes.add(error.getIndex());
+                }
+            });
+        }
+        Map<String, String> existingIds = findIdsByFingerprint(duplicateIndexes.stream()
+                .map(index -> recipientEntities.get(index).getFingerprint()).toList());
+        return IntStream.range(0, ids.size()).mapToObj(index -> {
+            if (failedIndexes.contains(index)) {
+                return RecipientImportResult.failed("Recipient could not be stored");
+            }
+            if (duplicateIndexes.contains(index)) {
+                String existingId = existingIds.get(recipientEntities.get(index).getFingerprint());
+                return existingId == null
+                        ? RecipientImportResult.failed("Recipient could not be stored")
+                        : RecipientImportResult.duplicate(existingId);
+            }
+            return RecipientImportResult.created(ids.get(index));
+        }).toList();
+    }
+
+    private Map<String, String> findIdsByFingerprint(List<String> fingerprints) {
+        if (fingerprints.isEmpty()) {
+            return Map.of();
+        }
+        return this.recipientRepository.findAllByFingerprintIn(fingerprints).stream()
+                .collect(Collectors.toMap(RecipientEntity::getFingerprint, RecipientEntity::getId));
     }
 
     @Override
@@ -43,22 +117,94 @@ public class RecipientAdapter implements Recipient {
         Pageable pageable = PageRequest.of(query.page(), query.size());
         Page<RecipientEntity> paginatedData = this.recipientRepository.findAllByClientId(
                 query.clientId(), pageable);
-        List<RecipientData> recipientData = paginatedData.stream()
-                .map(recipient -> new RecipientData(recipient.getId(), recipient.getClientId(),
-                        recipient.getName(), recipient.getRoutingNumber(),
-                        recipient.getNationalIdentification(), recipient.getAccountNumber(), fee))
+        List<RecipientData> recipientData = paginatedData.stream().map(this::toRecipientData)
                 .toList();
         return new PaginatedWrapper<>(recipientData,
                 new PaginatedData(query.page(), paginatedData.getSize(),
                         paginatedData.getTotalPages()));
     }
 
+    @Override
+    public CompletableFuture<PaginatedWrapper<RecipientData>> findRecipientsAsync(
+            ObtainRecipientByClientQuery query) {
+        Pageable pageable = PageRequest.of(query.page(), query.size());
+        return this.reactiveRecipientRepository.findAllByClientId(query.clientId(), pageable)
+                .map(this::toRecipientData).collectList()
+                .zipWith(this.reactiveRecipientRepository.countByClientId(query.clientId()),
+                        (recipientData, total) -> new PaginatedWrapper<>(recipientData,
+                                new PaginatedData(query.page(), pageable.getPageSize(),
+                                        totalPages(total, pageable.getPageSize()))))
+                .toFuture();
+    }
+
+    @Override
+    public CursorWrapper<RecipientData> searchRecipients(SearchRecipientsQuery query) {
+        String prefix = RecipientSearchKey.normalize(query.prefix());
+        Criteria criteria = Criteria.where("clientId").is(query.clientId());
+        Criteria name = criteria.and("normalizedName");
+        String upperBound = RecipientSearchKey.prefixUpperBound(prefix);
+        if (upperBound != null) {
+            name.lt(upperBound);
+        }
+        RecipientSearchKey after = query.after() == null ? null
+                : RecipientSearchKey.decode(query.after());
+        if (after != null && after.normalizedName().compareTo(prefix) >= 0) {
+            name.gte(after.normalizedName());
+            criteria.orOperator(Criteria.where("normalizedName").gt(after.normalizedName()),
+                    Criteria.where("_id").gt(after.id()));
+        } else {
+            name.gte(prefix);
+        }
+        Query search = Query.query(criteria)
+                .with(Sort.by(Sort.Order.asc("normalizedName"), Sort.Order.asc("_id")))
+                .limit(query.size() + 1);
+        List<RecipientEntity> recipientEntities = this.mongoTemplate.find(search,
+                RecipientEntity.class);
+        if (recipientEntities.size() <= query.size()) {
+            return new CursorWrapper<>(recipientEntities.stream().map(this::toRecipientData)
+                    .toList(), null);
+        }
+        RecipientEntity last = recipientEntities.get(query.size() - 1);
+        return new CursorWrapper<>(recipientEntities.subList(0, query.size()).stream()
+                .map(this::toRecipientData).toList(),
+                new RecipientSearchKey(last.getNormalizedName(), last.getId()).encode());
+    }
+
+    /**
+     * Every recipient of a client, used to build the {@link HotRecipientSearchIndex}.
+     */
+    public List<RecipientData> findAllRecipients(Long clientId) {
+        return this.recipientRepository.findAllByClientId(clientId).stream()
+                .map(this::toRecipientData).toList();
+    }
+
     @Override
     @Transactional
     public Optional<RecipientData> findRecipientById(ObtainRecipientByIdQuery query) {
-        return this.recipientRepository.findById(query.id())
-                .map(recipient -> new RecipientData(recipient.getId(), recipient.getClientId(),
-                        recipient.getName(), recipient.getRoutingNumber(),
-                        recipient.getNationalIdentification(), recipient.getAccountNumber(), fee));
+        return this.recipientRepository.findById(query.id()).map(this::toRecipientData);
+    }
+
+    @Override
+    public CompletableFuture<Optional<RecipientData>> findRecipientByIdAsync(
+            ObtainRecipientByIdQuery query) {
+        return this.reactiveRecipientRepository.findById(query.id()).map(this::toRecipientData)
+                .map(Optional::of).defaultIfEmpty(Optional.empty()).toFuture();
+    }
+
+    private RecipientEntity toRecipientEntity(String uuid, CreateRecipientCommand command) {
+        return new RecipientEntity(uuid, command.clientId(), command.name(),
+                RecipientSearchKey.normalize(command.name()), command.routingNumber(),
+                command.nationalIdentification(), command.accountNumber(),
+                RecipientFingerprint.of(command));
+    }
+
+    private RecipientData toRecipientData(RecipientEntity recipient) {
+        return new RecipientData(recipient.getId(), recipient.getClientId(), recipient.getName(),
+                recipient.getRoutingNumber(), recipient.getNationalIdentification(),
+                recipient.getAccountNumber(), fee);
+    }
+
+    private static int totalPages(long total, int pageSize) {
+        return (int) Math.ceil((double) total / (double) pageSize);
     }
 }
@@ -0,0 +1,35 @@
+package com.ontop.balance.infrastructure;
+
+import com.ontop.balance.core.model.commands.CreateRecipientCommand;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Identifies a recipient account by its owner, routing number and account number, so the same
+ * account is stored once per client whatever formatting it was submitted with.
+ */
+final class RecipientFingerprint {
+
+    private RecipientFingerprint() {
+    }
+
+    static String of(CreateRecipientCommand command) {
+        return of(command.clientId(), command.routingNumber(), command.accountNumber());
+    }
+
+    static String of(Long clientId, String routingNumber, String accountNumber) {
+        String key = clientId + "|" + normalize(routingNumber) + "|" + normalize(accountNumber);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.replaceAll("[^0-9A-Za-z]", "").toUpperCase();
+    }
+}
@@ -0,0 +1,113 @@
+package com.ontop.balance.infrastructure;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.ontop.balance.infrastructure.entities.RecipientEntity;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills in the fingerprint of recipients stored before fingerprints existed, so saving the same
+ * account again finds them instead of storing it twice.
+ *
+ * <p>Runs on a virtual thread once the application is ready, reading {@code batch-size}
+ * recipients without a fingerprint at a time in {@code _id} order. Only recipients still lacking
+ * one are updated, so instances running it at the same time write each value once.</p>
+ *
+ * <p>The fingerprint index is sparse, so it is built whatever the legacy recipients hold. Legacy
+ * recipients that duplicate an account already fingerprinted are rejected by the index and keep
+ * no fingerprint: they stay readable by id for the transactions that reference them, new saves
+ * of the account resolve to the fingerprinted one, and each is logged so it can be merged by
+ * hand. They are passed over on later runs as they are on this one.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "core.recipients.fingerprint.backfill.enabled",
+        havingValue = "true", matchIfMissing = true)
+public class RecipientFingerprintBackfill {
+
+    private static final String FINGERPRINT = "fingerprint";
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final int batchSize;
+
+    public RecipientFingerprintBackfill(MongoTemplate mongoTemplate,
+            @Value("${core.recipients.fingerprint.backfill.batch-size:500}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread.ofVirtual().name("recipient-fingerprint-backfill").start(() -> {
+            try {
+                long updated = backfill();
+                if (updated > 0) {
+                    log.info("Recipient fingerprint backfill >>> {}: {}", "updated", updated);
+                }
+            } catch (RuntimeException e) {
+                log.error("Recipient fingerprint backfill >>> {}: {}", "failed", e.getMessage(),
+                        e);
+            }
+        });
+    }
+
+    long backfill() {
+        String collection = this.mongoTemplate.getCollectionName(RecipientEntity.class);
+        long updated = 0;
+        Object after = null;
+        List<Document> recipients;
+        while (!(recipients = this.mongoTemplate.find(pending(after), Document.class,
+                collection)).isEmpty()) {
+            BulkOperations bulk = this.mongoTemplate.bulkOps(BulkMode.UNORDERED,
+                    RecipientEntity.class);
+            for (Document recipient : recipients) {
+                Number clientId = recipient.get("clientId", Number.class);
+                bulk.updateOne(Query.query(Criteria.where("_id").is(recipient.get("_id"))
+                                .and(FINGERPRINT).exists(false)),
+                        Update.update(FINGERPRINT, RecipientFingerprint.of(
+                                clientId == null ? null : clientId.longValue(),
+                                recipient.getString("routingNumber"),
+                                recipient.getString("accountNumber"))));
+            }
+            try {
+                updated += bulk.execute().getModifiedCount();
+            } catch (BulkOperationException e) {
+                updated += e.getResult().getModifiedCount();
+                for (BulkWriteError error : e.getErrors()) {
+                    log.warn("Recipient fingerprint backfill >>> {}: {}",
+                            recipients.get(error.getIndex()).get("_id"),
+                            error.getCode() == DUPLICATE_KEY
+                                    ? "duplicates a stored recipient, left without a fingerprint"
+                                    : error.getMessage());
+                }
+            }
+            after = recipients.get(recipients.size() - 1).get("_id");
+        }
+        return updated;
+    }
+
+    private Query pending(Object after) {
+        Criteria criteria = Criteria.where(FINGERPRINT).exists(false);
+        if (after != null) {
+            criteria = criteria.and("_id").gt(after);
+        }
+        Query pending = Query.query(criteria).with(Sort.by("_id")).limit(this.batchSize);
+        pending.fields().include("clientId").include("routingNumber").include("accountNumber");
+        return pending;
+    }
+}
@@ -0,0 +1,79 @@
+package com.ontop.balance.infrastructure;
+
+import com.ontop.balance.infrastructure.entities.RecipientEntity;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills in the normalized name of recipients stored before name search existed, so
+ * {@link RecipientAdapter#searchRecipients} finds them without each recipient being saved again.
+ *
+ * <p>Runs on a virtual thread once the application is ready, so startup is not held up, reading
+ * {@code batch-size} recipients without a normalized name at a time. Only recipients still
+ * lacking one are updated, so instances running it at the same time write each value once.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "core.recipients.search.backfill.enabled", havingValue = "true",
+        matchIfMissing = true)
+public class RecipientSearchBackfill {
+
+    private static final String NORMALIZED_NAME = "normalizedName";
+
+    private final MongoTemplate mongoTemplate;
+    private final int batchSize;
+
+    public RecipientSearchBackfill(MongoTemplate mongoTemplate,
+            @Value("${core.recipients.search.backfill.batch-size:500}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread.ofVirtual().name("recipient-search-backfill").start(() -> {
+            try {
+                long updated = backfill();
+                if (updated > 0) {
+                    log.info("Recipient search backfill >>> {}: {}", "updated", updated);
+                }
+            } catch (RuntimeException e) {
+                log.error("Recipient search backfill >>> {}: {}", "failed", e.getMessage(), e);
+            }
+        });
+    }
+
+    long backfill() {
+        String collection = this.mongoTemplate.getCollectionName(RecipientEntity.class);
+        Query pending = Query.query(Criteria.where(NORMALIZED_NAME).exists(false))
+                .limit(this.batchSize);
+        pending.fields().include("name");
+        long updated = 0;
+        List<Document> recipients;
+        while (!(recipients = this.mongoTemplate.find(pending, Document.class, collection))
+                .isEmpty()) {
+            BulkOperations bulk = this.mongoTemplate.bulkOps(BulkMode.UNORDERED,
+                    RecipientEntity.class);
+            for (Document recipient : recipients) {
+                bulk.updateOne(Query.query(Criteria.where("_id").is(recipient.get("_id"))
+                                .and(NORMALIZED_NAME).exists(false)),
+                        Update.update(NORMALIZED_NAME,
+                                RecipientSearchKey.normalize(recipient.getString("name"))));
+            }
+            updated += bulk.execute().getModifiedCount();
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,67 @@
+package com.ontop.balance.infrastructure;
+
+import com.ontop.balance.core.model.exceptions.InvalidCursorException;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Locale;
+
+/**
+ * Position of a recipient in name order: its normalized name, with the id breaking ties. It is
+ * handed to clients as an opaque cursor so the next page can resume right after it.
+ */
+record RecipientSearchKey(String normalizedName, String id)
+        implements Comparable<RecipientSearchKey> {
+
+    private static final Comparator<RecipientSearchKey> ORDER = Comparator
+            .comparing(RecipientSearchKey::normalizedName).thenComparing(RecipientSearchKey::id);
+    private static final char SEPARATOR = '\0';
+
+    static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        return Normalizer.normalize(name, Normalizer.Form.NFD).replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * @return the smallest string greater than every string starting with {@code prefix}, or
+     * {@code null} when there is none
+     */
+    static String prefixUpperBound(String prefix) {
+        for (int index = prefix.length() - 1; index >= 0; index--) {
+            char character = prefix.charAt(index);
+            if (character != Character.MAX_VALUE) {
+                return prefix.substring(0, index) + (char) (character + 1);
+            }
+        }
+        return null;
+    }
+
+    static RecipientSearchKey decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor),
+                    StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new InvalidCursorException();
+            }
+            return new RecipientSearchKey(value.substring(0, separator),
+                    value.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException();
+        }
+    }
+
+    String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((normalizedName + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public int compareTo(RecipientSearchKey other) {
+        return ORDER.compare(this, other);
+    }
+}
@@ -1,36 +1,72 @@
 package com.ontop.balance.infrastructure;
 
+import com.mongodb.client.result.UpdateResult;
 import com.ontop.balance.core.model.PaginatedWrapper;
 import com.ontop.balance.core.model.PaginatedWrapper.PaginatedData;
 import com.ontop.balance.core.model.RecipientData;
+import com.ontop.balance.core.model.StartedSteps;
 import com.ontop.balance.core.model.TransactionData;
 import com.ontop.balance.core.model.TransactionData.TransactionItemData;
 import com.ontop.balance.core.model.TransactionData.TransactionStatus;
+import com.ontop.balance.core.model.TransactionStep;
 import com.ontop.balance.core.model.commands.TransferMoneyCommand;
+import com.ontop.balance.core.model.exceptions.StageInProgressException;
 import com.ontop.balance.core.model.queries.ObtainTransactionClientQuery;
 import com.ontop.balance.core.ports.outbound.Transaction;
 import com.ontop.balance.infrastructure.entities.TransactionEntity;
+import com.ontop.balance.infrastructure.entities.TransactionEntity.StageClaim;
 import com.ontop.balance.infrastructure.entities.TransactionEntity.TransactionItem;
+import com.ontop.balance.infrastructure.repositories.ReactiveTransactionRepository;
 import com.ontop.balance.infrastructure.repositories.TransactionRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Component;
 
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class TransactionAdapter implements Transaction {
 
     private final TransactionRepository transactionRepository;
+    private final ReactiveTransactionRepository reactiveTransactionRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ProcessedStages processedStages;
+
+    @Value("${core.dedup.claim-lease:PT5M}")
+    private Duration claimLease;
 
     @Override
     public Optional<TransactionData> getTransactionsById(String id) {
         return this.transactionRepository.findById(id).map(this::toTransactionData);
     }
 
+    @Override
+    public CompletableFuture<Optional<TransactionData>> getTransactionsByIdAsync(String id) {
+        return this.reactiveTransactionRepository.findById(id).map(this::toTransactionData)
+                .map(Optional::of).defaultIfEmpty(Optional.empty()).toFuture();
+    }
+
     private TransactionData toTransactionData(TransactionEntity entity) {
         List<TransactionItemData> transactionItemData = entity.getSteps().stream()
                 .map(step -> new TransactionItemData(step.getCreatedAt(), step.getTargetSystem(),
@@ -50,10 +86,169 @@ public class TransactionAdapter implements Transaction {
     @Override
     public void addStepToTransaction(String transactionId, String targetSystem,
             TransactionStatus status) {
-        TransactionEntity transactionEntity = this.transactionRepository.findById(transactionId)
-                .orElseThrow(); // TODO: handle exception
-        transactionEntity.getSteps().add(new TransactionItem(targetSystem, status.toString()));
-        this.transactionRepository.save(transactionEntity);
+        UpdateResult result = this.mongoTemplate.updateFirst(byId(transactionId),
+                pushStep(targetSystem, status), TransactionEntity.class);
+        if (result.getMatchedCount() == 0) {
+            throw new NoSuchElementException("No transaction " + transactionId);
+        }
+    }
+
+    /**
+     * Pushes every step in one unordered bulk write, so a step that cannot be written does not
+     * stop the others.
+     */
+    @Override
+    public void addStepsToTransactions(List<TransactionStep> steps) {
+        if (steps.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = this.mongoTemplate.bulkOps(BulkMode.UNORDERED,
+                TransactionEntity.class);
+        steps.forEach(step -> bulk.updateOne(byId(step.transactionId()),
+                pushStep(step.targetSystem(), step.status())));
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            e.getErrors().forEach(error -> log.error("Transaction step >>> {}: {}",
+                    steps.get(error.getIndex()).transactionId(), error.getMessage()));
+        }
+    }
+
+    /**
+     * Claims the stage by setting its marker to {@code IN_PROGRESS}, with the time of the claim,
+     * only while the transaction has no marker for it or a claim older than
+     * {@code core.dedup.claim-lease}, in the same write as the step. Of two deliveries racing for
+     * the stage exactly one starts it. Stages processed recently are turned away from memory.
+     */
+    @Override
+    public boolean startStep(String transactionId, String targetSystem) {
+        if (this.processedStages.isRecent(transactionId, targetSystem)) {
+            this.processedStages.count(targetSystem, "memory");
+            return false;
+        }
+        UpdateResult result = this.mongoTemplate.updateFirst(
+                claimable(transactionId, targetSystem),
+                claim(targetSystem, UUID.randomUUID().toString()), TransactionEntity.class);
+        if (result.getMatchedCount() > 0) {
+            this.processedStages.count(targetSystem, "new");
+            return true;
+        }
+        Query stage = byId(transactionId);
+        stage.fields().include(processedStage(targetSystem));
+        TransactionEntity entity = this.mongoTemplate.findOne(stage, TransactionEntity.class);
+        if (entity == null) {
+            throw new NoSuchElementException("No transaction " + transactionId);
+        }
+        if (!isProcessed(entity, targetSystem)) {
+            this.processedStages.count(targetSystem, "in-progress");
+            throw new StageInProgressException(
+                    "Stage " + targetSystem + " of transaction " + transactionId + " is claimed");
+        }
+        this.processedStages.remember(transactionId, targetSystem);
+        this.processedStages.count(targetSystem, "store");
+        return false;
+    }
+
+    /**
+     * Drops the marker and claim of a stage still {@code IN_PROGRESS}; a stage completed in the
+     * meantime keeps its outcome.
+     */
+    @Override
+    public void releaseStep(String transactionId, String targetSystem) {
+        this.mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(transactionId)
+                        .and(processedStage(targetSystem))
+                        .is(TransactionStatus.IN_PROGRESS.toString())),
+                new Update().unset(processedStage(targetSystem)).unset(stageClaim(targetSystem)),
+                TransactionEntity.class);
+    }
+
+    @Override
+    public void completeStep(String transactionId, String targetSystem,
+            TransactionStatus status) {
+        UpdateResult result = this.mongoTemplate.updateFirst(byId(transactionId),
+                completion(targetSystem, status), TransactionEntity.class);
+        if (result.getMatchedCount() == 0) {
+            throw new NoSuchElementException("No transaction " + transactionId);
+        }
+        this.processedStages.remember(transactionId, targetSystem);
+    }
+
+    /**
+     * Claims the stage for every transaction in one unordered bulk write, each claim carrying a
+     * token of this call, then reads the stage of each back in one query: the transactions whose
+     * claim carries the token were started here, the others were processed before or are claimed
+     * by another delivery.
+     */
+    @Override
+    public StartedSteps startSteps(List<String> transactionIds, String targetSystem) {
+        List<String> unseen = new ArrayList<>();
+        for (String transactionId : transactionIds) {
+            if (this.processedStages.isRecent(transactionId, targetSystem)) {
+                this.processedStages.count(targetSystem, "memory");
+            } else {
+                unseen.add(transactionId);
+            }
+        }
+        Set<String> started = new HashSet<>();
+        Set<String> inProgress = new HashSet<>();
+        if (unseen.isEmpty()) {
+            return new StartedSteps(started, inProgress);
+        }
+        String token = UUID.randomUUID().toString();
+        BulkOperations bulk = this.mongoTemplate.bulkOps(BulkMode.UNORDERED,
+                TransactionEntity.class);
+        unseen.forEach(transactionId -> bulk.updateOne(claimable(transactionId, targetSystem),
+                claim(targetSystem, token)));
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            e.getErrors().forEach(error -> log.error("Transaction step >>> {}: {}",
+                    unseen.get(error.getIndex()), error.getMessage()));
+        }
+        Query stages = Query.query(Criteria.where("_id").in(unseen));
+        stages.fields().include(processedStage(targetSystem)).include(stageClaim(targetSystem));
+        for (TransactionEntity entity : this.mongoTemplate.find(stages, TransactionEntity.class)) {
+            StageClaim claim = entity.getStageClaims() == null ? null
+                    : entity.getStageClaims().get(targetSystem);
+            if (claim != null && token.equals(claim.getToken())) {
+                started.add(entity.getId());
+                this.processedStages.count(targetSystem, "new");
+            } else if (isProcessed(entity, targetSystem)) {
+                this.processedStages.remember(entity.getId(), targetSystem);
+                this.processedStages.count(targetSystem, "store");
+            } else {
+                inProgress.add(entity.getId());
+                this.processedStages.count(targetSystem, "in-progress");
+            }
+        }
+        return new StartedSteps(started, inProgress);
+    }
+
+    @Override
+    public void completeSteps(List<TransactionStep> steps) {
+        if (steps.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = this.mongoTemplate.bulkOps(BulkMode.UNORDERED,
+                TransactionEntity.class);
+        steps.forEach(step -> bulk.updateOne(byId(step.transactionId()),
+                completion(step.targetSystem(), step.status())));
+        Set<Integer> failed = new HashSet<>();
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            e.getErrors().forEach(error -> {
+                failed.add(error.getIndex());
+                log.error("Transaction step >>> {}: {}",
+                        steps.get(error.getIndex()).transactionId(), error.getMessage());
+            });
+        }
+        for (int index = 0; index < steps.size(); index++) {
+            if (!failed.contains(index)) {
+                this.processedStages.remember(steps.get(index).transactionId(),
+                        steps.get(index).targetSystem());
+            }
+        }
     }
 
     @Override
@@ -67,4 +262,70 @@ public class TransactionAdapter implements Transaction {
                 new PaginatedData(query.page(), paginatedData.getSize(),
                         paginatedData.getTotalPages()));
     }
+
+    @Override
+    public CompletableFuture<PaginatedWrapper<TransactionData>> findByClientAsync(
+            ObtainTransactionClientQuery query) {
+        Pageable pageable = PageRequest.of(query.page(), query.pageSize());
+        return this.reactiveTransactionRepository.findByClientIdAndCreatedAtBetween(
+                        query.clientId(), query.date(), pageable).map(this::toTransactionData)
+                .collectList().zipWith(
+                        this.reactiveTransactionRepository.countByClientIdAndCreatedAtBetween(
+                                query.clientId(), query.date()),
+                        (transactionData, total) -> new PaginatedWrapper<>(transactionData,
+                                new PaginatedData(query.page(), pageable.getPageSize(),
+                                        totalPages(total, pageable.getPageSize())))).toFuture();
+    }
+
+    private static Query byId(String transactionId) {
+        return Query.query(Criteria.where("_id").is(transactionId));
+    }
+
+    private static Update pushStep(String targetSystem, TransactionStatus status) {
+        return new Update().push("steps", new TransactionItem(targetSystem, status.toString()));
+    }
+
+    /**
+     * Matches the transaction while its stage has no marker, or is {@code IN_PROGRESS} under a
+     * claim older than the lease. A claim without a time is stale as well.
+     */
+    private Query claimable(String transactionId, String targetSystem) {
+        String marker = processedStage(targetSystem);
+        String claimedAt = stageClaim(targetSystem) + ".claimedAt";
+        String inProgress = TransactionStatus.IN_PROGRESS.toString();
+        return Query.query(Criteria.where("_id").is(transactionId).orOperator(
+                Criteria.where(marker).exists(false),
+                Criteria.where(marker).is(inProgress).and(claimedAt)
+                        .lt(LocalDateTime.now().minus(this.claimLease)),
+                Criteria.where(marker).is(inProgress).and(claimedAt).exists(false)));
+    }
+
+    private static Update claim(String targetSystem, String token) {
+        return pushStep(targetSystem, TransactionStatus.IN_PROGRESS)
+                .set(processedStage(targetSystem), TransactionStatus.IN_PROGRESS.toString())
+                .set(stageClaim(targetSystem), new StageClaim(token));
+    }
+
+    private static boolean isProcessed(TransactionEntity entity, String targetSystem) {
+        String marker = entity.getProcessedStages() == null ? null
+                : entity.getProcessedStages().get(targetSystem);
+        return marker != null && !TransactionStatus.IN_PROGRESS.toString().equals(marker);
+    }
+
+    private static Update completion(String targetSystem, TransactionStatus status) {
+        return pushStep(targetSystem, status).set(processedStage(targetSystem), status.toString())
+                .unset(stageClaim(targetSystem));
+    }
+
+    private static String processedStage(String targetSystem) {
+        return "processedStages." + targetSystem;
+    }
+
+    private static String stageClaim(String targetSystem) {
+        return "stageClaims." + targetSystem;
+    }
+
+    private static int totalPages(long total, int pageSize) {
+        return (int) Math.ceil((double) total / (double) pageSize);
+    }
 }
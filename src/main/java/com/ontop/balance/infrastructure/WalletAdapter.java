@@ -4,15 +4,16 @@ import com.ontop.balance.core.model.BalanceData;
 import com.ontop.balance.core.model.RecipientData;
 import com.ontop.balance.core.model.TransactionData.TransactionStatus;
 import com.ontop.balance.core.ports.outbound.Wallet;
+import com.ontop.balance.infrastructure.clients.AsyncHttpClient;
 import com.ontop.balance.infrastructure.clients.WalletClient;
 import com.ontop.balance.infrastructure.clients.WalletClient.BalanceClientResponse;
 import com.ontop.balance.infrastructure.clients.WalletClient.TransactionClientRequest;
+import com.ontop.kernels.ParentMessage;
 import com.ontop.kernels.WalletMessage;
-import feign.FeignException;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.util.Optional;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletableFuture;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.producer.ProducerRecord;
@@ -25,45 +26,79 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class WalletAdapter implements Wallet {
 
-    @Value("${core.topic}")
+    @Value("${core.topics.wallet.name}")
     private String topic;
 
     private final WalletClient walletClient;
-    private final KafkaTemplate<String, WalletMessage> walletProducer;
+    private final AsyncHttpClient asyncHttpClient;
+    private final WalletBalanceCache walletBalanceCache;
+    private final BalanceReadHedger balanceReadHedger;
+    private final KafkaTemplate<String, ParentMessage> sagaProducer;
+    private final MessagePublisher messagePublisher;
 
     @Override
     public TransactionStatus prepareWithdraw(BigDecimal amount, RecipientData recipientData,
             String transactionId) {
-        ProducerRecord<String, WalletMessage> walletRecord = new ProducerRecord<>(this.topic,
-                transactionId, new WalletMessage(recipientData.clientId(), amount, transactionId));
-        walletRecord.headers()
-                .add("x-transaction-id", transactionId.getBytes(StandardCharsets.UTF_8));
-        try {
-            this.walletProducer.send(walletRecord).get();
-            return TransactionStatus.PENDING;
-        } catch (InterruptedException | ExecutionException e) {
-            log.error("Transaction PrepareWithdraw >>> {}: {}", transactionId, e.getMessage());
-            return TransactionStatus.FAILED;
-        }
+        return AsyncHttpClient.await(prepareWithdrawAsync(amount, recipientData, transactionId));
     }
 
     @Override
     public TransactionStatus withdraw(WalletMessage message) {
-        try {
-            this.walletClient.executeTransaction(
-                    new TransactionClientRequest(message.getAmount().negate(),
-                            message.getClientId()));
-            return TransactionStatus.COMPLETED;
-        } catch (FeignException e) {
-            log.error("Transaction Withdraw >>> {}: {}", message.getTransactionId(),
-                    e.getMessage());
-            return TransactionStatus.FAILED;
-        }
+        return AsyncHttpClient.await(withdrawAsync(message));
     }
 
     @Override
     public Optional<BalanceData> getBalance(Long clientId) {
-        BalanceClientResponse balance = walletClient.getBalance(clientId);
-        return Optional.of(new BalanceData(BigDecimal.valueOf(balance.balance())));
+        return AsyncHttpClient.await(getBalanceAsync(clientId));
+    }
+
+    @Override
+    public CompletableFuture<TransactionStatus> prepareWithdrawAsync(BigDecimal amount,
+            RecipientData recipientData, String transactionId) {
+        return CompletableFuture.completedFuture(this.messagePublisher.publish(this.sagaProducer,
+                walletRecord(amount, recipientData, transactionId),
+                WalletAdapter.class.getSimpleName()));
+    }
+
+    /**
+     * A withdrawal that times out may still have been applied, so it is left {@code PENDING}
+     * instead of failed; the payment waiting on it is then cancelled rather than sent.
+     */
+    @Override
+    public CompletableFuture<TransactionStatus> withdrawAsync(WalletMessage message) {
+        return this.asyncHttpClient.call(() -> this.walletClient.executeTransaction(
+                        new TransactionClientRequest(message.getAmount().negate(),
+                                message.getClientId())))
+                .handle((response, e) -> {
+                    this.walletBalanceCache.invalidate(message.getClientId());
+                    if (e != null) {
+                        log.error("Transaction Withdraw >>> {}: {}", message.getTransactionId(),
+                                e.getMessage());
+                        return AsyncHttpClient.timedOut(e) ? TransactionStatus.PENDING
+                                : TransactionStatus.FAILED;
+                    }
+                    return TransactionStatus.COMPLETED;
+                });
+    }
+
+    @Override
+    public CompletableFuture<Optional<BalanceData>> getBalanceAsync(Long clientId) {
+        return this.walletBalanceCache.getAsync(clientId, this::fetchBalanceAsync)
+                .thenApply(Optional::of);
+    }
+
+    private ProducerRecord<String, ParentMessage> walletRecord(BigDecimal amount,
+            RecipientData recipientData, String transactionId) {
+        ProducerRecord<String, ParentMessage> walletRecord = new ProducerRecord<>(this.topic,
+                transactionId, new WalletMessage(recipientData.clientId(), amount, transactionId));
+        walletRecord.headers()
+                .add("x-transaction-id", transactionId.getBytes(StandardCharsets.UTF_8));
+        return walletRecord;
+    }
+
+    private CompletableFuture<BalanceData> fetchBalanceAsync(Long clientId) {
+        return this.asyncHttpClient.call(() -> this.balanceReadHedger.call(
+                        () -> this.walletClient.getBalance(clientId)))
+                .thenApply(balance -> new BalanceData(BigDecimal.valueOf(balance.balance())));
     }
 }
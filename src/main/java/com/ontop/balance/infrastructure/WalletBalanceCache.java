@@ -0,0 +1,84 @@
+package com.ontop.balance.infrastructure;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ontop.balance.core.model.BalanceData;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Short-lived cache of wallet balances by client.
+ *
+ * <p>Concurrent lookups for the same client share a single call to the wallet service: the
+ * first caller runs it and the others wait for its result. Balances are dropped as soon as a
+ * wallet transaction for the client finishes, so the TTL only bounds staleness against changes
+ * made outside this service.</p>
+ */
+@Component
+public class WalletBalanceCache {
+
+    private final AsyncCache<Long, BalanceData> balances;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+
+    public WalletBalanceCache(MeterRegistry meterRegistry,
+            @Value("${core.cache.wallet-balance.ttl:PT2S}") Duration ttl,
+            @Value("${core.cache.wallet-balance.max-size:10000}") long maxSize) {
+        this.balances = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl)
+                .buildAsync();
+        this.hits = counter(meterRegistry, "hit");
+        this.misses = counter(meterRegistry, "miss");
+        this.coalesced = counter(meterRegistry, "coalesced");
+    }
+
+    /**
+     * Returns the balance of a client, loading it with {@code loader} on a miss. Callers joining
+     * a lookup in flight receive its future instead of making another call.
+     */
+    public CompletableFuture<BalanceData> getAsync(Long clientId,
+            Function<Long, CompletableFuture<BalanceData>> loader) {
+        CompletableFuture<BalanceData> created = new CompletableFuture<>();
+        CompletableFuture<BalanceData> existing = this.balances.asMap()
+                .putIfAbsent(clientId, created);
+        if (existing != null) {
+            (existing.isDone() ? this.hits : this.coalesced).increment();
+            return existing;
+        }
+        this.misses.increment();
+        CompletableFuture<BalanceData> loading;
+        try {
+            loading = loader.apply(clientId);
+        } catch (RuntimeException e) {
+            loading = CompletableFuture.failedFuture(e);
+        }
+        loading.whenComplete((balance, error) -> {
+            if (error == null) {
+                created.complete(balance);
+            } else {
+                this.balances.asMap().remove(clientId, created);
+                created.completeExceptionally(error);
+            }
+        });
+        return created;
+    }
+
+    /**
+     * Drops the balance of a client, including a lookup still in flight, so the next read goes
+     * to the wallet service.
+     */
+    public void invalidate(Long clientId) {
+        this.balances.synchronous().invalidate(clientId);
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("wallet.balance.cache.requests")
+                .description("Wallet balance lookups by how they were served")
+                .tag("result", result).register(meterRegistry);
+    }
+}
@@ -0,0 +1,141 @@
+package com.ontop.balance.infrastructure.clients;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Read timeouts per downstream endpoint, derived from the latency each endpoint has shown
+ * recently.
+ *
+ * <p>Every {@code recompute-interval} the timeout of an endpoint is set to its {@code percentile}
+ * latency over the last {@code window} times {@code factor}, clamped to {@code min} and
+ * {@code max}. An endpoint with fewer than {@code min-samples} calls over the last {@code window}
+ * is given {@code max}, whatever it has seen before. Calls that
+ * time out are recorded at the timeout they were given, so a slowdown raises the timeout instead
+ * of hiding behind it. The effective timeouts are exported as
+ * {@code http.client.timeout.effective}.</p>
+ *
+ * <p>An endpoint is the HTTP method and path of the call, e.g. {@code GET /wallets/balance}.</p>
+ */
+@Component
+public class AdaptiveTimeouts implements DisposableBean {
+
+    private final MeterRegistry meterRegistry;
+    private final double percentile;
+    private final double factor;
+    private final long minNanos;
+    private final long maxNanos;
+    private final long minSamples;
+    private final Duration window;
+    private final int windowIntervals;
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    public AdaptiveTimeouts(MeterRegistry meterRegistry,
+            @Value("${core.http.timeouts.percentile:0.99}") double percentile,
+            @Value("${core.http.timeouts.factor:3}") double factor,
+            @Value("${core.http.timeouts.min:PT0.2S}") Duration min,
+            @Value("${core.http.timeouts.max:PT10S}") Duration max,
+            @Value("${core.http.timeouts.min-samples:50}") long minSamples,
+            @Value("${core.http.timeouts.window:PT1M}") Duration window,
+            @Value("${core.http.timeouts.recompute-interval:PT5S}") Duration recomputeInterval) {
+        this.meterRegistry = meterRegistry;
+        this.percentile = percentile;
+        this.factor = factor;
+        this.minNanos = min.toNanos();
+        this.maxNanos = max.toNanos();
+        this.minSamples = minSamples;
+        this.window = window;
+        this.windowIntervals = (int) Math.max(1,
+                (window.toNanos() + recomputeInterval.toNanos() - 1) / recomputeInterval.toNanos());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor();
+        this.scheduler.scheduleAtFixedRate(this::recompute, recomputeInterval.toNanos(),
+                recomputeInterval.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    public static String endpoint(String method, String path) {
+        return method + " " + path;
+    }
+
+    public Duration readTimeout(String endpoint) {
+        return Duration.ofNanos(endpointOf(endpoint).timeoutNanos.get());
+    }
+
+    public void recordLatency(String endpoint, long latencyNanos) {
+        Endpoint recorded = endpointOf(endpoint);
+        recorded.latency.record(latencyNanos, TimeUnit.NANOSECONDS);
+        recorded.samples.incrementAndGet();
+    }
+
+    /**
+     * Records a call that gave up after {@code timeout}.
+     */
+    public void recordTimeout(String endpoint, Duration timeout) {
+        recordLatency(endpoint, timeout.toNanos());
+    }
+
+    void recompute() {
+        this.endpoints.values().forEach(Endpoint::recompute);
+    }
+
+    @Override
+    public void destroy() {
+        this.scheduler.shutdownNow();
+    }
+
+    private Endpoint endpointOf(String endpoint) {
+        return this.endpoints.computeIfAbsent(endpoint, Endpoint::new);
+    }
+
+    private final class Endpoint {
+
+        private final Timer latency;
+        private final AtomicLong timeoutNanos = new AtomicLong(maxNanos);
+        private final AtomicLong samples = new AtomicLong();
+        /**
+         * Samples recorded in each of the last recompute intervals, covering the window.
+         */
+        private final long[] intervalSamples = new long[windowIntervals];
+        private int interval;
+
+        private Endpoint(String endpoint) {
+            this.latency = Timer.builder("http.client.endpoint.latency")
+                    .description("Latency of downstream calls per endpoint")
+                    .tag("endpoint", endpoint).publishPercentiles(percentile)
+                    .distributionStatisticExpiry(window).register(meterRegistry);
+            TimeGauge.builder("http.client.timeout.effective", this.timeoutNanos,
+                            TimeUnit.NANOSECONDS, AtomicLong::get)
+                    .description("Read timeout currently applied to downstream calls per endpoint")
+                    .tag("endpoint", endpoint).register(meterRegistry);
+        }
+
+        private synchronized void recompute() {
+            this.interval = (this.interval + 1) % this.intervalSamples.length;
+            this.intervalSamples[this.interval] = this.samples.getAndSet(0);
+            if (Arrays.stream(this.intervalSamples).sum() < minSamples) {
+                this.timeoutNanos.set(maxNanos);
+                return;
+            }
+            for (ValueAtPercentile value : this.latency.takeSnapshot().percentileValues()) {
+                if (value.percentile() == percentile) {
+                    double observed = value.value(TimeUnit.NANOSECONDS);
+                    this.timeoutNanos.set(observed <= 0 ? maxNanos : Math.max(minNanos,
+                            Math.min(maxNanos, (long) (observed * factor))));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.ontop.balance.infrastructure.clients;
+
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+/**
+ * Non-blocking calls to the wallet and payment services through their Feign clients.
+ *
+ * <p>Each call runs on a virtual thread of its own, so it goes through the same stack as a
+ * synchronous call: the pooled transport of {@code FeignTransportConfig}, the
+ * {@code FeignInterceptor} headers, instance routing, adaptive read timeouts and the resilience4j
+ * policies of its backend. A virtual thread waiting on a response is parked off its carrier, so
+ * the number of platform threads stays flat however many calls are in flight.</p>
+ */
+@Component
+public class AsyncHttpClient implements DisposableBean {
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("downstream-call-", 0).factory());
+
+    /**
+     * Runs {@code call} without holding the calling thread.
+     */
+    public <T> CompletableFuture<T> call(Supplier<T> call) {
+        try {
+            return CompletableFuture.supplyAsync(call, this.executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Waits for {@code result} on behalf of a synchronous port, failing with what the call
+     * failed with. An interrupt while waiting ends the wait and is kept on the thread.
+     */
+    public static <T> T await(CompletableFuture<T> result) {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for a downstream call");
+        }
+    }
+
+    /**
+     * Whether {@code failure} is a call that timed out waiting for its response, so the request
+     * may still have been applied downstream.
+     */
+    public static boolean timedOut(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SocketTimeoutException
+                    || cause instanceof HttpTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static RuntimeException unwrap(Throwable cause) {
+        if (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new CompletionException(cause);
+    }
+
+    @Override
+    public void destroy() {
+        this.executor.shutdownNow();
+    }
+}
@@ -0,0 +1,105 @@
+package com.ontop.balance.infrastructure.clients;
+
+import com.ontop.balance.infrastructure.clients.EndpointRouter.Route;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * One instance of a downstream service that an {@link EndpointRouter} balances calls across,
+ * counting the calls it has in flight and timing them per outcome under
+ * {@code <metric>.latency}, tagged with the instance's host and port.
+ */
+abstract class BalancedEndpoint implements Route {
+
+    private final String baseUrl;
+    private final String tag;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Timer succeeded;
+    private final Timer failed;
+
+    /**
+     * @param tagKey the tag holding the instance's host and port, also naming it in the timer
+     *               description
+     * @param calls  what the calls are, for the timer description
+     */
+    BalancedEndpoint(String url, MeterRegistry meterRegistry, String metric, String tagKey,
+            String calls) {
+        String trimmed = url.trim();
+        this.baseUrl = trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1)
+                : trimmed;
+        this.tag = URI.create(this.baseUrl).getAuthority();
+        this.succeeded = latency(meterRegistry, metric, tagKey, this.tag, calls, "success");
+        this.failed = latency(meterRegistry, metric, tagKey, this.tag, calls, "failure");
+    }
+
+    /**
+     * Picks two distinct endpoints at random among the {@code eligible} ones, or among all of
+     * them when none is, and hands the call to the one of lower {@code cost}.
+     */
+    static <E extends BalancedEndpoint> E choose(List<E> endpoints, Predicate<E> eligible,
+            ToDoubleFunction<E> cost) {
+        List<E> candidates = endpoints.stream().filter(eligible).toList();
+        if (candidates.isEmpty()) {
+            candidates = endpoints;
+        }
+        E chosen = candidates.get(0);
+        if (candidates.size() > 1) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int first = random.nextInt(candidates.size());
+            int second = random.nextInt(candidates.size() - 1);
+            if (second >= first) {
+                second++;
+            }
+            E a = candidates.get(first);
+            E b = candidates.get(second);
+            chosen = cost.applyAsDouble(a) <= cost.applyAsDouble(b) ? a : b;
+        }
+        chosen.inFlight.incrementAndGet();
+        return chosen;
+    }
+
+    @Override
+    public String baseUrl() {
+        return this.baseUrl;
+    }
+
+    @Override
+    public final void complete(long latencyNanos, boolean success) {
+        this.inFlight.decrementAndGet();
+        (success ? this.succeeded : this.failed).record(latencyNanos, TimeUnit.NANOSECONDS);
+        completed(latencyNanos, success);
+    }
+
+    @Override
+    public final void cancel() {
+        this.inFlight.decrementAndGet();
+    }
+
+    /**
+     * Learns from a call once it has been counted and timed.
+     */
+    protected abstract void completed(long latencyNanos, boolean success);
+
+    String tag() {
+        return this.tag;
+    }
+
+    AtomicInteger inFlight() {
+        return this.inFlight;
+    }
+
+    private static Timer latency(MeterRegistry meterRegistry, String metric, String tagKey,
+            String tag, String calls, String outcome) {
+        return Timer.builder(metric + ".latency")
+                .description("Latency of " + calls + " calls per " + tagKey)
+                .tags(tagKey, tag, "outcome", outcome)
+                .publishPercentileHistogram().register(meterRegistry);
+    }
+}
@@ -0,0 +1,31 @@
+package com.ontop.balance.infrastructure.clients;
+
+/**
+ * Chooses which instance of a downstream service a call is sent to, and learns from how each call
+ * went.
+ */
+public interface EndpointRouter {
+
+    Route route();
+
+    interface Route {
+
+        /**
+         * Base URL of the chosen instance, without a trailing slash.
+         */
+        String baseUrl();
+
+        /**
+         * Reports the outcome of the call. A call succeeds when the instance answered with
+         * anything other than a server error. Routes are picked per attempt underneath the
+         * circuit breaker and bulkhead, so a call they reject never picks or reports one.
+         */
+        void complete(long latencyNanos, boolean success);
+
+        /**
+         * Gives the call back without an outcome, as when it was abandoned before the instance
+         * answered.
+         */
+        void cancel();
+    }
+}
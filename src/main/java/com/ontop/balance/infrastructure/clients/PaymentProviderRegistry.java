@@ -0,0 +1,144 @@
+package com.ontop.balance.infrastructure.clients;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The payment providers a payment can be sent to, routed by peak-EWMA latency and error rate.
+ *
+ * <p>Each provider keeps an exponentially weighted moving average of its latency that jumps to
+ * any slower sample at once and decays over {@code decay} otherwise, so a provider that slows
+ * down is avoided immediately and tried again once it has been quiet for a while. Its cost is
+ * that average times the calls it has in flight, raised by its recent error rate; of two
+ * providers picked at random the cheaper one gets the call.</p>
+ *
+ * <p>A provider that fails {@code consecutive-failures} calls in a row is ejected for
+ * {@code base-ejection} times the number of times it has been ejected, capped at
+ * {@code max-ejection}. At most {@code max-ejection-percent} of the providers are ejected at once,
+ * and never all of them.</p>
+ */
+@Component
+public class PaymentProviderRegistry implements EndpointRouter {
+
+    private static final double ERROR_ALPHA = 0.1;
+    private static final double ERROR_PENALTY = 10.0;
+    private static final double UNPROBED_PENALTY = 1e9;
+
+    private final List<Provider> providers;
+    private final double decayNanos;
+    private final int consecutiveFailures;
+    private final long baseEjectionNanos;
+    private final long maxEjectionNanos;
+    private final int maxEjected;
+
+    public PaymentProviderRegistry(MeterRegistry meterRegistry,
+            @Value("${core.payment.providers:${core.wallet.client.url}}") List<String> urls,
+            @Value("${core.payment.routing.decay:PT10S}") Duration decay,
+            @Value("${core.payment.routing.consecutive-failures:5}") int consecutiveFailures,
+            @Value("${core.payment.routing.base-ejection:PT30S}") Duration baseEjection,
+            @Value("${core.payment.routing.max-ejection:PT5M}") Duration maxEjection,
+            @Value("${core.payment.routing.max-ejection-percent:50}") int maxEjectionPercent) {
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("At least one payment provider is required");
+        }
+        this.decayNanos = decay.toNanos();
+        this.consecutiveFailures = consecutiveFailures;
+        this.baseEjectionNanos = baseEjection.toNanos();
+        this.maxEjectionNanos = maxEjection.toNanos();
+        this.providers = urls.stream().map(String::trim).distinct()
+                .map(url -> new Provider(url, meterRegistry)).toList();
+        this.maxEjected = Math.min(this.providers.size() - 1,
+                Math.max(1, this.providers.size() * maxEjectionPercent / 100));
+    }
+
+    @Override
+    public Route route() {
+        long now = System.nanoTime();
+        return BalancedEndpoint.choose(this.providers, provider -> !provider.isEjected(now),
+                provider -> provider.cost(now));
+    }
+
+    private int ejectedCount(long now) {
+        return (int) this.providers.stream().filter(provider -> provider.isEjected(now)).count();
+    }
+
+    private final class Provider extends BalancedEndpoint {
+
+        private final Counter ejections;
+        private double latencyNanos;
+        private long observedAt = System.nanoTime();
+        private double errorRate;
+        private int failuresInARow;
+        private int timesEjected;
+        private long ejectedUntil = this.observedAt;
+
+        private Provider(String url, MeterRegistry meterRegistry) {
+            super(url, meterRegistry, "payment.provider", "provider", "payment");
+            this.ejections = Counter.builder("payment.provider.ejections")
+                    .description("Times a payment provider was ejected as an outlier")
+                    .tag("provider", tag()).register(meterRegistry);
+            Gauge.builder("payment.provider.pending", inFlight(), AtomicInteger::get)
+                    .description("Payment calls in flight per provider").tag("provider", tag())
+                    .register(meterRegistry);
+            Gauge.builder("payment.provider.ejected", this,
+                            provider -> provider.isEjected(System.nanoTime()) ? 1 : 0)
+                    .description("Whether a payment provider is currently ejected")
+                    .tag("provider", tag()).register(meterRegistry);
+        }
+
+        @Override
+        protected void completed(long latencyNanos, boolean success) {
+            long now = System.nanoTime();
+            boolean eject;
+            synchronized (this) {
+                this.errorRate = this.errorRate * (1 - ERROR_ALPHA) + (success ? 0 : ERROR_ALPHA);
+                if (success) {
+                    observe(now, latencyNanos);
+                    this.failuresInARow = 0;
+                    if (now - this.ejectedUntil > maxEjectionNanos) {
+                        this.timesEjected = 0;
+                    }
+                    return;
+                }
+                eject = ++this.failuresInARow >= consecutiveFailures && !isEjected(now);
+            }
+            if (eject && ejectedCount(now) < maxEjected) {
+                synchronized (this) {
+                    this.timesEjected++;
+                    this.failuresInARow = 0;
+                    this.ejectedUntil = now + Math.min(baseEjectionNanos * this.timesEjected,
+                            maxEjectionNanos);
+                }
+                this.ejections.increment();
+            }
+        }
+
+        private synchronized boolean isEjected(long now) {
+            return now - this.ejectedUntil < 0;
+        }
+
+        private synchronized double cost(long now) {
+            double latency = observe(now, 0);
+            int inFlight = inFlight().get();
+            if (latency == 0 && inFlight > 0) {
+                return UNPROBED_PENALTY + inFlight;
+            }
+            return latency * (inFlight + 1) * (1 + ERROR_PENALTY * this.errorRate);
+        }
+
+        private double observe(long now, double sampleNanos) {
+            long elapsed = Math.max(now - this.observedAt, 0);
+            this.observedAt = now;
+            double weight = Math.exp(-elapsed / decayNanos);
+            this.latencyNanos = sampleNanos > this.latencyNanos ? sampleNanos
+                    : this.latencyNanos * weight + sampleNanos * (1 - weight);
+            return this.latencyNanos;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.ontop.balance.infrastructure.clients;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Spreads wallet calls across the configured wallet-service instances by power of two choices
+ * over the requests each one has outstanding.
+ *
+ * <p>Health is tracked passively: an instance that fails {@code failure-threshold} calls in a row
+ * is left out for {@code unhealthy-for}. When it comes back its weight ramps up linearly over
+ * {@code slow-start}, dividing its share of new calls, so a recovered instance is not handed a
+ * full share while its caches are cold. If every instance is unhealthy, all of them are used.</p>
+ */
+@Component
+public class WalletInstanceBalancer implements EndpointRouter {
+
+    private static final double MIN_WEIGHT = 0.1;
+
+    private final List<Instance> instances;
+    private final int failureThreshold;
+    private final long unhealthyForNanos;
+    private final long slowStartNanos;
+
+    public WalletInstanceBalancer(MeterRegistry meterRegistry,
+            @Value("${core.wallet.instances:${core.wallet.client.url}}") List<String> urls,
+            @Value("${core.wallet.balancing.failure-threshold:3}") int failureThreshold,
+            @Value("${core.wallet.balancing.unhealthy-for:PT10S}") Duration unhealthyFor,
+            @Value("${core.wallet.balancing.slow-start:PT30S}") Duration slowStart) {
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("At least one wallet instance is required");
+        }
+        this.failureThreshold = failureThreshold;
+        this.unhealthyForNanos = unhealthyFor.toNanos();
+        this.slowStartNanos = slowStart.toNanos();
+        this.instances = urls.stream().map(String::trim).distinct()
+                .map(url -> new Instance(url, meterRegistry)).toList();
+    }
+
+    @Override
+    public Route route() {
+        long now = System.nanoTime();
+        return BalancedEndpoint.choose(this.instances, instance -> instance.isHealthy(now),
+                instance -> instance.load(now));
+    }
+
+    private final class Instance extends BalancedEndpoint {
+
+        private int failuresInARow;
+        private long healthyFrom = System.nanoTime() - slowStartNanos;
+
+        private Instance(String url, MeterRegistry meterRegistry) {
+            super(url, meterRegistry, "wallet.instance", "instance", "wallet");
+            Gauge.builder("wallet.instance.in-flight", inFlight(), AtomicInteger::get)
+                    .description("Wallet calls in flight per instance").tag("instance", tag())
+                    .register(meterRegistry);
+            Gauge.builder("wallet.instance.weight", this,
+                            instance -> instance.weight(System.nanoTime()))
+                    .description("Share of new wallet calls an instance may take, 0 when "
+                            + "unhealthy and below 1 during slow start")
+                    .tag("instance", tag()).register(meterRegistry);
+        }
+
+        @Override
+        protected synchronized void completed(long latencyNanos, boolean success) {
+            if (success) {
+                this.failuresInARow = 0;
+            } else if (++this.failuresInARow >= failureThreshold) {
+                this.failuresInARow = 0;
+                this.healthyFrom = System.nanoTime() + unhealthyForNanos;
+            }
+        }
+
+        private synchronized boolean isHealthy(long now) {
+            return now - this.healthyFrom >= 0;
+        }
+
+        private synchronized double weight(long now) {
+            long healthyFor = now - this.healthyFrom;
+            if (healthyFor < 0) {
+                return 0;
+            }
+            if (slowStartNanos <= 0 || healthyFor >= slowStartNanos) {
+                return 1;
+            }
+            return Math.max(MIN_WEIGHT, (double) healthyFor / slowStartNanos);
+        }
+
+        private double load(long now) {
+            return (inFlight().get() + 1) / Math.max(weight(now), MIN_WEIGHT);
+        }
+    }
+}
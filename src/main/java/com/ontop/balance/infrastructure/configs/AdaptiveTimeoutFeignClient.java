@@ -0,0 +1,59 @@
+package com.ontop.balance.infrastructure.configs;
+
+import com.ontop.balance.infrastructure.clients.AdaptiveTimeouts;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replaces the read timeout of each Feign call with the one {@link AdaptiveTimeouts} currently
+ * holds for its endpoint, never above the one configured in {@link FeignClientConfig}, and
+ * reports how long the call took.
+ *
+ * <p>Only idempotent calls are adapted. A payment or wallet transaction that times out may still
+ * have been applied, so it keeps the configured timeout rather than risk a shortened one cutting
+ * it off while it is being processed.</p>
+ */
+class AdaptiveTimeoutFeignClient implements Client {
+
+    private final Client delegate;
+    private final AdaptiveTimeouts adaptiveTimeouts;
+
+    AdaptiveTimeoutFeignClient(Client delegate, AdaptiveTimeouts adaptiveTimeouts) {
+        this.delegate = delegate;
+        this.adaptiveTimeouts = adaptiveTimeouts;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        if (!ResilientFeignClient.IDEMPOTENT_METHODS.contains(request.httpMethod())) {
+            return this.delegate.execute(request, options);
+        }
+        String endpoint = AdaptiveTimeouts.endpoint(request.httpMethod().name(),
+                URI.create(request.url()).getPath());
+        Duration configured = Duration.ofMillis(
+                options.readTimeoutUnit().toMillis(options.readTimeout()));
+        Duration readTimeout = this.adaptiveTimeouts.readTimeout(endpoint);
+        if (readTimeout.compareTo(configured) > 0) {
+            readTimeout = configured;
+        }
+        Request.Options adapted = new Request.Options(options.connectTimeout(),
+                options.connectTimeoutUnit(), readTimeout.toMillis(), TimeUnit.MILLISECONDS,
+                options.isFollowRedirects());
+        long start = System.nanoTime();
+        try {
+            Response response = this.delegate.execute(request, adapted);
+            this.adaptiveTimeouts.recordLatency(endpoint, System.nanoTime() - start);
+            return response;
+        } catch (SocketTimeoutException | HttpTimeoutException e) {
+            this.adaptiveTimeouts.recordTimeout(endpoint, readTimeout);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.ontop.balance.infrastructure.configs;
+
+import java.io.IOException;
+
+/**
+ * A call abandoned because the thread making it was interrupted, as the losing read of a hedged
+ * pair is. It says nothing of the downstream service, so the circuit breakers ignore it, it is
+ * not retried and no instance is blamed for it.
+ */
+class CancelledCallException extends IOException {
+
+    CancelledCallException(Throwable cause) {
+        super("Call cancelled: " + cause.getMessage(), cause);
+    }
+}
@@ -2,23 +2,27 @@ package com.ontop.balance.infrastructure.configs;
 
 import feign.Logger;
 import feign.Request;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.concurrent.TimeUnit;
-
 /**
  * Feign client configuration for external service calls.
  *
  * <p>Timeouts configured:
  * <ul>
- *   <li>Connect timeout: 5s - time to establish TCP connection</li>
- *   <li>Read timeout: 10s - time to wait for response</li>
+ *   <li>Connect timeout: {@code core.http.timeouts.connect} (5s) - time to establish TCP
+ *   connection</li>
+ *   <li>Read timeout: {@code core.http.timeouts.max} (10s) - the most a call may wait for a
+ *   response. Each call actually gets the shorter timeout computed for its endpoint by
+ *   {@link com.ontop.balance.infrastructure.clients.AdaptiveTimeouts}</li>
  * </ul>
  *
- * <p><b>IMPORTANT:</b> TimeLimiter is configured in resilience4j.properties and must be
- * greater than (connect timeout + read timeout) to avoid premature circuit breaking.
- * Current TimeLimiter setting: 13s (allows Feign timeouts to trigger first).
+ * <p>These timeouts are what bound a call: the circuit breaker, retry and bulkhead from
+ * resilience4j.properties are applied by {@link ResilienceConfig}, but the TimeLimiter
+ * instances are not, since Feign calls are synchronous.
  */
 @Configuration
 public class FeignClientConfig {
@@ -29,10 +33,12 @@ public class FeignClientConfig {
     }
 
     @Bean
-    public Request.Options requestOptions() {
+    public Request.Options requestOptions(
+            @Value("${core.http.timeouts.connect:PT5S}") Duration connectTimeout,
+            @Value("${core.http.timeouts.max:PT10S}") Duration readTimeout) {
         return new Request.Options(
-            5, TimeUnit.SECONDS,  // Connect timeout
-            10, TimeUnit.SECONDS,  // Read timeout
+            connectTimeout.toMillis(), TimeUnit.MILLISECONDS,  // Connect timeout
+            readTimeout.toMillis(), TimeUnit.MILLISECONDS,  // Read timeout ceiling
             true  // Follow redirects
         );
     }
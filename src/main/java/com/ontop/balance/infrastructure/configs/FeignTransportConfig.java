@@ -0,0 +1,65 @@
+package com.ontop.balance.infrastructure.configs;
+
+import feign.Client;
+import feign.hc5.ApacheHttp5Client;
+import feign.http2client.Http2Client;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.core5.util.TimeValue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * HTTP transport used by every Feign client, selected with {@code core.http.transport}.
+ *
+ * <p>{@code pooled} (the default) keeps connections alive in an Apache HttpClient 5 pool bounded
+ * per route and in total, evicting connections idle for longer than
+ * {@code core.http.pool.idle-eviction}. Pool occupancy and lease wait time are published under
+ * {@code http.client.pool.*}. The pool speaks HTTP/1.1 only.</p>
+ *
+ * <p>{@code http2} uses the JDK {@link HttpClient}, which negotiates HTTP/2 with servers that
+ * support it and multiplexes requests over a single connection per host. The JDK client does not
+ * expose its pool, so no pool metrics are published in that mode.</p>
+ *
+ * <p>Connect and read timeouts still come from {@link FeignClientConfig}. The transport is
+ * wrapped by {@link ResilienceConfig} before the clients use it.</p>
+ */
+@Configuration
+public class FeignTransportConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "core.http.transport", havingValue = "pooled",
+            matchIfMissing = true)
+    public CloseableHttpClient feignHttpClient(MeterRegistry meterRegistry,
+            @Value("${core.http.pool.max-total:200}") int maxTotal,
+            @Value("${core.http.pool.max-per-route:50}") int maxPerRoute,
+            @Value("${core.http.pool.time-to-live:PT5M}") Duration timeToLive,
+            @Value("${core.http.pool.idle-eviction:PT30S}") Duration idleEviction) {
+        InstrumentedConnectionManager connectionManager = new InstrumentedConnectionManager(
+                meterRegistry, maxTotal, maxPerRoute,
+                TimeValue.ofMilliseconds(timeToLive.toMillis()));
+        return HttpClients.custom().setConnectionManager(connectionManager)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleEviction.toMillis()))
+                .disableCookieManagement().build();
+    }
+
+    @Bean("feignTransport")
+    @ConditionalOnProperty(name = "core.http.transport", havingValue = "pooled",
+            matchIfMissing = true)
+    public Client pooledFeignClient(CloseableHttpClient feignHttpClient) {
+        return new ApacheHttp5Client(feignHttpClient);
+    }
+
+    @Bean("feignTransport")
+    @ConditionalOnProperty(name = "core.http.transport", havingValue = "http2")
+    public Client http2FeignClient() {
+        return new Http2Client(HttpClient.newBuilder().version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL).build());
+    }
+}
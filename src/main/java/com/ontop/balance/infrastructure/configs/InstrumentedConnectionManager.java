@@ -0,0 +1,79 @@
+package com.ontop.balance.infrastructure.configs;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.ToDoubleFunction;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.client5.http.socket.ConnectionSocketFactory;
+import org.apache.hc.client5.http.socket.PlainConnectionSocketFactory;
+import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactory;
+import org.apache.hc.core5.http.config.RegistryBuilder;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+/**
+ * Connection pool shared by the Feign clients that records how long callers wait to lease a
+ * connection and exposes the pool occupancy as gauges.
+ */
+class InstrumentedConnectionManager extends PoolingHttpClientConnectionManager {
+
+    private final Timer leaseWait;
+
+    InstrumentedConnectionManager(MeterRegistry meterRegistry, int maxTotal, int maxPerRoute,
+            TimeValue timeToLive) {
+        super(RegistryBuilder.<ConnectionSocketFactory>create()
+                        .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                        .register("https", SSLConnectionSocketFactory.getSocketFactory()).build(),
+                PoolConcurrencyPolicy.STRICT, PoolReusePolicy.LIFO, timeToLive);
+        setMaxTotal(maxTotal);
+        setDefaultMaxPerRoute(maxPerRoute);
+        this.leaseWait = Timer.builder("http.client.pool.lease.wait")
+                .description("Time spent waiting for a pooled connection")
+                .publishPercentiles(0.5, 0.99).register(meterRegistry);
+        gauge(meterRegistry, "leased", PoolStats::getLeased);
+        gauge(meterRegistry, "pending", PoolStats::getPending);
+        gauge(meterRegistry, "available", PoolStats::getAvailable);
+        gauge(meterRegistry, "max", PoolStats::getMax);
+    }
+
+    @Override
+    public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+        long start = System.nanoTime();
+        LeaseRequest leaseRequest = super.lease(id, route, requestTimeout, state);
+        return new LeaseRequest() {
+
+            @Override
+            public ConnectionEndpoint get(Timeout timeout)
+                    throws InterruptedException, ExecutionException, TimeoutException {
+                try {
+                    return leaseRequest.get(timeout);
+                } finally {
+                    leaseWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return leaseRequest.cancel();
+            }
+        };
+    }
+
+    private void gauge(MeterRegistry meterRegistry, String state,
+            ToDoubleFunction<PoolStats> value) {
+        Gauge.builder("http.client.pool.connections", this,
+                        manager -> value.applyAsDouble(manager.getTotalStats()))
+                .description("Connections in the Feign client pool").tag("state", state)
+                .register(meterRegistry);
+    }
+}
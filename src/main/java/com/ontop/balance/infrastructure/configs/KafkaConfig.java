@@ -1,70 +1,316 @@
 package com.ontop.balance.infrastructure.configs;
 
+import com.ontop.balance.infrastructure.configs.KernelsSerializer.Format;
 import com.ontop.kernels.ChargebackMessage;
 import com.ontop.kernels.ParentMessage;
 import com.ontop.kernels.PaymentMessage;
 import com.ontop.kernels.WalletMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.stream.Stream;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
-import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaAdmin;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.ContainerProperties.AckMode;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
-import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.backoff.FixedBackOff;
 
+/**
+ * Each saga message type has its own topic, consumer group and listener container, so the wallet,
+ * payment and chargeback stages scale and lag independently. Every container deserializes the one
+ * type its topic carries and ignores the type headers written by the producers.
+ *
+ * <p>Each topic is written as JSON or in the compact binary form according to
+ * {@code core.topics.<type>.format}. The containers read both, so a topic can be switched from
+ * one to the other while records of the old form are still on it.</p>
+ *
+ * <p>A container runs {@code core.listener.<type>.concurrency} consumers, or one per partition of
+ * its topic when that is 0. Offsets are committed from the listener's acknowledgments, which
+ * only cover records that have completed. The containers tell the rebalance listener when a
+ * consumer gives up a partition, so the records of that partition still running are waited for
+ * or dropped.</p>
+ *
+ * <p>With {@code core.listener.batch.enabled} the containers hand whole poll batches of up to
+ * {@code core.listener.batch.max-records} records to the listener instead. A record that cannot be
+ * deserialized reaches the listener without a value rather than failing its batch.</p>
+ *
+ * <p>A record that cannot be deserialized, or whose listener still fails after
+ * {@code core.listener.dead-letter.attempts} deliveries {@code backoff} apart, is published to
+ * its topic's dead-letter topic ({@code core.topics.dead-letter.suffix}) with the error, its
+ * origin and the number of attempts in its headers, and consumption moves on.</p>
+ *
+ * <p>While {@code core.listener.legacy.enabled} is set, one more container reads the topic all
+ * three types used to share, {@code core.topics.legacy.name}, so it can be drained.</p>
+ *
+ * <p>The wallet, payment and chargeback messages share one producer, which picks the serializer
+ * from the message type, so they share its broker connections and buffer memory and the batches
+ * of every topic led by a broker travel in the same produce requests. The producers are
+ * idempotent and wait up to {@code core.kafka.producer.linger} to fill batches of
+ * {@code batch-size} bytes, compressed with {@code compression}. Their client metrics, batch
+ * sizes and record queue times included, are bound to the meter registry.</p>
+ */
 @Configuration
 public class KafkaConfig {
 
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapAddress;
 
+    @Value("${core.topics.replicas:1}")
+    private int replicas;
+
+    @Value("${core.listener.batch.enabled:false}")
+    private boolean batch;
+
+    @Value("${core.listener.batch.max-records:500}")
+    private int batchMaxRecords;
+
+    @Value("${core.topics.dead-letter.suffix:.DLT}")
+    private String deadLetterSuffix;
+
+    @Value("${core.listener.dead-letter.attempts:3}")
+    private int deadLetterAttempts;
+
+    @Value("${core.listener.dead-letter.backoff:PT0.2S}")
+    private Duration deadLetterBackoff;
+
+    @Value("${core.kafka.producer.linger:PT0.005S}")
+    private Duration linger;
+
+    @Value("${core.kafka.producer.batch-size:65536}")
+    private int batchSize;
+
+    @Value("${core.kafka.producer.compression:lz4}")
+    private String compression;
+
     private Map<String, Object> producerConfig() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapAddress);
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, this.linger.toMillis());
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, this.batchSize);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, this.compression);
         return configProps;
     }
 
-    @Bean("walletProducer")
-    public KafkaTemplate<String, WalletMessage> walletProducer() {
-        DefaultKafkaProducerFactory<String, WalletMessage> factory = new DefaultKafkaProducerFactory<>(
-                producerConfig(), new StringSerializer(), new JsonSerializer<>());
+    /**
+     * Writes the saga messages of every stage, each in the format of its topic.
+     */
+    @Bean("sagaProducer")
+    @SuppressWarnings("unchecked")
+    public KafkaTemplate<String, ParentMessage> sagaProducer(MeterRegistry meterRegistry,
+            @Value("${core.topics.wallet.format:json}") Format walletFormat,
+            @Value("${core.topics.payment.format:json}") Format paymentFormat,
+            @Value("${core.topics.chargeback.format:json}") Format chargebackFormat) {
+        Map<Class<?>, Serializer<?>> serializers = new LinkedHashMap<>();
+        serializers.put(WalletMessage.class, new KernelsSerializer<>(walletFormat));
+        serializers.put(PaymentMessage.class, new KernelsSerializer<>(paymentFormat));
+        serializers.put(ChargebackMessage.class, new KernelsSerializer<>(chargebackFormat));
+        Serializer<?> serializer = new DelegatingByTypeSerializer(serializers);
+        DefaultKafkaProducerFactory<String, ParentMessage> factory =
+                new DefaultKafkaProducerFactory<>(producerConfig(), new StringSerializer(),
+                        (Serializer<ParentMessage>) serializer);
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
         return new KafkaTemplate<>(factory);
     }
 
-    @Bean("paymentProducer")
-    public KafkaTemplate<String, PaymentMessage> paymentProducer() {
-        DefaultKafkaProducerFactory<String, PaymentMessage> factory = new DefaultKafkaProducerFactory<>(
-                producerConfig(), new StringSerializer(), new JsonSerializer<>());
+    /**
+     * Writes dead letters and their replays: raw records as they were read, deserialized ones as
+     * JSON.
+     */
+    @Bean("deadLetterProducer")
+    public KafkaTemplate<String, Object> deadLetterProducer(MeterRegistry meterRegistry) {
+        Map<Class<?>, Serializer<?>> serializers = new LinkedHashMap<>();
+        serializers.put(byte[].class, new ByteArraySerializer());
+        serializers.put(ParentMessage.class, new KernelsSerializer<>(Format.JSON));
+        DefaultKafkaProducerFactory<String, Object> factory = new DefaultKafkaProducerFactory<>(
+                producerConfig(), new StringSerializer(),
+                new DelegatingByTypeSerializer(serializers, true));
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
         return new KafkaTemplate<>(factory);
     }
 
-    @Bean("chargebackProducer")
-    public KafkaTemplate<String, ChargebackMessage> chargebackProducer() {
-        DefaultKafkaProducerFactory<String, ChargebackMessage> factory = new DefaultKafkaProducerFactory<>(
-                producerConfig(), new StringSerializer(), new JsonSerializer<>());
-        return new KafkaTemplate<>(factory);
+    @Bean
+    public ConsumerRecordRecoverer deadLetterRecoverer(
+            KafkaTemplate<String, Object> deadLetterProducer, MeterRegistry meterRegistry) {
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(
+                deadLetterProducer,
+                (record, e) -> new TopicPartition(record.topic() + this.deadLetterSuffix, -1));
+        recoverer.setHeadersFunction((record, e) -> {
+            RecordHeaders headers = new RecordHeaders();
+            if (record.headers().lastHeader(KafkaHeaders.DELIVERY_ATTEMPT) == null) {
+                headers.add(KafkaHeaders.DELIVERY_ATTEMPT,
+                        ByteBuffer.allocate(Integer.BYTES).putInt(1).array());
+            }
+            return headers;
+        });
+        return (record, e) -> {
+            Counter.builder("kafka.listener.dead-lettered")
+                    .description("Consumed records published to a dead-letter topic")
+                    .tag("topic", record.topic()).register(meterRegistry).increment();
+            recoverer.accept(record, e);
+        };
     }
 
-    private ConsumerFactory<String, ParentMessage> consumerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapAddress);
-        return new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(),
-                new JsonDeserializer<>(ParentMessage.class));
+    /**
+     * Redelivers a record whose listener throws on the consumer thread, then dead-letters it.
+     * Records that cannot be deserialized are dead-lettered at once. The offset past a
+     * dead-lettered record is committed once {@link RecoveredOffsets} reports that no earlier
+     * record of its partition is still running, so it is committed even when it is the last
+     * record of its partition, yet never passes a record still running.
+     */
+    @Bean
+    public DefaultErrorHandler kafkaErrorHandler(ConsumerRecordRecoverer deadLetterRecoverer,
+            RecoveredOffsets recoveredOffsets) {
+        // Set on the consumer thread by the recoverer, read right after by the container.
+        ThreadLocal<Boolean> committable = new ThreadLocal<>();
+        ConsumerRecordRecoverer recoverer = (record, e) -> {
+            deadLetterRecoverer.accept(record, e);
+            committable.set(recoveredOffsets.recovered(record));
+        };
+        return new DefaultErrorHandler(recoverer,
+                new FixedBackOff(this.deadLetterBackoff.toMillis(), this.deadLetterAttempts - 1L)) {
+
+            @Override
+            public boolean isAckAfterHandle() {
+                Boolean commit = committable.get();
+                committable.remove();
+                return Boolean.TRUE.equals(commit);
+            }
+        };
+    }
+
+    @Bean
+    public KafkaAdmin.NewTopics deadLetterTopics(
+            @Value("${core.topics.wallet.name}") String walletTopic,
+            @Value("${core.topics.payment.name}") String paymentTopic,
+            @Value("${core.topics.chargeback.name}") String chargebackTopic,
+            @Value("${core.topics.legacy.name:money-transfer-transactions}") String legacyTopic,
+            @Value("${core.listener.legacy.enabled:true}") boolean legacy,
+            @Value("${core.topics.dead-letter.partitions:1}") int partitions) {
+        Stream<String> topics = Stream.of(walletTopic, paymentTopic, chargebackTopic);
+        if (legacy) {
+            topics = Stream.concat(topics, Stream.of(legacyTopic));
+        }
+        return new KafkaAdmin.NewTopics(topics
+                .map(topic -> TopicBuilder.name(topic + this.deadLetterSuffix)
+                        .partitions(partitions).replicas(this.replicas).build())
+                .toArray(NewTopic[]::new));
+    }
+
+    @Bean
+    public NewTopic walletTopic(@Value("${core.topics.wallet.name}") String name,
+            @Value("${core.topics.wallet.partitions:3}") int partitions) {
+        return TopicBuilder.name(name).partitions(partitions).replicas(this.replicas).build();
+    }
+
+    @Bean
+    public NewTopic paymentTopic(@Value("${core.topics.payment.name}") String name,
+            @Value("${core.topics.payment.partitions:3}") int partitions) {
+        return TopicBuilder.name(name).partitions(partitions).replicas(this.replicas).build();
+    }
+
+    @Bean
+    public NewTopic chargebackTopic(@Value("${core.topics.chargeback.name}") String name,
+            @Value("${core.topics.chargeback.partitions:3}") int partitions) {
+        return TopicBuilder.name(name).partitions(partitions).replicas(this.replicas).build();
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, WalletMessage> walletListenerContainerFactory(
+            @Value("${core.listener.wallet.concurrency:0}") int concurrency,
+            @Value("${core.topics.wallet.partitions:3}") int partitions,
+            DefaultErrorHandler kafkaErrorHandler,
+            ConsumerAwareRebalanceListener rebalanceListener) {
+        return listenerContainerFactory(new KernelsDeserializer<>(WalletMessage.class),
+                concurrency > 0 ? concurrency : partitions, this.batch, kafkaErrorHandler,
+                rebalanceListener);
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, ParentMessage> listenerContainerFactory() {
-        ConcurrentKafkaListenerContainerFactory<String, ParentMessage> factory = new ConcurrentKafkaListenerContainerFactory<>();
-        factory.setConsumerFactory(consumerFactory());
+    public ConcurrentKafkaListenerContainerFactory<String, PaymentMessage> paymentListenerContainerFactory(
+            @Value("${core.listener.payment.concurrency:0}") int concurrency,
+            @Value("${core.topics.payment.partitions:3}") int partitions,
+            DefaultErrorHandler kafkaErrorHandler,
+            ConsumerAwareRebalanceListener rebalanceListener) {
+        return listenerContainerFactory(new KernelsDeserializer<>(PaymentMessage.class),
+                concurrency > 0 ? concurrency : partitions, this.batch, kafkaErrorHandler,
+                rebalanceListener);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, ChargebackMessage> chargebackListenerContainerFactory(
+            @Value("${core.listener.chargeback.concurrency:0}") int concurrency,
+            @Value("${core.topics.chargeback.partitions:3}") int partitions,
+            DefaultErrorHandler kafkaErrorHandler,
+            ConsumerAwareRebalanceListener rebalanceListener) {
+        return listenerContainerFactory(new KernelsDeserializer<>(ChargebackMessage.class),
+                concurrency > 0 ? concurrency : partitions, this.batch, kafkaErrorHandler,
+                rebalanceListener);
+    }
+
+    /**
+     * Reads the topic shared by every saga message type before each had its own, as the JSON its
+     * producers wrote, with the class taken from their type headers. Always one record at a time.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, ParentMessage> legacyListenerContainerFactory(
+            @Value("${core.listener.legacy.concurrency:1}") int concurrency,
+            DefaultErrorHandler kafkaErrorHandler,
+            ConsumerAwareRebalanceListener rebalanceListener) {
+        JsonDeserializer<ParentMessage> deserializer = new JsonDeserializer<>(ParentMessage.class);
+        deserializer.addTrustedPackages(ParentMessage.class.getPackageName());
+        return listenerContainerFactory(deserializer, concurrency, false, kafkaErrorHandler,
+                rebalanceListener);
+    }
+
+    private <T extends ParentMessage> ConcurrentKafkaListenerContainerFactory<String, T> listenerContainerFactory(
+            Deserializer<T> deserializer, int concurrency, boolean batch,
+            DefaultErrorHandler errorHandler, ConsumerAwareRebalanceListener rebalanceListener) {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapAddress);
+        if (batch) {
+            configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, this.batchMaxRecords);
+        }
+        ConcurrentKafkaListenerContainerFactory<String, T> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(configProps,
+                new StringDeserializer(), new ErrorHandlingDeserializer<>(deserializer)));
+        factory.setConcurrency(concurrency);
+        factory.getContainerProperties().setAckMode(AckMode.MANUAL);
+        factory.getContainerProperties().setDeliveryAttemptHeader(true);
+        factory.getContainerProperties().setConsumerRebalanceListener(rebalanceListener);
+        factory.setCommonErrorHandler(errorHandler);
+        factory.setBatchListener(batch);
         return factory;
     }
 }
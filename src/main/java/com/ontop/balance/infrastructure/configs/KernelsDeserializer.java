@@ -0,0 +1,52 @@
+package com.ontop.balance.infrastructure.configs;
+
+import com.ontop.kernels.BinaryCodec;
+import com.ontop.kernels.ParentMessage;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+/**
+ * Reads kernels messages of one type whichever form they were written in, so a topic can switch
+ * its producers between JSON and binary without draining it first.
+ */
+public class KernelsDeserializer<T extends ParentMessage> implements Deserializer<T> {
+
+    private final Class<T> type;
+    private final JsonDeserializer<T> json;
+
+    public KernelsDeserializer(Class<T> type) {
+        this.type = type;
+        this.json = new JsonDeserializer<>(type, false);
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, byte[] data) {
+        if (!BinaryCodec.isBinary(data)) {
+            return headers == null ? this.json.deserialize(topic, data)
+                    : this.json.deserialize(topic, headers, data);
+        }
+        ParentMessage message;
+        try {
+            message = BinaryCodec.decode(data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Cannot decode record from " + topic, e);
+        }
+        if (!this.type.isInstance(message)) {
+            throw new SerializationException("Expected " + this.type.getSimpleName() + " on "
+                    + topic + " but got " + message.getClass().getSimpleName());
+        }
+        return this.type.cast(message);
+    }
+
+    @Override
+    public void close() {
+        this.json.close();
+    }
+}
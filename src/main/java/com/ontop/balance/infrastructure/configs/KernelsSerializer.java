@@ -0,0 +1,48 @@
+package com.ontop.balance.infrastructure.configs;
+
+import com.ontop.kernels.BinaryCodec;
+import com.ontop.kernels.ParentMessage;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+/**
+ * Writes the kernels messages of a topic as JSON or in the {@link BinaryCodec} form, as chosen by
+ * {@code core.topics.<type>.format}. Binary records carry no type headers.
+ */
+public class KernelsSerializer<T extends ParentMessage> implements Serializer<T> {
+
+    public enum Format {
+        JSON,
+        BINARY
+    }
+
+    private final Format format;
+    private final JsonSerializer<T> json = new JsonSerializer<>();
+
+    public KernelsSerializer(Format format) {
+        this.format = format;
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        return serialize(topic, null, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, T data) {
+        if (data == null) {
+            return null;
+        }
+        if (this.format == Format.BINARY) {
+            return BinaryCodec.encode(data);
+        }
+        return headers == null ? this.json.serialize(topic, data)
+                : this.json.serialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        this.json.close();
+    }
+}
@@ -79,7 +79,9 @@ public class RateLimitingFilter implements Filter {
      *
      * <p><b>Thread Safety:</b> The entire check-and-add operation is synchronized per IP
      * to prevent race conditions where multiple threads could simultaneously see 99 requests,
-     * both pass the check, and both add, resulting in 101 requests exceeding the limit.</p>
+     * both pass the check, and both add, resulting in 101 requests exceeding the limit. The 429
+     * response is written after the lock is released, so no request thread blocks on the socket
+     * while holding it (a virtual thread would stay pinned to its carrier).</p>
      *
      * @param request  the servlet request
      * @param response the servlet response
@@ -103,6 +105,7 @@ public class RateLimitingFilter implements Filter {
 
         // Synchronize per IP to ensure atomic check-and-add
         // This prevents race conditions where multiple threads bypass the limit simultaneously
+        boolean limited;
         synchronized (timestamps) {
             // Clean old timestamps outside the window
             long now = System.currentTimeMillis();
@@ -111,15 +114,18 @@ public class RateLimitingFilter implements Filter {
             }
 
             // Check if limit exceeded
-            if (timestamps.size() >= MAX_REQUESTS) {
-                httpResponse.setStatus(429); // Too Many Requests
-                httpResponse.getWriter().write("{\"error\": \"Rate limit exceeded\"}");
-                log.warn("Rate limit exceeded for IP: {}", clientIp);
-                return;
+            limited = timestamps.size() >= MAX_REQUESTS;
+            if (!limited) {
+                // Add current timestamp (still inside synchronized block for atomicity)
+                timestamps.offer(now);
             }
+        }
 
-            // Add current timestamp (still inside synchronized block for atomicity)
-            timestamps.offer(now);
+        if (limited) {
+            httpResponse.setStatus(429); // Too Many Requests
+            httpResponse.getWriter().write("{\"error\": \"Rate limit exceeded\"}");
+            log.warn("Rate limit exceeded for IP: {}", clientIp);
+            return;
         }
 
         chain.doFilter(request, response);
@@ -0,0 +1,17 @@
+package com.ontop.balance.infrastructure.configs;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+/**
+ * Decides whether the offset past a record the container's error handler has dead-lettered can be
+ * committed, for listeners that acknowledge records out of order. Called on the consumer thread
+ * right after the record is dead-lettered.
+ */
+public interface RecoveredOffsets {
+
+    /**
+     * @return whether no earlier record of the record's partition is still running, so committing
+     * past it skips nothing
+     */
+    boolean recovered(ConsumerRecord<?, ?> record);
+}
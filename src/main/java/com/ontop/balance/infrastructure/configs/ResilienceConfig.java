@@ -0,0 +1,46 @@
+package com.ontop.balance.infrastructure.configs;
+
+import com.ontop.balance.infrastructure.clients.AdaptiveTimeouts;
+import com.ontop.balance.infrastructure.clients.PaymentProviderRegistry;
+import com.ontop.balance.infrastructure.clients.WalletInstanceBalancer;
+import feign.Client;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryRegistry;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.PropertySource;
+
+/**
+ * Wraps the Feign transport with the circuit breaker, retry and bulkhead instances defined in
+ * {@code resilience4j.properties}, keyed by the name of each {@code @FeignClient}.
+ *
+ * <p>Underneath them, payment calls are routed across the configured providers and wallet
+ * calls across the configured wallet instances, so a retried call may go to a different
+ * instance than the attempt that failed. Each attempt gets the read timeout
+ * {@link AdaptiveTimeouts} holds for its endpoint.</p>
+ */
+@Configuration
+@PropertySource("classpath:resilience4j.properties")
+public class ResilienceConfig {
+
+    private static final Map<String, String> BACKENDS = Map.of(
+            "wallets", "walletClientBackend",
+            "payments", "paymentClientBackend");
+
+    @Bean
+    @Primary
+    public Client resilientFeignClient(@Qualifier("feignTransport") Client feignTransport,
+            CircuitBreakerRegistry circuitBreakerRegistry, RetryRegistry retryRegistry,
+            BulkheadRegistry bulkheadRegistry, PaymentProviderRegistry paymentProviderRegistry,
+            WalletInstanceBalancer walletInstanceBalancer, AdaptiveTimeouts adaptiveTimeouts) {
+        Client routing = new RoutingFeignClient(
+                new AdaptiveTimeoutFeignClient(feignTransport, adaptiveTimeouts),
+                Map.of("payments", paymentProviderRegistry, "wallets", walletInstanceBalancer));
+        return new ResilientFeignClient(routing, BACKENDS, circuitBreakerRegistry, retryRegistry,
+                bulkheadRegistry);
+    }
+}
@@ -0,0 +1,109 @@
+package com.ontop.balance.infrastructure.configs;
+
+import feign.Client;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.Util;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.vavr.CheckedFunction0;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies the resilience4j policies of a backend to every call made by the Feign client mapped
+ * to it.
+ *
+ * <p>Calls pass through a retry, then a semaphore bulkhead, then a circuit breaker. Only
+ * idempotent methods are retried, so a payment or wallet transaction that may already have been
+ * applied is never sent twice. A 5xx response counts as a failure for the breaker and the retry
+ * but is still handed to Feign once attempts are exhausted. An open breaker or a full bulkhead
+ * fails immediately with an {@link IOException}, which Feign reports as a
+ * {@code RetryableException} like any other transport failure. A {@link CancelledCallException}
+ * is ignored by the breaker and not retried, as configured in {@code resilience4j.properties}.</p>
+ */
+class ResilientFeignClient implements Client {
+
+    static final Set<Request.HttpMethod> IDEMPOTENT_METHODS = Set.of(
+            Request.HttpMethod.GET, Request.HttpMethod.HEAD, Request.HttpMethod.OPTIONS,
+            Request.HttpMethod.PUT, Request.HttpMethod.DELETE);
+
+    private final Client delegate;
+    private final Map<String, String> backends;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final RetryRegistry retryRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+
+    ResilientFeignClient(Client delegate, Map<String, String> backends,
+            CircuitBreakerRegistry circuitBreakerRegistry, RetryRegistry retryRegistry,
+            BulkheadRegistry bulkheadRegistry) {
+        this.delegate = delegate;
+        this.backends = backends;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.retryRegistry = retryRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        String backend = backendOf(request);
+        if (backend == null) {
+            return this.delegate.execute(request, options);
+        }
+        CheckedFunction0<Response> call = this.circuitBreakerRegistry.circuitBreaker(backend)
+                .decorateCheckedSupplier(() -> failOnServerError(
+                        this.delegate.execute(request, options)));
+        call = this.bulkheadRegistry.bulkhead(backend).decorateCheckedSupplier(call);
+        if (IDEMPOTENT_METHODS.contains(request.httpMethod())) {
+            call = this.retryRegistry.retry(backend).decorateCheckedSupplier(call);
+        }
+        try {
+            return call.apply();
+        } catch (ServerErrorException e) {
+            return e.response;
+        } catch (CallNotPermittedException | BulkheadFullException e) {
+            throw new IOException(e.getMessage(), e);
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IOException(e);
+        }
+    }
+
+    private String backendOf(Request request) {
+        RequestTemplate template = request.requestTemplate();
+        if (template == null || template.feignTarget() == null) {
+            return null;
+        }
+        return this.backends.get(template.feignTarget().name());
+    }
+
+    private static Response failOnServerError(Response response) throws IOException {
+        if (response.status() < 500) {
+            return response;
+        }
+        try (response) {
+            byte[] body = response.body() == null ? null
+                    : Util.toByteArray(response.body().asInputStream());
+            throw new ServerErrorException(response.toBuilder().body(body).build());
+        }
+    }
+
+    /**
+     * Carries a 5xx response, with its body already read, through the resilience4j decorators.
+     */
+    private static final class ServerErrorException extends IOException {
+
+        private final transient Response response;
+
+        private ServerErrorException(Response response) {
+            super("Server responded " + response.status());
+            this.response = response;
+        }
+    }
+}
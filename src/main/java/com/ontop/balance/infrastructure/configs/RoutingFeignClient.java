@@ -0,0 +1,57 @@
+package com.ontop.balance.infrastructure.configs;
+
+import com.ontop.balance.infrastructure.clients.EndpointRouter;
+import com.ontop.balance.infrastructure.clients.EndpointRouter.Route;
+import feign.Client;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Sends the calls of a Feign client to the instance chosen by its {@link EndpointRouter},
+ * replacing the URL configured on the {@code @FeignClient}, and reports back how each call went.
+ * A call that fails because its thread was interrupted is given back without an outcome and
+ * surfaces as a {@link CancelledCallException}.
+ */
+class RoutingFeignClient implements Client {
+
+    private final Client delegate;
+    private final Map<String, EndpointRouter> routers;
+
+    RoutingFeignClient(Client delegate, Map<String, EndpointRouter> routers) {
+        this.delegate = delegate;
+        this.routers = routers;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        RequestTemplate template = request.requestTemplate();
+        if (template == null || template.feignTarget() == null) {
+            return this.delegate.execute(request, options);
+        }
+        EndpointRouter router = this.routers.get(template.feignTarget().name());
+        String targetUrl = template.feignTarget().url();
+        if (router == null || !request.url().startsWith(targetUrl)) {
+            return this.delegate.execute(request, options);
+        }
+        Route route = router.route();
+        Request routed = Request.create(request.httpMethod(),
+                route.baseUrl() + request.url().substring(targetUrl.length()), request.headers(),
+                request.body(), request.charset(), template);
+        long start = System.nanoTime();
+        try {
+            Response response = this.delegate.execute(routed, options);
+            route.complete(System.nanoTime() - start, response.status() < 500);
+            return response;
+        } catch (IOException | RuntimeException e) {
+            if (Thread.currentThread().isInterrupted()) {
+                route.cancel();
+                throw new CancelledCallException(e);
+            }
+            route.complete(System.nanoTime() - start, false);
+            throw e;
+        }
+    }
+}
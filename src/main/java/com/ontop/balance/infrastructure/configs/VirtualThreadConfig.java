@@ -0,0 +1,29 @@
+package com.ontop.balance.infrastructure.configs;
+
+import java.util.concurrent.Executors;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Serves HTTP requests on virtual threads, selected with {@code core.threads.virtual}.
+ *
+ * <p>Controllers block on Feign calls to the wallet and payment services; on a virtual thread
+ * such a call parks instead of holding one of Tomcat's platform workers, so concurrent requests
+ * are no longer capped by {@code server.tomcat.threads.max}. Listener lanes and the blocking
+ * adapters use virtual threads regardless; see {@code PinnedThreadMonitor} for the carrier
+ * pinning they are watched for.</p>
+ */
+@Configuration
+public class VirtualThreadConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "core.threads.virtual", havingValue = "true",
+            matchIfMissing = true)
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandler() {
+        return protocolHandler -> protocolHandler.setExecutor(
+                Executors.newVirtualThreadPerTaskExecutor());
+    }
+}
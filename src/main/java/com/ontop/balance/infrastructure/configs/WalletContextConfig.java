@@ -1,9 +1,11 @@
 package com.ontop.balance.infrastructure.configs;
 
+import com.ontop.balance.core.DeadLetterFacade;
 import com.ontop.balance.core.RecipientFacade;
 import com.ontop.balance.core.TransactionFacade;
 import com.ontop.balance.core.TransferMoneyFacade;
 import com.ontop.balance.core.ports.outbound.Chargeback;
+import com.ontop.balance.core.ports.outbound.DeadLetters;
 import com.ontop.balance.core.ports.outbound.Payment;
 import com.ontop.balance.core.ports.outbound.Recipient;
 import com.ontop.balance.core.ports.outbound.Transaction;
@@ -30,4 +32,9 @@ public class WalletContextConfig {
             Chargeback chargeback) {
         return new TransactionFacade(transaction, payment, wallet, chargeback);
     }
+
+    @Bean
+    DeadLetterFacade deadLetterFacade(DeadLetters deadLetters) {
+        return new DeadLetterFacade(deadLetters);
+    }
 }
@@ -0,0 +1,30 @@
+package com.ontop.balance.infrastructure.entities;
+
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * A payment accepted by the provider, keyed by the provider's payment id. The transaction is set
+ * when the acceptance is recorded and the status when the provider confirms an outcome, in
+ * whichever order they happen.
+ */
+@Getter
+@Document("payment_confirmations")
+@NoArgsConstructor
+public class PaymentConfirmationEntity {
+
+    @Id
+    private String id;
+    private String transactionId;
+    private String status;
+    private LocalDateTime confirmedAt;
+
+    public PaymentConfirmationEntity(String id, String status) {
+        this.id = id;
+        this.status = status;
+        this.confirmedAt = LocalDateTime.now();
+    }
+}
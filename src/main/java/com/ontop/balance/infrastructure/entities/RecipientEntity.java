@@ -4,10 +4,13 @@ package com.ontop.balance.infrastructure.entities;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Getter
 @Document("recipients")
+@CompoundIndex(name = "client_normalized_name", def = "{'clientId': 1, 'normalizedName': 1, '_id': 1}")
 @AllArgsConstructor
 public class RecipientEntity {
 
@@ -15,7 +18,10 @@ public class RecipientEntity {
     private String id;
     private Long clientId;
     private String name;
+    private String normalizedName;
     private String routingNumber;
     private String nationalIdentification;
     private String accountNumber;
+    @Indexed(unique = true, sparse = true)
+    private String fingerprint;
 }
@@ -3,7 +3,9 @@ package com.ontop.balance.infrastructure.entities;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
@@ -23,6 +25,15 @@ public class TransactionEntity {
     private BigDecimal amount;
 
     private List<TransactionItem> steps;
+    /**
+     * Outcome of each saga stage that has been processed, by stage; {@code IN_PROGRESS} while a
+     * stage has been claimed but not yet completed.
+     */
+    private Map<String, String> processedStages;
+    /**
+     * The claim on each stage started and not yet completed, by stage.
+     */
+    private Map<String, StageClaim> stageClaims;
 
     public TransactionEntity(String id, Long clientId, String recipientId, String recipientName,
             BigDecimal amount) {
@@ -33,6 +44,21 @@ public class TransactionEntity {
         this.amount = amount;
         this.createdAt = LocalDateTime.now();
         this.steps = new ArrayList<>();
+        this.processedStages = new HashMap<>();
+        this.stageClaims = new HashMap<>();
+    }
+
+    @Getter
+    @NoArgsConstructor
+    public static class StageClaim {
+
+        private String token;
+        private LocalDateTime claimedAt;
+
+        public StageClaim(String token) {
+            this.token = token;
+            this.claimedAt = LocalDateTime.now();
+        }
     }
 
     @Getter
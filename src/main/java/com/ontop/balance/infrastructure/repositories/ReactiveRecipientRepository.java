@@ -0,0 +1,15 @@
+package com.ontop.balance.infrastructure.repositories;
+
+import com.ontop.balance.infrastructure.entities.RecipientEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveRecipientRepository extends
+        ReactiveMongoRepository<RecipientEntity, String> {
+
+    Flux<RecipientEntity> findAllByClientId(Long clientId, Pageable pageable);
+
+    Mono<Long> countByClientId(Long clientId);
+}
@@ -0,0 +1,36 @@
+package com.ontop.balance.infrastructure.repositories;
+
+import com.ontop.balance.infrastructure.entities.TransactionEntity;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveTransactionRepository extends
+        ReactiveMongoRepository<TransactionEntity, String> {
+
+    Flux<TransactionEntity> findAllByClientIdOrderByCreatedAtDesc(Long clientId, Pageable pageable);
+
+    Mono<Long> countByClientId(Long clientId);
+
+    Flux<TransactionEntity> findByClientIdAndCreatedAtBetween(Long clientId, LocalDateTime startDate,
+            LocalDateTime endDate, Pageable page);
+
+    Mono<Long> countByClientIdAndCreatedAtBetween(Long clientId, LocalDateTime startDate,
+            LocalDateTime endDate);
+
+    default Flux<TransactionEntity> findByClientIdAndCreatedAtBetween(Long clientId,
+            LocalDate startDate, Pageable page) {
+        return startDate == null ? findAllByClientIdOrderByCreatedAtDesc(clientId, page)
+                : this.findByClientIdAndCreatedAtBetween(clientId, startDate.atStartOfDay(),
+                        startDate.plusDays(1).atStartOfDay(), page);
+    }
+
+    default Mono<Long> countByClientIdAndCreatedAtBetween(Long clientId, LocalDate startDate) {
+        return startDate == null ? countByClientId(clientId)
+                : this.countByClientIdAndCreatedAtBetween(clientId, startDate.atStartOfDay(),
+                        startDate.plusDays(1).atStartOfDay());
+    }
+}
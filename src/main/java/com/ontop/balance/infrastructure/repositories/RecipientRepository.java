@@ -1,6 +1,9 @@
 package com.ontop.balance.infrastructure.repositories;
 
 import com.ontop.balance.infrastructure.entities.RecipientEntity;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
@@ -8,4 +11,10 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 public interface RecipientRepository extends MongoRepository<RecipientEntity, String> {
 
     Page<RecipientEntity> findAllByClientId(Long clientId, Pageable pageable);
+
+    List<RecipientEntity> findAllByClientId(Long clientId);
+
+    Optional<RecipientEntity> findByFingerprint(String fingerprint);
+
+    List<RecipientEntity> findAllByFingerprintIn(Collection<String> fingerprints);
 }
@@ -0,0 +1,272 @@
+package com.ontop.kernels;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary form of the kernels messages.
+ *
+ * <p>A message starts with a one-byte type ({@link #WALLET}, {@link #PAYMENT} or
+ * {@link #CHARGEBACK}) and a one-byte schema version, followed by its fields in declaration
+ * order. Strings and decimals are length-prefixed with a varint that is 0 for {@code null}, and
+ * longs are a presence byte followed by a zigzag varint. Fields are only ever appended: a new
+ * field raises {@link #VERSION}, and a message of a newer version than the reader knows is read
+ * up to the fields it knows.</p>
+ *
+ * <p>No valid JSON document starts with a type byte, so {@link #isBinary(byte[])} tells the two
+ * forms apart while topics migrate from one to the other.</p>
+ */
+public final class BinaryCodec {
+
+    public static final byte WALLET = 1;
+    public static final byte PAYMENT = 2;
+    public static final byte CHARGEBACK = 3;
+    public static final byte VERSION = 1;
+
+    private BinaryCodec() {
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 0 && data[0] >= WALLET && data[0] <= CHARGEBACK;
+    }
+
+    /**
+     * Encodes {@code message} into an array of exactly its size: the fields are walked once to
+     * measure them and once to write them, so nothing is buffered between calls or per thread.
+     */
+    public static byte[] encode(ParentMessage message) {
+        Writer measure = new Writer(null);
+        write(message, measure);
+        Writer writer = new Writer(new byte[measure.position]);
+        write(message, writer);
+        return writer.buffer;
+    }
+
+    private static void write(ParentMessage message, Writer writer) {
+        if (message instanceof WalletMessage wallet) {
+            writer.writeByte(WALLET).writeByte(VERSION);
+            writer.writeLong(wallet.getClientId());
+            writer.writeDecimal(wallet.getAmount());
+            writer.writeString(wallet.getTransactionId());
+        } else if (message instanceof PaymentMessage payment) {
+            writer.writeByte(PAYMENT).writeByte(VERSION);
+            writer.writeLong(payment.getClientId());
+            writer.writeString(payment.getRecipientId());
+            writer.writeString(payment.getName());
+            writer.writeString(payment.getRoutingNumber());
+            writer.writeString(payment.getNationalIdentification());
+            writer.writeString(payment.getAccountNumber());
+            writer.writeDecimal(payment.getAmount());
+            writer.writeString(payment.getTransactionId());
+        } else if (message instanceof ChargebackMessage chargeback) {
+            writer.writeByte(CHARGEBACK).writeByte(VERSION);
+            writer.writeString(chargeback.getTransactionId());
+        } else {
+            throw new IllegalArgumentException("Unsupported message " + message.getClass());
+        }
+    }
+
+    public static ParentMessage decode(byte[] data) {
+        Reader reader = new Reader(data);
+        try {
+            byte type = reader.readByte();
+            byte version = reader.readByte();
+            if (version < 1) {
+                throw new IllegalArgumentException("Unsupported schema version " + version);
+            }
+            return switch (type) {
+                case WALLET -> new WalletMessage(reader.readLong(), reader.readDecimal(),
+                        reader.readString());
+                case PAYMENT -> new PaymentMessage(reader.readLong(), reader.readString(),
+                        reader.readString(), reader.readString(), reader.readString(),
+                        reader.readString(), reader.readDecimal(), reader.readString());
+                case CHARGEBACK -> new ChargebackMessage(reader.readString());
+                default -> throw new IllegalArgumentException("Unknown message type " + type);
+            };
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed message", e);
+        }
+    }
+
+    /**
+     * Writes the fields into {@code buffer}, or only counts their bytes when it is {@code null}.
+     */
+    private static final class Writer {
+
+        private final byte[] buffer;
+        private int position;
+
+        private Writer(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        private Writer writeByte(int value) {
+            if (this.buffer != null) {
+                this.buffer[this.position] = (byte) value;
+            }
+            this.position++;
+            return this;
+        }
+
+        private void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            writeByte((int) value);
+        }
+
+        private void writeLong(Long value) {
+            if (value == null) {
+                writeByte(0);
+                return;
+            }
+            writeByte(1);
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        /**
+         * Writes {@code value} as {@link String#getBytes} would in UTF-8, an unpaired surrogate
+         * included, without allocating its bytes.
+         */
+        private void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            int length = utf8Length(value);
+            writeVarLong(length + 1L);
+            if (this.buffer == null) {
+                this.position += length;
+                return;
+            }
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    writeByte(c);
+                } else if (c < 0x800) {
+                    writeByte(0xC0 | (c >> 6));
+                    writeByte(0x80 | (c & 0x3F));
+                } else if (isSurrogatePair(value, i)) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    writeByte(0xF0 | (codePoint >> 18));
+                    writeByte(0x80 | ((codePoint >> 12) & 0x3F));
+                    writeByte(0x80 | ((codePoint >> 6) & 0x3F));
+                    writeByte(0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    writeByte('?');
+                } else {
+                    writeByte(0xE0 | (c >> 12));
+                    writeByte(0x80 | ((c >> 6) & 0x3F));
+                    writeByte(0x80 | (c & 0x3F));
+                }
+            }
+        }
+
+        private void writeDecimal(BigDecimal value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            BigInteger unscaled = value.unscaledValue();
+            // The length of BigInteger.toByteArray(), sign bit included.
+            int length = unscaled.bitLength() / 8 + 1;
+            writeVarLong(length + 1L);
+            if (this.buffer != null) {
+                System.arraycopy(unscaled.toByteArray(), 0, this.buffer, this.position, length);
+            }
+            this.position += length;
+            int scale = value.scale();
+            writeVarLong(Integer.toUnsignedLong((scale << 1) ^ (scale >> 31)));
+        }
+
+        private static int utf8Length(String value) {
+            int length = 0;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    length++;
+                } else if (c < 0x800) {
+                    length += 2;
+                } else if (isSurrogatePair(value, i)) {
+                    length += 4;
+                    i++;
+                } else if (Character.isSurrogate(c)) {
+                    length++;
+                } else {
+                    length += 3;
+                }
+            }
+            return length;
+        }
+
+        private static boolean isSurrogatePair(String value, int index) {
+            return Character.isHighSurrogate(value.charAt(index)) && index + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(index + 1));
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] data;
+        private int position;
+
+        private Reader(byte[] data) {
+            this.data = data;
+        }
+
+        private byte readByte() {
+            return this.data[this.position++];
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte current = readByte();
+                value |= (long) (current & 0x7F) << shift;
+                if ((current & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        private int readLength() {
+            long length = readVarLong() - 1;
+            if (length < -1 || length > this.data.length - this.position) {
+                throw new IllegalArgumentException("Length " + length + " exceeds message");
+            }
+            return (int) length;
+        }
+
+        private Long readLong() {
+            if (readByte() == 0) {
+                return null;
+            }
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private String readString() {
+            int length = readLength();
+            if (length < 0) {
+                return null;
+            }
+            String value = new String(this.data, this.position, length, StandardCharsets.UTF_8);
+            this.position += length;
+            return value;
+        }
+
+        private BigDecimal readDecimal() {
+            int length = readLength();
+            if (length < 0) {
+                return null;
+            }
+            BigInteger unscaled = new BigInteger(this.data, this.position, length);
+            this.position += length;
+            int scale = (int) readVarLong();
+            return new BigDecimal(unscaled, (scale >>> 1) ^ -(scale & 1));
+        }
+    }
+}
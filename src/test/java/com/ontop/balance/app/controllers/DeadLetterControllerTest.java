@@ -0,0 +1,63 @@
+package com.ontop.balance.app.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.ontop.balance.core.model.commands.ReplayDeadLettersCommand;
+import com.ontop.balance.core.model.exceptions.UnauthorizedException;
+import com.ontop.balance.core.ports.inbound.ReplayDeadLetters;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class DeadLetterControllerTest {
+
+    private final ReplayDeadLetters replayDeadLetters = mock(ReplayDeadLetters.class);
+    private final DeadLetterController controller = new DeadLetterController(replayDeadLetters);
+
+    @Test
+    @DisplayName("""
+            GIVEN a replay request carrying the operator secret,
+            WHEN it is received,
+            THEN the replay is started and 202 is returned""")
+    void testReplayWithSecretIsAccepted() {
+        ReflectionTestUtils.setField(controller, "replaySecret", "s3cret");
+
+        ResponseEntity<Void> response = controller.replay("s3cret", "wallet", 10);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        verify(replayDeadLetters).handle(new ReplayDeadLettersCommand("wallet", 10));
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a replay request carrying the wrong token,
+            WHEN it is received,
+            THEN it is rejected and nothing is replayed""")
+    void testReplayWithWrongTokenIsRejected() {
+        ReflectionTestUtils.setField(controller, "replaySecret", "s3cret");
+
+        assertThatThrownBy(() -> controller.replay("guess", "wallet", 10))
+                .isInstanceOf(UnauthorizedException.class);
+        verify(replayDeadLetters, never()).handle(any(ReplayDeadLettersCommand.class));
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN no replay secret configured,
+            WHEN a replay request with an empty token is received,
+            THEN it is rejected""")
+    void testReplayIsRejectedWithoutConfiguredSecret() {
+        ReflectionTestUtils.setField(controller, "replaySecret", "");
+
+        assertThatThrownBy(() -> controller.replay("", "wallet", 10))
+                .isInstanceOf(UnauthorizedException.class);
+        verify(replayDeadLetters, never()).handle(any(ReplayDeadLettersCommand.class));
+    }
+}
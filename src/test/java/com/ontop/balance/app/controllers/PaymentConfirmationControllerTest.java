@@ -0,0 +1,71 @@
+package com.ontop.balance.app.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.ontop.balance.app.models.PaymentConfirmationRequest;
+import com.ontop.balance.app.models.PaymentConfirmationRequest.PaymentInfo;
+import com.ontop.balance.app.models.PaymentConfirmationRequest.RequestInfo;
+import com.ontop.balance.core.model.commands.ConfirmPaymentCommand;
+import com.ontop.balance.core.model.exceptions.UnauthorizedException;
+import com.ontop.balance.core.ports.inbound.ConfirmPayment;
+import java.math.BigDecimal;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class PaymentConfirmationControllerTest {
+
+    private static final PaymentConfirmationRequest REQUEST = new PaymentConfirmationRequest(
+            new RequestInfo("Completed"), new PaymentInfo("payment-1", new BigDecimal("900.00")));
+
+    private final ConfirmPayment confirmPayment = mock(ConfirmPayment.class);
+    private final PaymentConfirmationController controller = new PaymentConfirmationController(
+            confirmPayment);
+
+    @Test
+    @DisplayName("""
+            GIVEN a callback carrying the shared secret,
+            WHEN it is received,
+            THEN the payment is confirmed and 202 is returned""")
+    void testCallbackWithSecretIsAccepted() {
+        ReflectionTestUtils.setField(controller, "callbackSecret", "s3cret");
+
+        ResponseEntity<Void> response = controller.confirmPayment("s3cret", REQUEST);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        verify(confirmPayment).handle(new ConfirmPaymentCommand("payment-1", "Completed"));
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a callback carrying the wrong token,
+            WHEN it is received,
+            THEN it is rejected and nothing is confirmed""")
+    void testCallbackWithWrongTokenIsRejected() {
+        ReflectionTestUtils.setField(controller, "callbackSecret", "s3cret");
+
+        assertThatThrownBy(() -> controller.confirmPayment("guess", REQUEST))
+                .isInstanceOf(UnauthorizedException.class);
+        verify(confirmPayment, never()).handle(any(ConfirmPaymentCommand.class));
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN no callback secret configured,
+            WHEN a callback with an empty token is received,
+            THEN it is rejected""")
+    void testCallbackIsRejectedWithoutConfiguredSecret() {
+        ReflectionTestUtils.setField(controller, "callbackSecret", "");
+
+        assertThatThrownBy(() -> controller.confirmPayment("", REQUEST))
+                .isInstanceOf(UnauthorizedException.class);
+        verify(confirmPayment, never()).handle(any(ConfirmPaymentCommand.class));
+    }
+}
@@ -0,0 +1,147 @@
+package com.ontop.balance.app.importers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ontop.balance.app.importers.RecipientImportReader.Format;
+import com.ontop.balance.app.importers.RecipientImportReader.ImportRow;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class RecipientImportReaderTest {
+
+    private static final String CSV_HEADER =
+            "name,surname,routingNumber,identificationNumber,accountNumber,bankName\n";
+
+    @Test
+    @DisplayName("""
+            GIVEN a CSV upload with reordered columns, quoted fields and blank lines,
+            WHEN it is read,
+            THEN every non-blank row is parsed by column name with its line number""")
+    void testCsvRowsAreParsedByHeader() throws IOException {
+        List<ImportRow> rows = read(Format.CSV, """
+                bankName,name,surname,routingNumber,identificationNumber,accountNumber\r
+                "Bank, Inc",John,"O""Neil",123456789,12345678,987654321\r
+
+                Ontop,Jane,Doe,987654321,87654321,123456789
+                """);
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0).line()).isEqualTo(2);
+        assertThat(rows.get(0).request().bankName()).isEqualTo("Bank, Inc");
+        assertThat(rows.get(0).request().surname()).isEqualTo("O\"Neil");
+        assertThat(rows.get(1).line()).isEqualTo(4);
+        assertThat(rows.get(1).request().accountNumber()).isEqualTo("123456789");
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a CSV upload whose header lacks a required column,
+            WHEN it is read,
+            THEN a single fatal row names the missing column""")
+    void testCsvHeaderWithoutRequiredColumnIsFatal() throws IOException {
+        List<ImportRow> rows = read(Format.CSV, """
+                name,surname,routingNumber,identificationNumber,accountNumber
+                John,Doe,123456789,12345678,987654321
+                """);
+
+        assertThat(rows.get(0).fatal()).isTrue();
+        assertThat(rows.get(0).error()).contains("bankName");
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a CSV row with fewer columns than the header and a line over the length limit,
+            WHEN they are read,
+            THEN both are reported as failed rows and reading goes on""")
+    void testMalformedCsvRowsFailWithoutStoppingTheRead() throws IOException {
+        String longLine = "x".repeat(RecipientImportReader.MAX_LINE_LENGTH + 1);
+        List<ImportRow> rows = read(Format.CSV, CSV_HEADER + "John,Doe\n" + longLine + "\n"
+                + "Jane,Doe,987654321,87654321,123456789,Ontop\n");
+
+        assertThat(rows).hasSize(3);
+        assertThat(rows.get(0).request()).isNull();
+        assertThat(rows.get(0).error()).contains("Expected 6 columns");
+        assertThat(rows.get(1).request()).isNull();
+        assertThat(rows.get(1).error()).contains("exceeds");
+        assertThat(rows.get(1).fatal()).isFalse();
+        assertThat(rows.get(2).request()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a CSV row whose quoted bank name spans two lines,
+            WHEN it is read,
+            THEN the line break is kept in the field and the next row keeps its line number""")
+    void testQuotedCsvFieldMaySpanLines() throws IOException {
+        List<ImportRow> rows = read(Format.CSV, CSV_HEADER
+                + "John,Doe,123456789,12345678,987654321,\"Bank\nof Ontop\"\n"
+                + "Jane,Doe,987654321,87654321,123456789,Ontop\n");
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0).line()).isEqualTo(2);
+        assertThat(rows.get(0).request().bankName()).isEqualTo("Bank\nof Ontop");
+        assertThat(rows.get(1).line()).isEqualTo(4);
+        assertThat(rows.get(1).request().name()).isEqualTo("Jane");
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a CSV upload that ends inside a quoted field,
+            WHEN it is read,
+            THEN the row is reported as failed at the line it starts on""")
+    void testUnclosedQuoteFailsItsRow() throws IOException {
+        List<ImportRow> rows = read(Format.CSV, CSV_HEADER
+                + "John,Doe,123456789,12345678,987654321,\"Bank\nof Ontop\n");
+
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).line()).isEqualTo(2);
+        assertThat(rows.get(0).request()).isNull();
+        assertThat(rows.get(0).error()).isEqualTo("Quoted field is not closed");
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN an NDJSON upload with a valid and an invalid line,
+            WHEN it is read,
+            THEN the valid line is parsed and the invalid one is reported as failed""")
+    void testNdjsonLinesAreParsedIndependently() throws IOException {
+        List<ImportRow> rows = read(Format.NDJSON, """
+                {"name":"John","surname":"Doe","routingNumber":"123456789",\
+                "identificationNumber":"12345678","accountNumber":"987654321","bankName":"Ontop"}
+                {"name":
+                """);
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0).request().name()).isEqualTo("John");
+        assertThat(rows.get(1).request()).isNull();
+        assertThat(rows.get(1).error()).isEqualTo("Line is not a valid JSON recipient");
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN the content types of the two supported formats,
+            WHEN the format is resolved,
+            THEN NDJSON is recognised and anything else is read as CSV""")
+    void testFormatFromContentType() {
+        assertThat(Format.fromContentType("application/x-ndjson")).isEqualTo(Format.NDJSON);
+        assertThat(Format.fromContentType("text/csv;charset=UTF-8")).isEqualTo(Format.CSV);
+    }
+
+    private static List<ImportRow> read(Format format, String body) throws IOException {
+        RecipientImportReader reader = new RecipientImportReader(format,
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+                new ObjectMapper());
+        List<ImportRow> rows = new ArrayList<>();
+        ImportRow row;
+        while ((row = reader.next()) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+}
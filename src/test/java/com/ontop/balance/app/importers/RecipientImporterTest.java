@@ -0,0 +1,118 @@
+package com.ontop.balance.app.importers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ontop.balance.app.models.RecipientImportRowResponse;
+import com.ontop.balance.core.model.RecipientImportResult;
+import com.ontop.balance.core.ports.inbound.ImportRecipients;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import javax.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class RecipientImporterTest {
+
+    private static final String HEADER =
+            "name,surname,routingNumber,identificationNumber,accountNumber,bankName\n";
+    private static final String JOHN = "John,Doe,123456789,12345678,987654321,Ontop\n";
+    private static final String JANE = "Jane,Doe,987654321,87654321,123456789,Ontop\n";
+    private static final String ANN = "Ann,Roe,111111111,11111111,111111111,Ontop\n";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ImportRecipients importRecipients;
+    private RecipientImporter recipientImporter;
+
+    @BeforeEach
+    void setUp() {
+        importRecipients = mock(ImportRecipients.class);
+        recipientImporter = new RecipientImporter(importRecipients,
+                Validation.buildDefaultValidatorFactory().getValidator(), objectMapper);
+        ReflectionTestUtils.setField(recipientImporter, "batchSize", 2);
+        ReflectionTestUtils.setField(recipientImporter, "timeout", Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        recipientImporter.destroy();
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a CSV upload with a valid, an invalid and a duplicate row,
+            WHEN it is imported,
+            THEN one result is written per row in upload order""")
+    void testOneResultIsWrittenPerRow() throws IOException {
+        doReturn(List.of(RecipientImportResult.created("id-1")))
+                .doReturn(List.of(RecipientImportResult.duplicate("id-2")))
+                .when(importRecipients).handler(anyList());
+
+        List<RecipientImportRowResponse> results = importCsv(
+                HEADER + JOHN + "Bad,Row,1,2,3,Ontop\n" + JANE);
+
+        assertThat(results).extracting(RecipientImportRowResponse::line).containsExactly(2L,
+                3L, 4L);
+        assertThat(results).extracting(RecipientImportRowResponse::status)
+                .containsExactly("CREATED", "FAILED", "DUPLICATE");
+        assertThat(results.get(1).errors()).isNotEmpty();
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a batch the port fails to store with an unexpected error,
+            WHEN the upload is imported,
+            THEN the rows of that batch are reported as failed and the next batch is stored""")
+    void testFailedBatchDoesNotAbortTheStream() throws IOException {
+        doThrow(new DataAccessResourceFailureException("Mongo is down"))
+                .doReturn(List.of(RecipientImportResult.created("id-3")))
+                .when(importRecipients).handler(anyList());
+
+        List<RecipientImportRowResponse> results = importCsv(HEADER + JOHN + JANE + ANN);
+
+        assertThat(results).extracting(RecipientImportRowResponse::status)
+                .containsExactly("FAILED", "FAILED", "CREATED");
+        assertThat(results.get(0).errors().get(0).message())
+                .isEqualTo("Recipient could not be stored");
+        assertThat(results.get(2).id()).isEqualTo("id-3");
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a CSV upload without a usable header,
+            WHEN it is imported,
+            THEN a single file error is written and nothing is stored""")
+    void testInvalidHeaderStopsTheImport() throws IOException {
+        List<RecipientImportRowResponse> results = importCsv("name,surname\n" + JOHN);
+
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).errors().get(0).key()).isEqualTo("file");
+        verify(importRecipients, never()).handler(anyList());
+    }
+
+    private List<RecipientImportRowResponse> importCsv(String body) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        recipientImporter.importRecipients(1L, "text/csv",
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), output);
+        List<RecipientImportRowResponse> results = new ArrayList<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(objectMapper.readValue(line, RecipientImportRowResponse.class));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,201 @@
+package com.ontop.balance.app.listeners;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import com.ontop.balance.core.TransactionFacade;
+import com.ontop.balance.core.model.StartedSteps;
+import com.ontop.balance.core.model.TransactionData.TransactionStatus;
+import com.ontop.balance.core.ports.outbound.Chargeback;
+import com.ontop.balance.core.ports.outbound.Payment;
+import com.ontop.balance.core.ports.outbound.Transaction;
+import com.ontop.balance.core.ports.outbound.Wallet;
+import com.ontop.balance.infrastructure.configs.KafkaConfig;
+import com.ontop.kernels.WalletMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.AcknowledgingMessageListener;
+import org.springframework.kafka.listener.BatchAcknowledgingMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Compares the record listener with the batch listener on an embedded broker. Both consume
+ * through containers made by {@link KafkaConfig}'s wallet container factory, in record and in
+ * batch mode, and hand the records to the real {@link TransactionListener} and
+ * {@link BatchTransactionListener}. Every Mongo write is stubbed with a fixed round trip, so the
+ * difference is the number of writes per record. Excluded from {@code test}; run it with
+ * {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class BatchListenerBenchmarkTest {
+
+    private static final String TOPIC = "money-transfer-wallet-benchmark";
+    private static final int PARTITIONS = 3;
+    private static final int RECORDS = 2_000;
+    private static final long WRITE_MICROS = 500;
+
+    private static EmbeddedKafkaBroker broker;
+
+    @BeforeAll
+    static void startBroker() {
+        broker = new EmbeddedKafkaBroker(1, true, PARTITIONS, TOPIC);
+        broker.afterPropertiesSet();
+        KafkaTemplate<String, WalletMessage> producer = new KafkaTemplate<>(
+                new DefaultKafkaProducerFactory<>(KafkaTestUtils.producerProps(broker),
+                        new StringSerializer(), new JsonSerializer<>()));
+        for (int i = 0; i < RECORDS; i++) {
+            String transactionId = UUID.randomUUID().toString();
+            producer.send(TOPIC, transactionId,
+                    new WalletMessage(1L, BigDecimal.TEN, transactionId));
+        }
+        producer.flush();
+        producer.destroy();
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        broker.destroy();
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN wallet records on an embedded broker and Mongo writes that cost a round trip,
+            WHEN they are consumed by the record listener and by the batch listener,
+            THEN the batch listener consumes them faster""")
+    void testBatchListenerOutperformsRecordListener() throws Exception {
+        AtomicInteger writes = new AtomicInteger();
+
+        Result single = run("record", false, writes);
+        Result batch = run("batch", true, writes);
+
+        assertThat(batch.recordsPerSecond()).isGreaterThan(single.recordsPerSecond());
+        assertThat(batch.writes()).isLessThan(single.writes());
+    }
+
+    private Result run(String name, boolean batch, AtomicInteger writes)
+            throws InterruptedException {
+        writes.set(0);
+        CountDownLatch consumed = new CountDownLatch(RECORDS);
+        TransactionFacade facade = facade(writes, consumed);
+        ConsumerRecordRecoverer deadLetterRecoverer = mock(ConsumerRecordRecoverer.class);
+        KeyAffineWorkers workers = new KeyAffineWorkers(new SimpleMeterRegistry(),
+                deadLetterRecoverer, 64, 256, 3, Duration.ofMillis(200), Duration.ofSeconds(10));
+        KafkaConfig kafkaConfig = kafkaConfig(batch);
+        ConcurrentKafkaListenerContainerFactory<String, WalletMessage> factory =
+                kafkaConfig.walletListenerContainerFactory(0, PARTITIONS,
+                        kafkaConfig.kafkaErrorHandler(deadLetterRecoverer, workers), workers);
+        ConcurrentMessageListenerContainer<String, WalletMessage> container =
+                factory.createContainer(TOPIC);
+        container.getContainerProperties().setGroupId(name);
+        Properties consumerProperties = new Properties();
+        consumerProperties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        container.getContainerProperties().setKafkaConsumerProperties(consumerProperties);
+        if (batch) {
+            BatchTransactionListener listener = new BatchTransactionListener(facade, facade,
+                    facade, deadLetterRecoverer);
+            container.setupMessageListener(
+                    (BatchAcknowledgingMessageListener<String, WalletMessage>)
+                            listener::listenToWallets);
+        } else {
+            TransactionListener listener = new TransactionListener(facade, facade, facade,
+                    workers);
+            container.setupMessageListener(
+                    (AcknowledgingMessageListener<String, WalletMessage>)
+                            listener::listenToWallets);
+        }
+        long start = System.nanoTime();
+        container.start();
+        try {
+            assertThat(consumed.await(2, TimeUnit.MINUTES)).isTrue();
+        } finally {
+            container.stop();
+            workers.destroy();
+        }
+        Result result = new Result(RECORDS * 1e9 / (System.nanoTime() - start), writes.get());
+        System.out.printf("%-6s %,10.0f records/s %,8d writes%n", name,
+                result.recordsPerSecond(), result.writes());
+        return result;
+    }
+
+    private static KafkaConfig kafkaConfig(boolean batch) {
+        KafkaConfig kafkaConfig = new KafkaConfig();
+        ReflectionTestUtils.setField(kafkaConfig, "bootstrapAddress",
+                broker.getBrokersAsString());
+        ReflectionTestUtils.setField(kafkaConfig, "batch", batch);
+        ReflectionTestUtils.setField(kafkaConfig, "batchMaxRecords", 500);
+        ReflectionTestUtils.setField(kafkaConfig, "deadLetterAttempts", 3);
+        ReflectionTestUtils.setField(kafkaConfig, "deadLetterBackoff", Duration.ofMillis(200));
+        return kafkaConfig;
+    }
+
+    private static TransactionFacade facade(AtomicInteger writes, CountDownLatch consumed) {
+        Transaction transaction = mock(Transaction.class);
+        doAnswer(invocation -> write(writes)).when(transaction)
+                .addStepToTransaction(anyString(), anyString(), any());
+        doAnswer(invocation -> write(writes)).when(transaction).addStepsToTransactions(anyList());
+        doAnswer(invocation -> {
+            write(writes);
+            return true;
+        }).when(transaction).startStep(anyString(), anyString());
+        doAnswer(invocation -> {
+            write(writes);
+            consumed.countDown();
+            return null;
+        }).when(transaction).completeStep(anyString(), anyString(), any());
+        doAnswer(invocation -> {
+            write(writes);
+            return new StartedSteps(Set.copyOf(invocation.<List<String>>getArgument(0)),
+                    Set.of());
+        }).when(transaction).startSteps(anyList(), anyString());
+        doAnswer(invocation -> {
+            write(writes);
+            invocation.<List<?>>getArgument(0).forEach(outcome -> consumed.countDown());
+            return null;
+        }).when(transaction).completeSteps(anyList());
+        Wallet wallet = mock(Wallet.class);
+        doReturn(TransactionStatus.COMPLETED).when(wallet).withdraw(any());
+        doReturn(CompletableFuture.completedFuture(TransactionStatus.COMPLETED)).when(wallet)
+                .withdrawAsync(any());
+        return new TransactionFacade(transaction, mock(Payment.class), wallet,
+                mock(Chargeback.class));
+    }
+
+    private static Object write(AtomicInteger writes) throws InterruptedException {
+        writes.incrementAndGet();
+        TimeUnit.MICROSECONDS.sleep(WRITE_MICROS);
+        return null;
+    }
+
+    private record Result(double recordsPerSecond, int writes) {
+
+    }
+}
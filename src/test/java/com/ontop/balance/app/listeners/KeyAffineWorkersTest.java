@@ -0,0 +1,274 @@
+package com.ontop.balance.app.listeners;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+
+class KeyAffineWorkersTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition("money-transfer-wallet", 0);
+
+    private final ConsumerRecordRecoverer deadLetterRecoverer = mock(
+            ConsumerRecordRecoverer.class);
+    private final KeyAffineWorkers workers = new KeyAffineWorkers(new SimpleMeterRegistry(),
+            deadLetterRecoverer, 4, 16, 3, Duration.ofMillis(10), Duration.ofMillis(300));
+
+    @AfterEach
+    void tearDown() {
+        workers.destroy();
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN several records of the same transaction,
+            WHEN they are submitted while the first one is slow,
+            THEN they are handled in offset order""")
+    void testRecordsOfOneKeyKeepTheirOrder() throws InterruptedException {
+        List<Long> handled = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(3);
+
+        for (long offset = 0; offset < 3; offset++) {
+            long delay = offset == 0 ? 100 : 0;
+            workers.submit(record("tx-1", offset), mock(Acknowledgment.class), value -> {
+                sleep(delay);
+                handled.add(value);
+                done.countDown();
+            });
+        }
+
+        assertThat(done.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(handled).containsExactly(0L, 1L, 2L);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a slow record followed by a fast record of another transaction,
+            WHEN the fast record completes first,
+            THEN nothing is acknowledged until the slow record completes,
+            AND only the last record of the completed run is acknowledged""")
+    void testOffsetsAreAcknowledgedOnlyPastCompletedRecords() {
+        CountDownLatch slow = new CountDownLatch(1);
+        Acknowledgment first = mock(Acknowledgment.class);
+        Acknowledgment second = mock(Acknowledgment.class);
+        String otherKey = keyOnAnotherLane("tx-1");
+
+        workers.submit(record("tx-1", 0), first, value -> await(slow));
+        workers.submit(record(otherKey, 1), second, value -> {
+        });
+
+        verify(second, after(200).never()).acknowledge();
+        verify(first, never()).acknowledge();
+
+        slow.countDown();
+
+        verify(second, timeout(1000)).acknowledge();
+        verify(first, never()).acknowledge();
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a record whose handler always throws,
+            WHEN it is submitted,
+            THEN it is tried the configured number of times,
+            AND dead-lettered with the attempt count,
+            AND acknowledged so its partition moves on""")
+    void testFailingRecordIsDeadLetteredAndAcknowledged() {
+        AtomicInteger tries = new AtomicInteger();
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+        ConsumerRecord<String, Long> poison = record("tx-1", 0);
+
+        workers.submit(poison, acknowledgment, value -> {
+            tries.incrementAndGet();
+            throw new IllegalStateException("boom");
+        });
+
+        verify(acknowledgment, timeout(1000)).acknowledge();
+        verify(deadLetterRecoverer).accept(same(poison), any(IllegalStateException.class));
+        assertThat(tries).hasValue(3);
+        assertThat(ByteBuffer.wrap(poison.headers().lastHeader(KafkaHeaders.DELIVERY_ATTEMPT)
+                .value()).getInt()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a record waiting to be retried,
+            WHEN a record of another transaction on the same lane is submitted,
+            THEN it runs without waiting for the retry,
+            AND a later record of the same transaction waits for the retried one""")
+    void testRetryHoldsUpOnlyItsOwnTransaction() throws InterruptedException {
+        KeyAffineWorkers oneLane = new KeyAffineWorkers(new SimpleMeterRegistry(),
+                deadLetterRecoverer, 1, 16, 3, Duration.ofMillis(500), Duration.ofMillis(300));
+        List<String> handled = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger tries = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(3);
+        try {
+            oneLane.submit(record("tx-1", 0), mock(Acknowledgment.class), value -> {
+                if (tries.incrementAndGet() == 1) {
+                    throw new IllegalStateException("wallet busy");
+                }
+                handled.add("tx-1@0");
+                done.countDown();
+            });
+            oneLane.submit(record("tx-1", 1), mock(Acknowledgment.class), value -> {
+                handled.add("tx-1@1");
+                done.countDown();
+            });
+            oneLane.submit(record("tx-2", 2), mock(Acknowledgment.class), value -> {
+                handled.add("tx-2@2");
+                done.countDown();
+            });
+
+            assertThat(done.await(2, TimeUnit.SECONDS)).isTrue();
+            assertThat(handled).containsExactly("tx-2@2", "tx-1@0", "tx-1@1");
+        } finally {
+            oneLane.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a record dead-lettered by the container while an earlier one is running,
+            WHEN the earlier record completes within the revocation timeout,
+            THEN the offset past the dead-lettered record may be committed""")
+    void testRecoveredRecordIsCommittableOnceEarlierOnesComplete() {
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+        workers.submit(record("tx-1", 0), acknowledgment, value -> sleep(100));
+
+        assertThat(workers.recovered(record("tx-2", 1))).isTrue();
+        verify(acknowledgment, timeout(1000)).acknowledge();
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a record dead-lettered by the container while an earlier one outlasts the
+              revocation timeout,
+            WHEN the earlier record and then a later one complete,
+            THEN the offset is not committed by the error handler,
+            AND the later record's acknowledgment covers it""")
+    void testRecoveredRecordIsCoveredByTheNextAcknowledgment() {
+        CountDownLatch slow = new CountDownLatch(1);
+        Acknowledgment first = mock(Acknowledgment.class);
+        Acknowledgment third = mock(Acknowledgment.class);
+        workers.submit(record("tx-1", 0), first, value -> await(slow));
+
+        assertThat(workers.recovered(record("tx-2", 1))).isFalse();
+
+        workers.submit(record("tx-3", 2), third, value -> {
+        });
+        slow.countDown();
+
+        verify(third, timeout(1000)).acknowledge();
+        verify(first, never()).acknowledge();
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a record of a partition still running,
+            WHEN the partition is revoked,
+            THEN the revocation waits for it,
+            AND its acknowledgment is given before the container commits""")
+    void testRevocationWaitsForRunningRecords() {
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+        workers.submit(record("tx-1", 0), acknowledgment, value -> sleep(100));
+
+        workers.onPartitionsRevokedBeforeCommit(mock(Consumer.class), List.of(PARTITION));
+
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a record of a partition that outlasts the revocation timeout,
+            WHEN the partition is revoked and the record then completes,
+            THEN its acknowledgment is dropped,
+            AND records of the partition reassigned later are acknowledged again""")
+    void testAcknowledgmentsOfRevokedPartitionAreDropped() {
+        CountDownLatch slow = new CountDownLatch(1);
+        Acknowledgment stale = mock(Acknowledgment.class);
+        workers.submit(record("tx-1", 0), stale, value -> await(slow));
+
+        workers.onPartitionsRevokedBeforeCommit(mock(Consumer.class), List.of(PARTITION));
+        slow.countDown();
+
+        verify(stale, after(200).never()).acknowledge();
+
+        Acknowledgment reassigned = mock(Acknowledgment.class);
+        workers.submit(record("tx-1", 0), reassigned, value -> {
+        });
+
+        verify(reassigned, timeout(1000)).acknowledge();
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a record of a partition still running,
+            WHEN the partition is lost,
+            THEN it is dropped without waiting and never acknowledged""")
+    void testLostPartitionIsDroppedAtOnce() {
+        CountDownLatch slow = new CountDownLatch(1);
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+        workers.submit(record("tx-1", 0), acknowledgment, value -> await(slow));
+
+        long start = System.nanoTime();
+        workers.onPartitionsLost(mock(Consumer.class), List.of(PARTITION));
+        long elapsed = System.nanoTime() - start;
+        slow.countDown();
+
+        assertThat(elapsed).isLessThan(TimeUnit.MILLISECONDS.toNanos(300));
+        verify(acknowledgment, after(200).never()).acknowledge();
+    }
+
+    private static ConsumerRecord<String, Long> record(String key, long offset) {
+        return new ConsumerRecord<>(PARTITION.topic(), PARTITION.partition(), offset, key,
+                offset);
+    }
+
+    private static String keyOnAnotherLane(String key) {
+        for (int i = 0; ; i++) {
+            String candidate = "tx-" + i;
+            if (Math.floorMod(candidate.hashCode(), 4) != Math.floorMod(key.hashCode(), 4)) {
+                return candidate;
+            }
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.ontop.balance.app.listeners;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+import com.ontop.balance.infrastructure.configs.MongoTestContainerConfig;
+import com.ontop.kernels.ChargebackMessage;
+import com.ontop.kernels.ParentMessage;
+import com.ontop.kernels.PaymentMessage;
+import com.ontop.kernels.WalletMessage;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest(properties = "spring.autoconfigure.exclude=")
+@ActiveProfiles("test")
+@Import(MongoTestContainerConfig.class)
+@EmbeddedKafka(partitions = 1, topics = "money-transfer-transactions",
+        bootstrapServersProperty = "spring.kafka.bootstrap-servers")
+class TransactionListenerIntegrationTest {
+
+    private static final String LEGACY_TOPIC = "money-transfer-transactions";
+
+    @Autowired
+    private KafkaListenerEndpointRegistry registry;
+
+    @Autowired
+    private KafkaTemplate<String, ParentMessage> sagaProducer;
+
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+
+    @MockBean
+    private KeyAffineWorkers workers;
+
+    @Value("${core.topics.wallet.name}")
+    private String walletTopic;
+
+    @Value("${core.topics.payment.name}")
+    private String paymentTopic;
+
+    @Value("${core.topics.chargeback.name}")
+    private String chargebackTopic;
+
+    private final BlockingQueue<ConsumerRecord<String, ?>> submitted = new LinkedBlockingQueue<>();
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> this.submitted.add(invocation.getArgument(0)))
+                .when(this.workers).submit(any(), any(), any());
+        // The typed topics are declared with 3 partitions, the old one by the broker with 1.
+        this.registry.getListenerContainers().forEach(container -> ContainerTestUtils
+                .waitForAssignment(container, LEGACY_TOPIC.equals(topic(container)) ? 1 : 3));
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN the saga listeners,
+            WHEN the application starts,
+            THEN each message type and the old shared topic has a container of its own""")
+    void testEachTopicHasItsOwnContainer() {
+        assertThat(Map.of(
+                "wallets", topic(this.registry.getListenerContainer("wallets")),
+                "payments", topic(this.registry.getListenerContainer("payments")),
+                "chargebacks", topic(this.registry.getListenerContainer("chargebacks")),
+                "transactions", topic(this.registry.getListenerContainer("transactions"))))
+                .containsExactlyInAnyOrderEntriesOf(Map.of(
+                        "wallets", this.walletTopic,
+                        "payments", this.paymentTopic,
+                        "chargebacks", this.chargebackTopic,
+                        "transactions", LEGACY_TOPIC));
+        assertThat(this.registry.getListenerContainer("wallets").getGroupId())
+                .isEqualTo("core.group.wallet");
+        assertThat(this.registry.getListenerContainer("payments").getGroupId())
+                .isEqualTo("core.group.payment");
+        assertThat(this.registry.getListenerContainer("chargebacks").getGroupId())
+                .isEqualTo("core.group.chargeback");
+        assertThat(this.registry.getListenerContainer("transactions").getGroupId())
+                .isEqualTo("core.group");
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a wallet, a payment and a chargeback message,
+            WHEN each is published to its topic,
+            THEN each is consumed as its own type from its own topic""")
+    void testEachTypeIsConsumedFromItsTopic() throws InterruptedException {
+        String transactionId = UUID.randomUUID().toString();
+        this.sagaProducer.send(this.walletTopic, transactionId,
+                new WalletMessage(1L, BigDecimal.TEN, transactionId));
+        this.sagaProducer.send(this.paymentTopic, transactionId,
+                new PaymentMessage(1L, "recipient-1", "John Doe", "028444018", "123",
+                        "0245253419", BigDecimal.TEN, transactionId));
+        this.sagaProducer.send(this.chargebackTopic, transactionId,
+                new ChargebackMessage(transactionId));
+
+        Map<String, Class<?>> consumed = new HashMap<>();
+        for (int i = 0; i < 3; i++) {
+            ConsumerRecord<String, ?> record = next(transactionId);
+            consumed.put(record.topic(), record.value().getClass());
+        }
+
+        assertThat(consumed).containsExactlyInAnyOrderEntriesOf(Map.of(
+                this.walletTopic, WalletMessage.class,
+                this.paymentTopic, PaymentMessage.class,
+                this.chargebackTopic, ChargebackMessage.class));
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a wallet message left on the old shared topic by the previous release,
+            WHEN it is drained,
+            THEN it is forwarded to the wallet topic and consumed from there""")
+    void testOldTopicIsDrainedToTheTypedTopics() throws InterruptedException {
+        String transactionId = UUID.randomUUID().toString();
+        KafkaTemplate<String, ParentMessage> previousRelease = new KafkaTemplate<>(
+                new DefaultKafkaProducerFactory<>(KafkaTestUtils.producerProps(this.broker),
+                        new StringSerializer(), new JsonSerializer<>()));
+        previousRelease.send(LEGACY_TOPIC, transactionId,
+                new WalletMessage(1L, BigDecimal.TEN, transactionId));
+        previousRelease.flush();
+        previousRelease.destroy();
+
+        ConsumerRecord<String, ?> record = next(transactionId);
+
+        assertThat(record.topic()).isEqualTo(this.walletTopic);
+        assertThat(record.value()).isInstanceOf(WalletMessage.class);
+    }
+
+    private ConsumerRecord<String, ?> next(String transactionId) throws InterruptedException {
+        while (true) {
+            ConsumerRecord<String, ?> record = this.submitted.poll(30, TimeUnit.SECONDS);
+            assertThat(record).as("record of " + transactionId).isNotNull();
+            if (transactionId.equals(record.key())) {
+                return record;
+            }
+        }
+    }
+
+    private static String topic(MessageListenerContainer container) {
+        return container.getContainerProperties().getTopics()[0];
+    }
+}
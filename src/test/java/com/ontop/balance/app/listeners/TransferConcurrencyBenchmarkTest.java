@@ -0,0 +1,145 @@
+package com.ontop.balance.app.listeners;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import com.ontop.balance.core.ports.inbound.ExecuteChargebackTransaction;
+import com.ontop.balance.core.ports.inbound.ExecutePaymentTransaction;
+import com.ontop.balance.core.ports.inbound.ExecuteWalletTransaction;
+import com.ontop.kernels.WalletMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.support.Acknowledgment;
+
+/**
+ * Compares how many blocking transfers one node holds in flight when its listener threads run
+ * them on a bounded pool of platform threads, as they were sized before, and when the
+ * {@link TransactionListener} hands them to {@link KeyAffineWorkers}, whose lanes run on virtual
+ * threads. Each transfer polls for its wallet step and then waits on the provider, sleeping where
+ * the adapters block on Mongo and HTTP. Records are fed to the listener as the consumer thread
+ * would, across {@value #PARTITIONS} partitions. Excluded from {@code test}; run it with
+ * {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class TransferConcurrencyBenchmarkTest {
+
+    private static final String TOPIC = "money-transfer-wallet";
+    private static final int PARTITIONS = 3;
+    private static final int TRANSFERS = 10_000;
+    private static final int PLATFORM_THREADS = 200;
+    private static final int LANES = 2_048;
+    private static final int MAX_IN_FLIGHT = 4_096;
+    private static final int WALLET_POLLS = 3;
+    private static final long WALLET_POLL_MILLIS = 50;
+    private static final long PROVIDER_MILLIS = 100;
+
+    @Test
+    @DisplayName("""
+            GIVEN transfers that block on the wallet poll and on the provider call,
+            WHEN they run on a bounded platform thread pool and through the listener's workers,
+            THEN the workers hold more transfers in flight and finish them sooner""")
+    void testWorkersHoldMoreTransfersInFlight() throws Exception {
+        Result platform = run("platform", this::platform);
+        Result workers = run("workers", this::workers);
+
+        assertThat(workers.peakInFlight()).isGreaterThan(platform.peakInFlight());
+        assertThat(workers.transfersPerSecond()).isGreaterThan(platform.transfersPerSecond());
+    }
+
+    private Result run(String name, Path path) throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        CountDownLatch completed = new CountDownLatch(TRANSFERS);
+        ExecuteWalletTransaction walletTransaction = mock(ExecuteWalletTransaction.class);
+        doAnswer(invocation -> {
+            peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                transfer();
+            } finally {
+                inFlight.decrementAndGet();
+                completed.countDown();
+            }
+            return null;
+        }).when(walletTransaction).handle(any());
+        long start = System.nanoTime();
+        try (AutoCloseable running = path.start(walletTransaction)) {
+            assertThat(completed.await(5, TimeUnit.MINUTES)).isTrue();
+        }
+        Result result = new Result(peak.get(), TRANSFERS * 1e9 / (System.nanoTime() - start));
+        System.out.printf("%-8s %,8d peak in flight %,10.0f transfers/s%n", name,
+                result.peakInFlight(), result.transfersPerSecond());
+        return result;
+    }
+
+    /**
+     * The transfers run on a fixed pool of platform threads, one record per thread.
+     */
+    private AutoCloseable platform(ExecuteWalletTransaction walletTransaction) {
+        ExecutorService executor = Executors.newFixedThreadPool(PLATFORM_THREADS);
+        consume(record -> executor.execute(() -> walletTransaction.handle(record.value())));
+        return executor::shutdownNow;
+    }
+
+    /**
+     * The transfers are consumed by the listener, which hands them to the workers.
+     */
+    private AutoCloseable workers(ExecuteWalletTransaction walletTransaction) {
+        KeyAffineWorkers workers = new KeyAffineWorkers(new SimpleMeterRegistry(),
+                mock(ConsumerRecordRecoverer.class), LANES, MAX_IN_FLIGHT, 1, Duration.ZERO,
+                Duration.ofSeconds(10));
+        TransactionListener listener = new TransactionListener(walletTransaction,
+                mock(ExecutePaymentTransaction.class), mock(ExecuteChargebackTransaction.class),
+                workers);
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+        Thread consumer = Thread.ofPlatform().name("benchmark-consumer").start(() -> consume(
+                record -> listener.listenToWallets(record, acknowledgment)));
+        return () -> {
+            consumer.join();
+            workers.destroy();
+        };
+    }
+
+    /**
+     * Delivers {@link #TRANSFERS} wallet records, each of its own transaction, in offset order
+     * per partition.
+     */
+    private static void consume(Consumer<ConsumerRecord<String, WalletMessage>> listener) {
+        for (int i = 0; i < TRANSFERS; i++) {
+            String transactionId = UUID.randomUUID().toString();
+            listener.accept(new ConsumerRecord<>(TOPIC, i % PARTITIONS, i / PARTITIONS,
+                    transactionId, new WalletMessage(1L, BigDecimal.TEN, transactionId)));
+        }
+    }
+
+    private static void transfer() throws InterruptedException {
+        for (int poll = 0; poll < WALLET_POLLS; poll++) {
+            Thread.sleep(WALLET_POLL_MILLIS);
+        }
+        Thread.sleep(PROVIDER_MILLIS);
+    }
+
+    @FunctionalInterface
+    private interface Path {
+
+        AutoCloseable start(ExecuteWalletTransaction walletTransaction);
+    }
+
+    private record Result(int peakInFlight, double transfersPerSecond) {
+
+    }
+}
@@ -2,23 +2,31 @@ package com.ontop.balance.core;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.verify;
 
 import com.ontop.balance.core.model.PaginatedWrapper;
 import com.ontop.balance.core.model.RecipientData;
+import com.ontop.balance.core.model.RecipientImportResult;
 import com.ontop.balance.core.model.commands.CreateRecipientCommand;
+import com.ontop.balance.core.model.exceptions.RecipientNotFoundException;
 import com.ontop.balance.core.model.exceptions.UnauthorizedAccessToResourceException;
 import com.ontop.balance.core.model.queries.ObtainRecipientByClientQuery;
 import com.ontop.balance.core.model.queries.ObtainRecipientByIdQuery;
 import com.ontop.balance.core.ports.outbound.Recipient;
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -40,13 +48,51 @@ class RecipientFacadeTest extends BaseTestCase {
 
         var command = new CreateRecipientCommand(1L, "John Doe", "123", "456", "789");
 
-        doNothing().when(this.recipient).save(eq(command), anyString());
+        doAnswer(invocation -> invocation.getArgument(1)).when(this.recipient)
+                .save(eq(command), anyString());
 
         this.recipientFacade.handler(command);
 
         verify(this.recipient).save(eq(command), anyString());
     }
 
+    @Test
+    @DisplayName("""
+        GIVEN a recipient account already stored for the client,
+        WHEN the recipient creation handler is invoked with the same account,
+        THEN the id of the stored recipient is returned""")
+    void testHandlerCreateRecipientReturnsExistingId() {
+
+        var command = new CreateRecipientCommand(1L, "John Doe", "123", "456", "789");
+
+        doReturn("$EXISTING").when(this.recipient).save(eq(command), anyString());
+
+        String id = this.recipientFacade.handler(command);
+
+        assertThat(id).isEqualTo("$EXISTING");
+    }
+
+    @Test
+    @DisplayName("""
+        GIVEN a batch of recipient creation requests,
+        WHEN the recipient import handler is invoked,
+        THEN every recipient is stored with its own id in the order it was received""")
+    void testHandlerImportRecipientsSuccessfull() {
+
+        var first = new CreateRecipientCommand(1L, "John Doe", "123", "456", "789");
+        var second = new CreateRecipientCommand(1L, "Jane Doe", "321", "654", "987");
+
+        doReturn(List.of(RecipientImportResult.created("1"), RecipientImportResult.created("2")))
+                .when(this.recipient).saveAll(any());
+
+        List<RecipientImportResult> results = this.recipientFacade.handler(List.of(first, second));
+
+        assertThat(results).hasSize(2);
+        verify(this.recipient).saveAll(argThat((Map<String, CreateRecipientCommand> commands) ->
+                new ArrayList<>(commands.values()).equals(List.of(first, second))
+                        && commands.keySet().stream().distinct().count() == 2));
+    }
+
     @Test
     @DisplayName("""
         GIVEN a valid recipient obtain request,
@@ -107,4 +153,42 @@ class RecipientFacadeTest extends BaseTestCase {
 
         verify(this.recipient).findRecipientById(eq(query));
     }
+
+    @Test
+    @DisplayName("""
+            GIVEN a valid recipient request by id
+            WHEN the asynchronous recipient by Id is invoked
+            THEN the recipient should be returned once the read completes""")
+    void testHandlerAsyncObtainRecipientByIdSuccessfull() {
+        String uuid = UUID.randomUUID().toString();
+        var query = new ObtainRecipientByIdQuery(uuid, 1L);
+        var recipientData = new RecipientData(
+                uuid, 1L, "John Doe", "123456", "456", "789", BigDecimal.valueOf(0.1));
+
+        doReturn(CompletableFuture.completedFuture(Optional.of(recipientData)))
+                .when(this.recipient).findRecipientByIdAsync(eq(query));
+
+        RecipientData recipientDataResponse = this.recipientFacade.handlerAsync(query).join();
+
+        assertThat(recipientDataResponse).isEqualTo(recipientData);
+        verify(this.recipient).findRecipientByIdAsync(eq(query));
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a recipient request with an unknown id
+            WHEN the asynchronous recipient by Id is invoked
+            THEN the future should complete with a RecipientNotFoundException""")
+    void testHandlerAsyncObtainRecipientByIdNotFound() {
+        String uuid = UUID.randomUUID().toString();
+        var query = new ObtainRecipientByIdQuery(uuid, 1L);
+
+        doReturn(CompletableFuture.completedFuture(Optional.empty()))
+                .when(this.recipient).findRecipientByIdAsync(eq(query));
+
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> this.recipientFacade.handlerAsync(query).join());
+
+        assertThat(exception).hasCauseInstanceOf(RecipientNotFoundException.class);
+    }
 }
@@ -0,0 +1,267 @@
+package com.ontop.balance.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import com.ontop.balance.core.model.PaymentConfirmation;
+import com.ontop.balance.core.model.StartedSteps;
+import com.ontop.balance.core.model.TransactionData.TransactionStatus;
+import com.ontop.balance.core.model.TransactionStep;
+import com.ontop.balance.core.model.commands.ConfirmPaymentCommand;
+import com.ontop.balance.core.model.commands.FailTransactionStepCommand;
+import com.ontop.balance.core.model.exceptions.StageInProgressException;
+import com.ontop.balance.core.ports.outbound.Chargeback;
+import com.ontop.balance.core.ports.outbound.Payment;
+import com.ontop.balance.core.ports.outbound.Transaction;
+import com.ontop.balance.core.ports.outbound.Wallet;
+import com.ontop.balance.infrastructure.ChargebackAdapter;
+import com.ontop.balance.infrastructure.PaymentAdapter;
+import com.ontop.balance.infrastructure.WalletAdapter;
+import com.ontop.kernels.PaymentMessage;
+import com.ontop.kernels.WalletMessage;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+
+class TransactionFacadeTest extends BaseTestCase {
+
+    private static final String PAYMENT = PaymentAdapter.class.getSimpleName();
+    private static final String CHARGEBACK = ChargebackAdapter.class.getSimpleName();
+    private static final String WALLET = WalletAdapter.class.getSimpleName();
+
+    @Mock
+    private Transaction transaction;
+    @Mock
+    private Payment payment;
+    @Mock
+    private Wallet wallet;
+    @Mock
+    private Chargeback chargeback;
+    @InjectMocks
+    private TransactionFacade transactionFacade;
+
+    @Test
+    @DisplayName("""
+            GIVEN a payment the provider has accepted,
+             WHEN the payment message is handled,
+             THEN the payment step must stay pending and no chargeback must be prepared""")
+    void testHandlePaymentAccepted() {
+        PaymentMessage message = new PaymentMessage(1L, "recipient", "John Doe", "123", "456",
+                "789", BigDecimal.TEN, "tx-1");
+        doReturn(true).when(this.transaction).startStep("tx-1", PAYMENT);
+        doReturn(TransactionStatus.PENDING).when(this.payment).transfer(message);
+
+        this.transactionFacade.handle(message);
+
+        verify(this.transaction).completeStep("tx-1", PAYMENT, TransactionStatus.PENDING);
+        verify(this.chargeback, never()).prepareChargeback(anyString());
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a wallet message whose stage was already processed,
+             WHEN it is delivered again,
+             THEN the wallet must not be called and no step must be written""")
+    void testHandleRedeliveredWalletMessage() {
+        doReturn(false).when(this.transaction).startStep("tx-1", WALLET);
+
+        this.transactionFacade.handle(new WalletMessage(1L, BigDecimal.TEN, "tx-1"));
+
+        verifyNoInteractions(this.wallet);
+        verify(this.transaction, never()).completeStep(anyString(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a wallet message whose withdrawal throws once its stage is claimed,
+             WHEN it is handled and then retried,
+             THEN the claim must be released and the retry must complete the stage""")
+    void testFailedWithdrawalIsRetried() {
+        WalletMessage message = new WalletMessage(1L, BigDecimal.TEN, "tx-1");
+        doReturn(true).when(this.transaction).startStep("tx-1", WALLET);
+        doThrow(new IllegalStateException("boom")).doReturn(TransactionStatus.COMPLETED)
+                .when(this.wallet).withdraw(message);
+
+        assertThatThrownBy(() -> this.transactionFacade.handle(message))
+                .isInstanceOf(IllegalStateException.class);
+        verify(this.transaction).releaseStep("tx-1", WALLET);
+        verify(this.transaction, never()).completeStep(anyString(), anyString(), any());
+
+        this.transactionFacade.handle(message);
+
+        verify(this.transaction).completeStep("tx-1", WALLET, TransactionStatus.COMPLETED);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN the provider confirms a payment as completed,
+             WHEN the confirmation is handled,
+             THEN the payment step of its transaction must be completed""")
+    void testConfirmPaymentCompleted() {
+        doReturn(Optional.of(new PaymentConfirmation("tx-1", TransactionStatus.COMPLETED)))
+                .when(this.payment).confirm("payment-1", "Completed");
+
+        this.transactionFacade.handle(new ConfirmPaymentCommand("payment-1", "Completed"));
+
+        verify(this.transaction).addStepToTransaction("tx-1", PAYMENT,
+                TransactionStatus.COMPLETED);
+        verifyNoInteractions(this.chargeback);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN the provider confirms a payment as failed,
+             WHEN the confirmation is handled,
+             THEN the payment step must fail and a chargeback must be prepared""")
+    void testConfirmPaymentFailed() {
+        doReturn(Optional.of(new PaymentConfirmation("tx-1", TransactionStatus.FAILED)))
+                .when(this.payment).confirm("payment-1", "Rejected");
+        doReturn(TransactionStatus.PENDING).when(this.chargeback).prepareChargeback("tx-1");
+
+        this.transactionFacade.handle(new ConfirmPaymentCommand("payment-1", "Rejected"));
+
+        verify(this.transaction).addStepToTransaction("tx-1", PAYMENT, TransactionStatus.FAILED);
+        verify(this.transaction).addStepToTransaction("tx-1", CHARGEBACK,
+                TransactionStatus.PENDING);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a confirmation that settles nothing, such as a repeated callback,
+             WHEN it is handled,
+             THEN no transaction must be touched""")
+    void testConfirmPaymentIgnored() {
+        doReturn(Optional.empty()).when(this.payment).confirm(eq("payment-1"), anyString());
+
+        this.transactionFacade.handle(new ConfirmPaymentCommand("payment-1", "Completed"));
+
+        verifyNoInteractions(this.transaction, this.chargeback);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a payment message the broker did not accept,
+             WHEN the publish failure is handled,
+             THEN the payment step must fail and a chargeback must be prepared""")
+    void testFailPaymentStep() {
+        doReturn(TransactionStatus.PENDING).when(this.chargeback).prepareChargeback("tx-1");
+
+        this.transactionFacade.handle(new FailTransactionStepCommand("tx-1", PAYMENT));
+
+        verify(this.transaction).addStepToTransaction("tx-1", PAYMENT, TransactionStatus.FAILED);
+        verify(this.transaction).addStepToTransaction("tx-1", CHARGEBACK,
+                TransactionStatus.PENDING);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a batch of wallet messages where one withdrawal throws,
+             WHEN the batch is handled,
+             THEN the steps of the batch are started and completed in one bulk write each,
+             AND only the message that threw fails""")
+    @SuppressWarnings("unchecked")
+    void testHandleWalletBatchIsolatesFailures() {
+        WalletMessage first = new WalletMessage(1L, BigDecimal.TEN, "tx-1");
+        WalletMessage second = new WalletMessage(1L, BigDecimal.TEN, "tx-2");
+        doReturn(new StartedSteps(Set.of("tx-1", "tx-2"), Set.of())).when(this.transaction)
+                .startSteps(List.of("tx-1", "tx-2"), WALLET);
+        doReturn(CompletableFuture.completedFuture(TransactionStatus.COMPLETED))
+                .when(this.wallet).withdrawAsync(first);
+        doThrow(new IllegalStateException("boom")).when(this.wallet).withdrawAsync(second);
+
+        this.transactionFacade.handleBatch(List.of(first, second));
+
+        ArgumentCaptor<List<TransactionStep>> steps = ArgumentCaptor.forClass(List.class);
+        verify(this.transaction).completeSteps(steps.capture());
+        assertThat(steps.getValue()).containsExactly(
+                new TransactionStep("tx-1", WALLET, TransactionStatus.COMPLETED),
+                new TransactionStep("tx-2", WALLET, TransactionStatus.FAILED));
+        verify(this.transaction, never()).addStepToTransaction(anyString(), anyString(),
+                any());
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a batch holding a redelivered wallet message and a message repeated twice,
+             WHEN the batch is handled,
+             THEN only the repeated message's first copy must reach the wallet""")
+    void testHandleWalletBatchSkipsDuplicates() {
+        WalletMessage redelivered = new WalletMessage(1L, BigDecimal.TEN, "tx-1");
+        WalletMessage repeated = new WalletMessage(1L, BigDecimal.TEN, "tx-2");
+        doReturn(new StartedSteps(Set.of("tx-2"), Set.of())).when(this.transaction)
+                .startSteps(List.of("tx-1", "tx-2"), WALLET);
+        doReturn(CompletableFuture.completedFuture(TransactionStatus.COMPLETED))
+                .when(this.wallet).withdrawAsync(repeated);
+
+        this.transactionFacade.handleBatch(List.of(redelivered, repeated, repeated));
+
+        verify(this.wallet).withdrawAsync(repeated);
+        verify(this.transaction).completeSteps(
+                List.of(new TransactionStep("tx-2", WALLET, TransactionStatus.COMPLETED)));
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a batch of payment messages where one payment fails,
+             WHEN the batch is handled,
+             THEN a chargeback is prepared for that payment only""")
+    @SuppressWarnings("unchecked")
+    void testHandlePaymentBatchChargesBackFailures() {
+        PaymentMessage accepted = new PaymentMessage(1L, "recipient", "John Doe", "123", "456",
+                "789", BigDecimal.TEN, "tx-1");
+        PaymentMessage failed = new PaymentMessage(1L, "recipient", "John Doe", "123", "456",
+                "789", BigDecimal.TEN, "tx-2");
+        doReturn(new StartedSteps(Set.of("tx-1", "tx-2"), Set.of())).when(this.transaction)
+                .startSteps(List.of("tx-1", "tx-2"), PAYMENT);
+        doReturn(CompletableFuture.completedFuture(TransactionStatus.PENDING))
+                .when(this.payment).transferAsync(accepted);
+        doReturn(CompletableFuture.completedFuture(TransactionStatus.FAILED))
+                .when(this.payment).transferAsync(failed);
+        doReturn(CompletableFuture.completedFuture(TransactionStatus.PENDING))
+                .when(this.chargeback).prepareChargebackAsync("tx-2");
+
+        this.transactionFacade.handleBatch(List.of(accepted, failed));
+
+        ArgumentCaptor<List<TransactionStep>> steps = ArgumentCaptor.forClass(List.class);
+        verify(this.transaction).addStepsToTransactions(steps.capture());
+        assertThat(steps.getValue()).containsExactly(
+                new TransactionStep("tx-2", CHARGEBACK, TransactionStatus.PENDING));
+        verify(this.chargeback, never()).prepareChargebackAsync("tx-1");
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a batch of wallet messages one of which another delivery is still processing,
+             WHEN the batch is handled,
+             THEN the others must be completed and the batch must fail to be retried""")
+    void testHandleWalletBatchRetriesClaimedStages() {
+        WalletMessage started = new WalletMessage(1L, BigDecimal.TEN, "tx-1");
+        WalletMessage claimed = new WalletMessage(1L, BigDecimal.TEN, "tx-2");
+        doReturn(new StartedSteps(Set.of("tx-1"), Set.of("tx-2"))).when(this.transaction)
+                .startSteps(List.of("tx-1", "tx-2"), WALLET);
+        doReturn(CompletableFuture.completedFuture(TransactionStatus.COMPLETED))
+                .when(this.wallet).withdrawAsync(started);
+
+        assertThatThrownBy(() -> this.transactionFacade.handleBatch(List.of(started, claimed)))
+                .isInstanceOf(StageInProgressException.class);
+
+        verify(this.transaction).completeSteps(
+                List.of(new TransactionStep("tx-1", WALLET, TransactionStatus.COMPLETED)));
+        verify(this.wallet, never()).withdrawAsync(claimed);
+    }
+}
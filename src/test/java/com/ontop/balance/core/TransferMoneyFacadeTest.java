@@ -1,5 +1,6 @@
 package com.ontop.balance.core;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -7,7 +8,6 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
-import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
@@ -20,8 +20,10 @@ import com.ontop.balance.core.model.exceptions.InsufficientBalanceException;
 import com.ontop.balance.core.model.exceptions.InvalidFeeException;
 import com.ontop.balance.core.model.exceptions.OwnershipValidationException;
 import com.ontop.balance.core.model.exceptions.RecipientNotFoundException;
+import com.ontop.balance.core.model.exceptions.TransactionFailedException;
 import com.ontop.balance.core.model.exceptions.WalletNotFoundException;
 import com.ontop.balance.core.model.queries.ObtainRecipientByIdQuery;
+import com.ontop.balance.core.ports.outbound.Chargeback;
 import com.ontop.balance.core.ports.outbound.Payment;
 import com.ontop.balance.core.ports.outbound.Recipient;
 import com.ontop.balance.core.ports.outbound.Transaction;
@@ -29,6 +31,8 @@ import com.ontop.balance.core.ports.outbound.Wallet;
 import java.math.BigDecimal;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -44,6 +48,8 @@ class TransferMoneyFacadeTest extends BaseTestCase {
     private Payment payment;
     @Mock
     private Transaction transaction;
+    @Mock
+    private Chargeback chargeback;
     @InjectMocks
     private TransferMoneyFacade transferMoneyFacade;
 
@@ -64,20 +70,24 @@ class TransferMoneyFacadeTest extends BaseTestCase {
         var recipientQuery = new ObtainRecipientByIdQuery(command.recipientId(),
                 command.clientId());
 
-        doReturn(Optional.of(recipientData)).when(this.recipient)
-                .findRecipientById(any(ObtainRecipientByIdQuery.class));
-        doReturn(Optional.of(balanceData)).when(this.wallet).getBalance(anyLong());
-        doReturn(TransactionStatus.PENDING).when(this.wallet)
-                .prepareWithdraw(any(BigDecimal.class), any(RecipientData.class), anyString());
-        doReturn(TransactionStatus.PENDING).when(this.payment)
-                .prepareTransfer(any(BigDecimal.class), any(RecipientData.class), anyString());
+        doReturn(CompletableFuture.completedFuture(Optional.of(recipientData))).when(this.recipient)
+                .findRecipientByIdAsync(any(ObtainRecipientByIdQuery.class));
+        doReturn(CompletableFuture.completedFuture(Optional.of(balanceData))).when(this.wallet)
+                .getBalanceAsync(anyLong());
+        doReturn(CompletableFuture.completedFuture(TransactionStatus.PENDING)).when(this.wallet)
+                .prepareWithdrawAsync(any(BigDecimal.class), any(RecipientData.class),
+                        anyString());
+        doReturn(CompletableFuture.completedFuture(TransactionStatus.PENDING)).when(this.payment)
+                .prepareTransferAsync(any(BigDecimal.class), any(RecipientData.class),
+                        anyString());
 
         this.transferMoneyFacade.handler(command);
 
-        verify(this.recipient).findRecipientById(eq(recipientQuery));
-        verify(this.wallet).getBalance(eq(recipientData.clientId()));
-        verify(this.wallet).prepareWithdraw(eq(command.amount()), eq(recipientData), anyString());
-        verify(this.payment).prepareTransfer(eq(recipientData.applyFee(command.amount())),
+        verify(this.recipient).findRecipientByIdAsync(eq(recipientQuery));
+        verify(this.wallet).getBalanceAsync(eq(recipientData.clientId()));
+        verify(this.wallet).prepareWithdrawAsync(eq(command.amount()), eq(recipientData),
+                anyString());
+        verify(this.payment).prepareTransferAsync(eq(recipientData.applyFee(command.amount())),
                 eq(recipientData), anyString());
     }
 
@@ -93,18 +103,18 @@ class TransferMoneyFacadeTest extends BaseTestCase {
         var recipientQuery = new ObtainRecipientByIdQuery(command.recipientId(),
                 command.clientId());
 
-        doThrow(new RecipientNotFoundException()).when(this.recipient)
-                .findRecipientById(any(ObtainRecipientByIdQuery.class));
+        doReturn(CompletableFuture.failedFuture(new RecipientNotFoundException()))
+                .when(this.recipient).findRecipientByIdAsync(any(ObtainRecipientByIdQuery.class));
 
         assertThrows(RecipientNotFoundException.class,
                 () -> this.transferMoneyFacade.handler(command));
 
-        verify(this.recipient).findRecipientById(eq(recipientQuery));
+        verify(this.recipient).findRecipientByIdAsync(eq(recipientQuery));
 
-        verify(this.wallet, never()).getBalance(anyLong());
-        verify(this.wallet, never()).prepareWithdraw(any(BigDecimal.class),
+        verify(this.wallet, never()).getBalanceAsync(anyLong());
+        verify(this.wallet, never()).prepareWithdrawAsync(any(BigDecimal.class),
                 any(RecipientData.class), anyString());
-        verify(this.payment, never()).prepareTransfer(any(BigDecimal.class),
+        verify(this.payment, never()).prepareTransferAsync(any(BigDecimal.class),
                 any(RecipientData.class), anyString());
     }
 
@@ -121,18 +131,19 @@ class TransferMoneyFacadeTest extends BaseTestCase {
         var recipientQuery = new ObtainRecipientByIdQuery(command.recipientId(),
                 command.clientId());
 
-        doReturn(Optional.of(recipientData)).when(this.recipient)
-                .findRecipientById(any(ObtainRecipientByIdQuery.class));
-        doThrow(new WalletNotFoundException()).when(this.wallet).getBalance(anyLong());
+        doReturn(CompletableFuture.completedFuture(Optional.of(recipientData))).when(this.recipient)
+                .findRecipientByIdAsync(any(ObtainRecipientByIdQuery.class));
+        doReturn(CompletableFuture.failedFuture(new WalletNotFoundException())).when(this.wallet)
+                .getBalanceAsync(anyLong());
 
         assertThrows(WalletNotFoundException.class,
                 () -> this.transferMoneyFacade.handler(command));
 
-        verify(this.recipient).findRecipientById(eq(recipientQuery));
-        verify(this.wallet).getBalance(eq(recipientData.clientId()));
-        verify(this.wallet, never()).prepareWithdraw(any(BigDecimal.class),
+        verify(this.recipient).findRecipientByIdAsync(eq(recipientQuery));
+        verify(this.wallet).getBalanceAsync(eq(recipientData.clientId()));
+        verify(this.wallet, never()).prepareWithdrawAsync(any(BigDecimal.class),
                 any(RecipientData.class), anyString());
-        verify(this.payment, never()).prepareTransfer(any(BigDecimal.class),
+        verify(this.payment, never()).prepareTransferAsync(any(BigDecimal.class),
                 any(RecipientData.class), anyString());
     }
 
@@ -150,18 +161,19 @@ class TransferMoneyFacadeTest extends BaseTestCase {
         var recipientQuery = new ObtainRecipientByIdQuery(command.recipientId(),
                 command.clientId());
 
-        doReturn(Optional.of(recipientData)).when(this.recipient)
-                .findRecipientById(any(ObtainRecipientByIdQuery.class));
-        doReturn(Optional.of(balanceData)).when(this.wallet).getBalance(anyLong());
+        doReturn(CompletableFuture.completedFuture(Optional.of(recipientData))).when(this.recipient)
+                .findRecipientByIdAsync(any(ObtainRecipientByIdQuery.class));
+        doReturn(CompletableFuture.completedFuture(Optional.of(balanceData))).when(this.wallet)
+                .getBalanceAsync(anyLong());
 
         assertThrows(InsufficientBalanceException.class,
                 () -> this.transferMoneyFacade.handler(command));
 
-        verify(this.recipient).findRecipientById(eq(recipientQuery));
-        verify(this.wallet).getBalance(eq(recipientData.clientId()));
-        verify(this.wallet, never()).prepareWithdraw(any(BigDecimal.class),
+        verify(this.recipient).findRecipientByIdAsync(eq(recipientQuery));
+        verify(this.wallet).getBalanceAsync(eq(recipientData.clientId()));
+        verify(this.wallet, never()).prepareWithdrawAsync(any(BigDecimal.class),
                 any(RecipientData.class), anyString());
-        verify(this.payment, never()).prepareTransfer(any(BigDecimal.class),
+        verify(this.payment, never()).prepareTransferAsync(any(BigDecimal.class),
                 any(RecipientData.class), anyString());
     }
 
@@ -193,17 +205,17 @@ class TransferMoneyFacadeTest extends BaseTestCase {
         var recipientQuery = new ObtainRecipientByIdQuery(command.recipientId(),
                 command.clientId());
 
-        doReturn(Optional.of(recipientData)).when(this.recipient)
-                .findRecipientById(any(ObtainRecipientByIdQuery.class));
+        doReturn(CompletableFuture.completedFuture(Optional.of(recipientData))).when(this.recipient)
+                .findRecipientByIdAsync(any(ObtainRecipientByIdQuery.class));
 
         assertThrows(IllegalAmountValueException.class,
                 () -> this.transferMoneyFacade.handler(command));
 
-        verify(this.recipient).findRecipientById(eq(recipientQuery));
-        verify(this.wallet, never()).getBalance(anyLong());
-        verify(this.wallet, never()).prepareWithdraw(any(BigDecimal.class),
+        verify(this.recipient).findRecipientByIdAsync(eq(recipientQuery));
+        verify(this.wallet, never()).getBalanceAsync(anyLong());
+        verify(this.wallet, never()).prepareWithdrawAsync(any(BigDecimal.class),
                 any(RecipientData.class), anyString());
-        verify(this.payment, never()).prepareTransfer(any(BigDecimal.class),
+        verify(this.payment, never()).prepareTransferAsync(any(BigDecimal.class),
                 any(RecipientData.class), anyString());
     }
 
@@ -220,17 +232,17 @@ class TransferMoneyFacadeTest extends BaseTestCase {
         var recipientQuery = new ObtainRecipientByIdQuery(command.recipientId(),
                 command.clientId());
 
-        doReturn(Optional.of(recipientData)).when(this.recipient)
-                .findRecipientById(any(ObtainRecipientByIdQuery.class));
+        doReturn(CompletableFuture.completedFuture(Optional.of(recipientData))).when(this.recipient)
+                .findRecipientByIdAsync(any(ObtainRecipientByIdQuery.class));
 
         assertThrows(IllegalAmountValueException.class,
                 () -> this.transferMoneyFacade.handler(command));
 
-        verify(this.recipient).findRecipientById(eq(recipientQuery));
-        verify(this.wallet, never()).getBalance(anyLong());
-        verify(this.wallet, never()).prepareWithdraw(any(BigDecimal.class),
+        verify(this.recipient).findRecipientByIdAsync(eq(recipientQuery));
+        verify(this.wallet, never()).getBalanceAsync(anyLong());
+        verify(this.wallet, never()).prepareWithdrawAsync(any(BigDecimal.class),
                 any(RecipientData.class), anyString());
-        verify(this.payment, never()).prepareTransfer(any(BigDecimal.class),
+        verify(this.payment, never()).prepareTransferAsync(any(BigDecimal.class),
                 any(RecipientData.class), anyString());
     }
 
@@ -248,17 +260,120 @@ class TransferMoneyFacadeTest extends BaseTestCase {
         var recipientQuery = new ObtainRecipientByIdQuery(command.recipientId(),
                 command.clientId());
 
-        doReturn(Optional.of(recipientData)).when(this.recipient)
-                .findRecipientById(any(ObtainRecipientByIdQuery.class));
+        doReturn(CompletableFuture.completedFuture(Optional.of(recipientData))).when(this.recipient)
+                .findRecipientByIdAsync(any(ObtainRecipientByIdQuery.class));
 
         assertThrows(OwnershipValidationException.class,
                 () -> this.transferMoneyFacade.handler(command));
 
-        verify(this.recipient).findRecipientById(eq(recipientQuery));
+        verify(this.recipient).findRecipientByIdAsync(eq(recipientQuery));
+        verify(this.wallet, never()).getBalanceAsync(anyLong());
+        verify(this.wallet, never()).prepareWithdrawAsync(any(BigDecimal.class),
+                any(RecipientData.class), anyString());
+        verify(this.payment, never()).prepareTransferAsync(any(BigDecimal.class),
+                any(RecipientData.class), anyString());
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a valid money transfer request,
+             WHEN the async handler is invoked,
+             THEN the transaction id must be completed once the wallet and payment steps are
+             prepared, without calling the blocking ports""")
+    void testHandlerAsyncSuccessfullTransaction() {
+
+        String uuid = UUID.randomUUID().toString();
+
+        var command = new TransferMoneyCommand(uuid, 1L, BigDecimal.valueOf(1_000));
+        var recipientData = new RecipientData(uuid, 1L, "John Doe", "123", "456", "789",
+                BigDecimal.valueOf(0.1));
+        var balanceData = new BalanceData(BigDecimal.valueOf(10_000));
+
+        doReturn(CompletableFuture.completedFuture(Optional.of(recipientData))).when(this.recipient)
+                .findRecipientByIdAsync(any(ObtainRecipientByIdQuery.class));
+        doReturn(CompletableFuture.completedFuture(Optional.of(balanceData))).when(this.wallet)
+                .getBalanceAsync(anyLong());
+        doReturn(CompletableFuture.completedFuture(TransactionStatus.PENDING)).when(this.wallet)
+                .prepareWithdrawAsync(any(BigDecimal.class), any(RecipientData.class),
+                        anyString());
+        doReturn(CompletableFuture.completedFuture(TransactionStatus.PENDING)).when(this.payment)
+                .prepareTransferAsync(any(BigDecimal.class), any(RecipientData.class),
+                        anyString());
+
+        String transactionId = this.transferMoneyFacade.handlerAsync(command).join();
+
+        verify(this.transaction).starNewTransaction(eq(transactionId), eq(command),
+                eq(recipientData));
+        verify(this.wallet).prepareWithdrawAsync(eq(command.amount()), eq(recipientData),
+                eq(transactionId));
+        verify(this.payment).prepareTransferAsync(eq(recipientData.applyFee(command.amount())),
+                eq(recipientData), eq(transactionId));
+        verify(this.chargeback, never()).prepareChargebackAsync(anyString());
         verify(this.wallet, never()).getBalance(anyLong());
         verify(this.wallet, never()).prepareWithdraw(any(BigDecimal.class),
                 any(RecipientData.class), anyString());
-        verify(this.payment, never()).prepareTransfer(any(BigDecimal.class),
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a money transfer request whose payment step cannot be prepared,
+             WHEN the async handler is invoked,
+             THEN a chargeback must be prepared and the future must fail with a
+             TransactionFailedException""")
+    void testHandlerAsyncPaymentFailed() {
+
+        String uuid = UUID.randomUUID().toString();
+
+        var command = new TransferMoneyCommand(uuid, 1L, BigDecimal.valueOf(1_000));
+        var recipientData = new RecipientData(uuid, 1L, "John Doe", "123", "456", "789",
+                BigDecimal.valueOf(0.1));
+        var balanceData = new BalanceData(BigDecimal.valueOf(10_000));
+
+        doReturn(CompletableFuture.completedFuture(Optional.of(recipientData))).when(this.recipient)
+                .findRecipientByIdAsync(any(ObtainRecipientByIdQuery.class));
+        doReturn(CompletableFuture.completedFuture(Optional.of(balanceData))).when(this.wallet)
+                .getBalanceAsync(anyLong());
+        doReturn(CompletableFuture.completedFuture(TransactionStatus.PENDING)).when(this.wallet)
+                .prepareWithdrawAsync(any(BigDecimal.class), any(RecipientData.class),
+                        anyString());
+        doReturn(CompletableFuture.completedFuture(TransactionStatus.FAILED)).when(this.payment)
+                .prepareTransferAsync(any(BigDecimal.class), any(RecipientData.class),
+                        anyString());
+        doReturn(CompletableFuture.completedFuture(TransactionStatus.PENDING))
+                .when(this.chargeback).prepareChargebackAsync(anyString());
+
+        CompletableFuture<String> result = this.transferMoneyFacade.handlerAsync(command);
+
+        CompletionException exception = assertThrows(CompletionException.class, result::join);
+        assertThat(exception).hasCauseInstanceOf(TransactionFailedException.class);
+        verify(this.chargeback).prepareChargebackAsync(anyString());
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a money transfer request with amount hihger than balance,
+             WHEN the async handler is invoked,
+             THEN the future must fail with an InsufficientBalanceException and no transaction
+             must be started""")
+    void testHandlerAsyncInsufficientBalance() {
+        String uuid = UUID.randomUUID().toString();
+        var command = new TransferMoneyCommand(uuid, 1L, BigDecimal.valueOf(5_000));
+        var recipientData = new RecipientData(uuid, 1L, "John Doe", "123", "456", "789",
+                BigDecimal.valueOf(0.1));
+        var balanceData = new BalanceData(BigDecimal.valueOf(1_000));
+
+        doReturn(CompletableFuture.completedFuture(Optional.of(recipientData))).when(this.recipient)
+                .findRecipientByIdAsync(any(ObtainRecipientByIdQuery.class));
+        doReturn(CompletableFuture.completedFuture(Optional.of(balanceData))).when(this.wallet)
+                .getBalanceAsync(anyLong());
+
+        CompletableFuture<String> result = this.transferMoneyFacade.handlerAsync(command);
+
+        CompletionException exception = assertThrows(CompletionException.class, result::join);
+        assertThat(exception).hasCauseInstanceOf(InsufficientBalanceException.class);
+        verify(this.transaction, never()).starNewTransaction(anyString(),
+                any(TransferMoneyCommand.class), any(RecipientData.class));
+        verify(this.wallet, never()).prepareWithdrawAsync(any(BigDecimal.class),
                 any(RecipientData.class), anyString());
     }
 }
@@ -0,0 +1,141 @@
+package com.ontop.balance.infrastructure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BalanceReadHedgerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private BalanceReadHedger hedger;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        hedger.destroy();
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a balance read slower than the hedge delay,
+            WHEN budget is available,
+            THEN a second read is sent and its answer is used""")
+    void testSlowReadIsHedged() {
+        hedger = hedger(1.0);
+
+        String result = hedger.call(slowFirstRead());
+
+        assertThat(result).isEqualTo("hedge");
+        assertThat(count("hedged")).isEqualTo(1.0);
+        assertThat(count("won")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a balance read slower than the hedge delay,
+            WHEN the hedge budget is exhausted,
+            THEN no second read is sent and the first answer is awaited""")
+    void testHedgeIsSkippedWithoutBudget() {
+        hedger = hedger(0.0);
+
+        String result = hedger.call(slowFirstRead());
+
+        assertThat(result).isEqualTo("primary");
+        assertThat(count("hedged")).isZero();
+        assertThat(count("skipped")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a balance read blocked on a socket that never answers,
+            WHEN its hedge wins,
+            THEN the blocked read is aborted with its socket closed""")
+    void testLosingReadIsAbortedOnItsSocket() throws Exception {
+        hedger = hedger(1.0);
+        CompletableFuture<Throwable> aborted = new CompletableFuture<>();
+        AtomicInteger reads = new AtomicInteger();
+
+        try (ServerSocket server = new ServerSocket(0)) {
+            String result = hedger.call(() -> {
+                if (reads.incrementAndGet() > 1) {
+                    return "hedge";
+                }
+                try (Socket socket = new Socket(server.getInetAddress(), server.getLocalPort())) {
+                    return String.valueOf(socket.getInputStream().read());
+                } catch (IOException e) {
+                    aborted.complete(e);
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            assertThat(result).isEqualTo("hedge");
+            assertThat(aborted.get(1, TimeUnit.SECONDS)).isInstanceOf(SocketException.class);
+        }
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a balance read slower than the hedge delay holding the only read permit,
+            WHEN budget is available,
+            THEN no second read is sent,
+            AND the permit is free again for the next read""")
+    void testHedgeIsSkippedWithoutPermit() {
+        hedger = new BalanceReadHedger(meterRegistry, true, 0.95, Duration.ofMillis(20),
+                Duration.ofMillis(20), 0, 1.0, 10, 1);
+
+        String result = hedger.call(slowFirstRead());
+
+        assertThat(result).isEqualTo("primary");
+        assertThat(count("skipped")).isEqualTo(1.0);
+        // The permit is released as the read's thread finishes, just after its answer is used
+        sleep(100);
+        assertThat(hedger.call(() -> Thread.currentThread().isVirtual())).isTrue();
+    }
+
+    private BalanceReadHedger hedger(double budgetRatio) {
+        return new BalanceReadHedger(meterRegistry, true, 0.95, Duration.ofMillis(20),
+                Duration.ofMillis(20), 0, budgetRatio, 10, 4);
+    }
+
+    private static Supplier<String> slowFirstRead() {
+        AtomicInteger reads = new AtomicInteger();
+        return () -> {
+            if (reads.incrementAndGet() == 1) {
+                sleep(500);
+                return "primary";
+            }
+            return "hedge";
+        };
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.get("wallet.balance.hedge").tag("outcome", outcome).counter()
+                .count();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
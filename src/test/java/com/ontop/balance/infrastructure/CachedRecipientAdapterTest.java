@@ -0,0 +1,97 @@
+package com.ontop.balance.infrastructure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.ontop.balance.core.model.RecipientData;
+import com.ontop.balance.core.model.commands.CreateRecipientCommand;
+import com.ontop.balance.core.model.queries.ObtainRecipientByIdQuery;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class CachedRecipientAdapterTest {
+
+    private RecipientAdapter recipientAdapter;
+    private SimpleMeterRegistry meterRegistry;
+    private CachedRecipientAdapter cachedRecipientAdapter;
+
+    @BeforeEach
+    void setUp() {
+        recipientAdapter = mock(RecipientAdapter.class);
+        meterRegistry = new SimpleMeterRegistry();
+        cachedRecipientAdapter = new CachedRecipientAdapter(recipientAdapter,
+                mock(HotRecipientSearchIndex.class), meterRegistry, 1_048_576,
+                Duration.ofMinutes(10), 1_000, Duration.ofSeconds(30));
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a recipient already read once,
+            WHEN it is read again,
+            THEN it is served from the cache without reaching the repository""")
+    void testRepeatedReadIsServedFromCache() {
+        String uuid = UUID.randomUUID().toString();
+        var query = new ObtainRecipientByIdQuery(uuid, 1L);
+        var recipientData = new RecipientData(uuid, 1L, "John Doe", "123456789", "456",
+                "789", BigDecimal.valueOf(0.1));
+        doReturn(Optional.of(recipientData)).when(recipientAdapter).findRecipientById(eq(query));
+
+        cachedRecipientAdapter.findRecipientById(query);
+        Optional<RecipientData> second = cachedRecipientAdapter.findRecipientById(query);
+
+        assertThat(second).contains(recipientData);
+        verify(recipientAdapter, times(1)).findRecipientById(eq(query));
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "recipients")
+                .tag("result", "hit").functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN an unknown recipient id already looked up by a client,
+            WHEN the same client and another client look it up again,
+            THEN only the first client is answered from the negative cache""")
+    void testUnknownRecipientIsCachedPerClient() {
+        String uuid = UUID.randomUUID().toString();
+        var query = new ObtainRecipientByIdQuery(uuid, 1L);
+        var otherClientQuery = new ObtainRecipientByIdQuery(uuid, 2L);
+        doReturn(Optional.empty()).when(recipientAdapter).findRecipientById(eq(query));
+        doReturn(Optional.empty()).when(recipientAdapter).findRecipientById(eq(otherClientQuery));
+
+        cachedRecipientAdapter.findRecipientById(query);
+        assertThat(cachedRecipientAdapter.findRecipientById(query)).isEmpty();
+        cachedRecipientAdapter.findRecipientById(otherClientQuery);
+
+        verify(recipientAdapter, times(1)).findRecipientById(eq(query));
+        verify(recipientAdapter, times(1)).findRecipientById(eq(otherClientQuery));
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a recipient id remembered as unknown,
+            WHEN a recipient is saved with that id,
+            THEN the next read reaches the repository again""")
+    void testSaveInvalidatesNegativeEntry() {
+        String uuid = UUID.randomUUID().toString();
+        var query = new ObtainRecipientByIdQuery(uuid, 1L);
+        var command = new CreateRecipientCommand(1L, "John Doe", "123456789", "456", "789");
+        doReturn(Optional.empty()).when(recipientAdapter).findRecipientById(eq(query));
+        doReturn(uuid).when(recipientAdapter).save(eq(command), eq(uuid));
+
+        cachedRecipientAdapter.findRecipientById(query);
+        cachedRecipientAdapter.save(command, uuid);
+        cachedRecipientAdapter.findRecipientById(query);
+
+        verify(recipientAdapter).save(eq(command), eq(uuid));
+        verify(recipientAdapter, times(2)).findRecipientById(eq(query));
+    }
+}
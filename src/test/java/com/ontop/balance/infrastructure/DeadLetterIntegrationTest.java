@@ -0,0 +1,171 @@
+package com.ontop.balance.infrastructure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ontop.balance.core.model.commands.ReplayDeadLettersCommand;
+import com.ontop.balance.core.ports.inbound.ReplayDeadLetters;
+import com.ontop.balance.infrastructure.configs.MongoTestContainerConfig;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest(properties = {"spring.autoconfigure.exclude=", "core.topics.wallet.partitions=1",
+        "core.dead-letter.replay.rate=1000"})
+@ActiveProfiles("test")
+@Import(MongoTestContainerConfig.class)
+@EmbeddedKafka(bootstrapServersProperty = "spring.kafka.bootstrap-servers")
+class DeadLetterIntegrationTest {
+
+    private static final Duration WAIT = Duration.ofSeconds(30);
+
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+
+    @Autowired
+    private KafkaListenerEndpointRegistry registry;
+
+    @Autowired
+    private ReplayDeadLetters replayDeadLetters;
+
+    @Value("${core.topics.wallet.name}")
+    private String walletTopic;
+
+    @Value("${core.topics.dead-letter.suffix}")
+    private String deadLetterSuffix;
+
+    @BeforeEach
+    void setUp() {
+        ContainerTestUtils.waitForAssignment(this.registry.getListenerContainer("wallets"), 1);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a wallet record that cannot be deserialized, the last one of its partition,
+            WHEN it is consumed,
+            THEN it is dead-lettered with its original bytes and delivery attempt,
+            AND the consumer group commits past it""")
+    void testUnreadableRecordIsDeadLetteredAndCommitted() throws Exception {
+        String key = UUID.randomUUID().toString();
+        long offset = send(key, "not a wallet message");
+
+        ConsumerRecord<String, byte[]> deadLetter = records(deadLetterTopic(), key, 1).get(0);
+
+        assertThat(new String(deadLetter.value(), StandardCharsets.UTF_8))
+                .isEqualTo("not a wallet message");
+        assertThat(deadLetter.headers().lastHeader(KafkaHeaders.DELIVERY_ATTEMPT)).isNotNull();
+        assertThat(committed()).isEqualTo(offset + 1);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a dead-lettered wallet record,
+            WHEN the wallet stage is replayed,
+            THEN the record is put back on the wallet topic with its key and bytes,
+            AND without the headers of its dead-lettering""")
+    void testDeadLetterIsReplayedOntoItsTopic() throws Exception {
+        String key = UUID.randomUUID().toString();
+        send(key, "still not a wallet message");
+        records(deadLetterTopic(), key, 1);
+
+        this.replayDeadLetters.handle(new ReplayDeadLettersCommand("wallet", 10_000));
+
+        List<ConsumerRecord<String, byte[]>> delivered = records(this.walletTopic, key, 2);
+        ConsumerRecord<String, byte[]> replayed = delivered.get(1);
+        assertThat(new String(replayed.value(), StandardCharsets.UTF_8))
+                .isEqualTo("still not a wallet message");
+        assertThat(replayed.headers().lastHeader(KafkaHeaders.DLT_EXCEPTION_MESSAGE)).isNull();
+        assertThat(replayed.headers().lastHeader(KafkaHeaders.DELIVERY_ATTEMPT)).isNull();
+    }
+
+    private long send(String key, String value) throws Exception {
+        KafkaTemplate<String, byte[]> producer = new KafkaTemplate<>(
+                new DefaultKafkaProducerFactory<>(KafkaTestUtils.producerProps(this.broker),
+                        new StringSerializer(), new ByteArraySerializer()));
+        try {
+            return producer.send(new ProducerRecord<>(this.walletTopic, key,
+                            value.getBytes(StandardCharsets.UTF_8))).get()
+                    .getRecordMetadata().offset();
+        } finally {
+            producer.destroy();
+        }
+    }
+
+    /**
+     * Reads {@code topic} from the start until {@code count} records of {@code key} are found.
+     */
+    private List<ConsumerRecord<String, byte[]>> records(String topic, String key, int count) {
+        Map<String, Object> props = KafkaTestUtils.consumerProps(UUID.randomUUID().toString(),
+                "false", this.broker);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        List<ConsumerRecord<String, byte[]>> found = new ArrayList<>();
+        try (Consumer<String, byte[]> consumer = new DefaultKafkaConsumerFactory<>(props,
+                new StringDeserializer(), new ByteArrayDeserializer()).createConsumer()) {
+            consumer.subscribe(List.of(topic));
+            long deadline = System.nanoTime() + WAIT.toNanos();
+            while (found.size() < count && System.nanoTime() < deadline) {
+                consumer.poll(Duration.ofMillis(200)).forEach(record -> {
+                    if (key.equals(record.key())) {
+                        found.add(record);
+                    }
+                });
+            }
+        }
+        assertThat(found).as("records of %s on %s", key, topic).hasSize(count);
+        return found;
+    }
+
+    private long committed() throws Exception {
+        TopicPartition partition = new TopicPartition(this.walletTopic, 0);
+        try (AdminClient admin = AdminClient.create(Map.of("bootstrap.servers",
+                this.broker.getBrokersAsString()))) {
+            long deadline = System.nanoTime() + WAIT.toNanos();
+            long end = admin.listOffsets(Map.of(partition, OffsetSpec.latest())).all().get()
+                    .get(partition).offset();
+            while (true) {
+                OffsetAndMetadata committed = admin.listConsumerGroupOffsets("core.group.wallet")
+                        .partitionsToOffsetAndMetadata().get().get(partition);
+                if ((committed != null && committed.offset() == end)
+                        || System.nanoTime() > deadline) {
+                    return committed == null ? -1 : committed.offset();
+                }
+                Thread.sleep(200);
+            }
+        }
+    }
+
+    private String deadLetterTopic() {
+        return this.walletTopic + this.deadLetterSuffix;
+    }
+}
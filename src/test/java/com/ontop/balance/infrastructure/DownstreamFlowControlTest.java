@@ -0,0 +1,142 @@
+package com.ontop.balance.infrastructure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.ontop.balance.infrastructure.clients.PaymentProviderRegistry;
+import com.ontop.balance.infrastructure.clients.WalletInstanceBalancer;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker.State;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class DownstreamFlowControlTest {
+
+    private static final String WALLET_OPEN = "walletClientBackend circuit open";
+    private static final String PAYMENT_SATURATED = "paymentClientBackend bulkhead saturated";
+
+    private final ConsumerFlowControl consumerFlowControl = mock(ConsumerFlowControl.class);
+    private final CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry
+            .ofDefaults();
+    private final BulkheadRegistry bulkheadRegistry = BulkheadRegistry.of(
+            BulkheadConfig.custom().maxConcurrentCalls(2).maxWaitDuration(Duration.ZERO).build());
+    private HttpServer walletInstance;
+    private DownstreamFlowControl downstreamFlowControl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        walletInstance = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        walletInstance.createContext("/", exchange -> {
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        walletInstance.start();
+        String walletUrl = "http://127.0.0.1:" + walletInstance.getAddress().getPort();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        WalletInstanceBalancer walletInstanceBalancer = new WalletInstanceBalancer(meterRegistry,
+                List.of("http://127.0.0.1:1", walletUrl), 1, Duration.ofMinutes(1),
+                Duration.ZERO);
+        PaymentProviderRegistry paymentProviderRegistry = new PaymentProviderRegistry(
+                meterRegistry, List.of("http://127.0.0.1:2"), Duration.ofMinutes(1), 5,
+                Duration.ofSeconds(30), Duration.ofMinutes(5), 50);
+        downstreamFlowControl = new DownstreamFlowControl(consumerFlowControl,
+                circuitBreakerRegistry, bulkheadRegistry, walletInstanceBalancer,
+                paymentProviderRegistry, "wallets", "payments", "chargebacks", "/",
+                Duration.ofMillis(500), 0.5, Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        downstreamFlowControl.destroy();
+        walletInstance.stop(0);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN the wallet circuit breaker,
+            WHEN it opens and then goes half-open,
+            THEN the wallet and chargeback listeners are paused and stay paused""")
+    void testWalletListenersArePausedWhileCircuitIsOpen() {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(
+                "walletClientBackend");
+
+        circuitBreaker.transitionToOpenState();
+        circuitBreaker.transitionToHalfOpenState();
+
+        verify(consumerFlowControl).pause("wallets", WALLET_OPEN);
+        verify(consumerFlowControl).pause("chargebacks", WALLET_OPEN);
+        verify(consumerFlowControl, never()).pause("payments", WALLET_OPEN);
+        verify(consumerFlowControl, never()).resume("wallets", WALLET_OPEN);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN listeners paused by an open wallet circuit breaker,
+            WHEN the half-open trials close it,
+            THEN the listeners are resumed""")
+    void testWalletListenersAreResumedWhenCircuitCloses() {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(
+                "walletClientBackend");
+        circuitBreaker.transitionToOpenState();
+        circuitBreaker.transitionToHalfOpenState();
+
+        circuitBreaker.transitionToClosedState();
+
+        verify(consumerFlowControl).resume("wallets", WALLET_OPEN);
+        verify(consumerFlowControl).resume("chargebacks", WALLET_OPEN);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a payment bulkhead with every call in use,
+            WHEN the flow is checked and then half of the calls complete,
+            THEN the payment listener is paused and then resumed""")
+    void testPaymentListenerIsPausedWhileBulkheadIsSaturated() {
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead("paymentClientBackend");
+        bulkhead.acquirePermission();
+        bulkhead.acquirePermission();
+
+        downstreamFlowControl.check();
+        verify(consumerFlowControl).pause("payments", PAYMENT_SATURATED);
+
+        bulkhead.onComplete();
+        bulkhead.onComplete();
+        downstreamFlowControl.check();
+        verify(consumerFlowControl).resume("payments", PAYMENT_SATURATED);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a half-open wallet breaker and two wallet instances of which the first is down,
+            WHEN the flow is checked until the trials are done,
+            THEN the probes move to the instance that answers and the breaker closes""")
+    void testProbesAreRoutedToAnsweringInstance() {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(
+                "walletClientBackend");
+        circuitBreaker.transitionToOpenState();
+        circuitBreaker.transitionToHalfOpenState();
+        int trials = circuitBreaker.getCircuitBreakerConfig()
+                .getPermittedNumberOfCallsInHalfOpenState();
+
+        for (int i = 0; i < trials; i++) {
+            downstreamFlowControl.check();
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(State.CLOSED);
+        verify(consumerFlowControl).resume("wallets", WALLET_OPEN);
+    }
+}
@@ -0,0 +1,69 @@
+package com.ontop.balance.infrastructure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ontop.balance.core.model.CursorWrapper;
+import com.ontop.balance.core.model.RecipientData;
+import com.ontop.balance.core.model.queries.SearchRecipientsQuery;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class HotRecipientSearchIndexTest {
+
+    private static final List<RecipientData> RECIPIENTS = List.of(
+            recipient("1", "José Pérez"), recipient("2", "Joseph Smith"),
+            recipient("3", "Joanna Doe"), recipient("4", "josé  pérez"),
+            recipient("5", "Mary Jones"));
+
+    private HotRecipientSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new HotRecipientSearchIndex(new SimpleMeterRegistry(), true, 2,
+                Duration.ofMinutes(1), 1_000, Duration.ofMinutes(5));
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a client that has not searched often enough,
+            WHEN it searches its recipients,
+            THEN the search is left to the database""")
+    void testColdClientIsNotIndexed() {
+        Optional<CursorWrapper<RecipientData>> page = searchIndex.search(
+                new SearchRecipientsQuery(1L, "jo", null, 10), clientId -> RECIPIENTS);
+
+        assertThat(page).isEmpty();
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a hot client,
+            WHEN it searches by a prefix with different case and accents,
+            THEN the matching recipients are paged in name order through the cursor""")
+    void testHotClientIsPagedByCursor() {
+        searchIndex.search(new SearchRecipientsQuery(1L, "jo", null, 2), clientId -> RECIPIENTS);
+
+        CursorWrapper<RecipientData> first = searchIndex.search(
+                new SearchRecipientsQuery(1L, "JOSE", null, 2), clientId -> RECIPIENTS)
+                .orElseThrow();
+        CursorWrapper<RecipientData> second = searchIndex.search(
+                new SearchRecipientsQuery(1L, "JOSE", first.next(), 2), clientId -> RECIPIENTS)
+                .orElseThrow();
+
+        assertThat(first.data()).extracting(RecipientData::id).containsExactly("1", "4");
+        assertThat(first.next()).isNotNull();
+        assertThat(second.data()).extracting(RecipientData::id).containsExactly("2");
+        assertThat(second.next()).isNull();
+    }
+
+    private static RecipientData recipient(String id, String name) {
+        return new RecipientData(id, 1L, name, "123456789", "456", "789",
+                BigDecimal.valueOf(0.1));
+    }
+}
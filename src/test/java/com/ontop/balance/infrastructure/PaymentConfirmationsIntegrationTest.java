@@ -0,0 +1,115 @@
+package com.ontop.balance.infrastructure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ontop.balance.core.model.PaymentConfirmation;
+import com.ontop.balance.core.model.TransactionData.TransactionStatus;
+import com.ontop.balance.infrastructure.configs.MongoTestContainerConfig;
+import com.ontop.balance.infrastructure.entities.PaymentConfirmationEntity;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(MongoTestContainerConfig.class)
+class PaymentConfirmationsIntegrationTest {
+
+    private static final String TRANSACTION = "transaction-1";
+
+    @Autowired
+    private PaymentConfirmations paymentConfirmations;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        this.mongoTemplate.remove(new Query(), PaymentConfirmationEntity.class);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a payment accepted without an outcome,
+            WHEN the provider confirms it, twice,
+            THEN the first confirmation settles the transaction and the second is ignored""")
+    void testConfirmationAfterAcceptanceSettles() {
+        assertThat(accepted("payment-1", Optional.empty())).isEmpty();
+
+        assertThat(this.paymentConfirmations.confirmed("payment-1", TransactionStatus.FAILED))
+                .contains(new PaymentConfirmation(TRANSACTION, TransactionStatus.FAILED));
+        assertThat(this.paymentConfirmations.confirmed("payment-1", TransactionStatus.COMPLETED))
+                .isEmpty();
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a payment the provider confirmed as failed before its acceptance was recorded,
+            WHEN the acceptance arrives with a completed outcome in the response,
+            THEN the confirmed outcome is kept and handed back to the transfer""")
+    void testEarlierConfirmationWinsOverResponseOutcome() {
+        assertThat(this.paymentConfirmations.confirmed("payment-1", TransactionStatus.FAILED))
+                .isEmpty();
+
+        assertThat(accepted("payment-1", Optional.of(TransactionStatus.COMPLETED)))
+                .contains(TransactionStatus.FAILED);
+        assertThat(this.mongoTemplate.findById("payment-1", PaymentConfirmationEntity.class))
+                .extracting(PaymentConfirmationEntity::getStatus,
+                        PaymentConfirmationEntity::getTransactionId)
+                .containsExactly("FAILED", TRANSACTION);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN acceptances and confirmations of the same payments arriving at the same time,
+            WHEN they race,
+            THEN each outcome reaches the transaction exactly once and neither side fails""")
+    void testAcceptanceAndConfirmationRace() throws Exception {
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            for (int i = 0; i < 50; i++) {
+                String paymentId = "payment-" + i;
+                CyclicBarrier start = new CyclicBarrier(2);
+                CompletableFuture<Optional<TransactionStatus>> acceptance = CompletableFuture
+                        .supplyAsync(() -> {
+                            await(start);
+                            return accepted(paymentId, Optional.empty());
+                        }, executor);
+                CompletableFuture<Optional<PaymentConfirmation>> confirmation = CompletableFuture
+                        .supplyAsync(() -> {
+                            await(start);
+                            return this.paymentConfirmations.confirmed(paymentId,
+                                    TransactionStatus.COMPLETED);
+                        }, executor);
+
+                boolean seenByTransfer = acceptance.get().isPresent();
+                boolean settledByCallback = confirmation.get().isPresent();
+
+                assertThat(seenByTransfer).as(paymentId).isNotEqualTo(settledByCallback);
+            }
+        }
+    }
+
+    private Optional<TransactionStatus> accepted(String paymentId,
+            Optional<TransactionStatus> outcome) {
+        return this.paymentConfirmations.acceptedAsync(paymentId, TRANSACTION, outcome).join();
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.ontop.balance.infrastructure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import com.ontop.balance.infrastructure.PaymentDispatcher.Priority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class PaymentDispatcherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ConsumerFlowControl consumerFlowControl = mock(ConsumerFlowControl.class);
+    private PaymentDispatcher paymentDispatcher;
+
+    @AfterEach
+    void tearDown() {
+        paymentDispatcher.destroy();
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a quota of 50 payments per second without burst,
+            WHEN 11 payments are dispatched at once,
+            THEN they are spread over at least 200ms instead of being sent together""")
+    void testPaymentsAreReleasedAtTheConfiguredRate() {
+        paymentDispatcher = dispatcher(50, 1, 100);
+        long start = System.nanoTime();
+
+        List<CompletableFuture<Integer>> payments = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            payments.add(paymentDispatcher.submit(Priority.NORMAL,
+                    () -> CompletableFuture.completedFuture(1)));
+        }
+        CompletableFuture.allOf(payments.toArray(CompletableFuture[]::new)).join();
+
+        assertThat(System.nanoTime() - start).isGreaterThan(TimeUnit.MILLISECONDS.toNanos(180));
+        assertThat(meterRegistry.get("payment.dispatch.wait").timer().count()).isEqualTo(11);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN payments queued behind the quota,
+            WHEN a high priority payment arrives,
+            THEN it is released before the payments queued earlier""")
+    void testHighPriorityIsReleasedFirst() {
+        paymentDispatcher = dispatcher(10, 1, 100);
+        List<String> released = Collections.synchronizedList(new ArrayList<>());
+
+        submit("first", Priority.NORMAL, released).join();
+        CompletableFuture<?> second = submit("second", Priority.NORMAL, released);
+        CompletableFuture<?> third = submit("third", Priority.NORMAL, released);
+        CompletableFuture<?> urgent = submit("urgent", Priority.HIGH, released);
+        CompletableFuture.allOf(second, third, urgent).join();
+
+        assertThat(released).containsExactly("first", "urgent", "second", "third");
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a dispatch queue that is full,
+            WHEN another payment arrives,
+            THEN it waits for a place and the transaction listener is paused""")
+    void testListenerIsPausedWhenQueueIsFull() {
+        paymentDispatcher = dispatcher(0.5, 1, 2);
+
+        for (int i = 0; i < 4; i++) {
+            paymentDispatcher.submit(Priority.NORMAL, () -> CompletableFuture.completedFuture(1));
+        }
+
+        verify(consumerFlowControl, timeout(1000)).pause("transactions",
+                "payment dispatch queue full");
+        assertThat(meterRegistry.get("payment.dispatch.queue.waiting").gauge().value())
+                .isPositive();
+    }
+
+    private CompletableFuture<?> submit(String name, Priority priority, List<String> released) {
+        return paymentDispatcher.submit(priority, () -> {
+            released.add(name);
+            return CompletableFuture.completedFuture(name);
+        });
+    }
+
+    private PaymentDispatcher dispatcher(double rate, double burst, int capacity) {
+        return new PaymentDispatcher(meterRegistry, consumerFlowControl, "transactions", rate,
+                burst, capacity, capacity / 2);
+    }
+}
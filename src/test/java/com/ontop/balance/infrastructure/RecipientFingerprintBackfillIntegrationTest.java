@@ -0,0 +1,72 @@
+package com.ontop.balance.infrastructure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ontop.balance.core.model.commands.CreateRecipientCommand;
+import com.ontop.balance.infrastructure.configs.MongoTestContainerConfig;
+import com.ontop.balance.infrastructure.entities.RecipientEntity;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest(properties = "core.recipients.fingerprint.backfill.enabled=false")
+@ActiveProfiles("test")
+@Import(MongoTestContainerConfig.class)
+class RecipientFingerprintBackfillIntegrationTest {
+
+    @Autowired
+    private RecipientAdapter recipientAdapter;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private RecipientFingerprintBackfill recipientFingerprintBackfill;
+
+    @BeforeEach
+    void setUp() {
+        this.mongoTemplate.remove(new Query(), RecipientEntity.class);
+        this.recipientFingerprintBackfill = new RecipientFingerprintBackfill(this.mongoTemplate,
+                1);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN recipients stored before fingerprints existed, two of them the same account,
+            WHEN the backfill runs one recipient per batch,
+            THEN the first of the two and the other account get their fingerprint,
+            AND the duplicate keeps none and saving the account again resolves to the first""")
+    void testBackfillFingerprintsLegacyRecipients() {
+        insertLegacy("legacy-1", "028444018", "0245253419");
+        insertLegacy("legacy-2", "028-444-018", "0245 253 419");
+        insertLegacy("legacy-3", "028444018", "9999999999");
+
+        long updated = this.recipientFingerprintBackfill.backfill();
+
+        assertThat(updated).isEqualTo(2);
+        assertThat(fingerprintOf("legacy-1"))
+                .isEqualTo(RecipientFingerprint.of(1L, "028444018", "0245253419"));
+        assertThat(fingerprintOf("legacy-2")).isNull();
+        assertThat(fingerprintOf("legacy-3")).isNotNull();
+        assertThat(this.recipientAdapter.save(new CreateRecipientCommand(1L, "John Doe",
+                "028444018", "FAKE-ID", "0245253419"), "new-id")).isEqualTo("legacy-1");
+        assertThat(this.recipientFingerprintBackfill.backfill()).isZero();
+    }
+
+    private void insertLegacy(String id, String routingNumber, String accountNumber) {
+        this.mongoTemplate.insert(new Document("_id", id).append("clientId", 1L)
+                        .append("name", "John Doe").append("routingNumber", routingNumber)
+                        .append("accountNumber", accountNumber),
+                this.mongoTemplate.getCollectionName(RecipientEntity.class));
+    }
+
+    private String fingerprintOf(String id) {
+        return this.mongoTemplate.findById(id, RecipientEntity.class).getFingerprint();
+    }
+}
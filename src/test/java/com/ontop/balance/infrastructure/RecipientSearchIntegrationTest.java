@@ -0,0 +1,102 @@
+package com.ontop.balance.infrastructure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ontop.balance.core.model.CursorWrapper;
+import com.ontop.balance.core.model.RecipientData;
+import com.ontop.balance.core.model.queries.SearchRecipientsQuery;
+import com.ontop.balance.infrastructure.configs.MongoTestContainerConfig;
+import com.ontop.balance.infrastructure.entities.RecipientEntity;
+import java.util.ArrayList;
+import java.util.List;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest(properties = {"core.recipients.search.backfill.enabled=false",
+        "core.recipients.fingerprint.backfill.enabled=false"})
+@ActiveProfiles("test")
+@Import(MongoTestContainerConfig.class)
+class RecipientSearchIntegrationTest {
+
+    @Autowired
+    private RecipientAdapter recipientAdapter;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private RecipientSearchBackfill recipientSearchBackfill;
+
+    @BeforeEach
+    void setUp() {
+        this.mongoTemplate.remove(new Query(), RecipientEntity.class);
+        this.recipientSearchBackfill = new RecipientSearchBackfill(this.mongoTemplate, 1);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN recipients of a client sharing the same normalized name,
+            WHEN their name prefix is searched one small page at a time,
+            THEN every match is returned once, in name then id order, and nothing else""")
+    void testCursorPagesThroughNameTies() {
+        store("r3", 1L, "Ana Silva");
+        store("r1", 1L, "ANA  SILVA");
+        store("r5", 1L, "Ána Silva");
+        store("r2", 1L, "ana silva");
+        store("r4", 1L, "Anabel");
+        store("r6", 1L, "Bruno");
+        store("r0", 2L, "Ana Silva");
+
+        List<String> ids = new ArrayList<>();
+        String after = null;
+        int pages = 0;
+        do {
+            CursorWrapper<RecipientData> page = this.recipientAdapter.searchRecipients(
+                    new SearchRecipientsQuery(1L, "ana", after, 2));
+            page.data().forEach(recipient -> ids.add(recipient.id()));
+            after = page.next();
+            pages++;
+        } while (after != null);
+
+        assertThat(ids).containsExactly("r1", "r2", "r3", "r5", "r4");
+        assertThat(pages).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN recipients stored before normalized names existed,
+            WHEN the backfill runs one recipient per batch,
+            THEN each gets its normalized name and turns up in name searches""")
+    void testBackfillMakesLegacyRecipientsSearchable() {
+        String collection = this.mongoTemplate.getCollectionName(RecipientEntity.class);
+        this.mongoTemplate.insert(new Document("_id", "legacy-1").append("clientId", 1L)
+                .append("name", "Érica Souza"), collection);
+        this.mongoTemplate.insert(new Document("_id", "legacy-2").append("clientId", 1L)
+                .append("name", "Erik Lund"), collection);
+        store("current", 1L, "Erin Moss");
+
+        long updated = this.recipientSearchBackfill.backfill();
+
+        assertThat(updated).isEqualTo(2);
+        assertThat(this.mongoTemplate.findById("legacy-1", RecipientEntity.class))
+                .extracting(RecipientEntity::getNormalizedName).isEqualTo("erica souza");
+        assertThat(this.recipientAdapter.searchRecipients(
+                        new SearchRecipientsQuery(1L, "eri", null, 10)).data())
+                .extracting(RecipientData::id)
+                .containsExactly("legacy-1", "legacy-2", "current");
+        assertThat(this.recipientSearchBackfill.backfill()).isZero();
+    }
+
+    private void store(String id, Long clientId, String name) {
+        this.mongoTemplate.insert(new RecipientEntity(id, clientId, name,
+                RecipientSearchKey.normalize(name), "028444018", "FAKE-ID", "0245253419",
+                id + "-fingerprint"));
+    }
+}
@@ -0,0 +1,247 @@
+package com.ontop.balance.infrastructure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.ontop.balance.core.model.StartedSteps;
+import com.ontop.balance.core.model.TransactionData.TransactionStatus;
+import com.ontop.balance.core.model.exceptions.StageInProgressException;
+import com.ontop.balance.infrastructure.configs.MongoTestContainerConfig;
+import com.ontop.balance.infrastructure.entities.TransactionEntity;
+import com.ontop.balance.infrastructure.entities.TransactionEntity.TransactionItem;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(MongoTestContainerConfig.class)
+class TransactionAdapterIntegrationTest {
+
+    private static final String WALLET = "WalletAdapter";
+    private static final int RACERS = 8;
+
+    @Autowired
+    private TransactionAdapter transactionAdapter;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        this.mongoTemplate.remove(new Query(), TransactionEntity.class);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a transaction whose wallet stage has not been started,
+            WHEN the stage is started twice,
+            THEN only the first start claims it and appends an in progress step,
+            AND the second is told the stage is in progress""")
+    void testStartStepClaimsTheStageOnce() {
+        String transactionId = save();
+
+        assertThat(this.transactionAdapter.startStep(transactionId, WALLET)).isTrue();
+        assertThatThrownBy(() -> this.transactionAdapter.startStep(transactionId, WALLET))
+                .isInstanceOf(StageInProgressException.class);
+
+        TransactionEntity entity = this.mongoTemplate.findById(transactionId,
+                TransactionEntity.class);
+        assertThat(entity.getProcessedStages()).containsEntry(WALLET, "IN_PROGRESS");
+        assertThat(entity.getSteps()).extracting(TransactionItem::getStatus)
+                .containsExactly("IN_PROGRESS");
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a transaction whose wallet stage has completed,
+            WHEN the stage is started again,
+            THEN it is not started and the outcome is kept""")
+    void testStartStepSkipsACompletedStage() {
+        String transactionId = save();
+        assertThat(this.transactionAdapter.startStep(transactionId, WALLET)).isTrue();
+        this.transactionAdapter.completeStep(transactionId, WALLET, TransactionStatus.COMPLETED);
+
+        assertThat(this.transactionAdapter.startStep(transactionId, WALLET)).isFalse();
+        assertThat(this.mongoTemplate.findById(transactionId, TransactionEntity.class)
+                .getProcessedStages()).containsEntry(WALLET, "COMPLETED");
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a transaction whose wallet stage was claimed by an attempt that failed,
+            WHEN the claim is released and the stage is started again,
+            THEN the retry claims it and completes it""")
+    void testReleasedStageIsStartedAgain() {
+        String transactionId = save();
+        assertThat(this.transactionAdapter.startStep(transactionId, WALLET)).isTrue();
+
+        this.transactionAdapter.releaseStep(transactionId, WALLET);
+
+        assertThat(this.transactionAdapter.startStep(transactionId, WALLET)).isTrue();
+        this.transactionAdapter.completeStep(transactionId, WALLET, TransactionStatus.COMPLETED);
+        assertThat(this.mongoTemplate.findById(transactionId, TransactionEntity.class)
+                .getProcessedStages()).containsEntry(WALLET, "COMPLETED");
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a transaction whose wallet stage has completed,
+            WHEN its claim is released by a late failure,
+            THEN the outcome is kept""")
+    void testReleaseKeepsACompletedStage() {
+        String transactionId = save();
+        assertThat(this.transactionAdapter.startStep(transactionId, WALLET)).isTrue();
+        this.transactionAdapter.completeStep(transactionId, WALLET, TransactionStatus.COMPLETED);
+
+        this.transactionAdapter.releaseStep(transactionId, WALLET);
+
+        assertThat(this.mongoTemplate.findById(transactionId, TransactionEntity.class)
+                .getProcessedStages()).containsEntry(WALLET, "COMPLETED");
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a transaction whose wallet stage was claimed by a consumer that died,
+            WHEN the stage is started after the claim lease,
+            THEN the claim is taken over""")
+    void testStaleClaimIsTakenOver() {
+        String transactionId = save();
+        assertThat(this.transactionAdapter.startStep(transactionId, WALLET)).isTrue();
+        this.mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(transactionId)),
+                new Update().set("stageClaims." + WALLET + ".claimedAt",
+                        LocalDateTime.now().minusHours(1)), TransactionEntity.class);
+
+        assertThat(this.transactionAdapter.startStep(transactionId, WALLET)).isTrue();
+        assertThat(this.transactionAdapter.startSteps(List.of(transactionId), WALLET)
+                .inProgress()).containsExactly(transactionId);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN no transaction,
+            WHEN its stage is started,
+            THEN the start fails""")
+    void testStartStepOfUnknownTransactionFails() {
+        String transactionId = UUID.randomUUID().toString();
+
+        assertThatThrownBy(() -> this.transactionAdapter.startStep(transactionId, WALLET))
+                .isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN deliveries of the same transaction on several consumers at once,
+            WHEN each starts the wallet stage,
+            THEN exactly one of them starts it and the others find it in progress""")
+    void testConcurrentStartStepHasOneWinner() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            String transactionId = save();
+
+            List<Boolean> outcomes = race(() -> {
+                try {
+                    return this.transactionAdapter.startStep(transactionId, WALLET);
+                } catch (StageInProgressException e) {
+                    return false;
+                }
+            });
+
+            assertThat(outcomes).as("round %d", round).containsOnlyOnce(true);
+            assertThat(this.mongoTemplate.findById(transactionId, TransactionEntity.class)
+                    .getSteps()).hasSize(1);
+        }
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a batch of transactions of which one already started the wallet stage,
+            WHEN the stage is started for the batch,
+            THEN it is started for the others only and reported in progress for that one""")
+    void testStartStepsSkipsStartedTransactions() {
+        String first = save();
+        String second = save();
+        String third = save();
+        assertThat(this.transactionAdapter.startStep(second, WALLET)).isTrue();
+
+        StartedSteps claims = this.transactionAdapter.startSteps(List.of(first, second, third),
+                WALLET);
+
+        assertThat(claims.started()).containsExactlyInAnyOrder(first, third);
+        assertThat(claims.inProgress()).containsExactly(second);
+        assertThat(this.mongoTemplate.findAll(TransactionEntity.class))
+                .allSatisfy(entity -> assertThat(entity.getSteps()).hasSize(1));
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN the same batch delivered on several consumers at once,
+            WHEN each starts the wallet stage for it,
+            THEN each transaction is started by exactly one of them""")
+    void testConcurrentStartStepsHasOneWinnerPerTransaction() throws Exception {
+        List<String> transactionIds = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            transactionIds.add(save());
+        }
+
+        List<StartedSteps> outcomes = race(() -> this.transactionAdapter.startSteps(
+                transactionIds, WALLET));
+
+        List<String> started = outcomes.stream().map(StartedSteps::started)
+                .flatMap(Set::stream).toList();
+        assertThat(started).containsExactlyInAnyOrderElementsOf(transactionIds);
+        assertThat(this.mongoTemplate.findAll(TransactionEntity.class))
+                .allSatisfy(entity -> assertThat(entity.getSteps()).hasSize(1));
+    }
+
+    /**
+     * Saves a transaction under a fresh id, so no test sees the stages another one left in
+     * {@link ProcessedStages}.
+     */
+    private String save() {
+        String transactionId = UUID.randomUUID().toString();
+        this.mongoTemplate.save(new TransactionEntity(transactionId, 1L, "recipient-1",
+                "John Doe", BigDecimal.TEN));
+        return transactionId;
+    }
+
+    /**
+     * Runs {@code start} on {@link #RACERS} threads released together.
+     */
+    private static <T> List<T> race(Callable<T> start) throws Exception {
+        CyclicBarrier barrier = new CyclicBarrier(RACERS);
+        try (ExecutorService executor = Executors.newFixedThreadPool(RACERS)) {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < RACERS; i++) {
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    return start.call();
+                }));
+            }
+            List<T> outcomes = new ArrayList<>();
+            for (Future<T> future : futures) {
+                outcomes.add(future.get());
+            }
+            return outcomes;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.ontop.balance.infrastructure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ontop.balance.core.model.BalanceData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class WalletBalanceCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private WalletBalanceCache walletBalanceCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        walletBalanceCache = new WalletBalanceCache(meterRegistry, Duration.ofMinutes(1), 100);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a balance lookup in flight for a client,
+            WHEN another lookup for the same client arrives from another thread,
+            THEN both share the single call to the wallet service""")
+    void testConcurrentLookupsAreCoalesced() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<BalanceData> pending = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<BalanceData> first = CompletableFuture.supplyAsync(
+                () -> walletBalanceCache.getAsync(1L, clientId -> {
+                    calls.incrementAndGet();
+                    started.countDown();
+                    return pending;
+                })).thenCompose(balance -> balance);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<BalanceData> second = CompletableFuture.supplyAsync(
+                () -> walletBalanceCache.getAsync(1L, clientId -> {
+                    calls.incrementAndGet();
+                    return CompletableFuture.completedFuture(new BalanceData(BigDecimal.ONE));
+                })).thenCompose(balance -> balance);
+        pending.complete(new BalanceData(BigDecimal.TEN));
+
+        assertThat(first.get(5, TimeUnit.SECONDS).ammount()).isEqualTo(BigDecimal.TEN);
+        assertThat(second.get(5, TimeUnit.SECONDS).ammount()).isEqualTo(BigDecimal.TEN);
+        assertThat(calls).hasValue(1);
+        assertThat(count("miss") + count("coalesced") + count("hit")).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a cached balance,
+            WHEN the client is invalidated,
+            THEN the next lookup reaches the wallet service again""")
+    void testInvalidateDropsBalance() {
+        AtomicInteger calls = new AtomicInteger();
+
+        lookup(calls).join();
+        lookup(calls).join();
+        walletBalanceCache.invalidate(1L);
+        BalanceData balance = lookup(calls).join();
+
+        assertThat(balance.ammount()).isEqualTo(BigDecimal.valueOf(2));
+        assertThat(count("hit")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN an async balance lookup in flight for a client,
+            WHEN another async lookup for the same client arrives,
+            THEN it receives the pending future and no second call is made""")
+    void testAsyncLookupsShareFuture() {
+        CompletableFuture<BalanceData> pending = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<BalanceData> first = walletBalanceCache.getAsync(1L, clientId -> {
+            calls.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<BalanceData> second = walletBalanceCache.getAsync(1L, clientId -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture(new BalanceData(BigDecimal.ONE));
+        });
+        assertThat(second).isNotDone();
+        pending.complete(new BalanceData(BigDecimal.TEN));
+
+        assertThat(first.join().ammount()).isEqualTo(BigDecimal.TEN);
+        assertThat(second.join().ammount()).isEqualTo(BigDecimal.TEN);
+        assertThat(calls).hasValue(1);
+        assertThat(count("coalesced")).isEqualTo(1.0);
+    }
+
+    private CompletableFuture<BalanceData> lookup(AtomicInteger calls) {
+        return walletBalanceCache.getAsync(1L, clientId -> CompletableFuture.completedFuture(
+                new BalanceData(BigDecimal.valueOf(calls.incrementAndGet()))));
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("wallet.balance.cache.requests").tag("result", result).counter()
+                .count();
+    }
+}
@@ -0,0 +1,93 @@
+package com.ontop.balance.infrastructure.clients;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveTimeoutsTest {
+
+    private static final String ENDPOINT = AdaptiveTimeouts.endpoint("GET", "/wallets/balance");
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdaptiveTimeouts adaptiveTimeouts;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        adaptiveTimeouts = new AdaptiveTimeouts(meterRegistry, 0.99, 3, Duration.ofMillis(20),
+                Duration.ofSeconds(10), 50, Duration.ofMinutes(1), Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        adaptiveTimeouts.destroy();
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN an endpoint answering in about 50ms,
+            WHEN the timeouts are recomputed,
+            THEN its read timeout drops to roughly three times that latency""")
+    void testTimeoutFollowsObservedLatency() {
+        record(100, 50);
+
+        adaptiveTimeouts.recompute();
+
+        assertThat(adaptiveTimeouts.readTimeout(ENDPOINT))
+                .isBetween(Duration.ofMillis(120), Duration.ofMillis(200));
+        assertThat(meterRegistry.get("http.client.timeout.effective").tag("endpoint", ENDPOINT)
+                .timeGauge().value(TimeUnit.MILLISECONDS)).isBetween(120.0, 200.0);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN an endpoint whose timeout was derived from its calls,
+            WHEN it gets no more calls for a whole window,
+            THEN it goes back to the maximum read timeout""")
+    void testTimeoutCountsSamplesPerWindow() {
+        record(100, 50);
+        adaptiveTimeouts.recompute();
+
+        adaptiveTimeouts.recompute();
+
+        assertThat(adaptiveTimeouts.readTimeout(ENDPOINT)).isEqualTo(Duration.ofSeconds(10));
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN an endpoint with fewer calls than the minimum sample size,
+            WHEN the timeouts are recomputed,
+            THEN it keeps the maximum read timeout""")
+    void testTimeoutNeedsEnoughSamples() {
+        record(10, 50);
+
+        adaptiveTimeouts.recompute();
+
+        assertThat(adaptiveTimeouts.readTimeout(ENDPOINT)).isEqualTo(Duration.ofSeconds(10));
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN an endpoint answering almost instantly,
+            WHEN the timeouts are recomputed,
+            THEN its read timeout does not go below the minimum""")
+    void testTimeoutIsClampedToMinimum() {
+        record(100, 1);
+
+        adaptiveTimeouts.recompute();
+
+        assertThat(adaptiveTimeouts.readTimeout(ENDPOINT)).isEqualTo(Duration.ofMillis(20));
+    }
+
+    private void record(int calls, long latencyMillis) {
+        for (int i = 0; i < calls; i++) {
+            adaptiveTimeouts.recordLatency(ENDPOINT, TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+        }
+    }
+}
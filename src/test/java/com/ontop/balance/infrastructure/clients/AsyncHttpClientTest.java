@@ -0,0 +1,79 @@
+package com.ontop.balance.infrastructure.clients;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AsyncHttpClientTest {
+
+    private final AsyncHttpClient asyncHttpClient = new AsyncHttpClient();
+
+    @AfterEach
+    void tearDown() {
+        asyncHttpClient.destroy();
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a call made through the async client,
+            WHEN it runs,
+            THEN it runs on a virtual thread and its result is returned""")
+    void testCallRunsOnVirtualThread() {
+        CompletableFuture<Boolean> virtual = asyncHttpClient.call(
+                () -> Thread.currentThread().isVirtual());
+
+        assertThat(AsyncHttpClient.await(virtual)).isTrue();
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a call that fails,
+            WHEN a synchronous port waits for it,
+            THEN it fails with the exception the call threw""")
+    void testAwaitRethrowsTheCallFailure() {
+        CompletableFuture<String> failed = asyncHttpClient.call(() -> {
+            throw new IllegalStateException("wallet down");
+        });
+
+        assertThatThrownBy(() -> AsyncHttpClient.await(failed))
+                .isInstanceOf(IllegalStateException.class).hasMessage("wallet down");
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a waiting thread,
+            WHEN it is interrupted,
+            THEN the wait ends and the interrupt is kept on the thread""")
+    void testAwaitKeepsTheInterrupt() {
+        Thread.currentThread().interrupt();
+        try {
+            assertThatThrownBy(() -> AsyncHttpClient.await(new CompletableFuture<>()))
+                    .isInstanceOf(CancellationException.class);
+            assertThat(Thread.currentThread().isInterrupted()).isTrue();
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a call that failed on its read timeout, wrapped as Feign and the future wrap it,
+            WHEN its failure is examined,
+            THEN it is known to have timed out while other failures are not""")
+    void testTimedOutFindsTheTimeoutCause() {
+        Throwable timeout = new CompletionException(new IllegalStateException("Read timed out",
+                new SocketTimeoutException("Read timed out")));
+
+        assertThat(AsyncHttpClient.timedOut(timeout)).isTrue();
+        assertThat(AsyncHttpClient.timedOut(new CompletionException(
+                new IOException("Connection refused")))).isFalse();
+    }
+}
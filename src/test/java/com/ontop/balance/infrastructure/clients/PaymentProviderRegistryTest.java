@@ -0,0 +1,85 @@
+package com.ontop.balance.infrastructure.clients;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ontop.balance.infrastructure.clients.EndpointRouter.Route;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class PaymentProviderRegistryTest {
+
+    private static final String FAST = "http://fast.local";
+    private static final String SLOW = "http://slow.local";
+
+    private SimpleMeterRegistry meterRegistry;
+    private PaymentProviderRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        registry = new PaymentProviderRegistry(meterRegistry, List.of(FAST, SLOW),
+                Duration.ofMinutes(1), 3, Duration.ofMinutes(1), Duration.ofMinutes(5), 50);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN one provider answering much slower than the other,
+            WHEN payments are routed,
+            THEN nearly all of them go to the faster provider""")
+    void testSlowProviderIsAvoided() {
+        Map<String, Integer> routed = new HashMap<>();
+        for (int i = 0; i < 200; i++) {
+            Route route = registry.route();
+            routed.merge(route.baseUrl(), 1, Integer::sum);
+            long latency = FAST.equals(route.baseUrl()) ? TimeUnit.MILLISECONDS.toNanos(5)
+                    : TimeUnit.MILLISECONDS.toNanos(200);
+            route.complete(latency, true);
+        }
+
+        assertThat(routed.getOrDefault(FAST, 0)).isGreaterThan(190);
+        assertThat(meterRegistry.get("payment.provider.latency").tag("provider", "slow.local")
+                .tag("outcome", "success").timer().count()).isPositive();
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a provider failing several calls in a row,
+            WHEN payments are routed,
+            THEN it is ejected and every payment goes to the other provider""")
+    void testFailingProviderIsEjected() {
+        while (meterRegistry.get("payment.provider.ejections").tag("provider", "slow.local")
+                .counter().count() == 0) {
+            Route route = registry.route();
+            route.complete(TimeUnit.MILLISECONDS.toNanos(5), FAST.equals(route.baseUrl()));
+        }
+
+        for (int i = 0; i < 50; i++) {
+            Route route = registry.route();
+            assertThat(route.baseUrl()).isEqualTo(FAST);
+            route.complete(TimeUnit.MILLISECONDS.toNanos(5), true);
+        }
+        assertThat(meterRegistry.get("payment.provider.ejected").tag("provider", "slow.local")
+                .gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN every provider is failing,
+            WHEN payments are routed,
+            THEN at least one provider is kept in rotation""")
+    void testLastProviderIsNeverEjected() {
+        for (int i = 0; i < 100; i++) {
+            registry.route().complete(TimeUnit.MILLISECONDS.toNanos(5), false);
+        }
+
+        assertThat(meterRegistry.get("payment.provider.ejected").gauges().stream()
+                .mapToDouble(gauge -> gauge.value()).sum()).isEqualTo(1.0);
+    }
+}
@@ -0,0 +1,102 @@
+package com.ontop.balance.infrastructure.clients;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ontop.balance.infrastructure.clients.EndpointRouter.Route;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class WalletInstanceBalancerTest {
+
+    private static final String FIRST = "http://wallet-1.local";
+    private static final String SECOND = "http://wallet-2.local";
+    private static final long LATENCY = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("""
+            GIVEN one wallet instance with calls still outstanding,
+            WHEN new wallet calls are routed,
+            THEN they go to the idle instance""")
+    void testLeastOutstandingInstanceIsChosen() {
+        WalletInstanceBalancer balancer = balancer(Duration.ofSeconds(10), Duration.ZERO);
+        Route outstanding = balancer.route();
+        String idle = FIRST.equals(outstanding.baseUrl()) ? SECOND : FIRST;
+
+        for (int i = 0; i < 20; i++) {
+            Route route = balancer.route();
+            assertThat(route.baseUrl()).isEqualTo(idle);
+            route.complete(LATENCY, true);
+        }
+        assertThat(inFlight(outstanding.baseUrl().substring("http://".length()))).isEqualTo(1.0);
+        outstanding.complete(LATENCY, true);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a wallet instance failing several calls in a row,
+            WHEN wallet calls are routed,
+            THEN it is left out until it has been unhealthy for the configured time""")
+    void testFailingInstanceIsLeftOut() {
+        WalletInstanceBalancer balancer = balancer(Duration.ofMinutes(1), Duration.ZERO);
+        failUntilUnhealthy(balancer);
+
+        for (int i = 0; i < 20; i++) {
+            Route route = balancer.route();
+            assertThat(route.baseUrl()).isEqualTo(FIRST);
+            route.complete(LATENCY, true);
+        }
+        assertThat(weight("wallet-2.local")).isZero();
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a wallet instance that has just recovered,
+            WHEN wallet calls are routed,
+            THEN it takes a reduced share while its weight ramps up""")
+    void testRecoveredInstanceSlowStarts() throws InterruptedException {
+        WalletInstanceBalancer balancer = balancer(Duration.ofMillis(20), Duration.ofMinutes(1));
+        failUntilUnhealthy(balancer);
+        Thread.sleep(50);
+
+        List<Route> outstanding = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Route route = balancer.route();
+            assertThat(route.baseUrl()).isEqualTo(FIRST);
+            outstanding.add(route);
+        }
+        assertThat(weight("wallet-2.local")).isBetween(0.1, 0.2);
+        outstanding.forEach(route -> route.complete(LATENCY, true));
+    }
+
+    private WalletInstanceBalancer balancer(Duration unhealthyFor, Duration slowStart) {
+        return new WalletInstanceBalancer(meterRegistry, List.of(FIRST, SECOND), 3, unhealthyFor,
+                slowStart);
+    }
+
+    private void failUntilUnhealthy(WalletInstanceBalancer balancer) {
+        int failures = 0;
+        while (failures < 3) {
+            Route route = balancer.route();
+            boolean success = FIRST.equals(route.baseUrl());
+            failures += success ? 0 : 1;
+            route.complete(LATENCY, success);
+        }
+    }
+
+    private double inFlight(String instance) {
+        return meterRegistry.get("wallet.instance.in-flight").tag("instance", instance).gauge()
+                .value();
+    }
+
+    private double weight(String instance) {
+        return meterRegistry.get("wallet.instance.weight").tag("instance", instance).gauge()
+                .value();
+    }
+}
@@ -0,0 +1,72 @@
+package com.ontop.balance.infrastructure.configs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import com.ontop.balance.infrastructure.clients.AdaptiveTimeouts;
+import feign.Client;
+import feign.Request;
+import feign.Request.HttpMethod;
+import feign.Response;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveTimeoutFeignClientTest {
+
+    private static final Request.Options OPTIONS = new Request.Options(1, TimeUnit.SECONDS, 10,
+            TimeUnit.SECONDS, true);
+
+    private final List<Long> readTimeouts = new ArrayList<>();
+    private AdaptiveTimeouts adaptiveTimeouts;
+    private Client client;
+
+    @BeforeEach
+    void setUp() {
+        adaptiveTimeouts = mock(AdaptiveTimeouts.class);
+        doReturn(Duration.ofMillis(200)).when(adaptiveTimeouts).readTimeout(anyString());
+        client = new AdaptiveTimeoutFeignClient((request, options) -> {
+            readTimeouts.add(options.readTimeoutUnit().toMillis(options.readTimeout()));
+            return Response.builder().status(200).reason("stub").request(request)
+                    .headers(Map.of()).body(new byte[0]).build();
+        }, adaptiveTimeouts);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN an adapted timeout of 200ms for the balance endpoint,
+            WHEN a balance is read,
+            THEN the read is given the adapted timeout""")
+    void testIdempotentCallGetsTheAdaptedTimeout() throws IOException {
+        client.execute(request(HttpMethod.GET, "/wallets/balance"), OPTIONS);
+
+        assertThat(readTimeouts).containsExactly(200L);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN adapted timeouts of 200ms,
+            WHEN a wallet transaction is posted,
+            THEN it keeps the configured timeout and is not timed""")
+    void testTransactionKeepsTheConfiguredTimeout() throws IOException {
+        client.execute(request(HttpMethod.POST, "/wallets/transactions"), OPTIONS);
+
+        assertThat(readTimeouts).containsExactly(10_000L);
+        verifyNoInteractions(adaptiveTimeouts);
+    }
+
+    private static Request request(HttpMethod method, String path) {
+        return Request.create(method, "http://localhost" + path, Map.of(), null,
+                StandardCharsets.UTF_8, null);
+    }
+}
@@ -0,0 +1,117 @@
+package com.ontop.balance.infrastructure.configs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sun.net.httpserver.HttpServer;
+import feign.Client;
+import feign.Feign;
+import feign.Param;
+import feign.RequestLine;
+import feign.hc5.ApacheHttp5Client;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares Feign's default {@code HttpURLConnection} transport with the pooled transport against
+ * a local stub. Excluded from {@code test}; run it with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class FeignTransportBenchmarkTest {
+
+    private static final int THREADS = 32;
+    private static final int REQUESTS = 20_000;
+    private static final byte[] BALANCE = "{\"balance\":100,\"user_id\":1}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final Set<Integer> connections = ConcurrentHashMap.newKeySet();
+    private HttpServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 512);
+        server.createContext("/wallets/balance", exchange -> {
+            connections.add(exchange.getRemoteAddress().getPort());
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, BALANCE.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(BALANCE);
+            }
+        });
+        server.setExecutor(Executors.newFixedThreadPool(THREADS));
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a local wallet stub under concurrent load,
+            WHEN it is called through the default and the pooled transport,
+            THEN the pooled transport reuses a bounded set of connections""")
+    void testPooledTransportReusesConnections() throws Exception {
+        Result direct = run("default", new Client.Default(null, null));
+
+        FeignTransportConfig config = new FeignTransportConfig();
+        try (CloseableHttpClient httpClient = config.feignHttpClient(new SimpleMeterRegistry(),
+                THREADS, THREADS, Duration.ofMinutes(5), Duration.ofSeconds(30))) {
+            Result pooled = run("pooled", new ApacheHttp5Client(httpClient));
+
+            assertThat(pooled.connections()).isLessThanOrEqualTo(THREADS);
+            assertThat(pooled.connections()).isLessThanOrEqualTo(direct.connections());
+        }
+    }
+
+    private Result run(String name, Client client) throws Exception {
+        WalletStub stub = Feign.builder().client(client)
+                .target(WalletStub.class, "http://127.0.0.1:" + server.getAddress().getPort());
+        IntStream.range(0, 1_000).forEach(stub::balance);
+        connections.clear();
+        ExecutorService callers = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        try {
+            Future<?>[] futures = IntStream.range(0, THREADS).mapToObj(thread -> callers.submit(
+                    () -> IntStream.range(0, REQUESTS / THREADS).forEach(stub::balance)))
+                    .toArray(Future[]::new);
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - start;
+        Result result = new Result(connections.size(),
+                (double) elapsed / REQUESTS / 1_000, REQUESTS * 1e9 / elapsed);
+        System.out.printf("%-8s connections=%d avg=%.1fus throughput=%.0f req/s%n", name,
+                result.connections(), result.averageMicros(), result.throughput());
+        return result;
+    }
+
+    private record Result(int connections, double averageMicros, double throughput) {
+
+    }
+
+    interface WalletStub {
+
+        @RequestLine("GET /wallets/balance?user_id={userId}")
+        String balance(@Param("userId") int userId);
+    }
+}
@@ -0,0 +1,72 @@
+package com.ontop.balance.infrastructure.configs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ontop.balance.infrastructure.configs.KernelsSerializer.Format;
+import com.ontop.kernels.PaymentMessage;
+import java.math.BigDecimal;
+import java.util.UUID;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the JSON and binary forms of a payment message by record size and by encode and decode
+ * time. Excluded from {@code test}; run it with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class KernelsCodecBenchmarkTest {
+
+    private static final String TOPIC = "money-transfer-payment-benchmark";
+    private static final int WARMUP = 100_000;
+    private static final int ITERATIONS = 500_000;
+
+    private final PaymentMessage payment = new PaymentMessage(42L, "recipient-1", "John Doe",
+            "211927207", "123456789", "1234567890", new BigDecimal("1250.75"),
+            UUID.randomUUID().toString());
+
+    @Test
+    @DisplayName("""
+            GIVEN a payment message,
+            WHEN it is encoded and decoded as JSON and as binary,
+            THEN the binary record is smaller and takes less time""")
+    void testBinaryIsSmallerAndFaster() {
+        Result json = run(Format.JSON);
+        Result binary = run(Format.BINARY);
+
+        assertThat(binary.bytes()).isLessThan(json.bytes());
+        assertThat(binary.encodeNanos() + binary.decodeNanos())
+                .isLessThan(json.encodeNanos() + json.decodeNanos());
+    }
+
+    private Result run(Format format) {
+        KernelsSerializer<PaymentMessage> serializer = new KernelsSerializer<>(format);
+        KernelsDeserializer<PaymentMessage> deserializer = new KernelsDeserializer<>(
+                PaymentMessage.class);
+        byte[] record = serializer.serialize(TOPIC, new RecordHeaders(), this.payment);
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += serializer.serialize(TOPIC, new RecordHeaders(), this.payment).length;
+            sink += deserializer.deserialize(TOPIC, new RecordHeaders(), record).hashCode();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += serializer.serialize(TOPIC, new RecordHeaders(), this.payment).length;
+        }
+        double encodeNanos = (double) (System.nanoTime() - start) / ITERATIONS;
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += deserializer.deserialize(TOPIC, new RecordHeaders(), record).hashCode();
+        }
+        double decodeNanos = (double) (System.nanoTime() - start) / ITERATIONS;
+        Result result = new Result(record.length, encodeNanos, decodeNanos);
+        System.out.printf("%-6s bytes=%d encode=%.0fns decode=%.0fns (%d)%n", format,
+                result.bytes(), result.encodeNanos(), result.decodeNanos(), sink);
+        return result;
+    }
+
+    private record Result(int bytes, double encodeNanos, double decodeNanos) {
+
+    }
+}
@@ -0,0 +1,93 @@
+package com.ontop.balance.infrastructure.configs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.ontop.balance.infrastructure.configs.KernelsSerializer.Format;
+import com.ontop.kernels.ChargebackMessage;
+import com.ontop.kernels.PaymentMessage;
+import com.ontop.kernels.WalletMessage;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class KernelsDeserializerTest {
+
+    private static final String TOPIC = "money-transfer-payment";
+
+    private final PaymentMessage payment = new PaymentMessage(42L, "recipient-1", "John Doe",
+            "211927207", "123456789", "1234567890", new BigDecimal("-1250.75"), "tx-1");
+
+    @Test
+    @DisplayName("""
+            GIVEN a payment topic with records written as JSON and as binary,
+             WHEN they are read,
+             THEN both must decode to the same message and the binary one must be smaller""")
+    void testReadsBothFormats() {
+        byte[] json = new KernelsSerializer<PaymentMessage>(Format.JSON)
+                .serialize(TOPIC, new RecordHeaders(), this.payment);
+        byte[] binary = new KernelsSerializer<PaymentMessage>(Format.BINARY)
+                .serialize(TOPIC, new RecordHeaders(), this.payment);
+        KernelsDeserializer<PaymentMessage> deserializer = new KernelsDeserializer<>(
+                PaymentMessage.class);
+
+        assertThat(deserializer.deserialize(TOPIC, new RecordHeaders(), json))
+                .isEqualTo(this.payment);
+        assertThat(deserializer.deserialize(TOPIC, new RecordHeaders(), binary))
+                .isEqualTo(this.payment);
+        assertThat(binary.length).isLessThan(json.length / 2);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN messages with unset fields,
+             WHEN they are written and read as binary,
+             THEN the unset fields must stay null""")
+    void testBinaryKeepsNulls() {
+        WalletMessage wallet = new WalletMessage(null, null, "tx-1");
+        byte[] binary = new KernelsSerializer<WalletMessage>(Format.BINARY).serialize(TOPIC,
+                wallet);
+
+        assertThat(new KernelsDeserializer<>(WalletMessage.class).deserialize(TOPIC, binary))
+                .isEqualTo(wallet);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a binary record of another type or cut short,
+             WHEN it is read,
+             THEN a serialization error must be raised""")
+    void testRejectsUnexpectedRecords() {
+        byte[] chargeback = new KernelsSerializer<ChargebackMessage>(Format.BINARY)
+                .serialize(TOPIC, new ChargebackMessage("tx-1"));
+        byte[] payment = new KernelsSerializer<PaymentMessage>(Format.BINARY)
+                .serialize(TOPIC, this.payment);
+        KernelsDeserializer<PaymentMessage> deserializer = new KernelsDeserializer<>(
+                PaymentMessage.class);
+
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, chargeback))
+                .isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC,
+                Arrays.copyOf(payment, payment.length - 4)))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a payment whose fields take one to four bytes per character in UTF-8,
+             WHEN it is written and read as binary,
+             THEN it must decode to the same message from an array of exactly its size""")
+    void testBinaryEncodesMultiByteText() {
+        PaymentMessage accented = new PaymentMessage(-7L, "recipient-\u00f1", "Jos\u00e9 \u5f20",
+                "211927207", "123456789", "\ud83d\udcb8", new BigDecimal("1E+3"), "tx-1");
+        byte[] binary = new KernelsSerializer<PaymentMessage>(Format.BINARY).serialize(TOPIC,
+                accented);
+
+        assertThat(new KernelsDeserializer<>(PaymentMessage.class).deserialize(TOPIC, binary))
+                .isEqualTo(accented);
+        assertThat(binary).hasSize(2 + 2 + 13 + 10 + 10 + 10 + 5 + 3 + 5);
+    }
+}
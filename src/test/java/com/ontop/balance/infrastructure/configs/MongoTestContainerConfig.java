@@ -4,10 +4,12 @@ import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Primary;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
 import org.testcontainers.containers.MongoDBContainer;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoClient;
 import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
 
 @TestConfiguration
 public class MongoTestContainerConfig {
@@ -35,4 +37,22 @@ public class MongoTestContainerConfig {
             "test"
         ));
     }
+
+    @Bean(destroyMethod = "close")
+    @Primary
+    public com.mongodb.reactivestreams.client.MongoClient reactiveMongoClient(
+            MongoDBContainer mongoDBContainer) {
+        String connectionString = mongoDBContainer.getReplicaSetUrl();
+        return com.mongodb.reactivestreams.client.MongoClients.create(connectionString);
+    }
+
+    @Bean
+    @Primary
+    public ReactiveMongoTemplate reactiveMongoTemplate(
+            com.mongodb.reactivestreams.client.MongoClient reactiveMongoClient) {
+        return new ReactiveMongoTemplate(new SimpleReactiveMongoDatabaseFactory(
+            reactiveMongoClient,
+            "test"
+        ));
+    }
 }
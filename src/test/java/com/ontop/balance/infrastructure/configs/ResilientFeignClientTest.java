@@ -0,0 +1,213 @@
+package com.ontop.balance.infrastructure.configs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.ontop.balance.infrastructure.clients.EndpointRouter;
+import com.ontop.balance.infrastructure.clients.EndpointRouter.Route;
+import feign.Client;
+import feign.Request;
+import feign.Request.HttpMethod;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.Target.HardCodedTarget;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import java.io.IOException;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ResilientFeignClientTest {
+
+    private static final Request.Options OPTIONS = new Request.Options(1, TimeUnit.SECONDS, 1,
+            TimeUnit.SECONDS, true);
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private RetryRegistry retryRegistry;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .ignoreExceptions(CancelledCallException.class).build());
+        retryRegistry = RetryRegistry.of(RetryConfig.custom().maxAttempts(3)
+                .waitDuration(Duration.ofMillis(1)).retryExceptions(IOException.class)
+                .ignoreExceptions(CancelledCallException.class).build());
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN the wallet circuit breaker is open,
+            WHEN a wallet call is made,
+            THEN it fails at once without reaching the wallet service""")
+    void testOpenBreakerFailsFast() {
+        circuitBreakerRegistry.circuitBreaker("walletClientBackend").transitionToOpenState();
+        Client client = resilient(request -> respond(request, 200));
+
+        IOException exception = assertThrows(IOException.class,
+                () -> client.execute(request(HttpMethod.GET), OPTIONS));
+
+        assertThat(exception).hasCauseInstanceOf(CallNotPermittedException.class);
+        assertThat(calls).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN the wallet service answers with a server error,
+            WHEN a balance is read,
+            THEN the call is retried and the last error response is handed back to Feign""")
+    void testServerErrorIsRetriedForIdempotentCalls() throws IOException {
+        Client client = resilient(request -> respond(request, 503));
+
+        Response response = client.execute(request(HttpMethod.GET), OPTIONS);
+
+        assertThat(response.status()).isEqualTo(503);
+        assertThat(calls).hasValue(3);
+        assertThat(circuitBreakerRegistry.circuitBreaker("walletClientBackend").getMetrics()
+                .getNumberOfFailedCalls()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN the wallet service answers with a server error,
+            WHEN a wallet transaction is posted,
+            THEN it is not sent again""")
+    void testServerErrorIsNotRetriedForTransactions() throws IOException {
+        Client client = resilient(request -> respond(request, 503));
+
+        Response response = client.execute(request(HttpMethod.POST), OPTIONS);
+
+        assertThat(response.status()).isEqualTo(503);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN wallet calls routed across two instances and a breaker that is open,
+            WHEN a balance is read,
+            THEN no instance is picked or blamed for the rejected call""")
+    void testRejectedCallIsNotReportedToTheRoute() {
+        circuitBreakerRegistry.circuitBreaker("walletClientBackend").transitionToOpenState();
+        List<String> outcomes = new ArrayList<>();
+        Client client = routed(outcomes, request -> respond(request, 200));
+
+        assertThrows(IOException.class, () -> client.execute(request(HttpMethod.GET), OPTIONS));
+
+        assertThat(outcomes).isEmpty();
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN wallet calls routed across two instances, the first one unreachable,
+            WHEN a balance is read,
+            THEN the retry is routed to the other instance and each one is told how it went""")
+    void testRetryIsRoutedAgain() throws IOException {
+        List<String> outcomes = new ArrayList<>();
+        Client client = routed(outcomes, request -> {
+            if (request.url().startsWith("http://wallet-a")) {
+                throw new IOException("Connection refused");
+            }
+            return respond(request, 200);
+        });
+
+        Response response = client.execute(request(HttpMethod.GET), OPTIONS);
+
+        assertThat(response.status()).isEqualTo(200);
+        assertThat(outcomes).containsExactly("http://wallet-a failed", "http://wallet-b ok");
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN a balance read whose thread is interrupted, as the losing read of a hedge is,
+            WHEN the read fails,
+            THEN it is not retried, not recorded by the breaker and no instance is blamed""")
+    void testCancelledCallIsNotCountedAsAFailure() {
+        List<String> outcomes = new ArrayList<>();
+        Client client = routed(outcomes, request -> {
+            calls.incrementAndGet();
+            Thread.currentThread().interrupt();
+            throw new SocketException("Closed by interrupt");
+        });
+
+        try {
+            assertThrows(CancelledCallException.class,
+                    () -> client.execute(request(HttpMethod.GET), OPTIONS));
+        } finally {
+            Thread.interrupted();
+        }
+
+        assertThat(calls).hasValue(1);
+        assertThat(circuitBreakerRegistry.circuitBreaker("walletClientBackend").getMetrics()
+                .getNumberOfFailedCalls()).isZero();
+        assertThat(outcomes).containsExactly("http://wallet-a cancelled");
+    }
+
+    private Client routed(List<String> outcomes, StubClient stub) {
+        AtomicInteger picks = new AtomicInteger();
+        EndpointRouter router = () -> {
+            String baseUrl = picks.getAndIncrement() % 2 == 0 ? "http://wallet-a"
+                    : "http://wallet-b";
+            return new Route() {
+
+                @Override
+                public String baseUrl() {
+                    return baseUrl;
+                }
+
+                @Override
+                public void complete(long latencyNanos, boolean success) {
+                    outcomes.add(baseUrl + (success ? " ok" : " failed"));
+                }
+
+                @Override
+                public void cancel() {
+                    outcomes.add(baseUrl + " cancelled");
+                }
+            };
+        };
+        return resilient(new RoutingFeignClient((request, options) -> stub.respond(request),
+                Map.of("wallets", router)));
+    }
+
+    private Client resilient(StubClient stub) {
+        return resilient((request, options) -> {
+            calls.incrementAndGet();
+            return stub.respond(request);
+        });
+    }
+
+    private Client resilient(Client delegate) {
+        return new ResilientFeignClient(delegate, Map.of("wallets", "walletClientBackend"),
+                circuitBreakerRegistry, retryRegistry, BulkheadRegistry.ofDefaults());
+    }
+
+    private static Request request(HttpMethod method) {
+        RequestTemplate template = new RequestTemplate().feignTarget(
+                new HardCodedTarget<>(Object.class, "wallets", "http://localhost"));
+        return Request.create(method, "http://localhost/wallets/balance", Map.of(), null,
+                StandardCharsets.UTF_8, template);
+    }
+
+    private static Response respond(Request request, int status) {
+        return Response.builder().status(status).reason("stub").request(request)
+                .headers(Map.of()).body(new byte[0]).build();
+    }
+
+    private interface StubClient {
+
+        Response respond(Request request) throws IOException;
+    }
+}
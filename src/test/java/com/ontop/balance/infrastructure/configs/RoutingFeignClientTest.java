@@ -0,0 +1,100 @@
+package com.ontop.balance.infrastructure.configs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ontop.balance.infrastructure.clients.PaymentProviderRegistry;
+import com.sun.net.httpserver.HttpServer;
+import feign.Client;
+import feign.Request;
+import feign.Request.HttpMethod;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.Target.HardCodedTarget;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class RoutingFeignClientTest {
+
+    private static final Request.Options OPTIONS = new Request.Options(1, TimeUnit.SECONDS, 2,
+            TimeUnit.SECONDS, true);
+
+    private final AtomicInteger fastCalls = new AtomicInteger();
+    private final AtomicInteger slowCalls = new AtomicInteger();
+    private HttpServer fastProvider;
+    private HttpServer slowProvider;
+    private Client client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        fastProvider = stubProvider(fastCalls, 0);
+        slowProvider = stubProvider(slowCalls, 50);
+        PaymentProviderRegistry registry = new PaymentProviderRegistry(new SimpleMeterRegistry(),
+                List.of(url(fastProvider), url(slowProvider)), Duration.ofMinutes(1), 5,
+                Duration.ofSeconds(30), Duration.ofMinutes(5), 50);
+        client = new RoutingFeignClient(new Client.Default(null, null),
+                Map.of("payments", registry));
+    }
+
+    @AfterEach
+    void tearDown() {
+        fastProvider.stop(0);
+        slowProvider.stop(0);
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN two local payment providers, one with 50ms of injected latency,
+            WHEN payments are sent through the Feign client,
+            THEN they reach the configured providers and mostly the faster one""")
+    void testPaymentsAreRoutedToFasterProvider() throws IOException {
+        for (int i = 0; i < 100; i++) {
+            try (Response response = client.execute(payment(), OPTIONS)) {
+                assertThat(response.status()).isEqualTo(201);
+            }
+        }
+
+        assertThat(fastCalls.get() + slowCalls.get()).isEqualTo(100);
+        assertThat(fastCalls.get()).isGreaterThan(80);
+    }
+
+    private static HttpServer stubProvider(AtomicInteger calls, long latencyMillis)
+            throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/v1/payments", exchange -> {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(201, -1);
+            exchange.close();
+        });
+        server.start();
+        return server;
+    }
+
+    private static String url(HttpServer server) {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private static Request payment() {
+        RequestTemplate template = new RequestTemplate().feignTarget(
+                new HardCodedTarget<>(Object.class, "payments", "http://payments.invalid"));
+        return Request.create(HttpMethod.POST, "http://payments.invalid/api/v1/payments",
+                Map.of(), "{}".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8,
+                template);
+    }
+}
@@ -0,0 +1,130 @@
+package com.ontop.balance.infrastructure.configs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ontop.balance.infrastructure.configs.KernelsSerializer.Format;
+import com.ontop.kernels.ChargebackMessage;
+import com.ontop.kernels.ParentMessage;
+import com.ontop.kernels.PaymentMessage;
+import com.ontop.kernels.WalletMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Compares one producer per saga message type with a single producer shared by all of them, on
+ * an embedded broker, in broker connections, buffer memory and records per produce request. Every
+ * producer is made by {@link KafkaConfig#sagaProducer}, so both sides run with the application's
+ * producer settings. Excluded from {@code test}; run it with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class SharedProducerBenchmarkTest {
+
+    private static final String WALLET_TOPIC = "money-transfer-wallet-benchmark";
+    private static final String PAYMENT_TOPIC = "money-transfer-payment-benchmark";
+    private static final String CHARGEBACK_TOPIC = "money-transfer-chargeback-benchmark";
+    private static final int RECORDS_PER_TYPE = 3_000;
+    private static final long SEND_INTERVAL_MICROS = 100;
+
+    private static EmbeddedKafkaBroker broker;
+
+    @BeforeAll
+    static void startBroker() {
+        broker = new EmbeddedKafkaBroker(1, true, 3, WALLET_TOPIC, PAYMENT_TOPIC,
+                CHARGEBACK_TOPIC);
+        broker.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        broker.destroy();
+    }
+
+    @Test
+    @DisplayName("""
+            GIVEN wallet, payment and chargeback messages published interleaved,
+            WHEN they are sent by one producer per type and by a single shared producer,
+            THEN the shared producer uses fewer connections and less buffer memory and sends
+            more records per request""")
+    void testSharedProducerBatchesAcrossMessageTypes() throws Exception {
+        KafkaConfig kafkaConfig = kafkaConfig();
+        Result separate = run("separate", producer(kafkaConfig), producer(kafkaConfig),
+                producer(kafkaConfig));
+
+        KafkaTemplate<String, ParentMessage> shared = producer(kafkaConfig);
+        Result single = run("shared", shared, shared, shared);
+
+        assertThat(single.connections()).isLessThan(separate.connections());
+        assertThat(single.bufferBytes()).isLessThan(separate.bufferBytes());
+        assertThat(single.recordsPerRequest()).isGreaterThan(separate.recordsPerRequest());
+    }
+
+    private Result run(String name, KafkaTemplate<String, ParentMessage> wallet,
+            KafkaTemplate<String, ParentMessage> payment,
+            KafkaTemplate<String, ParentMessage> chargeback) throws InterruptedException {
+        List<KafkaTemplate<String, ParentMessage>> producers = List.of(wallet, payment,
+                chargeback).stream().distinct().toList();
+        try {
+            for (int i = 0; i < RECORDS_PER_TYPE; i++) {
+                String transactionId = UUID.randomUUID().toString();
+                wallet.send(WALLET_TOPIC, transactionId,
+                        new WalletMessage(1L, BigDecimal.TEN, transactionId));
+                payment.send(PAYMENT_TOPIC, transactionId,
+                        new PaymentMessage(1L, "recipient", "Jane Doe", "028444018",
+                                "FAKE-ID", "0245253419", BigDecimal.TEN, transactionId));
+                chargeback.send(CHARGEBACK_TOPIC, transactionId,
+                        new ChargebackMessage(transactionId));
+                TimeUnit.MICROSECONDS.sleep(SEND_INTERVAL_MICROS);
+            }
+            producers.forEach(KafkaTemplate::flush);
+            Result result = new Result(
+                    (int) sum(producers, "connection-count"),
+                    (long) sum(producers, "buffer-total-bytes"),
+                    sum(producers, "record-send-total") / sum(producers, "request-total"));
+            System.out.printf("%-8s %,3d connections %,12d buffer bytes %,8.1f records/request%n",
+                    name, result.connections(), result.bufferBytes(),
+                    result.recordsPerRequest());
+            return result;
+        } finally {
+            producers.forEach(producer -> producer.getProducerFactory().reset());
+        }
+    }
+
+    private static double sum(List<KafkaTemplate<String, ParentMessage>> producers,
+            String metric) {
+        return producers.stream().flatMap(producer -> producer.metrics().entrySet().stream())
+                .filter(entry -> entry.getKey().name().equals(metric)
+                        && entry.getKey().group().equals("producer-metrics"))
+                .mapToDouble(entry -> (Double) entry.getValue().metricValue()).sum();
+    }
+
+    private static KafkaConfig kafkaConfig() {
+        KafkaConfig kafkaConfig = new KafkaConfig();
+        ReflectionTestUtils.setField(kafkaConfig, "bootstrapAddress",
+                broker.getBrokersAsString());
+        ReflectionTestUtils.setField(kafkaConfig, "linger", Duration.ofMillis(5));
+        ReflectionTestUtils.setField(kafkaConfig, "batchSize", 65536);
+        ReflectionTestUtils.setField(kafkaConfig, "compression", "lz4");
+        return kafkaConfig;
+    }
+
+    private static KafkaTemplate<String, ParentMessage> producer(KafkaConfig kafkaConfig) {
+        return kafkaConfig.sagaProducer(new SimpleMeterRegistry(), Format.JSON, Format.JSON,
+                Format.JSON);
+    }
+
+    private record Result(int connections, long bufferBytes, double recordsPerRequest) {
+
+    }
+}